@@ -0,0 +1,90 @@
+package album;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import photo.Photo;
+import ui.Ui;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures listing a 100k-photo album into a file, once through the buffered output of the UI
+ * and once through an autoflushing stream that writes every line separately, as the console does.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AlbumListingBenchmark {
+    private static final int PHOTO_COUNT = 100_000;
+
+    private final Album album = new Album();
+    private Path outputFile;
+    private FileOutputStream output;
+
+    /**
+     * Fills the album with references to two sample photos and opens the output file.
+     *
+     * @throws Exception if the sample photos cannot be read or the output file cannot be created
+     */
+    @Setup
+    public void setUp() throws Exception {
+        Photo first = new Photo("./data/photos/samurai.jpg", "Samurai", "Museum visit",
+                LocalDateTime.of(2024, 1, 1, 10, 0));
+        Photo second = new Photo("./data/photos/sample1.jpg", "Castle", "Friends at the castle",
+                LocalDateTime.of(2024, 1, 2, 10, 0));
+        List<Photo> photos = new ArrayList<>(PHOTO_COUNT);
+        for (int i = 0; i < PHOTO_COUNT; i++) {
+            photos.add(i < PHOTO_COUNT / 2 ? first : second);
+        }
+        album.replacePhotos(photos);
+        outputFile = Files.createTempFile("listing", ".txt");
+        output = new FileOutputStream(outputFile.toFile());
+    }
+
+    /**
+     * Closes and deletes the output file.
+     *
+     * @throws IOException if the output file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        output.close();
+        Files.deleteIfExists(outputFile);
+    }
+
+    /**
+     * Streams the listing into the buffered writer of the UI, flushing once at the end.
+     */
+    @Benchmark
+    public void listThroughBufferedUi() {
+        Ui ui = new Ui(output);
+        album.viewPhotos(ui.getWriter());
+        ui.flush();
+    }
+
+    /**
+     * Writes the listing through an autoflushing stream, flushing after every line.
+     */
+    @Benchmark
+    public void listThroughAutoflushStream() {
+        PrintWriter out = new PrintWriter(new PrintStream(output, true), true);
+        album.viewPhotos(out);
+        out.flush();
+    }
+}
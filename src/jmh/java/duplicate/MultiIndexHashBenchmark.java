@@ -0,0 +1,60 @@
+package duplicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookup behind the similar command: indexing the perceptual hashes of 100,000 photos and
+ * searching around every one of them, as {@link NearDuplicateFinder} does once the hashes are known.
+ * One in five hashes is random and the others differ from the one before in a few bits, like bursts and copies.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MultiIndexHashBenchmark {
+    @Param({"6", "11"})
+    private int radius;
+
+    private long[] hashes;
+
+    /**
+     * Creates the hashes of 100,000 photos.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        hashes = new long[100_000];
+        for (int i = 0; i < hashes.length; i++) {
+            if (i % 5 == 0) {
+                hashes[i] = random.nextLong();
+            } else {
+                hashes[i] = hashes[i - 1] ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64));
+            }
+        }
+    }
+
+    /**
+     * Indexes all hashes and searches around each of them.
+     *
+     * @return the number of matches found, so that the searches are not optimised away
+     */
+    @Benchmark
+    public long searchAll() {
+        MultiIndexHash index = new MultiIndexHash(hashes);
+        long matches = 0;
+        for (long hash : hashes) {
+            matches += index.search(hash, radius).size();
+        }
+        return matches;
+    }
+}
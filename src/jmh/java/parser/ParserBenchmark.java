@@ -0,0 +1,57 @@
+package parser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of parsing a typical scripted session of commands.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParserBenchmark {
+    private static final String[] COMMANDS = {
+        "add_trip n#2025 Great Barrier Reef d#Summer break with family",
+        "add_photo f#./data/photos/sample1.jpg n#Osaka photo c#Friends at the castle",
+        "select 12",
+        "list",
+        "delete 3",
+        "help 1",
+        "add_photo f#./data/photos/hongkong_1.jpeg n#Airport c#Just landed in HK!",
+    };
+    private static final TagTokenizer ADD_PHOTO_TAGS = new TagTokenizer('f', 'n', 'c');
+
+    /**
+     * Parses every command of the session once.
+     *
+     * @param blackhole sink that keeps the parsed results alive
+     * @throws Exception if a command fails to parse
+     */
+    @Benchmark
+    public void parseSession(Blackhole blackhole) throws Exception {
+        for (String command : COMMANDS) {
+            Map<String, String> parsedCommand = Parser.processInput(command);
+            blackhole.consume(parsedCommand);
+        }
+    }
+
+    /**
+     * Tokenizes only the tagged arguments of an add_photo command.
+     *
+     * @param blackhole sink that keeps the tokenized result alive
+     * @throws Exception if the arguments fail to tokenize
+     */
+    @Benchmark
+    public void tokenizeAddPhotoTags(Blackhole blackhole) throws Exception {
+        blackhole.consume(ADD_PHOTO_TAGS.tokenize("f#./data/photos/sample1.jpg n#Osaka photo c#Friends at the castle"));
+    }
+}
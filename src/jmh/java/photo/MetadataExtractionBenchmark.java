@@ -0,0 +1,83 @@
+package photo;
+
+import com.drew.imaging.ImageMetadataReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Measures reading the metadata of every JPEG in {@code data/photos}, once through the format-detecting reader
+ * that parses every segment of the file, and once through the EXIF-only reader used by the extractor.
+ * Run with {@code ./gradlew jmh}, adding {@code -prof gc} to the JMH arguments to compare allocation per photo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MetadataExtractionBenchmark {
+    private List<File> photos;
+
+    /**
+     * Collects the sample photos that are JPEGs in content and not only in name.
+     *
+     * @throws IOException if the photo directory cannot be listed
+     */
+    @Setup
+    public void setUp() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get("./data/photos"))) {
+            photos = files.filter(MetadataExtractionBenchmark::isJpeg).map(Path::toFile).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Reads all segments of every photo.
+     *
+     * @param blackhole sink that keeps the metadata alive
+     * @throws Exception if a photo cannot be read
+     */
+    @Benchmark
+    public void readAllSegments(Blackhole blackhole) throws Exception {
+        for (File photo : photos) {
+            blackhole.consume(ImageMetadataReader.readMetadata(photo));
+        }
+    }
+
+    /**
+     * Reads only the EXIF segment of every photo.
+     *
+     * @param blackhole sink that keeps the metadata alive
+     * @throws Exception if a photo cannot be read
+     */
+    @Benchmark
+    public void readExifSegment(Blackhole blackhole) throws Exception {
+        for (File photo : photos) {
+            blackhole.consume(PhotoMetadataExtractor.readExifMetadata(photo));
+        }
+    }
+
+    private static boolean isJpeg(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (InputStream input = Files.newInputStream(file)) {
+            return input.read() == 0xFF && input.read() == 0xD8;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package server;
+
+import trip.TripManager;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test for the HTTP API: starts an in-process server over a generated diary and fires
+ * read requests at it from many concurrent clients, then reports throughput and latency percentiles.
+ * Run with {@code ./gradlew loadTest --args="<requests> <concurrency> <trips>"}.
+ */
+public class ApiLoadTest {
+    private static final String[] PATHS = {"/trips", "/trips/1/photos", "/search?q=trip&limit=10",
+        "/search?q=beach%20sun"};
+
+    /**
+     * Runs the load test.
+     *
+     * @param args optional number of requests, number of concurrent requests and number of trips
+     * @throws Exception if the server cannot be started or a request cannot be sent
+     */
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int tripCount = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        TripManager tripManager = new TripManager();
+        tripManager.setSilentMode(true);
+        for (int i = 0; i < tripCount; i++) {
+            tripManager.addTripSilently("Trip " + i, i % 2 == 0 ? "Sun and beach" : "Mountains and snow");
+        }
+        ApiServer server = new ApiServer(tripManager, null);
+        server.start(0);
+        String baseUri = "http://127.0.0.1:" + server.getPort();
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger failures = new AtomicInteger();
+        long[] latencies = new long[requests];
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[requests];
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int request = i;
+            long sentTime = System.nanoTime();
+            HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(baseUri + PATHS[i % PATHS.length])).build();
+            responses[i] = client.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[request] = System.nanoTime() - sentTime;
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(responses).exceptionally(error -> null).join();
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        server.stop();
+
+        Arrays.sort(latencies);
+        System.out.printf("%d requests, %d concurrent, %d trips: %.0f requests/sec, %d failed%n",
+                requests, concurrency, tripCount, requests / seconds, failures.get());
+        System.out.printf("latency ms: p50 %.2f, p99 %.2f, max %.2f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+    }
+
+    private static double percentile(long[] sortedLatencies, double fraction) {
+        int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(fraction * sortedLatencies.length) - 1);
+        return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -8,29 +8,54 @@ import exception.DuplicateFilepathException;
 import exception.DuplicateNameException;
 import exception.MetadataFilepathNotFound;
 import photo.Photo;
-import photo.PhotoFrame;
+import photo.PhotoDateTimeComparator;
 import photo.PhotoPrinter;
 import tracker.Tracker;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents an album that contains a collection of photos.
  * Each trip in the Travel Diary has one album to organize its photos.
  * Photos can be added, deleted, and viewed within the album.
+ * Changes are serialized on the album and publish a new immutable list of photos, so readers
+ * such as a background save or the API server can use {@link #getPhotos()} without locking
+ * and never see a list that is only partly updated. Photos are created from their files before the album
+ * is locked, so that reading a file does not hold up imports or relinking into the same album.
  */
 public class Album {
 
-    /** List of photos in this album */
-    public final List<Photo> photos = new ArrayList<>();
-    
-    /** Currently selected photo in the album, or null if none selected */
-    public Photo selectedPhoto = null;
+    /** Orders photos chronologically, as listings show them */
+    private static final Comparator<Photo> DATE_ORDER = new PhotoDateTimeComparator();
+
+    /** Immutable list of photos in this album, replaced as a whole on every change */
+    private volatile List<Photo> photos = Collections.emptyList();
+
+    /** Whether the photos are known to be in chronological order, so that listings need not sort them */
+    private volatile boolean isSortedByDate = true;
+
+    /** Incremented whenever photos are added, deleted or replaced, so that cached renderings can be reused */
+    private volatile long version = 0;
+
+    /** Last rendering of toString, keyed on the version it was rendered for */
+    private final RenderCache renderCache = new RenderCache();
     
     /** Flag to control console output during operations */
     private boolean silentMode = false;
 
+    /** Indexes that are notified whenever photos are added or deleted */
+    private final List<AlbumListener> listeners = new CopyOnWriteArrayList<>();
+
     /**
      * Enable or disable silent mode to prevent console output during operations.
      *
@@ -49,6 +74,26 @@ public class Album {
         return silentMode;
     }
 
+    /**
+     * Registers a listener to be notified when photos are added or deleted.
+     *
+     * @param listener the listener to register
+     */
+    public void addListener(AlbumListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Unregisters a previously registered listener.
+     *
+     * @param listener the listener to unregister
+     */
+    public void removeListener(AlbumListener listener) {
+        listeners.remove(listener);
+    }
+
     /**
      * Adds a new photo to the album with the specified details and datetime.
      *
@@ -63,19 +108,28 @@ public class Album {
     public void addPhoto(String filePath, String photoName, String caption, LocalDateTime datetime)
             throws TravelDiaryException, ImageProcessingException, MetadataFilepathNotFound, NoMetaDataException,
             DuplicateNameException, DuplicateFilepathException {
-        boolean anyContainsDuplicateName = photos.stream()
-                .anyMatch(s -> s.getPhotoName().equals(photoName));
-        if (anyContainsDuplicateName){
-            throw new DuplicateNameException("photo", photoName);
-        }
-        boolean anyContainsDuplicateFilepath = photos.stream()
-                .anyMatch(s -> s.getFilePath().equals(filePath));
-        if (anyContainsDuplicateFilepath){
-            throw new DuplicateFilepathException("photo", filePath);
-        }
-        photos.add(new Photo(filePath, photoName, caption, datetime));
+        addPhoto(filePath, photoName, caption, datetime, new PrintWriter(System.out, true));
+    }
+
+    /**
+     * Adds a new photo to the album with the specified details and datetime, and confirms it on the given writer.
+     *
+     * @param filePath the file path of the photo
+     * @param photoName the name of the photo
+     * @param caption the caption for the photo
+     * @param datetime the datetime when the photo was taken
+     * @param out the writer to confirm the addition on, unless silent mode is enabled
+     * @throws TravelDiaryException if required parameters are missing
+     * @throws ImageProcessingException if there is an error processing the image
+     * @throws NoMetaDataException if the photo has no metadata
+     */
+    public void addPhoto(String filePath, String photoName, String caption, LocalDateTime datetime,
+            PrintWriter out) throws TravelDiaryException, ImageProcessingException, MetadataFilepathNotFound,
+            NoMetaDataException, DuplicateNameException, DuplicateFilepathException {
+        checkNotDuplicate(photoName, filePath);
+        addCreatedPhoto(new Photo(filePath, photoName, caption, datetime));
         if (!silentMode) {
-            System.out.printf("\tPhoto [%s] has been added successfully.\n", photoName);
+            out.printf("\tPhoto [%s] has been added successfully.\n", photoName);
         }
     }
 
@@ -93,6 +147,104 @@ public class Album {
     public void addPhoto(String filePath, String photoName, String caption)
             throws TravelDiaryException, ImageProcessingException, NoMetaDataException,
             MetadataFilepathNotFound, DuplicateNameException, DuplicateFilepathException {
+        addPhoto(filePath, photoName, caption, new PrintWriter(System.out, true));
+    }
+
+    /**
+     * Adds a new photo to the album with the specified details, and confirms it on the given writer.
+     * The datetime will be extracted from the photo metadata or set to current time.
+     *
+     * @param filePath the file path of the photo
+     * @param photoName the name of the photo
+     * @param caption the caption for the photo
+     * @param out the writer to confirm the addition on, unless silent mode is enabled
+     * @throws TravelDiaryException if required parameters are missing
+     * @throws ImageProcessingException if there is an error processing the image
+     * @throws NoMetaDataException if the photo has no metadata
+     */
+    public void addPhoto(String filePath, String photoName, String caption, PrintWriter out)
+            throws TravelDiaryException, ImageProcessingException, NoMetaDataException,
+            MetadataFilepathNotFound, DuplicateNameException, DuplicateFilepathException {
+        checkNotDuplicate(photoName, filePath);
+        addCreatedPhoto(new Photo(filePath, photoName, caption));
+        if (!silentMode) {
+            out.printf("\tPhoto [%s] has been added successfully.\n", photoName);
+        }
+    }
+
+    /**
+     * Adds a photo restored from saved details without its file, e.g. because the file has been moved.
+     *
+     * @param photo the restored photo
+     * @throws DuplicateNameException if the album already has a photo with the same name
+     * @throws DuplicateFilepathException if the album already has a photo with the same file path
+     */
+    public void addRestoredPhoto(Photo photo) throws DuplicateNameException,
+            DuplicateFilepathException {
+        addCreatedPhoto(photo);
+    }
+
+    /**
+     * Adds a batch of photos that have already been created, e.g. photos imported from a watched folder.
+     * The photo list is copied once for the whole batch, and listeners are notified of each photo.
+     * Photos whose name or file path is already in the album, or earlier in the batch, are left out.
+     *
+     * @param newPhotos the photos to add
+     * @return the photos that were added
+     */
+    public synchronized List<Photo> addPhotos(List<Photo> newPhotos) {
+        List<Photo> updatedPhotos = new ArrayList<>(photos.size() + newPhotos.size());
+        updatedPhotos.addAll(photos);
+        Set<String> names = new HashSet<>();
+        Set<String> filePaths = new HashSet<>();
+        for (Photo photo : photos) {
+            names.add(photo.getPhotoName());
+            filePaths.add(photo.getFilePath());
+        }
+        List<Photo> added = new ArrayList<>();
+        for (Photo photo : newPhotos) {
+            if (names.add(photo.getPhotoName()) && filePaths.add(photo.getFilePath())) {
+                Photo lastPhoto = updatedPhotos.isEmpty() ? null : updatedPhotos.get(updatedPhotos.size() - 1);
+                isSortedByDate = isSortedByDate && (lastPhoto == null || DATE_ORDER.compare(lastPhoto, photo) <= 0);
+                updatedPhotos.add(photo);
+                added.add(photo);
+            }
+        }
+        if (added.isEmpty()) {
+            return added;
+        }
+        photos = Collections.unmodifiableList(updatedPhotos);
+        version++;
+        for (Photo photo : added) {
+            for (AlbumListener listener : listeners) {
+                listener.photoAdded(this, photo);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Changes the file path of a photo in the album after its file has been moved, and notifies all listeners.
+     *
+     * @param photo the photo to relink
+     * @param filePath the new file path
+     * @return false if another photo in the album already has that file path, so the photo was not relinked
+     */
+    public synchronized boolean relinkPhoto(Photo photo, String filePath) {
+        assert photos.contains(photo) : "Photo to relink should be in the album";
+        if (photos.stream().anyMatch(other -> other != photo && other.getFilePath().equals(filePath))) {
+            return false;
+        }
+        photo.setFilePath(filePath);
+        version++;
+        for (AlbumListener listener : listeners) {
+            listener.photoRelinked(this, photo);
+        }
+        return true;
+    }
+
+    private void checkNotDuplicate(String photoName, String filePath) throws DuplicateNameException,
+            DuplicateFilepathException {
         boolean anyContainsDuplicateName = photos.stream()
                 .anyMatch(s -> s.getPhotoName().equals(photoName));
         if (anyContainsDuplicateName){
@@ -103,42 +255,128 @@ public class Album {
         if (anyContainsDuplicateFilepath){
             throw new DuplicateFilepathException("photo", filePath);
         }
-        photos.add(new Photo(filePath, photoName, caption));
-        if (!silentMode) {
-            System.out.printf("\tPhoto [%s] has been added successfully.\n", photoName);
+    }
+
+    /**
+     * Adds a photo created without holding the album, as creating it reads its file and looks up its location.
+     * The album may have changed meanwhile, so it is checked for duplicates again before the photo is added.
+     *
+     * @param photo the created photo
+     * @throws DuplicateNameException if the album now has a photo with the same name
+     * @throws DuplicateFilepathException if the album now has a photo with the same file path
+     */
+    private synchronized void addCreatedPhoto(Photo photo) throws DuplicateNameException,
+            DuplicateFilepathException {
+        checkNotDuplicate(photo.getPhotoName(), photo.getFilePath());
+        addToAlbum(photo);
+    }
+
+    /**
+     * Appends a newly created photo to the album and notifies all listeners.
+     *
+     * @param photo the photo to append
+     */
+    private void addToAlbum(Photo photo) {
+        List<Photo> updatedPhotos = new ArrayList<>(photos.size() + 1);
+        updatedPhotos.addAll(photos);
+        updatedPhotos.add(photo);
+        boolean isAfterLastPhoto = photos.isEmpty() || DATE_ORDER.compare(photos.get(photos.size() - 1), photo) <= 0;
+        isSortedByDate = isSortedByDate && isAfterLastPhoto;
+        photos = Collections.unmodifiableList(updatedPhotos);
+        version++;
+        for (AlbumListener listener : listeners) {
+            listener.photoAdded(this, photo);
         }
     }
 
     /**
-     * Deletes a photo from the album at the specified index.
+     * Deletes a photo from the album at the specified index, and confirms it on the standard output.
      *
      * @param index the index of the photo to delete
      */
     public void deletePhoto(int index) {
+        deletePhoto(index, new PrintWriter(System.out, true));
+    }
+
+    /**
+     * Deletes a photo from the album at the specified index, and confirms it on the given writer.
+     *
+     * @param index the index of the photo to delete
+     * @param out the writer to confirm the deletion on
+     */
+    public synchronized void deletePhoto(int index, PrintWriter out) {
         if (index < 0 || index >= photos.size()) {
-            System.out.println("Invalid photo index.");
+            out.println("Invalid photo index.");
             return;
         }
-        Photo photo = photos.get(index);
-        photos.remove(index);
-        System.out.printf("\tPhoto [%s] has been deleted successfully.\n", photo.getPhotoName());
+        List<Photo> updatedPhotos = new ArrayList<>(photos);
+        Photo photo = updatedPhotos.remove(index);
+        photos = Collections.unmodifiableList(updatedPhotos);
+        version++;
+        for (AlbumListener listener : listeners) {
+            listener.photoRemoved(this, photo);
+        }
+        out.printf("\tPhoto [%s] has been deleted successfully.\n", photo.getPhotoName());
     }
 
     /**
-     * Displays all photos in the album.
+     * Displays all photos in the album on the standard output.
      * If the album is empty, shows a message indicating no photos are found.
      */
     public void viewPhotos() {
+        PrintWriter out = new PrintWriter(System.out);
+        viewPhotos(out);
+        out.flush();
+    }
+
+    /**
+     * Writes all photos in the album to the given writer, one row at a time.
+     * If the album is empty, shows a message indicating no photos are found.
+     * The writer is not flushed, so that the caller decides when the output is shown.
+     *
+     * @param out the writer to write the listing to
+     */
+    public void viewPhotos(PrintWriter out) {
+        viewPhotos(out, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Writes one page of the photos in chronological order to the given writer, one row at a time.
+     * Rows are numbered by their position in the whole album, so the numbers can be used by later commands.
+     * Only the rows of the page are rendered, so the cost depends on the page size rather than the album size
+     * once the album is sorted.
+     *
+     * @param out the writer to write the listing to
+     * @param from the position of the first photo to write
+     * @param count the maximum number of photos to write
+     */
+    public void viewPhotos(PrintWriter out, int from, int count) {
+        assert from >= 0 && count > 0 : "Page should start at a valid position and hold at least one photo";
         if (photos.isEmpty()) {
-            System.out.println("No photos are found.");
+            out.println("No photos are found.");
         } else {
-            System.out.println("\n\tHere are all your photos:");
-            System.out.println(this);
+            out.println("\n\tHere are all your photos:");
+            out.println();
+            writePhotos(out, from, count);
+            out.println();
         }
     }
 
+    /**
+     * Returns a cursor over the photos in chronological order, starting at the given position.
+     * The cursor walks an immutable snapshot, so it is not affected by later changes to the album.
+     *
+     * @param from the position of the first photo to return
+     * @return an iterator over the photos from that position on
+     */
+    public Iterator<Photo> iteratePhotosByDate(int from) {
+        List<Photo> sortedPhotos = sortPhotosByDate();
+        return sortedPhotos.listIterator(Math.min(from, sortedPhotos.size()));
+    }
+
     /**
      * Returns the list of photos in this album.
+     * The list is an immutable snapshot that is not affected by later changes to the album.
      *
      * @return the list of photos
      */
@@ -147,51 +385,143 @@ public class Album {
     }
 
     /**
-     * Sets the currently selected photo.
+     * Replaces all photos of the album at once, e.g. to roll back a failed command group.
+     * Listeners are not notified, so the caller is responsible for updating any indexes.
+     *
+     * @param photos the photos the album should hold, in order
+     */
+    public synchronized void replacePhotos(List<Photo> photos) {
+        this.photos = Collections.unmodifiableList(new ArrayList<>(photos));
+        isSortedByDate = false;
+        version++;
+    }
+
+    /**
+     * Returns the modification version of the album, which changes whenever photos are added,
+     * deleted or replaced. Views derived from the photos can be cached until the version changes.
      *
-     * @param selectedPhoto the photo to select
+     * @return the current version
      */
-    public void setSelectedPhoto(Photo selectedPhoto) {
-        this.selectedPhoto = selectedPhoto;
+    public long getVersion() {
+        return version;
     }
 
     /**
-     * Selects a photo from the album at the specified index and displays it.
+     * Selects a photo from the album at the specified index, prints its details on the standard output
+     * and displays it in the background.
      *
      * @param index the index of the photo to select
+     * @return the selected photo
      * @throws InvalidIndexException if the index is out of bounds
      */
-    public void selectPhoto(int index) throws InvalidIndexException {
-        if (index < 0 || index >= photos.size()) {
+    public Photo selectPhoto(int index) throws InvalidIndexException {
+        return selectPhoto(index, new PrintWriter(System.out, true));
+    }
+
+    /**
+     * Selects a photo from the album at the specified index, prints its details on the given writer
+     * and displays it in the background.
+     *
+     * @param index the index of the photo to select
+     * @param out the writer to print the details of the photo on
+     * @return the selected photo
+     * @throws InvalidIndexException if the index is out of bounds
+     */
+    public Photo selectPhoto(int index, PrintWriter out) throws InvalidIndexException {
+        List<Photo> currentPhotos = photos;
+        if (index < 0 || index >= currentPhotos.size()) {
             throw new InvalidIndexException();
         }
-        selectedPhoto = photos.get(index);
-        System.out.println("\t" + selectedPhoto);
+        Photo selectedPhoto = currentPhotos.get(index);
+        out.println("\t" + selectedPhoto);
+        List<Photo> photosByDate = sortByDate(currentPhotos);
         try {
-            PhotoFrame photoFrame = PhotoPrinter.createFrame(selectedPhoto);
-            PhotoPrinter.display(photoFrame);
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
+            // Returns right away, the photo is decoded and shown in the background
+            PhotoPrinter.browse(photosByDate, photosByDate.indexOf(selectedPhoto));
+        } catch (FileNotFoundException e) {
+            out.println(e.getMessage());
         }
+        return selectedPhoto;
+    }
+
+    /**
+     * Returns the photos of the album in chronological order, the order in which they are browsed
+     * in the photo viewer and the gallery. The album itself is not reordered.
+     *
+     * @return an immutable snapshot of the photos sorted by date
+     */
+    public List<Photo> getPhotosByDate() {
+        return sortByDate(photos);
+    }
+
+    private List<Photo> sortByDate(List<Photo> currentPhotos) {
+        if (isSortedByDate) {
+            return currentPhotos;
+        }
+        List<Photo> sortedPhotos = new ArrayList<>(currentPhotos);
+        Tracker.sortPhotosByDate(sortedPhotos);
+        return Collections.unmodifiableList(sortedPhotos);
     }
 
     /**
      * Returns a string representation of the album, including all photos
-     * and distances between consecutive photos.
+     * and distances between consecutive photos. The rendering is cached until the album changes.
      *
      * @return a formatted string with all photo details and distances
      */
     @Override
     public String toString() {
-        Tracker.sortPhotosByDate(photos);
-        String albumDetails = "\n";
-        for (int i = 0; i < photos.size(); i++) {
-            if (i > 0) {
-                albumDetails += String.format("\t\t\t\t|\t%s km%n",
-                        Tracker.getDist(photos.get(i-1), photos.get(i)));
+        return renderCache.get(version, this::render);
+    }
+
+    private String render() {
+        StringWriter albumDetails = new StringWriter();
+        PrintWriter out = new PrintWriter(albumDetails);
+        out.println();
+        writePhotos(out, 0, Integer.MAX_VALUE);
+        out.flush();
+        return albumDetails.toString();
+    }
+
+    /**
+     * Writes one row per photo, sorted by date, with the distance between consecutive photos in between.
+     *
+     * @param out the writer to write the rows to
+     * @param from the position of the first photo to write
+     * @param count the maximum number of photos to write
+     */
+    private void writePhotos(PrintWriter out, int from, int count) {
+        Iterator<Photo> cursor = iteratePhotosByDate(from);
+        Photo previousPhoto = null;
+        for (int i = 0; i < count && cursor.hasNext(); i++) {
+            Photo photo = cursor.next();
+            if (previousPhoto != null) {
+                out.print("\t\t\t\t|\t");
+                out.print(Tracker.getDist(previousPhoto, photo));
+                out.println(" km");
             }
-            albumDetails += String.format("\t%d) %s%n", i + 1, photos.get(i));
+            out.print('\t');
+            out.print(from + i + 1);
+            out.print(") ");
+            out.println(photo);
+            previousPhoto = photo;
+        }
+    }
+
+    /**
+     * Sorts the photos by date, so that the indexes shown in a listing are used by later commands.
+     * Photos that are already in order, e.g. because they were added chronologically or listed before,
+     * are not sorted again.
+     *
+     * @return the sorted photos
+     */
+    private synchronized List<Photo> sortPhotosByDate() {
+        if (!isSortedByDate) {
+            List<Photo> sortedPhotos = new ArrayList<>(photos);
+            Tracker.sortPhotosByDate(sortedPhotos);
+            photos = Collections.unmodifiableList(sortedPhotos);
+            isSortedByDate = true;
         }
-        return albumDetails;
+        return photos;
     }
 }
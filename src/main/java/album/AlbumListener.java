@@ -0,0 +1,36 @@
+package album;
+
+import photo.Photo;
+
+/**
+ * Receives notifications when photos are added to, removed from or relinked in an album.
+ * Indexes that are derived from album contents implement this interface so that
+ * they can be updated incrementally instead of being rebuilt from scratch.
+ */
+public interface AlbumListener {
+    /**
+     * Called after a photo has been added to the album.
+     *
+     * @param album the album the photo was added to
+     * @param photo the photo that was added
+     */
+    void photoAdded(Album album, Photo photo);
+
+    /**
+     * Called after a photo has been removed from the album.
+     *
+     * @param album the album the photo was removed from
+     * @param photo the photo that was removed
+     */
+    void photoRemoved(Album album, Photo photo);
+
+    /**
+     * Called after the file path of a photo in the album has changed because its file was moved.
+     * Listeners that do not depend on file paths need not handle this.
+     *
+     * @param album the album holding the photo
+     * @param photo the photo with its new file path
+     */
+    default void photoRelinked(Album album, Photo photo) {
+    }
+}
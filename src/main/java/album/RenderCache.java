@@ -0,0 +1,43 @@
+package album;
+
+import java.util.function.Supplier;
+
+/**
+ * Remembers the last rendering of a view, such as the text of a trip or album, together with the key
+ * it was rendered for. The key identifies the state that was rendered, e.g. the modification version
+ * of an album, so the view is rendered again only after that state changes.
+ * The cached rendering is published as one immutable entry, so the cache can be read by any thread.
+ */
+public class RenderCache {
+    private volatile Entry entry;
+
+    /**
+     * Returns the cached rendering if it was rendered for an equal key, or renders and caches it otherwise.
+     *
+     * @param key the state the rendering depends on
+     * @param renderer renders the view for the current state
+     * @return the rendering for the given key
+     */
+    public String get(Object key, Supplier<String> renderer) {
+        Entry current = entry;
+        if (current != null && current.key.equals(key)) {
+            return current.text;
+        }
+        String text = renderer.get();
+        entry = new Entry(key, text);
+        return text;
+    }
+
+    /**
+     * A rendering together with the key it was rendered for.
+     */
+    private static class Entry {
+        final Object key;
+        final String text;
+
+        Entry(Object key, String text) {
+            this.key = key;
+            this.text = text;
+        }
+    }
+}
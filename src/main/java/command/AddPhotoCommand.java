@@ -1,18 +1,25 @@
 package command;
 
 import com.drew.imaging.ImageProcessingException;
+import duplicate.DuplicateMatch;
 import exception.NoMetaDataException;
 import exception.TravelDiaryException;
 import exception.DuplicateNameException;
 import exception.DuplicateFilepathException;
 import exception.MetadataFilepathNotFound;
+import trip.Trip;
+import session.Session;
 import trip.TripManager;
 import ui.Ui;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.logging.Logger;
 
 /**
  * Represents a command to add a new photo to a trip in the Travel Diary application.
+ * A file with the same content as a photo already in any trip is skipped, so importing the same
+ * photos again, e.g. from another folder or memory card, changes nothing.
  * This command can only be executed when a trip is selected (FSM state 1).
  */
 public class AddPhotoCommand extends Command {
@@ -48,13 +55,13 @@ public class AddPhotoCommand extends Command {
      *
      * @param tripManager the trip manager that contains the selected trip
      * @param ui the user interface to display results
-     * @param fsmValue the current finite state machine value (should be 1)
+     * @param session the session the command runs in
      * @throws TravelDiaryException if the tripManager or selected trip is null
      * @throws ImageProcessingException if there is an error processing the image
      * @throws NoMetaDataException if required metadata cannot be extracted from the photo
      */
     @Override
-    public void execute(TripManager tripManager, Ui ui, int fsmValue) throws
+    public void execute(TripManager tripManager, Ui ui, Session session) throws
             TravelDiaryException, ImageProcessingException,
             NoMetaDataException, MetadataFilepathNotFound, DuplicateNameException, DuplicateFilepathException {
         logger.info("Executing AddPhotoCommand");
@@ -63,7 +70,7 @@ public class AddPhotoCommand extends Command {
             logger.severe("TripManager is null");
             throw new TravelDiaryException("TripManager cannot be null");
         }
-        if (tripManager.getSelectedTrip() == null) {
+        if (session.getSelectedTrip() == null) {
             logger.severe("Selected trip is null");
             throw new TravelDiaryException("selected trip cannot be null");
         }
@@ -72,7 +79,42 @@ public class AddPhotoCommand extends Command {
             logger.warning("UI instance is null");
         }
 
-        tripManager.getSelectedTrip().album.addPhoto(this.filepath, this.photoname, this.caption);
-        this.fsmValue =fsmValue;
+        Trip trip = session.getSelectedTrip();
+        DuplicateMatch duplicate = findDuplicate(tripManager);
+        // The same path in the same trip is still rejected by the album with a DuplicateFilepathException
+        boolean isSameFileInTrip = duplicate != null && duplicate.getTrip() == trip
+                && duplicate.getPhoto().getFilePath().equals(filepath);
+        if (duplicate != null && !isSameFileInTrip) {
+            logger.info("Skipping duplicate of photo: " + duplicate.getPhoto().getPhotoName());
+            if (ui != null) {
+                ui.showToUser(String.format("\tSkipped [%s]: it has the same content as photo [%s] in trip [%s].",
+                        photoname, duplicate.getPhoto().getPhotoName(), duplicate.getTrip().getName()));
+            }
+            return;
+        }
+        trip.album.addPhoto(this.filepath, this.photoname, this.caption, getWriter(ui));
+        tripManager.getRelinker().fingerprintInBackground();
+
+        // Flag trips whose period now overlaps the period of the selected trip
+        List<Trip> overlappingTrips = tripManager.getPeriodIndex().findOverlapping(trip);
+        if (!overlappingTrips.isEmpty() && ui != null) {
+            StringBuilder names = new StringBuilder();
+            for (Trip overlappingTrip : overlappingTrips) {
+                names.append(names.length() == 0 ? "" : ", ").append(overlappingTrip.getName());
+            }
+            ui.showToUser(String.format("\tNote: trip [%s] overlaps in time with: %s", trip.getName(), names));
+        }
+    }
+
+    /**
+     * Returns the photo already in the diary with the same content as the file, if any.
+     * A file that cannot be read is not treated as a duplicate, so that adding it reports the actual problem.
+     */
+    private DuplicateMatch findDuplicate(TripManager tripManager) {
+        try {
+            return tripManager.getDuplicateIndex().findDuplicate(filepath);
+        } catch (IOException e) {
+            return null;
+        }
     }
 }
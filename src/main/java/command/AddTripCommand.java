@@ -3,6 +3,7 @@ package command;
 import exception.DuplicateNameException;
 import exception.MissingCompulsoryParameter;
 import exception.TravelDiaryException;
+import session.Session;
 import trip.TripManager;
 import ui.Ui;
 import java.util.logging.Logger;
@@ -35,7 +36,6 @@ public class AddTripCommand extends Command {
         // Assertions to ensure non-null parameters
         assert this.name != null : "Trip name should not be null";
         assert this.description != null : "Trip description should not be null";
-        assert this.location != null : "Trip location should not be null";
     }
 
     /**
@@ -44,12 +44,12 @@ public class AddTripCommand extends Command {
      *
      * @param tripManager the trip manager to add the trip to
      * @param ui the user interface to display results
-     * @param fsmValue the current finite state machine value (application state)
+     * @param session the session the command runs in
      * @throws TravelDiaryException if the tripManager is null or another error occurs
      * @throws MissingCompulsoryParameter if required parameters are missing
      */
     @Override
-    public void execute(TripManager tripManager, Ui ui, int fsmValue) throws
+    public void execute(TripManager tripManager, Ui ui, Session session) throws
             TravelDiaryException, MissingCompulsoryParameter, DuplicateNameException {
         logger.info("Executing AddTripCommand");
 
@@ -60,8 +60,7 @@ public class AddTripCommand extends Command {
         if (ui == null) {
             logger.warning("UI instance is null");
         }
-        tripManager.addTrip(this.name, this.description);
-        this.fsmValue = fsmValue;
+        tripManager.addTrip(this.name, this.description, getWriter(ui));
 
         logger.info("Trip successfully added: " + this.name);
     }
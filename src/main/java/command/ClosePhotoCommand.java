@@ -1,6 +1,7 @@
 package command;
 
 import photo.PhotoPrinter;
+import session.Session;
 import trip.TripManager;
 import ui.Ui;
 
@@ -13,13 +14,12 @@ public class ClosePhotoCommand extends Command {
      * Executes the close photo command, closing all open photo windows.
      *
      * @param tripManager the trip manager (not used in this command)
-     * @param ui the user interface (not used in this command)
-     * @param fsmValue the current finite state machine value (not used in this command)
+     * @param ui the user interface to confirm on
+     * @param session the session the command runs in
      */
     @Override
-    public void execute(TripManager tripManager, Ui ui, int fsmValue)  {
-
-        PhotoPrinter.closeAllWindows();
-        this.fsmValue = fsmValue;
+    public void execute(TripManager tripManager, Ui ui, Session session)  {
+        PhotoPrinter.closeAllWindows(getWriter(ui));
+        session.setSelectedPhoto(null);
     }
 }
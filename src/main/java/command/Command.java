@@ -8,11 +8,14 @@ import exception.DuplicateNameException;
 import exception.DuplicateFilepathException;
 import exception.MetadataFilepathNotFound;
 import exception.InvalidIndexException;
+import exception.TripNotSelectedException;
 
+import session.Session;
 import trip.TripManager;
 import ui.Ui;
 
 import java.io.IOException;
+import java.io.PrintWriter;
 
 /**
  * Represents an abstract command in the Travel Diary application.
@@ -20,13 +23,6 @@ import java.io.IOException;
  * Commands are created by the CommandFactory based on user input parsed by the Parser.
  */
 public abstract class Command {
-    /** 
-     * The FSM (Finite State Machine) value representing the state of the application.
-     * 0 = Main menu (Trip Page)
-     * 1 = Inside a trip (Photo Page)
-     */
-    public int fsmValue;
-
     /**
      * Indicates whether this command will exit the application.
      * 
@@ -37,20 +33,47 @@ public abstract class Command {
     }
 
     /**
-     * Executes the command with the given TripManager, UI, and FSM state value.
+     * Returns the writer a command prints its messages to, so that they are shown in order with
+     * the rest of the output of the UI. A command run without a UI prints to the standard output.
+     *
+     * @param ui the user interface the command runs with, may be null
+     * @return the writer of the UI, or a writer to the standard output
+     */
+    protected static PrintWriter getWriter(Ui ui) {
+        return ui != null ? ui.getWriter() : new PrintWriter(System.out, true);
+    }
+
+    /**
+     * Rejects a command that only makes sense to the user at the prompt, such as one opening a window,
+     * when it runs in the session of another program.
+     *
+     * @param session the session the command runs in
+     * @param reason what the command does that another program cannot use, e.g. "The gallery opens a window"
+     * @throws TravelDiaryException if the session belongs to another program
+     */
+    protected static void requireLocalUser(Session session, String reason) throws TravelDiaryException {
+        if (session.isRemote()) {
+            throw new TravelDiaryException("\t" + reason + ", so it is only available at the prompt.");
+        }
+    }
+
+    /**
+     * Executes the command with the given TripManager and UI in the given session.
+     * Commands that change the page or the selection, such as select and menu, update the session.
      * 
      * @param tripManager the trip manager that manages all trips
      * @param ui the user interface to display results
-     * @param fsmValue the current finite state machine value (application state)
+     * @param session the session holding the current page and selection
      * @throws TravelDiaryException if there is a general error during execution
      * @throws MissingCompulsoryParameter if a required parameter is missing
      * @throws InvalidIndexException if an invalid index is provided
      * @throws IOException if there is an error reading or writing files
      * @throws ImageProcessingException if there is an error processing an image
      * @throws NoMetaDataException if required metadata is missing from an image
+     * @throws TripNotSelectedException if a command of a group needs a trip but none is selected
      */
-    public abstract void execute(TripManager tripManager, Ui ui, int fsmValue) throws
+    public abstract void execute(TripManager tripManager, Ui ui, Session session) throws
             TravelDiaryException, MissingCompulsoryParameter, InvalidIndexException, IOException,
             ImageProcessingException, NoMetaDataException, DuplicateNameException, MetadataFilepathNotFound,
-            DuplicateFilepathException;
+            DuplicateFilepathException, TripNotSelectedException;
 }
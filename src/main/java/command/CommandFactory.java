@@ -2,13 +2,18 @@ package command;
 
 import exception.TravelDiaryException;
 import exception.TripNotSelectedException;
+import session.Session;
 
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Factory class that creates Command objects based on parsed user input.
  * This class determines which command to create based on the command name
- * and the current finite state machine (FSM) value.
+ * and the finite state machine (FSM) value of the session that entered it.
  */
 public class CommandFactory {
 
@@ -16,13 +21,13 @@ public class CommandFactory {
      * Creates and returns a Command object based on the parsed command details and FSM state.
      * 
      * @param parsedCommand map containing the parsed command details
-     * @param fsmValue the current FSM state (0 for Trip Page, 1 for Photo Page)
+     * @param session the session entering the command, whose FSM state decides the available commands
      * @return the appropriate Command object
      * @throws TravelDiaryException if there is an error creating the command
      * @throws NumberFormatException if a numeric parameter cannot be parsed
      * @throws TripNotSelectedException if a trip-specific command is used without selecting a trip
      */
-    public static Command getCommand(Map<String, String> parsedCommand, int fsmValue) throws
+    public static Command getCommand(Map<String, String> parsedCommand, Session session) throws
             TravelDiaryException, NumberFormatException, TripNotSelectedException {
         String cmd = parsedCommand.get("command");
 
@@ -38,28 +43,78 @@ public class CommandFactory {
             return new SelectCommand(index); // Insert index in, update FSM value
         }
         if ("list".equals(cmd)) {
-            return new ListCommand();
+            String page = parsedCommand.getOrDefault("page", "1");
+            int size = Integer.parseInt(parsedCommand.getOrDefault("size", "0"));
+            return new ListCommand("next".equals(page) ? ListCommand.NEXT_PAGE : Integer.parseInt(page), size);
         }
         if ("delete".equals(cmd)) {
             int index = Integer.parseInt(parsedCommand.get("index")) - 1;
             return new DeleteCommand(index); // Insert index in
         }
 
+        if ("search".equals(cmd)) {
+            // Search runs across all trips, so it is available in all states
+            return new SearchCommand(parsedCommand.get("query"));
+        }
+
+        if ("when".equals(cmd)) {
+            LocalDateTime from = LocalDateTime.parse(parsedCommand.get("from"));
+            LocalDateTime to = LocalDateTime.parse(parsedCommand.get("to"));
+            return new WhenCommand(from, to);
+        }
+
+        if ("relink".equals(cmd)) {
+            // Relinking searches for the photos of all trips, so it is available in all states
+            List<Path> roots = new ArrayList<>();
+            for (String folder : parsedCommand.getOrDefault("folders", "").split(",")) {
+                if (!folder.isBlank()) {
+                    roots.add(Path.of(folder.trim()));
+                }
+            }
+            return new RelinkCommand(roots);
+        }
+
+        if ("similar".equals(cmd)) {
+            // Similar photos are found across all trips, so it is available in all states
+            return new SimilarCommand(Integer.parseInt(parsedCommand.get("distance")));
+        }
+
         if ("help".equals(cmd)) {
             // Help command is available in all states
             return new HelpCommand(parsedCommand.getOrDefault("fsm", null));
         }
 
         // Delegate state-specific commands.
-        if (fsmValue == 0) {
+        if (session.getFsmValue() == Session.TRIP_PAGE) {
             return handleMenuStateCommand(parsedCommand);
-        } else if (fsmValue == 1) {
+        } else if (session.getFsmValue() == Session.PHOTO_PAGE) {
             return handleTripStateCommand(parsedCommand);
         } else {
             throw new TravelDiaryException("Invalid state.");
         }
     }
 
+    /**
+     * Creates the Command for a line holding one or more parsed commands.
+     * A single command is created directly; several commands are wrapped in a CommandGroup
+     * that creates each of them only when it runs, in the FSM state left by the previous one.
+     *
+     * @param parsedCommands the parsed details of each command on the line
+     * @param session the session entering the commands
+     * @return the appropriate Command object
+     * @throws TravelDiaryException if there is an error creating the command
+     * @throws NumberFormatException if a numeric parameter cannot be parsed
+     * @throws TripNotSelectedException if a trip-specific command is used without selecting a trip
+     */
+    public static Command getCommand(List<Map<String, String>> parsedCommands, Session session) throws
+            TravelDiaryException, NumberFormatException, TripNotSelectedException {
+        assert !parsedCommands.isEmpty() : "A command line should hold at least one command";
+        if (parsedCommands.size() == 1) {
+            return getCommand(parsedCommands.get(0), session);
+        }
+        return new CommandGroup(parsedCommands);
+    }
+
     /**
      * Handles commands specific to the Trip Page (main menu) state.
      * 
@@ -102,6 +157,26 @@ public class CommandFactory {
             // Assuming MenuCommand resets FSM state and performs any required housekeeping.
             return new MenuCommand();
         }
+        if ("gallery".equals(cmd)) {
+            return new GalleryCommand();
+        }
+        if ("export".equals(cmd)) {
+            return new ExportCommand(parsedCommand.get("directory"), parsedCommand.get("format"));
+        }
+        if ("zoom".equals(cmd)) {
+            int index = Integer.parseInt(parsedCommand.get("index")) - 1;
+            return new ZoomCommand(index);
+        }
+        if ("sheet".equals(cmd)) {
+            return new ContactSheetCommand(parsedCommand.get("filepath"),
+                    Integer.parseInt(parsedCommand.get("columns")));
+        }
+        if ("watch".equals(cmd)) {
+            return new WatchCommand(parsedCommand.get("folder"));
+        }
+        if ("unwatch".equals(cmd)) {
+            return new UnwatchCommand();
+        }
         throw new TravelDiaryException("Please go back to main menu first before adding a trip. Use 'menu' command");
     }
 }
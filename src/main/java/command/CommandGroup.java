@@ -0,0 +1,122 @@
+package command;
+
+import com.drew.imaging.ImageProcessingException;
+import exception.DuplicateFilepathException;
+import exception.DuplicateNameException;
+import exception.InvalidIndexException;
+import exception.MetadataFilepathNotFound;
+import exception.MissingCompulsoryParameter;
+import exception.NoMetaDataException;
+import exception.TravelDiaryException;
+import exception.TripNotSelectedException;
+import session.Session;
+import trip.TripManager;
+import trip.TripSnapshot;
+import ui.Ui;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Represents a group of commands entered on one line, separated by {@code ;}, that runs as a unit.
+ * All commands are parsed before the group runs. If any command fails, every change made by the
+ * earlier commands of the group is rolled back and the error of the failing command is reported.
+ * The application saves once after the whole group instead of after every command.
+ * The group holds the group lock of the TripManager while it runs, so that background tasks such as the
+ * folder watcher neither change nor save the trips until the group has completed or been rolled back.
+ */
+public class CommandGroup extends Command {
+    private static final Logger logger = Logger.getLogger(CommandGroup.class.getName());
+
+    /** The parsed details of each command, in the order they run */
+    private final List<Map<String, String>> parsedCommands;
+    private boolean isExit = false;
+
+    /**
+     * Constructs a CommandGroup from the parsed details of its commands.
+     *
+     * @param parsedCommands the parsed details of each command, in order
+     */
+    public CommandGroup(List<Map<String, String>> parsedCommands) {
+        assert parsedCommands != null && !parsedCommands.isEmpty() : "Command group should not be empty";
+        this.parsedCommands = new ArrayList<>(parsedCommands);
+    }
+
+    /**
+     * Executes every command of the group in order, each in the FSM state left by the previous one.
+     * Commands after a {@code bye} are not run. If a command fails, the trips and the session are
+     * restored to their state before the group and the exception of the failing command is rethrown.
+     *
+     * @param tripManager the trip manager the commands run against
+     * @param ui the user interface to display results
+     * @param session the session the commands run in
+     */
+    @Override
+    public void execute(TripManager tripManager, Ui ui, Session session) throws
+            TravelDiaryException, MissingCompulsoryParameter, InvalidIndexException, IOException,
+            ImageProcessingException, NoMetaDataException, DuplicateNameException, MetadataFilepathNotFound,
+            DuplicateFilepathException, TripNotSelectedException {
+        if (tripManager == null) {
+            throw new TravelDiaryException("TripManager cannot be null");
+        }
+        logger.info("Executing group of " + parsedCommands.size() + " commands");
+        tripManager.getGroupLock().lock();
+        try {
+            executeAll(tripManager, ui, session);
+        } finally {
+            tripManager.getGroupLock().unlock();
+        }
+    }
+
+    private void executeAll(TripManager tripManager, Ui ui, Session session) throws
+            TravelDiaryException, MissingCompulsoryParameter, InvalidIndexException, IOException,
+            ImageProcessingException, NoMetaDataException, DuplicateNameException, MetadataFilepathNotFound,
+            DuplicateFilepathException, TripNotSelectedException {
+        TripSnapshot snapshot = tripManager.takeSnapshot();
+        Session savedSession = session.copy();
+        int position = 0;
+        try {
+            for (Map<String, String> parsedCommand : parsedCommands) {
+                position++;
+                Command command = CommandFactory.getCommand(parsedCommand, session);
+                command.execute(tripManager, ui, session);
+                if (command.isExit()) {
+                    isExit = true;
+                    break;
+                }
+            }
+        } catch (TravelDiaryException | MissingCompulsoryParameter | InvalidIndexException | IOException |
+                 ImageProcessingException | NoMetaDataException | DuplicateNameException |
+                 MetadataFilepathNotFound | DuplicateFilepathException | TripNotSelectedException |
+                 RuntimeException e) {
+            tripManager.restoreSnapshot(snapshot);
+            session.restore(savedSession);
+            logger.warning("Rolled back command group after failure of command " + position);
+            ui.showToUser(String.format("\tCommand %d of %d (%s) failed, all changes of this group were rolled back.",
+                    position, parsedCommands.size(), parsedCommands.get(position - 1).get("command")));
+            throw e;
+        }
+    }
+
+    /**
+     * Indicates whether the group ended with a {@code bye} command.
+     *
+     * @return true if the application should exit after the group
+     */
+    @Override
+    public boolean isExit() {
+        return isExit;
+    }
+
+    /**
+     * Returns the number of commands in the group.
+     *
+     * @return the number of commands
+     */
+    public int size() {
+        return parsedCommands.size();
+    }
+}
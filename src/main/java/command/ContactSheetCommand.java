@@ -0,0 +1,70 @@
+package command;
+
+import exception.TravelDiaryException;
+import photo.ContactSheet;
+import photo.Photo;
+import session.Session;
+import trip.Trip;
+import trip.TripManager;
+import ui.Ui;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Represents a command to save all photos in the selected trip as one contact sheet image,
+ * a grid of captioned tiles in chronological order. The sheet is rendered without opening any window,
+ * so the command also works without a display.
+ * This command is only available in the Photo Page state (fsmValue = 1).
+ */
+public class ContactSheetCommand extends Command {
+    private final String filePath;
+    private final int columns;
+
+    /**
+     * Constructs a ContactSheetCommand.
+     *
+     * @param filePath the PNG file to save the contact sheet to
+     * @param columns the number of photos per row
+     */
+    public ContactSheetCommand(String filePath, int columns) {
+        assert filePath != null && !filePath.isEmpty() : "Contact sheet file path should not be empty";
+        assert columns > 0 && columns <= ContactSheet.MAX_COLUMNS : "Columns should be within the allowed range";
+        this.filePath = filePath;
+        this.columns = columns;
+    }
+
+    /**
+     * Executes the contact sheet command, drawing the photos of the selected trip in chronological order.
+     *
+     * @param tripManager the trip manager (not directly used in this command)
+     * @param ui the user interface used to report where the sheet was saved
+     * @param session the session the command runs in, whose selected trip is drawn
+     * @throws TravelDiaryException if the trip has no photos or the sheet cannot be written
+     */
+    @Override
+    public void execute(TripManager tripManager, Ui ui, Session session) throws TravelDiaryException {
+        Trip trip = session.getSelectedTrip();
+        List<Photo> photos = trip.album.getPhotosByDate();
+        if (photos.isEmpty()) {
+            throw new TravelDiaryException("\tThere are no photos in this trip to draw a contact sheet of.");
+        }
+
+        Path output = Paths.get(filePath);
+        int decoded;
+        try {
+            decoded = ContactSheet.write(photos, output, columns);
+        } catch (IOException e) {
+            throw new TravelDiaryException("\tFailed to save the contact sheet to " + filePath + ": "
+                    + e.getMessage());
+        }
+        ui.showToUser(String.format("\tSaved a contact sheet of %d photo(s) of %s to %s.", photos.size(),
+                trip.getName(), output));
+        if (decoded < photos.size()) {
+            ui.showToUser(String.format("\t%d photo(s) could not be read and are shown as empty tiles.",
+                    photos.size() - decoded));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package command;
 
 import exception.IndexOutOfRangeException;
+import session.Session;
 import trip.TripManager;
 import ui.Ui;
 
@@ -29,17 +30,16 @@ public class DeleteCommand extends Command {
      *
      * @param tripManager the trip manager containing the trips and photos
      * @param ui the user interface (not directly used in this command)
-     * @param fsmValue the current finite state machine value (0 for Trip Page, 1 for Photo Page)
+     * @param session the session the command runs in
      * @throws IndexOutOfRangeException if the specified index is out of range
      */
     @Override
-    public void execute(TripManager tripManager, Ui ui, int fsmValue) throws IndexOutOfRangeException {
-        if (fsmValue == 0) {
-            tripManager.deleteTrip(index);
-        } else if (fsmValue == 1) {
-            tripManager.getSelectedTrip().album.deletePhoto(index);
+    public void execute(TripManager tripManager, Ui ui, Session session) throws IndexOutOfRangeException {
+        if (session.getFsmValue() == Session.TRIP_PAGE) {
+            tripManager.deleteTrip(index, getWriter(ui));
+        } else if (session.getFsmValue() == Session.PHOTO_PAGE) {
+            session.getSelectedTrip().album.deletePhoto(index, getWriter(ui));
         }
-        this.fsmValue = fsmValue;
     }
 }
 
@@ -1,6 +1,7 @@
 package command;
 
 import exception.TravelDiaryException;
+import session.Session;
 import trip.TripManager;
 import ui.Ui;
 
@@ -15,11 +16,12 @@ public class ExitCommand extends Command {
      *
      * @param tripManager the trip manager (not used in this command)
      * @param ui the user interface to display the farewell message
-     * @param fsmValue the current finite state machine value (not used in this command)
-     * @throws TravelDiaryException if there is an error during execution
+     * @param session the session the command runs in
+     * @throws TravelDiaryException if the session belongs to another program, which cannot stop the diary
      */
     @Override
-    public void execute(TripManager tripManager, Ui ui, int fsmValue) throws TravelDiaryException {
+    public void execute(TripManager tripManager, Ui ui, Session session) throws TravelDiaryException {
+        requireLocalUser(session, "Exiting stops the diary");
         ui.showToUser("Alvida! Till we meet next time :)");
     }
 
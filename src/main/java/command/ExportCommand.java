@@ -0,0 +1,65 @@
+package command;
+
+import exception.TravelDiaryException;
+import photo.Photo;
+import photo.PhotoCardRenderer;
+import session.Session;
+import trip.Trip;
+import trip.TripManager;
+import ui.Ui;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Represents a command to save a card of every photo in the selected trip as an image file.
+ * Cards have the layout of the photo viewer and are rendered without opening any window,
+ * so the command also works without a display.
+ * This command is only available in the Photo Page state (fsmValue = 1).
+ */
+public class ExportCommand extends Command {
+    private final String directory;
+    private final String format;
+
+    /**
+     * Constructs an ExportCommand.
+     *
+     * @param directory the directory to save the cards in
+     * @param format the image format of the cards, png or jpg
+     */
+    public ExportCommand(String directory, String format) {
+        assert directory != null && !directory.isEmpty() : "Export directory should not be empty";
+        this.directory = directory;
+        this.format = format;
+    }
+
+    /**
+     * Executes the export command, rendering the photos of the selected trip in chronological order
+     * across all processor cores.
+     *
+     * @param tripManager the trip manager (not directly used in this command)
+     * @param ui the user interface used to report how many cards were saved
+     * @param session the session the command runs in, whose selected trip is exported
+     * @throws TravelDiaryException if the trip has no photos or the directory cannot be created
+     */
+    @Override
+    public void execute(TripManager tripManager, Ui ui, Session session) throws TravelDiaryException {
+        Trip trip = session.getSelectedTrip();
+        List<Photo> photos = trip.album.getPhotosByDate();
+        if (photos.isEmpty()) {
+            throw new TravelDiaryException("\tThere are no photos in this trip to export.");
+        }
+
+        Path outputDirectory = Paths.get(directory);
+        List<Path> written;
+        try {
+            written = PhotoCardRenderer.renderAll(photos, outputDirectory, format);
+        } catch (IOException e) {
+            throw new TravelDiaryException("\tFailed to create the directory " + directory + ": " + e.getMessage());
+        }
+        ui.showToUser(String.format("\tExported %d of %d photo(s) of %s to %s.", written.size(), photos.size(),
+                trip.getName(), outputDirectory));
+    }
+}
@@ -0,0 +1,40 @@
+package command;
+
+import exception.TravelDiaryException;
+import photo.PhotoGallery;
+import session.Session;
+import trip.Trip;
+import trip.TripManager;
+import ui.Ui;
+
+import java.awt.GraphicsEnvironment;
+
+/**
+ * Represents a command to open a gallery window with the thumbnails of all photos in the selected trip.
+ * The window opens in the background, so the command returns to the prompt right away.
+ * This command is only available in the Photo Page state (fsmValue = 1).
+ */
+public class GalleryCommand extends Command {
+    /**
+     * Executes the gallery command, opening a gallery of the photos of the selected trip in chronological order.
+     *
+     * @param tripManager the trip manager (not directly used in this command)
+     * @param ui the user interface used to confirm that the gallery is opening
+     * @param session the session the command runs in, whose selected trip is shown
+     * @throws TravelDiaryException if the trip has no photos, there is no display to show the gallery on,
+     *     or the session belongs to another program
+     */
+    @Override
+    public void execute(TripManager tripManager, Ui ui, Session session) throws TravelDiaryException {
+        requireLocalUser(session, "The gallery opens a window");
+        Trip trip = session.getSelectedTrip();
+        if (trip.album.getPhotos().isEmpty()) {
+            throw new TravelDiaryException("\tThere are no photos in this trip to show.");
+        }
+        if (GraphicsEnvironment.isHeadless()) {
+            throw new TravelDiaryException("\tThe gallery needs a display to open on.");
+        }
+        PhotoGallery.open(trip.getName(), trip.album.getPhotosByDate());
+        ui.showToUser("\tOpening the gallery of " + trip.getName() + ".");
+    }
+}
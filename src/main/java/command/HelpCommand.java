@@ -3,9 +3,12 @@ package command;
 import exception.InvalidIndexException;
 import exception.MissingCompulsoryParameter;
 import exception.TravelDiaryException;
+import session.Session;
 import trip.TripManager;
 import ui.Ui;
 
+import java.io.PrintWriter;
+
 /**
  * Represents a command to display help information.
  */
@@ -30,14 +33,13 @@ public class HelpCommand extends Command {
     }
 
     @Override
-    public void execute(TripManager tripManager, Ui ui, int fsmValue) throws
+    public void execute(TripManager tripManager, Ui ui, Session session) throws
             TravelDiaryException, MissingCompulsoryParameter, InvalidIndexException {
 
         // If a valid FSM value was provided in the command, use it, otherwise use the current FSM value
-        int fsmToUse = (helpFsmValue == 0 || helpFsmValue == 1) ? helpFsmValue : fsmValue;
+        int fsmToUse = (helpFsmValue == 0 || helpFsmValue == 1) ? helpFsmValue : session.getFsmValue();
 
-        showHelp(fsmToUse);
-        this.fsmValue = fsmValue; // Preserve the current FSM value
+        showHelp(fsmToUse, getWriter(ui));
     }
 
     /**
@@ -46,62 +48,87 @@ public class HelpCommand extends Command {
      * FSM = 1: General commands and Photo commands
      *
      * @param fsm The current state of the finite state machine
+     * @param out The writer to show the help on
      */
-    private void showHelp(int fsm) {
+    private void showHelp(int fsm, PrintWriter out) {
         if (fsm == 0) {
-            System.out.println("=============== TRAVEL DIARY HELP: TRIP MODE ===============");
+            out.println("=============== TRAVEL DIARY HELP: TRIP MODE ===============");
         } else if (fsm == 1) {
-            System.out.println("=============== TRAVEL DIARY HELP: PHOTO MODE ===============");
+            out.println("=============== TRAVEL DIARY HELP: PHOTO MODE ===============");
         }
 
         // General commands - always available
-        System.out.println("\n📋 GENERAL COMMANDS:");
-        System.out.println("  help              - Display this help information");
-        System.out.println("                       Example: help");
-        System.out.println("  bye               - Save and exit the application");
-        System.out.println("  menu              - Return to the main menu");
-        System.out.println("  close              - Close the photo");
+        out.println("\n📋 GENERAL COMMANDS:");
+        out.println("  help              - Display this help information");
+        out.println("                       Example: help");
+        out.println("  bye               - Save and exit the application");
+        out.println("  menu              - Return to the main menu");
+        out.println("  close              - Close the photo");
+        out.println("  search <terms>    - Search trips and photos by name, caption or location");
+        out.println("                       Example: search sunset beach");
+        out.println("  when <date> [to <date>] - Show the trips you were on at a date or during a range");
+        out.println("                       Example: when 2024-11-15 or when 2024-11-01 to 2024-11-30");
+        out.println("  similar [distance] - List groups of photos that look alike across all trips");
+        out.println("                       Example: similar, similar 10");
+        out.println("  relink [d#<folders>] - Find moved photo files in the background, or show the result");
+        out.println("                       Example: relink d#/mnt/nas/photos, /mnt/nas/archive");
 
         // State-specific commands
         if (fsm == 0) {
             // Trip management commands
-            System.out.println("  list                - List all your saved trips");
-            System.out.println("  add_trip n# d#      - Add a new trip to your collection");
-            System.out.println("                         n# - Trip name (required)");
-            System.out.println("                         d# - Trip description (optional)");
-            System.out.println("                         Example: add_trip n#Paris Vacation d#Summer trip to France");
-            System.out.println("  select <index>      - Select a trip to view and manage its photos");
-            System.out.println("                         Example: select 2");
-            System.out.println("  delete <index>      - Delete a trip and all its photos");
-            System.out.println("                         Example: delete 3");
+            out.println("  list                - List your saved trips, one page at a time");
+            out.println("                         Example: list, list next, list p#2 s#50");
+            out.println("  add_trip n# d#      - Add a new trip to your collection");
+            out.println("                         n# - Trip name (required)");
+            out.println("                         d# - Trip description (optional)");
+            out.println("                         Example: add_trip n#Paris Vacation d#Summer trip to France");
+            out.println("  select <index>      - Select a trip to view and manage its photos");
+            out.println("                         Example: select 2");
+            out.println("  delete <index>      - Delete a trip and all its photos");
+            out.println("                         Example: delete 3");
         } else if (fsm == 1) {
             // Photo management commands
-            System.out.println("  list                - List all photos in the current trip");
-            System.out.println("  add_photo f# n# c#  - Add a new photo to the current trip");
-            System.out.println("                         f# - File path (required)");
-            System.out.println("                         n# - Photo name (required)");
-            System.out.println("                         c# - Photo caption (required)");
-            System.out.println("Example: add_photo f#images/eiffel.jpg n#Eiffel Tower c#Evening view");
-            System.out.println("  select <index>      - View a photo's details");
-            System.out.println("                         Example: select 1");
-            System.out.println("  delete <index>      - Remove a photo from the current trip");
-            System.out.println("                         Example: delete 2");
+            out.println("  list                - List the photos in the current trip, one page at a time");
+            out.println("                         Example: list, list next, list p#2 s#50");
+            out.println("  add_photo f# n# c#  - Add a new photo to the current trip");
+            out.println("                         f# - File path (required)");
+            out.println("                         n# - Photo name (required)");
+            out.println("                         c# - Photo caption (required)");
+            out.println("Example: add_photo f#images/eiffel.jpg n#Eiffel Tower c#Evening view");
+            out.println("  select <index>      - View a photo's details");
+            out.println("                         Example: select 1");
+            out.println("  zoom <index>        - Open a photo in the zoom viewer, e.g. for large panoramas");
+            out.println("                         Example: zoom 1");
+            out.println("  gallery             - Show the thumbnails of all photos in the current trip");
+            out.println("                         Example: gallery");
+            out.println("  export d# [t#]      - Save a card of every photo in the current trip as an image");
+            out.println("                         d# - Directory to save the cards in (required)");
+            out.println("                         t# - Image format, png or jpg (optional, png by default)");
+            out.println("                         Example: export d#./cards t#jpg");
+            out.println("  sheet f# [w#]       - Save all photos in the current trip as one contact sheet");
+            out.println("                         f# - PNG file to save the sheet to (required)");
+            out.println("                         w# - Photos per row, 1 to 20 (optional, 5 by default)");
+            out.println("                         Example: sheet f#./japan.png w#4");
+            out.println("  watch d#            - Add new photos dropped into a folder to this trip");
+            out.println("                         Example: watch d#./phone_sync, watch, unwatch");
+            out.println("  delete <index>      - Remove a photo from the current trip");
+            out.println("                         Example: delete 2");
         }
 
-        System.out.println("\n💡 TIPS:");
-        System.out.println("• Parameters marked with # must include the prefix (n#, d#, f#, etc.)");
-        System.out.println("• Use quotation marks for values containing spaces: n#\"My Trip\"");
-        System.out.println("• The application automatically extracts date, time, and " +
+        out.println("\n💡 TIPS:");
+        out.println("• Parameters marked with # must include the prefix (n#, d#, f#, etc.)");
+        out.println("• Use quotation marks for values containing spaces: n#\"My Trip\"");
+        out.println("• The application automatically extracts date, time, and " +
                 "location from photos if meta data is available.");
-        System.out.println("• Please upload images only in JPG format.");
+        out.println("• Please upload images only in JPG format.");
 
         if (fsm == 0) {
-            System.out.println("• Use 'select' to add and manage photos within that trip");
+            out.println("• Use 'select' to add and manage photos within that trip");
         } else if (fsm == 1) {
-            System.out.println("• Use 'menu' to return to trip management");
+            out.println("• Use 'menu' to return to trip management");
         }
 
-        System.out.println("============================================================");
+        out.println("============================================================");
     }
 
     @Override
@@ -1,33 +1,90 @@
 package command;
 
 import exception.TravelDiaryException;
+import session.Session;
 import trip.TripManager;
 import ui.Ui;
 
+import java.io.PrintWriter;
+
 /**
- * Represents a command to list items in the Travel Diary application.
+ * Represents a command to list items in the Travel Diary application, one page at a time.
  * The behavior changes based on the current FSM state:
  * - In Trip Page state (fsmValue = 0): Lists all trips
  * - In Photo Page state (fsmValue = 1): Lists all photos in the selected trip
+ * The session remembers the last page shown and the page size, so that {@code list next} continues
+ * where the previous listing stopped.
  */
 public class ListCommand extends Command {
+    /** Page number that stands for the page after the one the session showed last */
+    public static final int NEXT_PAGE = -1;
+
+    private final int page;
+    /** Page size to use, or 0 to keep the page size of the session */
+    private final int pageSize;
 
     /**
-     * Executes the list command, displaying either all trips or all photos
-     * depending on the current FSM state.
+     * Creates a ListCommand that shows the first page with the page size of the session.
+     */
+    public ListCommand() {
+        this(1, 0);
+    }
+
+    /**
+     * Creates a ListCommand that shows the given page.
+     *
+     * @param page the page to show, starting at 1, or {@link #NEXT_PAGE}
+     * @param pageSize the number of rows per page, or 0 to keep the page size of the session
+     */
+    public ListCommand(int page, int pageSize) {
+        assert page > 0 || page == NEXT_PAGE : "Page should be positive or the next page";
+        assert pageSize >= 0 : "Page size should not be negative";
+        this.page = page;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Executes the list command, displaying one page of either all trips or all photos
+     * depending on the current FSM state. Rows are written straight into the buffered output of the UI,
+     * and only the rows of the requested page are rendered.
      *
      * @param tripManager the trip manager containing the trips and photos to list
-     * @param ui the user interface (not directly used in this command)
-     * @param fsmValue the current finite state machine value (0 for Trip Page, 1 for Photo Page)
-     * @throws TravelDiaryException if there is an error during execution
+     * @param ui the user interface whose output the listing is written to
+     * @param session the session the command runs in
+     * @throws TravelDiaryException if the requested page does not exist
      */
     @Override
-    public void execute(TripManager tripManager, Ui ui, int fsmValue) throws TravelDiaryException {
-        if (fsmValue == 0){
-            tripManager.viewTrips();
-        } else if (fsmValue == 1) {
-            tripManager.getSelectedTrip().album.viewPhotos();
+    public void execute(TripManager tripManager, Ui ui, Session session) throws TravelDiaryException {
+        if (pageSize > 0) {
+            session.setListPageSize(pageSize);
+        }
+        int rowsPerPage = session.getListPageSize();
+        boolean isTripPage = session.getFsmValue() == Session.TRIP_PAGE;
+        int total = isTripPage ? tripManager.getTrips().size() : session.getSelectedTrip().album.getPhotos().size();
+        int totalPages = (int) Math.max(1, (total + (long) rowsPerPage - 1) / rowsPerPage);
+
+        int pageToShow = page == NEXT_PAGE ? session.getListPage() + 1 : page;
+        if (pageToShow > totalPages) {
+            if (page == NEXT_PAGE) {
+                ui.showToUser("\tThere are no more pages. Use 'list' to start again from the first page.");
+                return;
+            }
+            throw new TravelDiaryException(String.format("\tPage %d does not exist, there are %d page(s).",
+                    pageToShow, totalPages));
+        }
+
+        PrintWriter out = ui.getWriter();
+        int from = (pageToShow - 1) * rowsPerPage;
+        if (isTripPage) {
+            tripManager.viewTrips(out, from, rowsPerPage);
+        } else {
+            session.getSelectedTrip().album.viewPhotos(out, from, rowsPerPage);
+        }
+        session.setListPage(pageToShow);
+
+        if (totalPages > 1) {
+            String hint = pageToShow < totalPages ? " Use 'list next' for the next page." : "";
+            out.printf("\tPage %d of %d (%d in total).%s%n", pageToShow, totalPages, total, hint);
         }
-        this.fsmValue = fsmValue;
     }
 }
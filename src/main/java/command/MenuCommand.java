@@ -1,6 +1,7 @@
 package command;
 
 import exception.TravelDiaryException;
+import session.Session;
 import trip.TripManager;
 import ui.Ui;
 
@@ -10,15 +11,15 @@ import ui.Ui;
  */
 public class MenuCommand extends Command {
     /**
-     * Executes the menu command, returning to the Trip Page by setting fsmValue to 0.
+     * Executes the menu command, returning the session to the Trip Page and clearing its selection.
      *
      * @param tripManager the trip manager (not directly used in this command)
      * @param ui the user interface (not directly used in this command)
-     * @param fsmValue the current finite state machine value (ignored, as we always return to state 0)
+     * @param session the session the command runs in
      * @throws TravelDiaryException if there is an error during execution
      */
     @Override
-    public void execute(TripManager tripManager, Ui ui, int fsmValue) throws TravelDiaryException {
-        this.fsmValue = 0;
+    public void execute(TripManager tripManager, Ui ui, Session session) throws TravelDiaryException {
+        session.returnToMenu();
     }
 }
@@ -0,0 +1,92 @@
+package command;
+
+import duplicate.DuplicateMatch;
+import exception.TravelDiaryException;
+import relink.PhotoRelinker;
+import relink.RelinkResult;
+import session.Session;
+import trip.TripManager;
+import ui.Ui;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Represents a command to find the files of photos that have been moved, e.g. after reorganising a NAS.
+ * With folders to search, a search is started in the background and the command returns at once; without
+ * folders, the progress or outcome of the last search is shown.
+ * This command is available in every FSM state and does not change it.
+ */
+public class RelinkCommand extends Command {
+    /** Maximum number of relinked or missing photos listed */
+    public static final int MAX_LISTED = 20;
+    private static final Logger logger = Logger.getLogger(RelinkCommand.class.getName());
+
+    /** The folders to search, or an empty list to show the last search */
+    private final List<Path> roots;
+
+    /**
+     * Constructs a RelinkCommand for the given folders.
+     *
+     * @param roots the folders to search, or an empty list to show the progress or outcome of the last search
+     */
+    public RelinkCommand(List<Path> roots) {
+        this.roots = List.copyOf(roots);
+    }
+
+    /**
+     * Executes the command, starting a search or showing the last one.
+     *
+     * @param tripManager the trip manager whose photos are relinked
+     * @param ui the user interface to display results
+     * @param session the session the command runs in
+     * @throws TravelDiaryException if the tripManager is null
+     */
+    @Override
+    public void execute(TripManager tripManager, Ui ui, Session session) throws TravelDiaryException {
+        logger.info("Executing RelinkCommand for " + roots);
+        if (tripManager == null) {
+            logger.severe("TripManager is null");
+            throw new TravelDiaryException("TripManager cannot be null");
+        }
+
+        PhotoRelinker relinker = tripManager.getRelinker();
+        if (!roots.isEmpty()) {
+            if (relinker.start(roots)) {
+                ui.showToUser("\tSearching for missing photos in the background. "
+                        + "Type relink to see how it is going.");
+            } else {
+                ui.showToUser("\tA search for missing photos is already running. Type relink to see how it is going.");
+            }
+            return;
+        }
+
+        RelinkResult result = relinker.getLastResult();
+        if (relinker.isRunning()) {
+            ui.showToUser(String.format("\tStill searching for missing photos, %d file(s) looked at so far.",
+                    relinker.getFilesScanned()));
+        } else if (result == null) {
+            ui.showToUser("\tNo search for missing photos has been run. Example: relink d#/mnt/nas/photos");
+        } else {
+            ui.showToUser(String.format("\tLooked at %d file(s) and relinked %d photo(s).", result.getFilesScanned(),
+                    result.getRelinked().size()));
+            showPhotos(ui, result.getRelinked());
+            if (!result.getStillMissing().isEmpty()) {
+                ui.showToUser(String.format("\t%d photo(s) are still missing:", result.getStillMissing().size()));
+                showPhotos(ui, result.getStillMissing());
+            }
+        }
+    }
+
+    private static void showPhotos(Ui ui, List<DuplicateMatch> photos) {
+        for (int i = 0; i < Math.min(photos.size(), MAX_LISTED); i++) {
+            DuplicateMatch match = photos.get(i);
+            ui.showToUser(String.format("\t  [%s] %s (%s)", match.getTrip().getName(),
+                    match.getPhoto().getPhotoName(), match.getPhoto().getFilePath()));
+        }
+        if (photos.size() > MAX_LISTED) {
+            ui.showToUser(String.format("\t  ... and %d more", photos.size() - MAX_LISTED));
+        }
+    }
+}
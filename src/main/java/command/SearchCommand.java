@@ -0,0 +1,62 @@
+package command;
+
+import exception.TravelDiaryException;
+import search.SearchHit;
+import session.Session;
+import trip.TripManager;
+import ui.Ui;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Represents a command to search all trips and photos in the Travel Diary application.
+ * Trip names and descriptions, as well as photo names, captions and location names are
+ * matched against the query, and the best hits across all trips are listed by relevance.
+ * This command is available in every FSM state and does not change it.
+ */
+public class SearchCommand extends Command {
+    /** Maximum number of hits shown for a single search */
+    public static final int MAX_RESULTS = 20;
+    private static final Logger logger = Logger.getLogger(SearchCommand.class.getName());
+
+    /** The free-text query to search for */
+    private final String query;
+
+    /**
+     * Constructs a SearchCommand for the given query.
+     *
+     * @param query the free-text query, e.g. "sunset beach"
+     */
+    public SearchCommand(String query) {
+        this.query = query;
+        assert this.query != null : "Search query should not be null";
+    }
+
+    /**
+     * Executes the search and displays the ranked hits.
+     *
+     * @param tripManager the trip manager whose search index is queried
+     * @param ui the user interface to display results
+     * @param session the session the command runs in
+     * @throws TravelDiaryException if the tripManager is null
+     */
+    @Override
+    public void execute(TripManager tripManager, Ui ui, Session session) throws TravelDiaryException {
+        logger.info("Executing SearchCommand: " + query);
+        if (tripManager == null) {
+            logger.severe("TripManager is null");
+            throw new TravelDiaryException("TripManager cannot be null");
+        }
+
+        List<SearchHit> hits = tripManager.getSearchIndex().search(query, MAX_RESULTS);
+        if (hits.isEmpty()) {
+            ui.showToUser(String.format("\tNo trips or photos match \"%s\".", query));
+        } else {
+            ui.showToUser(String.format("\tFound %d result(s) for \"%s\":", hits.size(), query));
+            for (int i = 0; i < hits.size(); i++) {
+                ui.showToUser(String.format("\t%d) %s", i + 1, hits.get(i)));
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package command;
 
 import exception.InvalidIndexException;
 import exception.TravelDiaryException;
+import session.Session;
 import trip.TripManager;
 import ui.Ui;
 
@@ -30,19 +31,19 @@ public class SelectCommand extends Command {
      *
      * @param tripManager the trip manager containing the trips and photos
      * @param ui the user interface (not directly used in this command)
-     * @param fsmValue the current finite state machine value (0 for Trip Page, 1 for Photo Page)
+     * @param session the session the command runs in
      * @throws InvalidIndexException if the specified index is invalid
-     * @throws TravelDiaryException if there is an error during execution
+     * @throws TravelDiaryException if there is an error during execution, or a photo is selected in the session
+     *     of another program
      */
     @Override
-    public void execute(TripManager tripManager, Ui ui, int fsmValue)
+    public void execute(TripManager tripManager, Ui ui, Session session)
             throws InvalidIndexException, TravelDiaryException {
-        if (fsmValue == 0) {
-            tripManager.selectTrip(index);
-            this.fsmValue = 1;
-        } else if (fsmValue == 1) {
-            tripManager.getSelectedTrip().album.selectPhoto(index);
-            this.fsmValue = fsmValue;
+        if (session.getFsmValue() == Session.TRIP_PAGE) {
+            session.enterTrip(tripManager.selectTrip(index, getWriter(ui)));
+        } else if (session.getFsmValue() == Session.PHOTO_PAGE) {
+            requireLocalUser(session, "Selecting a photo opens it in a window");
+            session.setSelectedPhoto(session.getSelectedTrip().album.selectPhoto(index, getWriter(ui)));
         }
     }
 }
@@ -0,0 +1,74 @@
+package command;
+
+import duplicate.DuplicateMatch;
+import duplicate.NearDuplicateFinder;
+import exception.TravelDiaryException;
+import session.Session;
+import trip.TripManager;
+import ui.Ui;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Represents a command to list groups of photos across all trips that look alike, e.g. the same photo imported
+ * in different sizes or several shots of the same scene. Photos are compared by their perceptual hashes, which
+ * are computed the first time they are needed and then saved with the diary.
+ * This command is available in every FSM state and does not change it.
+ */
+public class SimilarCommand extends Command {
+    private static final Logger logger = Logger.getLogger(SimilarCommand.class.getName());
+
+    /** The largest number of bits in which the hashes of two similar photos may differ */
+    private final int maxDistance;
+
+    /**
+     * Constructs a SimilarCommand with the given distance.
+     *
+     * @param maxDistance the largest number of differing hash bits, between 0 and
+     *     {@link NearDuplicateFinder#MAX_DISTANCE}; higher values also match photos that look less alike
+     */
+    public SimilarCommand(int maxDistance) {
+        this.maxDistance = maxDistance;
+        assert maxDistance >= 0 && maxDistance <= NearDuplicateFinder.MAX_DISTANCE : "Distance should be in range";
+    }
+
+    /**
+     * Executes the command and lists each group of similar photos with the trips they belong to.
+     *
+     * @param tripManager the trip manager holding all trips
+     * @param ui the user interface to display results
+     * @param session the session the command runs in
+     * @throws TravelDiaryException if the tripManager is null or the photos cannot be compared
+     */
+    @Override
+    public void execute(TripManager tripManager, Ui ui, Session session) throws TravelDiaryException {
+        logger.info("Executing SimilarCommand with distance " + maxDistance);
+        if (tripManager == null) {
+            logger.severe("TripManager is null");
+            throw new TravelDiaryException("TripManager cannot be null");
+        }
+
+        List<List<DuplicateMatch>> groups;
+        try {
+            groups = NearDuplicateFinder.findGroups(tripManager.getTrips(), maxDistance);
+        } catch (IOException e) {
+            logger.warning("Failed to find similar photos: " + e.getMessage());
+            throw new TravelDiaryException("\tFailed to compare photos: " + e.getMessage());
+        }
+
+        if (groups.isEmpty()) {
+            ui.showToUser("\tNo similar photos were found.");
+            return;
+        }
+        ui.showToUser(String.format("\tFound %d group(s) of similar photos:", groups.size()));
+        for (int i = 0; i < groups.size(); i++) {
+            ui.showToUser(String.format("\tGroup %d:", i + 1));
+            for (DuplicateMatch match : groups.get(i)) {
+                ui.showToUser(String.format("\t  [%s] %s (%s)", match.getTrip().getName(),
+                        match.getPhoto().getPhotoName(), match.getPhoto().getFilePath()));
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package command;
+
+import session.Session;
+import trip.Trip;
+import trip.TripManager;
+import ui.Ui;
+
+/**
+ * Represents a command to stop importing new photos into the selected trip from the folder it is watching.
+ * Photos already imported stay in the trip.
+ * This command is only available in the Photo Page state (fsmValue = 1).
+ */
+public class UnwatchCommand extends Command {
+
+    /**
+     * Executes the command for the selected trip.
+     *
+     * @param tripManager the trip manager whose folder watcher is used
+     * @param ui the user interface to display results
+     * @param session the session the command runs in, whose selected trip stops watching
+     */
+    @Override
+    public void execute(TripManager tripManager, Ui ui, Session session) {
+        Trip trip = session.getSelectedTrip();
+        if (tripManager.getFolderWatcher().unwatch(trip)) {
+            ui.showToUser(String.format("\tTrip [%s] no longer watches a folder.", trip.getName()));
+        } else {
+            ui.showToUser(String.format("\tTrip [%s] is not watching a folder.", trip.getName()));
+        }
+    }
+}
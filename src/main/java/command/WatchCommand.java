@@ -0,0 +1,69 @@
+package command;
+
+import exception.TravelDiaryException;
+import session.Session;
+import trip.Trip;
+import trip.TripManager;
+import ui.Ui;
+import watch.FolderWatcher;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.Logger;
+
+/**
+ * Represents a command to bind a folder to the selected trip, so that new photos dropped into it,
+ * e.g. by a phone sync, are added to the trip automatically in the background. Without a folder,
+ * the command shows the folder the trip is watching.
+ * This command is only available in the Photo Page state (fsmValue = 1).
+ */
+public class WatchCommand extends Command {
+    private static final Logger logger = Logger.getLogger(WatchCommand.class.getName());
+
+    /** The folder to watch, or null to show the folder being watched */
+    private final String folder;
+
+    /**
+     * Constructs a WatchCommand.
+     *
+     * @param folder the folder to watch, or null to show the folder the selected trip is watching
+     */
+    public WatchCommand(String folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * Executes the command for the selected trip.
+     *
+     * @param tripManager the trip manager whose folder watcher is used
+     * @param ui the user interface to display results
+     * @param session the session the command runs in, whose selected trip is bound
+     * @throws TravelDiaryException if the folder cannot be watched
+     */
+    @Override
+    public void execute(TripManager tripManager, Ui ui, Session session) throws TravelDiaryException {
+        Trip trip = session.getSelectedTrip();
+        FolderWatcher watcher = tripManager.getFolderWatcher();
+        if (folder == null) {
+            Path watched = watcher.getFolder(trip);
+            if (watched == null) {
+                ui.showToUser(String.format("\tTrip [%s] is not watching a folder. Example: watch d#./phone_sync",
+                        trip.getName()));
+            } else {
+                ui.showToUser(String.format("\tTrip [%s] is watching %s, %d photo(s) imported so far.",
+                        trip.getName(), watched, watcher.getImportedCount(trip)));
+            }
+            return;
+        }
+
+        logger.info("Executing WatchCommand for " + folder);
+        try {
+            watcher.watch(trip, Paths.get(folder));
+        } catch (IOException e) {
+            throw new TravelDiaryException("\tCannot watch " + folder + ": " + e.getMessage());
+        }
+        ui.showToUser(String.format("\tWatching %s: new .jpg files there will be added to trip [%s].", folder,
+                trip.getName()));
+    }
+}
@@ -0,0 +1,65 @@
+package command;
+
+import exception.TravelDiaryException;
+import trip.Trip;
+import session.Session;
+import trip.TripManager;
+import ui.Ui;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Represents a command to find the trips that were in progress at a date or during a range.
+ * A trip is in progress from its earliest to its latest photo. The lookup is answered by the
+ * TripManager's period index. This command is available in every FSM state and does not change it.
+ */
+public class WhenCommand extends Command {
+    private static final Logger logger = Logger.getLogger(WhenCommand.class.getName());
+
+    /** The inclusive start of the range to look up */
+    private final LocalDateTime from;
+    /** The inclusive end of the range to look up */
+    private final LocalDateTime to;
+
+    /**
+     * Constructs a WhenCommand for the given range.
+     *
+     * @param from the inclusive start of the range
+     * @param to the inclusive end of the range
+     */
+    public WhenCommand(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+        assert this.from != null && this.to != null : "Range should not be null";
+        assert !this.from.isAfter(this.to) : "Range start should not be after its end";
+    }
+
+    /**
+     * Executes the lookup and displays the matching trips.
+     *
+     * @param tripManager the trip manager whose period index is queried
+     * @param ui the user interface to display results
+     * @param session the session the command runs in
+     * @throws TravelDiaryException if the tripManager is null
+     */
+    @Override
+    public void execute(TripManager tripManager, Ui ui, Session session) throws TravelDiaryException {
+        logger.info("Executing WhenCommand: " + from + " - " + to);
+        if (tripManager == null) {
+            logger.severe("TripManager is null");
+            throw new TravelDiaryException("TripManager cannot be null");
+        }
+
+        List<Trip> trips = tripManager.getPeriodIndex().findOverlapping(from, to);
+        if (trips.isEmpty()) {
+            ui.showToUser("\tNo trips found in that period.");
+        } else {
+            ui.showToUser("\tTrips in that period:");
+            for (Trip trip : trips) {
+                ui.showToUser("\t- " + trip.getName());
+            }
+        }
+    }
+}
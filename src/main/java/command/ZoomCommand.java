@@ -0,0 +1,63 @@
+package command;
+
+import exception.InvalidIndexException;
+import exception.TravelDiaryException;
+import photo.Photo;
+import photo.ZoomViewer;
+import session.Session;
+import trip.TripManager;
+import ui.Ui;
+
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Represents a command to open a photo in the zoom viewer, which decodes only the visible parts of the photo
+ * at the current zoom level, so that very large photos such as panoramas can be viewed in full detail.
+ * The window opens in the background, so the command returns to the prompt right away.
+ * This command is only available in the Photo Page state (fsmValue = 1).
+ */
+public class ZoomCommand extends Command {
+    /** The index of the photo to open */
+    private final int index;
+
+    /**
+     * Constructs a ZoomCommand with the specified index.
+     *
+     * @param index the index of the photo to open (zero-based)
+     */
+    public ZoomCommand(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Executes the zoom command, opening the photo at the index in the selected trip.
+     *
+     * @param tripManager the trip manager (not directly used in this command)
+     * @param ui the user interface used to confirm that the viewer is opening
+     * @param session the session the command runs in, whose selected trip holds the photo
+     * @throws InvalidIndexException if the specified index is invalid
+     * @throws TravelDiaryException if there is no display, the photo cannot be opened,
+     *     or the session belongs to another program
+     */
+    @Override
+    public void execute(TripManager tripManager, Ui ui, Session session)
+            throws InvalidIndexException, TravelDiaryException {
+        requireLocalUser(session, "The zoom viewer opens a window");
+        List<Photo> photos = session.getSelectedTrip().album.getPhotos();
+        if (index < 0 || index >= photos.size()) {
+            throw new InvalidIndexException();
+        }
+        if (GraphicsEnvironment.isHeadless()) {
+            throw new TravelDiaryException("\tThe zoom viewer needs a display to open on.");
+        }
+        Photo photo = photos.get(index);
+        try {
+            ZoomViewer.open(photo.getFilePath());
+        } catch (IOException e) {
+            throw new TravelDiaryException("\tFailed to open " + photo.getPhotoName() + ": " + e.getMessage());
+        }
+        ui.showToUser("\tOpening " + photo.getPhotoName() + " in the zoom viewer.");
+    }
+}
@@ -0,0 +1,85 @@
+package duplicate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes the SHA-256 hash of the bytes of a file, which identifies photos with the same content
+ * whatever their file name or folder. The file is streamed through the digest in fixed-size chunks,
+ * so hashing takes the same small amount of memory for a file of any size.
+ */
+public class ContentHash {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Returns the SHA-256 hash of a file.
+     *
+     * @param file the file to hash
+     * @return the hash as a lower-case hexadecimal string
+     * @throws IOException if the file cannot be read
+     */
+    public static String of(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream input = Files.newInputStream(file)) {
+            int count;
+            while ((count = input.read(buffer)) > 0) {
+                digest.update(buffer, 0, count);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Returns the SHA-256 hash of the size, the first and the last 64 KB of a file. This reads at most 128 KB
+     * however large the file is, and still tells photos apart, whose compressed data differs from the start.
+     * It is meant for recognising a file again, not for proving two files identical. This is the fingerprint
+     * saved with every photo, which the relinker compares, and which the duplicate index compares before
+     * confirming a match with {@link #of(Path)}.
+     *
+     * @param file the file to hash
+     * @return the hash as a lower-case hexadecimal string
+     * @throws IOException if the file cannot be read
+     */
+    public static String ofHeadAndTail(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(size).flip());
+            readFully(channel, buffer, 0);
+            digest.update(buffer.flip());
+            if (size > BUFFER_SIZE) {
+                buffer.clear();
+                readFully(channel, buffer, Math.max(BUFFER_SIZE, size - BUFFER_SIZE));
+                digest.update(buffer.flip());
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position + buffer.position());
+            if (count < 0) {
+                return;
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 should be available on every Java platform", e);
+        }
+    }
+}
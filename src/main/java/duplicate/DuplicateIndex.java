@@ -0,0 +1,276 @@
+package duplicate;
+
+import album.Album;
+import album.AlbumListener;
+import photo.Photo;
+import trip.Trip;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Indexes the content of the photo files of all trips, so that a file being imported can be recognised
+ * as a copy of a photo already in the diary, e.g. the same photo copied to another folder or imported
+ * again from a memory card. Photos are grouped by file size, and files are only hashed if their size matches
+ * an indexed photo. Importing a file of a new size therefore reads none of it. Files of the same size are
+ * first compared by the fingerprint of {@link Photo}, i.e. {@link ContentHash#ofHeadAndTail(Path)}, which
+ * reads little of a file: a fingerprint saved in an earlier session is used as it is, and one computed here
+ * is recorded on the photo, so that it is saved and not computed again. As the fingerprint does not cover
+ * the middle of a file, a match is only reported once the full hashes, {@link ContentHash#of(Path)}, are equal.
+ * Hashes are remembered until the file changes.
+ * The index is updated incrementally as photos are added to or deleted from the albums of indexed trips.
+ * Changes to the index are synchronized, so it can be queried while another thread changes the trips.
+ * Files are hashed without holding the index, so that albums notifying it of changes do not wait for a hash.
+ */
+public class DuplicateIndex implements AlbumListener {
+    private static final Logger logger = Logger.getLogger(DuplicateIndex.class.getName());
+
+    /** Indexed photos grouped by the size of their file */
+    private final Map<Long, List<Entry>> entriesBySize = new HashMap<>();
+    /** Index entry of every indexed photo */
+    private final Map<Photo, Entry> entries = new IdentityHashMap<>();
+    /** Owning trip of every album currently tracked by the index */
+    private final Map<Album, Trip> albumOwners = new IdentityHashMap<>();
+    /** Number of fingerprints computed so far, to show that files of unmatched size are never read */
+    private final AtomicInteger hashCount = new AtomicInteger();
+    /** Number of full hashes computed so far, to show that only files of matching fingerprint are read in full */
+    private final AtomicInteger fullHashCount = new AtomicInteger();
+
+    /**
+     * Indexes the photos of a trip and of any photos added to it later.
+     *
+     * @param trip The trip to index
+     */
+    public synchronized void addTrip(Trip trip) {
+        assert trip != null : "Trip to index should not be null";
+        albumOwners.put(trip.album, trip);
+        trip.album.addListener(this);
+        for (Photo photo : trip.album.getPhotos()) {
+            addEntry(trip, photo);
+        }
+    }
+
+    /**
+     * Stops indexing the photos of a trip.
+     *
+     * @param trip The trip to remove
+     */
+    public synchronized void removeTrip(Trip trip) {
+        assert trip != null : "Trip to remove should not be null";
+        albumOwners.remove(trip.album);
+        trip.album.removeListener(this);
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            if (entry.trip == trip) {
+                removeEntry(entry.photo);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void photoAdded(Album album, Photo photo) {
+        Trip trip = albumOwners.get(album);
+        if (trip != null) {
+            addEntry(trip, photo);
+        }
+    }
+
+    @Override
+    public synchronized void photoRemoved(Album album, Photo photo) {
+        removeEntry(photo);
+    }
+
+    @Override
+    public synchronized void photoRelinked(Album album, Photo photo) {
+        removeEntry(photo);
+        photoAdded(album, photo);
+    }
+
+    /**
+     * Returns an indexed photo with the same content as a file. The file is only fingerprinted if an indexed
+     * photo has the same size, and only read in full if an indexed photo also has the same fingerprint.
+     *
+     * @param filePath The path of the file to look up
+     * @return The matching photo and its trip, or null if no indexed photo has the same content
+     * @throws IOException If the file cannot be read
+     */
+    public DuplicateMatch findDuplicate(String filePath) throws IOException {
+        File file = new File(filePath);
+        if (!file.isFile()) {
+            throw new IOException("File not found: " + filePath);
+        }
+        List<Entry> candidates;
+        synchronized (this) {
+            List<Entry> sameSize = entriesBySize.get(file.length());
+            if (sameSize == null) {
+                return null;
+            }
+            candidates = new ArrayList<>(sameSize);
+        }
+        String fingerprint = fingerprint(file.toPath());
+        String fullHash = null;
+        for (Entry candidate : candidates) {
+            if (!fingerprint.equals(candidate.getFingerprint())) {
+                continue;
+            }
+            if (fullHash == null) {
+                fullHash = fullHash(file.toPath());
+            }
+            if (fullHash.equals(candidate.getFullHash()) && isIndexed(candidate)) {
+                return new DuplicateMatch(candidate.trip, candidate.photo);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of indexed photos.
+     *
+     * @return The number of photos whose files exist
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of fingerprints computed since the index was created.
+     *
+     * @return The number of files whose head and tail were read
+     */
+    int getHashCount() {
+        return hashCount.get();
+    }
+
+    /**
+     * Returns the number of full hashes computed since the index was created.
+     *
+     * @return The number of files read in full
+     */
+    int getFullHashCount() {
+        return fullHashCount.get();
+    }
+
+    /**
+     * Returns whether an entry is still in the index, as its photo may have been deleted while it was hashed.
+     */
+    private synchronized boolean isIndexed(Entry entry) {
+        return entries.get(entry.photo) == entry;
+    }
+
+    private void addEntry(Trip trip, Photo photo) {
+        File file = new File(photo.getFilePath());
+        if (entries.containsKey(photo) || !file.isFile()) {
+            // Photos whose file has gone missing cannot be matched by content
+            return;
+        }
+        Entry entry = new Entry(trip, photo, file.length());
+        entries.put(photo, entry);
+        entriesBySize.computeIfAbsent(entry.size, size -> new ArrayList<>()).add(entry);
+    }
+
+    private void removeEntry(Photo photo) {
+        Entry entry = entries.remove(photo);
+        if (entry == null) {
+            return;
+        }
+        List<Entry> sameSize = entriesBySize.get(entry.size);
+        sameSize.remove(entry);
+        if (sameSize.isEmpty()) {
+            entriesBySize.remove(entry.size);
+        }
+    }
+
+    private String fingerprint(Path file) throws IOException {
+        hashCount.incrementAndGet();
+        return ContentHash.ofHeadAndTail(file);
+    }
+
+    private String fullHash(Path file) throws IOException {
+        fullHashCount.incrementAndGet();
+        return ContentHash.of(file);
+    }
+
+    /**
+     * An indexed photo, the size its file had when it was indexed, and its hashes once computed.
+     */
+    private class Entry {
+        final Trip trip;
+        final Photo photo;
+        final long size;
+        private String fingerprint;
+        private String fullHash;
+        private long hashedLastModified;
+        private boolean recordedFingerprintChecked;
+
+        Entry(Trip trip, Photo photo, long size) {
+            this.trip = trip;
+            this.photo = photo;
+            this.size = size;
+        }
+
+        /**
+         * Returns the fingerprint of the photo, computing it again only if the file has changed since.
+         * The fingerprint recorded on the photo is used when the photo is first looked at, if it was taken of
+         * a file of the indexed size.
+         *
+         * @return The fingerprint, or null if the file can no longer be read
+         */
+        synchronized String getFingerprint() {
+            Path file = Paths.get(photo.getFilePath());
+            long lastModified = file.toFile().lastModified();
+            if (!recordedFingerprintChecked) {
+                recordedFingerprintChecked = true;
+                hashedLastModified = lastModified;
+                if (photo.getContentHash() != null && photo.getFileSize() == size) {
+                    fingerprint = photo.getContentHash();
+                }
+            }
+            forgetIfChanged(lastModified);
+            if (fingerprint == null) {
+                try {
+                    fingerprint = DuplicateIndex.this.fingerprint(file);
+                    photo.setFingerprint(size, fingerprint);
+                } catch (IOException e) {
+                    logger.fine("Failed to hash " + photo.getFilePath() + ": " + e.getMessage());
+                    return null;
+                }
+            }
+            return fingerprint;
+        }
+
+        /**
+         * Returns the full hash of the photo, computing it again only if the file has changed since.
+         *
+         * @return The hash, or null if the file can no longer be read
+         */
+        synchronized String getFullHash() {
+            Path file = Paths.get(photo.getFilePath());
+            forgetIfChanged(file.toFile().lastModified());
+            if (fullHash == null) {
+                try {
+                    fullHash = DuplicateIndex.this.fullHash(file);
+                } catch (IOException e) {
+                    logger.fine("Failed to hash " + photo.getFilePath() + ": " + e.getMessage());
+                    return null;
+                }
+            }
+            return fullHash;
+        }
+
+        private void forgetIfChanged(long lastModified) {
+            if (lastModified != hashedLastModified) {
+                fingerprint = null;
+                fullHash = null;
+                hashedLastModified = lastModified;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package duplicate;
+
+import photo.Photo;
+import trip.Trip;
+
+/**
+ * Represents a photo already in the diary that has the same content as a file being imported,
+ * as found by the {@link DuplicateIndex}.
+ */
+public class DuplicateMatch {
+    private final Trip trip;
+    private final Photo photo;
+
+    /**
+     * Constructs a DuplicateMatch for a photo and the trip it belongs to.
+     *
+     * @param trip The trip holding the matching photo
+     * @param photo The matching photo
+     */
+    public DuplicateMatch(Trip trip, Photo photo) {
+        assert trip != null && photo != null : "Duplicate match should have a trip and a photo";
+        this.trip = trip;
+        this.photo = photo;
+    }
+
+    /**
+     * Returns the trip holding the matching photo.
+     *
+     * @return The owning trip
+     */
+    public Trip getTrip() {
+        return trip;
+    }
+
+    /**
+     * Returns the photo with the same content.
+     *
+     * @return The matching photo
+     */
+    public Photo getPhoto() {
+        return photo;
+    }
+}
@@ -0,0 +1,138 @@
+package duplicate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An index over 64-bit hashes that finds all hashes within a given Hamming distance of a query hash,
+ * using multi-index hashing. Each hash is split into four 16-bit chunks, and every chunk is indexed in its own
+ * table. If two hashes differ in at most r bits, at least one of their chunks differs in at most r / 4 bits,
+ * so a search only looks up the few chunk values that close to each chunk of the query, and compares the full
+ * hashes of the entries found there. This stays fast where a BK-tree does not: random 64-bit hashes are nearly
+ * all about 32 bits apart, which leaves a BK-tree almost nothing to prune.
+ * The index is immutable once built, so it can be searched from several threads.
+ */
+public class MultiIndexHash {
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_VALUES = 1 << CHUNK_BITS;
+    /** Largest radius that can be searched, for which a chunk is searched within 2 bits */
+    public static final int MAX_RADIUS = 3 * CHUNKS - 1;
+    /** All chunk values with at most 0, 1 or 2 bits set, to flip in a chunk of the query */
+    private static final int[][] MASKS_BY_BITS = buildMasks(MAX_RADIUS / CHUNKS);
+
+    private final long[] hashes;
+    /** For each chunk, where the entries for each chunk value start in {@link #entries} */
+    private final int[][] offsets = new int[CHUNKS][];
+    /** For each chunk, the positions of the hashes, grouped by their value of that chunk */
+    private final int[][] entries = new int[CHUNKS][];
+
+    /**
+     * Builds the index over the given hashes, which are referred to by their position.
+     *
+     * @param hashes the hashes to index
+     */
+    public MultiIndexHash(long[] hashes) {
+        this.hashes = hashes.clone();
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            // Counting sort of the positions by the value of this chunk
+            int[] chunkOffsets = new int[CHUNK_VALUES + 1];
+            for (long hash : this.hashes) {
+                chunkOffsets[getChunk(hash, chunk) + 1]++;
+            }
+            for (int value = 0; value < CHUNK_VALUES; value++) {
+                chunkOffsets[value + 1] += chunkOffsets[value];
+            }
+            int[] chunkEntries = new int[this.hashes.length];
+            int[] next = chunkOffsets.clone();
+            for (int position = 0; position < this.hashes.length; position++) {
+                chunkEntries[next[getChunk(this.hashes[position], chunk)]++] = position;
+            }
+            offsets[chunk] = chunkOffsets;
+            entries[chunk] = chunkEntries;
+        }
+    }
+
+    /**
+     * Returns the number of differing bits between two hashes.
+     *
+     * @param first the first hash
+     * @param second the second hash
+     * @return the Hamming distance, from 0 to 64
+     */
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    /**
+     * Returns the positions of all indexed hashes within a distance of a hash, each position once.
+     *
+     * @param hash the hash to search around
+     * @param radius the maximum number of differing bits, from 0 to {@link #MAX_RADIUS}
+     * @return the positions of the hashes within the radius, in no particular order
+     */
+    public List<Integer> search(long hash, int radius) {
+        assert radius >= 0 && radius <= MAX_RADIUS : "Radius should be between 0 and " + MAX_RADIUS;
+        int chunkRadius = radius / CHUNKS;
+        List<Integer> results = new ArrayList<>();
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            int value = getChunk(hash, chunk);
+            for (int mask : MASKS_BY_BITS[chunkRadius]) {
+                int probe = value ^ mask;
+                for (int i = offsets[chunk][probe]; i < offsets[chunk][probe + 1]; i++) {
+                    int position = entries[chunk][i];
+                    long candidate = hashes[position];
+                    if (distance(hash, candidate) <= radius && isFirstMatchingChunk(hash, candidate, chunk,
+                            chunkRadius)) {
+                        results.add(position);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the number of indexed hashes.
+     *
+     * @return the number of hashes
+     */
+    public int size() {
+        return hashes.length;
+    }
+
+    /**
+     * Returns whether no earlier chunk of a candidate is within the chunk radius of the query, so that a candidate
+     * found through several chunks is only reported through the first of them.
+     */
+    private static boolean isFirstMatchingChunk(long hash, long candidate, int chunk, int chunkRadius) {
+        for (int earlier = 0; earlier < chunk; earlier++) {
+            if (Integer.bitCount(getChunk(hash, earlier) ^ getChunk(candidate, earlier)) <= chunkRadius) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int getChunk(long hash, int chunk) {
+        return (int) (hash >>> (chunk * CHUNK_BITS)) & (CHUNK_VALUES - 1);
+    }
+
+    private static int[][] buildMasks(int maxBits) {
+        int[][] masks = new int[maxBits + 1][];
+        for (int bits = 0; bits <= maxBits; bits++) {
+            int count = 0;
+            for (int mask = 0; mask < CHUNK_VALUES; mask++) {
+                count += Integer.bitCount(mask) <= bits ? 1 : 0;
+            }
+            masks[bits] = new int[count];
+            int next = 0;
+            for (int mask = 0; mask < CHUNK_VALUES; mask++) {
+                if (Integer.bitCount(mask) <= bits) {
+                    masks[bits][next++] = mask;
+                }
+            }
+        }
+        return masks;
+    }
+}
@@ -0,0 +1,146 @@
+package duplicate;
+
+import photo.PerceptualHash;
+import photo.Photo;
+import trip.Trip;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Finds groups of photos across all trips that look alike, such as the same shot resized, recompressed or
+ * taken in a burst, by comparing their perceptual hashes. Hashes missing from photos are computed across all
+ * processor cores and kept on the photos, so they are saved with the diary and each photo is decoded only once.
+ * Photos within the given number of differing bits are linked, and linked photos form a group, so a group can
+ * hold photos further apart than the distance through photos in between.
+ */
+public class NearDuplicateFinder {
+    /** Number of differing bits up to which photos are similar, if not given */
+    public static final int DEFAULT_DISTANCE = 6;
+    /** Largest number of differing bits that can be searched */
+    public static final int MAX_DISTANCE = MultiIndexHash.MAX_RADIUS;
+
+    private static final Logger logger = Logger.getLogger(NearDuplicateFinder.class.getName());
+
+    /**
+     * Returns the groups of similar photos across the given trips.
+     *
+     * @param trips the trips to search
+     * @param maxDistance the largest number of bits in which the hashes of two similar photos may differ,
+     *     between 0 and {@link #MAX_DISTANCE}
+     * @return the groups of two or more similar photos, each in the order of the trips and their albums;
+     *     photos that cannot be decoded are left out
+     * @throws IOException if interrupted while computing hashes
+     */
+    public static List<List<DuplicateMatch>> findGroups(List<Trip> trips, int maxDistance) throws IOException {
+        assert maxDistance >= 0 && maxDistance <= MAX_DISTANCE : "Distance should be between 0 and " + MAX_DISTANCE;
+        List<DuplicateMatch> photos = new ArrayList<>();
+        for (Trip trip : trips) {
+            for (Photo photo : trip.album.getPhotos()) {
+                photos.add(new DuplicateMatch(trip, photo));
+            }
+        }
+        computeMissingHashes(photos);
+
+        List<DuplicateMatch> hashed = new ArrayList<>();
+        for (DuplicateMatch match : photos) {
+            if (match.getPhoto().getPerceptualHash() != null) {
+                hashed.add(match);
+            }
+        }
+        long[] hashes = new long[hashed.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = hashed.get(i).getPhoto().getPerceptualHash();
+        }
+
+        MultiIndexHash index = new MultiIndexHash(hashes);
+        int[] parents = new int[hashes.length];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+        for (int i = 0; i < hashes.length; i++) {
+            for (int other : index.search(hashes[i], maxDistance)) {
+                union(parents, i, other);
+            }
+        }
+
+        Map<Integer, List<DuplicateMatch>> groupsByRoot = new LinkedHashMap<>();
+        for (int i = 0; i < hashes.length; i++) {
+            groupsByRoot.computeIfAbsent(find(parents, i), root -> new ArrayList<>()).add(hashed.get(i));
+        }
+        List<List<DuplicateMatch>> groups = new ArrayList<>();
+        for (List<DuplicateMatch> group : groupsByRoot.values()) {
+            if (group.size() > 1) {
+                groups.add(group);
+            }
+        }
+        logger.info(String.format("Found %d groups of similar photos among %d photos", groups.size(),
+                hashes.length));
+        return groups;
+    }
+
+    /**
+     * Computes the perceptual hashes of the photos that do not have one yet, in parallel.
+     * Photos that cannot be decoded are logged and left without a hash.
+     */
+    private static void computeMissingHashes(List<DuplicateMatch> photos) throws IOException {
+        List<Photo> missing = new ArrayList<>();
+        for (DuplicateMatch match : photos) {
+            if (match.getPhoto().getPerceptualHash() == null) {
+                missing.add(match.getPhoto());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        int threads = Math.min(missing.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Photo photo : missing) {
+                results.add(workers.submit(() -> {
+                    photo.setPerceptualHash(PerceptualHash.compute(photo.getFilePath()));
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    logger.warning("Failed to compute perceptual hash: " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while computing perceptual hashes", e);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static int find(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parents, int first, int second) {
+        int firstRoot = find(parents, first);
+        int secondRoot = find(parents, second);
+        if (firstRoot != secondRoot) {
+            // The earlier photo becomes the root, so groups are ordered by their first photo
+            parents[Math.max(firstRoot, secondRoot)] = Math.min(firstRoot, secondRoot);
+        }
+    }
+}
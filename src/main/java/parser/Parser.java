@@ -1,20 +1,27 @@
 package parser;
 
+import duplicate.NearDuplicateFinder;
 import exception.CommandNotRecogniseException;
 import exception.InvalidIndexException;
 import exception.ParserException;
 import exception.TravelDiaryException;
-import exception.TagException;
 import exception.NullIndexException;
 import exception.MissingTagsException;
+import photo.ContactSheet;
+import photo.PhotoCardRenderer;
 import ui.Ui;
 
-import java.util.AbstractMap;
-import java.util.Arrays;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Handles parsing of user input to convert it into structured command details.
@@ -24,27 +31,77 @@ import java.util.Set;
 public class Parser {
     /** Array of valid command names recognized by the parser */
     public static final String[] COMMAND_ARRAY = {"bye", "close", "add_trip"
-            , "add_photo", "delete", "list", "select", "menu", "help"};
-    private static final Ui ui = new Ui();
+            , "add_photo", "delete", "list", "select", "menu", "help", "search", "when", "gallery", "export"
+            , "sheet", "zoom", "similar", "relink", "watch", "unwatch"};
+    /** Separates the commands of a command group on a single line */
+    public static final char COMMAND_SEPARATOR = ';';
+    /** Placed before a {@code ;} that belongs to a tag value rather than separating commands */
+    public static final char ESCAPE = '\\';
+    /** Tokenizers for tagged arguments, built once and shared by every parse */
+    private static final TagTokenizer ADD_TRIP_TAGS = new TagTokenizer('n', 'd');
+    private static final TagTokenizer ADD_PHOTO_TAGS = new TagTokenizer('f', 'n', 'c');
+    private static final TagTokenizer LIST_TAGS = new TagTokenizer('p', 's');
+    private static final TagTokenizer EXPORT_TAGS = new TagTokenizer('d', 't');
+    private static final TagTokenizer SHEET_TAGS = new TagTokenizer('f', 'w');
+    private static final TagTokenizer RELINK_TAGS = new TagTokenizer('d');
+    private static final TagTokenizer WATCH_TAGS = new TagTokenizer('d');
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
     /**
-     * Gets command details from user input via the UI.
-     * Reads input from the user, validates it's not empty, and processes it.
+     * Gets the details of every command on a line of user input via the UI.
+     * A line may hold a single command or a group of commands separated by {@code ;}.
      *
-     * @return a map containing the processed command details
+     * @param ui the user interface to prompt on and read the line from
+     * @return the processed details of each command, in order
      * @throws TravelDiaryException if no command is provided
      * @throws InvalidIndexException if an invalid index is provided
-     * @throws CommandNotRecogniseException if the command is not recognized
+     * @throws CommandNotRecogniseException if a command is not recognized
+     * @throws ParserException if there is an error during parsing
+     */
+    public static List<Map<String, String>> getCommandGroupDetails(Ui ui)
+            throws TravelDiaryException, InvalidIndexException, CommandNotRecogniseException, ParserException {
+        ui.getWriter().print("Enter: ");
+        return processLine(ui.readInput());
+    }
+
+    /**
+     * Processes a line holding one or more commands separated by {@code ;}.
+     * Every command is parsed before any of them is executed, so a syntax error anywhere
+     * on the line rejects the whole group. Empty commands, such as a trailing {@code ;}, are skipped.
+     * A {@code ;} written as {@code \;} does not separate commands and is kept as a plain {@code ;},
+     * so that it can be used in names, descriptions and captions.
+     *
+     * @param line the raw user input line
+     * @return the processed details of each command, in order
+     * @throws TravelDiaryException if the line holds no command
+     * @throws InvalidIndexException if an invalid index is provided
+     * @throws CommandNotRecogniseException if a command is not recognized
      * @throws ParserException if there is an error during parsing
      */
-    public static Map<String, String> getCommandDetails()
+    public static List<Map<String, String>> processLine(String line)
             throws TravelDiaryException, InvalidIndexException, CommandNotRecogniseException, ParserException {
-        System.out.print("Enter: ");
-        String input = ui.readInput().trim();
-        if (input.isEmpty()) {
+        List<Map<String, String>> parsedCommands = new ArrayList<>();
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i <= line.length(); i++) {
+            char c = i < line.length() ? line.charAt(i) : COMMAND_SEPARATOR;
+            if (c == ESCAPE && i + 1 < line.length() && line.charAt(i + 1) == COMMAND_SEPARATOR) {
+                input.append(COMMAND_SEPARATOR);
+                i++;
+            } else if (c != COMMAND_SEPARATOR) {
+                input.append(c);
+            } else {
+                String command = input.toString().trim();
+                if (!command.isEmpty()) {
+                    parsedCommands.add(processInput(command));
+                }
+                input.setLength(0);
+            }
+        }
+        if (parsedCommands.isEmpty()) {
             throw new TravelDiaryException("No command provided. Please enter a command.");
         }
-        return processInput(input);
+        return parsedCommands;
     }
 
     /**
@@ -72,10 +129,7 @@ public class Parser {
      * @return an array containing the command (at index 0) and arguments (at index 1)
      */
     private static String[] splitCommandAndArguments(String input) {
-        String[] tokens = input.split("\\s+", 2);
-        String command = tokens[0].toLowerCase();
-        String rest = tokens.length > 1 ? tokens[1].trim() : "";
-        return new String[]{command, rest};
+        return TagTokenizer.splitCommand(input);
     }
 
     /**
@@ -95,12 +149,14 @@ public class Parser {
             ParserException {
         switch (command) {
         case "bye":
-        case "list":
         case "close":
         case "menu":
+        case "gallery":
+        case "unwatch":
             return createSimpleCommandMap(command);
         case "delete":
         case "select":
+        case "zoom":
             return createIndexCommandMap(command, rest);
         case "add_trip":
             return parseAddTrip(rest);
@@ -108,6 +164,22 @@ public class Parser {
             return parseAddPhoto(rest);
         case "help":
             return parseHelp(rest);
+        case "list":
+            return parseList(rest);
+        case "search":
+            return parseSearch(rest);
+        case "when":
+            return parseWhen(rest);
+        case "export":
+            return parseExport(rest);
+        case "sheet":
+            return parseSheet(rest);
+        case "similar":
+            return parseSimilar(rest);
+        case "relink":
+            return parseRelink(rest);
+        case "watch":
+            return parseWatch(rest);
         default:
             throw new CommandNotRecogniseException(command);
         }
@@ -160,9 +232,7 @@ public class Parser {
             throw new MissingTagsException("add_trip", "n# (name) d# (description).");
         }
         
-        String[] parts = rest.split(" (?=[nd]#)");
-        Set<String> allowedTags = new HashSet<>(Arrays.asList("n#", "d#"));
-        Map<String, String> tagsMap = processTags(parts, allowedTags);
+        Map<String, String> tagsMap = ADD_TRIP_TAGS.tokenize(rest);
         map.put("name", tagsMap.get("n#"));
         map.put("description", tagsMap.get("d#"));
         if (map.get("name") == null || map.get("description") == null) {
@@ -188,11 +258,8 @@ public class Parser {
             throw new MissingTagsException("add_photo", "f# (filepath) n# (photoname) c# (caption).");
         }
         
-        // Split on spaces before any tag that starts with n, d, c, f or l
-        String[] parts = rest.split(" (?=[fnc]#)");
         // Allowed tags now only for f#, n#, and c# (l# is optional)
-        Set<String> allowedTags = new HashSet<>(Arrays.asList("f#", "n#", "c#"));
-        Map<String, String> tagsMap = processTags(parts, allowedTags);
+        Map<String, String> tagsMap = ADD_PHOTO_TAGS.tokenize(rest);
 
         // Required tags:
         map.put("filepath", tagsMap.get("f#"));
@@ -201,7 +268,6 @@ public class Parser {
 
         // Optional location tag if provided
         if (tagsMap.containsKey("l#")) {
-            System.out.println(tagsMap.get("l#"));
             map.put("location", tagsMap.get("l#"));
         }
 
@@ -213,58 +279,262 @@ public class Parser {
     }
 
     /**
-     * Processes the parsed tags into a map of tag names to their values.
-     * 
-     * @param parts the array of tag parts
-     * @param allowedTags the set of allowed tags
-     * @return a map of tag names to their values
-     * @throws ParserException if there is an error during parsing
+     * Parses the list command arguments to extract the page to show.
+     * Accepts no arguments for the first page, "next" for the page after the last one shown,
+     * or the tags p# (page number) and s# (page size), each of which is optional.
+     *
+     * @param rest the arguments for the list command
+     * @return a map containing the command details including the page and page size, if given
+     * @throws ParserException if a tag is invalid or a value is not a positive number
      */
-    private static Map<String, String> processTags(String[] parts, Set<String> allowedTags)
-            throws ParserException {
-        Map<String, String> tagsMap = new HashMap<>();
-        Set<String> seenTags = new HashSet<>();
-        for (String part : parts) {
-            Map.Entry<String, String> entry = processTagPart(part, allowedTags, seenTags);
-            tagsMap.put(entry.getKey(), entry.getValue());
-        }
-        return tagsMap;
+    private static Map<String, String> parseList(String rest) throws ParserException {
+        Map<String, String> map = new HashMap<>();
+        map.put("command", "list");
+        if (rest.isEmpty()) {
+            return map;
+        }
+        if (rest.equalsIgnoreCase("next")) {
+            map.put("page", "next");
+            return map;
+        }
+
+        Map<String, String> tagsMap = LIST_TAGS.tokenize(rest);
+        if (tagsMap.containsKey("p#")) {
+            map.put("page", parsePositiveNumber(tagsMap.get("p#")));
+        }
+        if (tagsMap.containsKey("s#")) {
+            map.put("size", parsePositiveNumber(tagsMap.get("s#")));
+        }
+        return map;
+    }
+
+    private static String parsePositiveNumber(String value) throws ParserException {
+        try {
+            if (Integer.parseInt(value) > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below together with non-positive numbers
+        }
+        throw new ParserException("\tPage number and page size must be positive numbers. Example: list p#2 s#50");
     }
 
     /**
-     * Processes a single tag part to extract the tag name and value.
-     * 
-     * @param part the tag part to process
-     * @param allowedTags the set of allowed tags
-     * @param seenTags the set of tags already seen (to detect duplicates)
-     * @return an entry containing the tag name and value
-     * @throws ParserException if there is an error during parsing
+     * Parses the search command arguments to extract the free-text query.
+     *
+     * @param rest the arguments for the search command
+     * @return a map containing the command details including the query
+     * @throws TravelDiaryException if no search terms are provided
      */
-    private static Map.Entry<String, String> processTagPart(String part, Set<String> allowedTags,
-                                                            Set<String> seenTags) throws ParserException {
-        for (String tag : allowedTags) {
-            if (part.startsWith(tag)) {
-                if (!seenTags.add(tag)) {
-                    throw new TagException("\tDuplicate tag: ", tag);
-                }
-                String value = part.substring(tag.length()).trim();
-                if (value.contains("#")) {
-                    throw new TagException("\tUnrecognised tag: ", "#");
-                }
-                if (value.isEmpty()) {
-                    throw new TagException("\tEmpty value provided for tag: ", tag);
-                }
-                return new AbstractMap.SimpleEntry<>(tag, value);
+    private static Map<String, String> parseSearch(String rest) throws TravelDiaryException {
+        if (rest.isEmpty()) {
+            throw new TravelDiaryException("\tNo search terms provided. Example: search sunset beach");
+        }
+        Map<String, String> map = new HashMap<>();
+        map.put("command", "search");
+        map.put("query", rest);
+        return map;
+    }
+
+    /**
+     * Parses the when command arguments to extract the date or date range to look up.
+     * Accepts a single date or timestamp ("2024-11-15" or "2024-11-15 18:30"), or a range
+     * written as "FROM to TO". A date without a time covers that whole day.
+     *
+     * @param rest the arguments for the when command
+     * @return a map containing the command details including the ISO-formatted range
+     * @throws ParserException if the date or range cannot be parsed
+     */
+    private static Map<String, String> parseWhen(String rest) throws ParserException {
+        if (rest.isEmpty()) {
+            throw new ParserException("\tNo date provided. Example: when 2024-11-15 or when 2024-11-01 to 2024-11-30");
+        }
+        int separator = rest.indexOf(" to ");
+        String fromText = separator < 0 ? rest : rest.substring(0, separator).trim();
+        String toText = separator < 0 ? rest : rest.substring(separator + " to ".length()).trim();
+        LocalDateTime from = parseDateTime(fromText, false);
+        LocalDateTime to = parseDateTime(toText, true);
+        if (from.isAfter(to)) {
+            throw new ParserException("\tThe start of the range must not be after its end.");
+        }
+
+        Map<String, String> map = new HashMap<>();
+        map.put("command", "when");
+        map.put("from", from.toString());
+        map.put("to", to.toString());
+        return map;
+    }
+
+    /**
+     * Parses the export command arguments to extract the directory to write photo cards to
+     * (d#, required) and their image format (t#, optional, png by default).
+     *
+     * @param rest the arguments for the export command
+     * @return a map containing the command details including the directory and format
+     * @throws ParserException if the directory is missing or the format is not supported
+     */
+    private static Map<String, String> parseExport(String rest) throws ParserException {
+        if (rest.isEmpty()) {
+            throw new MissingTagsException("export", "d# (directory).");
+        }
+        Map<String, String> tagsMap = EXPORT_TAGS.tokenize(rest);
+        if (tagsMap.get("d#") == null) {
+            throw new MissingTagsException("export", "d# (directory).");
+        }
+        String format = tagsMap.getOrDefault("t#", "png").toLowerCase();
+        if (!PhotoCardRenderer.FORMATS.contains(format)) {
+            throw new ParserException("\tPhoto cards can be exported as png or jpg. Example: export d#./cards t#jpg");
+        }
+
+        Map<String, String> map = new HashMap<>();
+        map.put("command", "export");
+        map.put("directory", tagsMap.get("d#"));
+        map.put("format", format);
+        return map;
+    }
+
+    /**
+     * Parses the sheet command arguments to extract the PNG file to write the contact sheet to
+     * (f#, required) and the number of photos per row (w#, optional, 5 by default).
+     *
+     * @param rest the arguments for the sheet command
+     * @return a map containing the command details including the file path and number of columns
+     * @throws ParserException if the file path is missing or the number of columns is invalid
+     */
+    private static Map<String, String> parseSheet(String rest) throws ParserException {
+        if (rest.isEmpty()) {
+            throw new MissingTagsException("sheet", "f# (file path).");
+        }
+        Map<String, String> tagsMap = SHEET_TAGS.tokenize(rest);
+        String filepath = tagsMap.get("f#");
+        if (filepath == null) {
+            throw new MissingTagsException("sheet", "f# (file path).");
+        }
+        if (!filepath.toLowerCase().endsWith(".png")) {
+            throw new ParserException("\tContact sheets are saved as png files. Example: sheet f#./trip.png w#4");
+        }
+        int columns = ContactSheet.DEFAULT_COLUMNS;
+        if (tagsMap.get("w#") != null) {
+            try {
+                columns = Integer.parseInt(tagsMap.get("w#"));
+            } catch (NumberFormatException e) {
+                columns = 0;
+            }
+            if (columns < 1 || columns > ContactSheet.MAX_COLUMNS) {
+                throw new ParserException("\tThe number of photos per row must be between 1 and "
+                        + ContactSheet.MAX_COLUMNS + ".");
             }
         }
-        
-        // If we got here, the part doesn't start with any allowed tag
-        // Make a more helpful error message showing what tags are expected
-        StringBuilder allowedTagsStr = new StringBuilder();
-        for (String tag : allowedTags) {
-            allowedTagsStr.append(tag).append(" ");
+
+        Map<String, String> map = new HashMap<>();
+        map.put("command", "sheet");
+        map.put("filepath", filepath);
+        map.put("columns", String.valueOf(columns));
+        return map;
+    }
+
+    /**
+     * Parses the similar command arguments to extract the optional number of bits in which the hashes of
+     * similar photos may differ, 6 by default.
+     *
+     * @param rest the arguments for the similar command
+     * @return a map containing the command details including the distance
+     * @throws ParserException if the distance is not a number in range
+     */
+    private static Map<String, String> parseSimilar(String rest) throws ParserException {
+        int distance = NearDuplicateFinder.DEFAULT_DISTANCE;
+        if (!rest.isEmpty()) {
+            try {
+                distance = Integer.parseInt(rest);
+            } catch (NumberFormatException e) {
+                distance = -1;
+            }
+            if (distance < 0 || distance > NearDuplicateFinder.MAX_DISTANCE) {
+                throw new ParserException("\tThe distance must be a number between 0 and "
+                        + NearDuplicateFinder.MAX_DISTANCE + ". Example: similar 4");
+            }
+        }
+
+        Map<String, String> map = new HashMap<>();
+        map.put("command", "similar");
+        map.put("distance", String.valueOf(distance));
+        return map;
+    }
+
+    /**
+     * Parses the relink command arguments to extract the folders to search for missing photos (d#, optional),
+     * separated by commas. Without folders, the command shows the last search.
+     *
+     * @param rest the arguments for the relink command
+     * @return a map containing the command details including the folders, if any
+     * @throws ParserException if the tag is not d#, no folder is given or a folder is not a valid path
+     */
+    private static Map<String, String> parseRelink(String rest) throws ParserException {
+        Map<String, String> map = new HashMap<>();
+        map.put("command", "relink");
+        if (rest.isEmpty()) {
+            return map;
+        }
+        String folders = RELINK_TAGS.tokenize(rest).get("d#");
+        if (folders == null || folders.replace(",", "").isBlank()) {
+            throw new MissingTagsException("relink", "d# (folders to search).");
+        }
+        for (String folder : folders.split(",")) {
+            try {
+                Path.of(folder.trim());
+            } catch (InvalidPathException e) {
+                throw new ParserException("\tInvalid folder: " + folder.trim());
+            }
+        }
+        map.put("folders", folders);
+        return map;
+    }
+
+    /**
+     * Parses the watch command arguments to extract the folder to import new photos from (d#, optional).
+     * Without a folder, the command shows the folder being watched.
+     *
+     * @param rest the arguments for the watch command
+     * @return a map containing the command details including the folder, if any
+     * @throws ParserException if the tag is not d# or the folder is not a valid path
+     */
+    private static Map<String, String> parseWatch(String rest) throws ParserException {
+        Map<String, String> map = new HashMap<>();
+        map.put("command", "watch");
+        if (rest.isEmpty()) {
+            return map;
+        }
+        String folder = WATCH_TAGS.tokenize(rest).get("d#");
+        if (folder == null) {
+            throw new MissingTagsException("watch", "d# (folder).");
+        }
+        try {
+            Path.of(folder);
+        } catch (InvalidPathException e) {
+            throw new ParserException("\tInvalid folder: " + folder);
+        }
+        map.put("folder", folder);
+        return map;
+    }
+
+    /**
+     * Parses a date ("yyyy-MM-dd") or timestamp ("yyyy-MM-dd HH:mm").
+     *
+     * @param text the text to parse
+     * @param endOfDay whether a date without a time should resolve to the end of that day
+     * @return the parsed date and time
+     * @throws ParserException if the text is not a valid date or timestamp
+     */
+    private static LocalDateTime parseDateTime(String text, boolean endOfDay) throws ParserException {
+        try {
+            if (text.length() > "yyyy-MM-dd".length()) {
+                return LocalDateTime.parse(text, DATE_TIME_FORMAT);
+            }
+            LocalDate date = LocalDate.parse(text, DATE_FORMAT);
+            return endOfDay ? date.atTime(LocalTime.MAX) : date.atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new ParserException("\tInvalid date: " + text + ". Use yyyy-MM-dd or yyyy-MM-dd HH:mm.");
         }
-        throw new TagException("\tUnrecognized tag format. Expected tags: ", allowedTagsStr.toString().trim());
     }
 
     /**
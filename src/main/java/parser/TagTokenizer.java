@@ -0,0 +1,134 @@
+package parser;
+
+import exception.ParserException;
+import exception.TagException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Splits command arguments into tagged values such as {@code n#Japan d#Skiing trip} in a single pass.
+ * A tokenizer is built once per command for a fixed set of one-letter tags and can be shared by all
+ * parses of that command, so no regular expression or per-command tag set is created while parsing.
+ * A new tag starts wherever a space is directly followed by an allowed tag letter and {@code #}.
+ */
+public class TagTokenizer {
+    /** Allowed tag letters, in the order they are listed in error messages */
+    private final char[] tagLetters;
+    /** Allowed tags, e.g. "n#", in the same order as tagLetters */
+    private final String[] tags;
+    /** The allowed tags joined with spaces, used in error messages */
+    private final String expectedTags;
+
+    /**
+     * Constructs a tokenizer that accepts the given tag letters.
+     *
+     * @param tagLetters the letters of the allowed tags, e.g. 'n' for "n#"
+     */
+    public TagTokenizer(char... tagLetters) {
+        assert tagLetters.length > 0 && tagLetters.length < Integer.SIZE : "Unsupported number of tags";
+        this.tagLetters = tagLetters.clone();
+        this.tags = new String[tagLetters.length];
+        for (int i = 0; i < tagLetters.length; i++) {
+            tags[i] = tagLetters[i] + "#";
+        }
+        this.expectedTags = String.join(" ", tags);
+    }
+
+    /**
+     * Splits a raw input line into the lower-cased command word and the trimmed remaining arguments.
+     * The command word ends at the first whitespace character.
+     *
+     * @param input the raw user input string
+     * @return an array containing the command (at index 0) and arguments (at index 1)
+     */
+    public static String[] splitCommand(String input) {
+        int commandEnd = 0;
+        while (commandEnd < input.length() && !isWhitespace(input.charAt(commandEnd))) {
+            commandEnd++;
+        }
+        String command = input.substring(0, commandEnd).toLowerCase();
+        String rest = commandEnd < input.length() ? input.substring(commandEnd).trim() : "";
+        return new String[]{command, rest};
+    }
+
+    /**
+     * Tokenizes the arguments of a command into a map from tag (e.g. "n#") to its trimmed value.
+     *
+     * @param rest the arguments of the command
+     * @return a map of tag names to their values
+     * @throws ParserException if a tag is unrecognised, duplicated, or has an empty or invalid value
+     */
+    public Map<String, String> tokenize(String rest) throws ParserException {
+        Map<String, String> tagsMap = new HashMap<>();
+        int seenTags = 0;
+        int partStart = 0;
+        for (int i = 0; i <= rest.length(); i++) {
+            if (i < rest.length() && !isTagBoundary(rest, i)) {
+                continue;
+            }
+            int tagIndex = indexOfTag(rest, partStart, i);
+            if (tagIndex < 0) {
+                throw new TagException("\tUnrecognized tag format. Expected tags: ", expectedTags);
+            }
+            if ((seenTags & (1 << tagIndex)) != 0) {
+                throw new TagException("\tDuplicate tag: ", tags[tagIndex]);
+            }
+            seenTags |= 1 << tagIndex;
+
+            String value = rest.substring(partStart + 2, i).trim();
+            if (value.indexOf('#') >= 0) {
+                throw new TagException("\tUnrecognised tag: ", "#");
+            }
+            if (value.isEmpty()) {
+                throw new TagException("\tEmpty value provided for tag: ", tags[tagIndex]);
+            }
+            tagsMap.put(tags[tagIndex], value);
+            partStart = i + 1;
+        }
+        return tagsMap;
+    }
+
+    /**
+     * Returns whether the space at the given position starts a new tag.
+     *
+     * @param rest the arguments of the command
+     * @param position the position to check
+     * @return true if a space followed by an allowed tag is at the position
+     */
+    private boolean isTagBoundary(String rest, int position) {
+        return rest.charAt(position) == ' ' && position + 2 < rest.length()
+                && rest.charAt(position + 2) == '#' && indexOfLetter(rest.charAt(position + 1)) >= 0;
+    }
+
+    /**
+     * Returns the index of the allowed tag that the part between start and end begins with.
+     *
+     * @param rest the arguments of the command
+     * @param start the start of the part
+     * @param end the end of the part (exclusive)
+     * @return the index of the tag, or -1 if the part does not begin with an allowed tag
+     */
+    private int indexOfTag(String rest, int start, int end) {
+        if (end - start < 2 || rest.charAt(start + 1) != '#') {
+            return -1;
+        }
+        return indexOfLetter(rest.charAt(start));
+    }
+
+    private int indexOfLetter(char letter) {
+        for (int i = 0; i < tagLetters.length; i++) {
+            if (tagLetters[i] == letter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether the character is matched by the regular expression {@code \s}.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,196 @@
+package photo;
+
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Draws all photos of a trip as a grid of captioned tiles into one PNG image, e.g. to share a summary of the
+ * trip. Photos are decoded with source subsampling and scaled to tile size across all processor cores, and the
+ * sheet is written to disk one row of tiles at a time while the next rows are being decoded. Only a few rows
+ * are held in memory at once, so the memory needed is bounded by the number of columns, not the number of photos.
+ */
+public class ContactSheet {
+    public static final int DEFAULT_COLUMNS = 5;
+    public static final int MAX_COLUMNS = 20;
+    public static final int TILE_WIDTH = 240;
+    public static final int TILE_HEIGHT = 180;
+
+    private static final int PADDING = 8;
+    private static final int CELL_WIDTH = TILE_WIDTH + PADDING;
+    private static final int CAPTION_HEIGHT = 24;
+    private static final int CELL_HEIGHT = TILE_HEIGHT + CAPTION_HEIGHT + PADDING;
+    /** Number of rows decoded ahead of the row being written */
+    private static final int ROWS_AHEAD = 2;
+    private static final Color PLACEHOLDER_COLOR = new Color(210, 205, 190);
+
+    private static final Logger logger = Logger.getLogger(ContactSheet.class.getName());
+
+    /**
+     * Writes the contact sheet of the given photos to a PNG file.
+     *
+     * @param photos the photos to draw, in the order they should appear
+     * @param output the PNG file to write
+     * @param columns the number of tiles per row, between 1 and {@link #MAX_COLUMNS}
+     * @return the number of photos that could be decoded; the others are drawn as empty tiles with their caption
+     * @throws IOException if the file cannot be written
+     */
+    public static int write(List<Photo> photos, Path output, int columns) throws IOException {
+        assert !photos.isEmpty() : "Contact sheet should have photos";
+        assert columns > 0 && columns <= MAX_COLUMNS : "Columns should be between 1 and " + MAX_COLUMNS;
+        int rows = (photos.size() + columns - 1) / columns;
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        int threads = Math.min(columns * ROWS_AHEAD, Runtime.getRuntime().availableProcessors());
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        int decoded = 0;
+        try (StreamingPngWriter writer = new StreamingPngWriter(
+                new BufferedOutputStream(Files.newOutputStream(output)), getWidth(columns), getHeight(rows))) {
+            Deque<List<Future<BufferedImage>>> pendingRows = new ArrayDeque<>();
+            int nextRow = 0;
+            for (int row = 0; row < rows; row++) {
+                while (nextRow < rows && nextRow <= row + ROWS_AHEAD) {
+                    pendingRows.add(submitRow(workers, photos, nextRow, columns));
+                    nextRow++;
+                }
+                List<Future<BufferedImage>> tiles = pendingRows.remove();
+                List<Photo> rowPhotos = photos.subList(row * columns, row * columns + tiles.size());
+                List<BufferedImage> images = await(tiles);
+                writer.writeRows(drawRow(rowPhotos, images, columns, row == rows - 1));
+                decoded += (int) images.stream().filter(image -> image != null).count();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while drawing the contact sheet", e);
+        } finally {
+            workers.shutdownNow();
+        }
+        logger.info(String.format("Wrote contact sheet of %d photos (%d decoded) to %s", photos.size(), decoded,
+                output));
+        return decoded;
+    }
+
+    /**
+     * Returns the width of a sheet with the given number of columns.
+     */
+    static int getWidth(int columns) {
+        return columns * CELL_WIDTH + PADDING;
+    }
+
+    /**
+     * Returns the height of a sheet with the given number of rows.
+     */
+    static int getHeight(int rows) {
+        return rows * CELL_HEIGHT + PADDING;
+    }
+
+    /**
+     * Returns the tile of a photo, decoded subsampled and scaled to fit within a tile.
+     *
+     * @param photo the photo to decode
+     * @return the tile image
+     * @throws IOException if the photo cannot be decoded
+     */
+    static BufferedImage loadTile(Photo photo) throws IOException {
+        return ThumbnailCache.createThumbnail(new File(photo.getFilePath()), TILE_WIDTH, TILE_HEIGHT);
+    }
+
+    private static List<Future<BufferedImage>> submitRow(ExecutorService workers, List<Photo> photos, int row,
+            int columns) {
+        List<Future<BufferedImage>> tiles = new ArrayList<>();
+        int end = Math.min(photos.size(), (row + 1) * columns);
+        for (int i = row * columns; i < end; i++) {
+            Photo photo = photos.get(i);
+            tiles.add(workers.submit(() -> loadTile(photo)));
+        }
+        return tiles;
+    }
+
+    /**
+     * Waits for the tiles of a row, replacing those that could not be decoded with null.
+     */
+    private static List<BufferedImage> await(List<Future<BufferedImage>> tiles) throws InterruptedException {
+        List<BufferedImage> images = new ArrayList<>();
+        for (Future<BufferedImage> tile : tiles) {
+            try {
+                images.add(tile.get());
+            } catch (ExecutionException e) {
+                logger.warning("Failed to decode photo for contact sheet: " + e.getCause().getMessage());
+                images.add(null);
+            }
+        }
+        return images;
+    }
+
+    /**
+     * Draws one row of tiles with their captions into a band as wide as the sheet. The band of the last row
+     * also holds the padding at the bottom of the sheet.
+     */
+    private static BufferedImage drawRow(List<Photo> photos, List<BufferedImage> tiles, int columns,
+            boolean isLastRow) {
+        int height = CELL_HEIGHT + (isLastRow ? PADDING : 0);
+        BufferedImage band = new BufferedImage(getWidth(columns), height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = band.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setColor(PhotoViewer.BACKGROUND_COLOR);
+            graphics.fillRect(0, 0, band.getWidth(), height);
+            graphics.setFont(PhotoViewer.LOCATION_FONT);
+            FontMetrics metrics = graphics.getFontMetrics();
+
+            for (int i = 0; i < photos.size(); i++) {
+                int x = PADDING + i * CELL_WIDTH;
+                int y = PADDING;
+                BufferedImage tile = tiles.get(i);
+                if (tile == null) {
+                    graphics.setColor(PLACEHOLDER_COLOR);
+                    graphics.fillRect(x, y, TILE_WIDTH, TILE_HEIGHT);
+                } else {
+                    graphics.drawImage(tile, x + (TILE_WIDTH - tile.getWidth()) / 2,
+                            y + (TILE_HEIGHT - tile.getHeight()) / 2, null);
+                }
+
+                String caption = fitText(photos.get(i).getCaption(), metrics, TILE_WIDTH);
+                graphics.setColor(Color.BLACK);
+                graphics.drawString(caption, x + (TILE_WIDTH - metrics.stringWidth(caption)) / 2,
+                        y + TILE_HEIGHT + (CAPTION_HEIGHT + metrics.getAscent() - metrics.getDescent()) / 2);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return band;
+    }
+
+    /**
+     * Shortens a text with an ellipsis until it fits within the given width.
+     */
+    static String fitText(String text, FontMetrics metrics, int width) {
+        if (metrics.stringWidth(text) <= width) {
+            return text;
+        }
+        String shortened = text;
+        while (!shortened.isEmpty() && metrics.stringWidth(shortened + "...") > width) {
+            shortened = shortened.substring(0, shortened.length() - 1);
+        }
+        return shortened + "...";
+    }
+}
@@ -0,0 +1,146 @@
+package photo;
+
+import com.drew.imaging.ImageProcessingException;
+import com.drew.metadata.Metadata;
+import com.drew.metadata.exif.ExifThumbnailDirectory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.logging.Logger;
+
+/**
+ * Reads the small preview image that most cameras embed in the EXIF block of a JPEG.
+ * The preview is located through the ExifThumbnailDirectory of metadata-extractor, whose offset is relative
+ * to the TIFF header inside the EXIF segment, and is decoded without touching the full-resolution image data.
+ * Only the EXIF segment is parsed, so segments after it that run past the header read, e.g. extended XMP
+ * holding a depth map, do not prevent the preview from being found.
+ */
+public class ExifThumbnailReader {
+    /** The EXIF segment is at most 64KB and comes before the image data, so it lies within this prefix */
+    private static final int MAX_HEADER_BYTES = 256 * 1024;
+    private static final byte[] EXIF_IDENTIFIER = {'E', 'x', 'i', 'f', 0, 0};
+
+    private static final Logger logger = Logger.getLogger(ExifThumbnailReader.class.getName());
+
+    /**
+     * Returns the embedded preview of a photo.
+     *
+     * @param filePath the path of the photo
+     * @return the decoded preview, or null if the photo has no readable embedded preview
+     */
+    public static BufferedImage read(String filePath) {
+        File file = new File(filePath);
+        try {
+            // The metadata is parsed from the header read for the preview, so the file is only read once
+            byte[] header = readHeader(file);
+            int segmentStart = findExifSegment(header);
+            if (segmentStart < 0) {
+                return null;
+            }
+            int segmentEnd = segmentStart + 2 + getSegmentLength(header, segmentStart);
+            if (segmentEnd > header.length) {
+                return null;
+            }
+            Metadata metadata = PhotoMetadataExtractor.readExifMetadata(
+                    new ByteArrayInputStream(exifOnlyJpeg(header, segmentStart, segmentEnd)));
+            ExifThumbnailDirectory directory = metadata.getFirstDirectoryOfType(ExifThumbnailDirectory.class);
+            if (directory == null) {
+                return null;
+            }
+            Integer offset = directory.getInteger(ExifThumbnailDirectory.TAG_THUMBNAIL_OFFSET);
+            Integer length = directory.getInteger(ExifThumbnailDirectory.TAG_THUMBNAIL_LENGTH);
+            if (offset == null || length == null || offset < 0 || length <= 0) {
+                return null;
+            }
+
+            int tiffStart = segmentStart + 4 + EXIF_IDENTIFIER.length;
+            if ((long) tiffStart + offset + length > header.length) {
+                return null;
+            }
+            return ImageIO.read(new ByteArrayInputStream(header, tiffStart + offset, length));
+        } catch (ImageProcessingException | IOException e) {
+            logger.fine(() -> "No embedded preview in " + filePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the position of the TIFF header inside the EXIF segment of a JPEG, by walking the segments
+     * that come before the image data.
+     *
+     * @param jpeg the start of a JPEG file
+     * @return the position of the TIFF header, or -1 if there is no EXIF segment
+     */
+    static int findTiffHeader(byte[] jpeg) {
+        int segmentStart = findExifSegment(jpeg);
+        return segmentStart < 0 ? -1 : segmentStart + 4 + EXIF_IDENTIFIER.length;
+    }
+
+    /**
+     * Returns the position of the marker of the EXIF segment of a JPEG, by walking the segments that come before
+     * the image data.
+     *
+     * @param jpeg the start of a JPEG file
+     * @return the position of the segment, or -1 if there is no EXIF segment
+     */
+    private static int findExifSegment(byte[] jpeg) {
+        if (jpeg.length < 4 || (jpeg[0] & 0xFF) != 0xFF || (jpeg[1] & 0xFF) != 0xD8) {
+            return -1;
+        }
+        int position = 2;
+        while (position + 4 <= jpeg.length && (jpeg[position] & 0xFF) == 0xFF) {
+            int marker = jpeg[position + 1] & 0xFF;
+            if (marker == 0xDA || marker == 0xD9) {
+                // Start of scan or end of image, no more metadata segments follow
+                return -1;
+            }
+            if (marker == 0xE1 && hasExifIdentifier(jpeg, position + 4)) {
+                return position;
+            }
+            position += 2 + getSegmentLength(jpeg, position);
+        }
+        return -1;
+    }
+
+    private static int getSegmentLength(byte[] jpeg, int position) {
+        return ((jpeg[position + 2] & 0xFF) << 8) | (jpeg[position + 3] & 0xFF);
+    }
+
+    /**
+     * Returns a JPEG made of only the given EXIF segment, ended right after it, so that the segments
+     * that follow it in the file need not have been read for its metadata to be parsed.
+     */
+    private static byte[] exifOnlyJpeg(byte[] header, int segmentStart, int segmentEnd) {
+        int segmentLength = segmentEnd - segmentStart;
+        byte[] jpeg = new byte[segmentLength + 4];
+        jpeg[0] = (byte) 0xFF;
+        jpeg[1] = (byte) 0xD8;
+        System.arraycopy(header, segmentStart, jpeg, 2, segmentLength);
+        jpeg[jpeg.length - 2] = (byte) 0xFF;
+        jpeg[jpeg.length - 1] = (byte) 0xD9;
+        return jpeg;
+    }
+
+    private static boolean hasExifIdentifier(byte[] jpeg, int position) {
+        if (position + EXIF_IDENTIFIER.length > jpeg.length) {
+            return false;
+        }
+        for (int i = 0; i < EXIF_IDENTIFIER.length; i++) {
+            if (jpeg[position + i] != EXIF_IDENTIFIER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] readHeader(File file) throws IOException {
+        try (InputStream input = new FileInputStream(file)) {
+            return input.readNBytes(MAX_HEADER_BYTES);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package photo;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps decoded images in memory, evicting the least recently used ones once their pixels take up more
+ * than a fixed number of bytes. The bound is on pixel memory rather than on the number of images,
+ * since a few large images can take as much memory as many small ones.
+ * All methods are synchronized, so images can be added by a prefetching thread while the viewer reads them.
+ */
+public class ImageCache {
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, BufferedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes = 0;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxBytes the maximum number of bytes the pixels of the cached images may take up
+     */
+    public ImageCache(long maxBytes) {
+        assert maxBytes > 0 : "Cache size should be positive";
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached image for a key and marks it as most recently used.
+     *
+     * @param key the key the image was cached under
+     * @return the image, or null if it is not cached
+     */
+    public synchronized BufferedImage get(String key) {
+        return images.get(key);
+    }
+
+    /**
+     * Returns whether an image is cached for a key, without marking it as used.
+     *
+     * @param key the key to look up
+     * @return true if the image is cached
+     */
+    public synchronized boolean contains(String key) {
+        return images.containsKey(key);
+    }
+
+    /**
+     * Caches an image, evicting the least recently used images until the cache is within its bound again.
+     * Images that are larger than the whole cache are not cached.
+     *
+     * @param key the key to cache the image under
+     * @param image the image to cache
+     */
+    public synchronized void put(String key, BufferedImage image) {
+        long size = sizeOf(image);
+        if (size > maxBytes) {
+            return;
+        }
+        BufferedImage previous = images.put(key, image);
+        if (previous != null) {
+            usedBytes -= sizeOf(previous);
+        }
+        usedBytes += size;
+
+        Iterator<Map.Entry<String, BufferedImage>> eldest = images.entrySet().iterator();
+        while (usedBytes > maxBytes) {
+            usedBytes -= sizeOf(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Returns the number of bytes taken up by the pixels of all cached images.
+     *
+     * @return the used bytes
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return images.size();
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * BYTES_PER_PIXEL;
+    }
+}
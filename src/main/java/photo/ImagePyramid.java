@@ -0,0 +1,219 @@
+package photo;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Decodes an image as a pyramid of square tiles on demand, so that an image of any size can be viewed
+ * without ever decoding all of it at once. Level 0 has the full resolution and each further level halves it,
+ * up to the level at which the whole image fits within one tile. A tile is decoded from only its region of the
+ * file, subsampled to the resolution of its level, and decoded tiles are kept in an LRU cache bounded by pixel
+ * memory, so the memory used stays within a fixed budget however large the image is.
+ * Tiles may be requested from any thread, but are decoded one at a time, as an ImageReader is not thread-safe.
+ */
+public class ImagePyramid implements Closeable {
+    public static final int TILE_SIZE = 256;
+
+    private final String filePath;
+    private final ImageInputStream input;
+    private final ImageReader reader;
+    private final int width;
+    private final int height;
+    private final int levelCount;
+    private final ImageCache tiles;
+
+    /**
+     * Opens an image and reads its size, without decoding any pixels.
+     *
+     * @param filePath the path of the image
+     * @param cacheBytes the maximum number of bytes the pixels of the cached tiles may take up
+     * @throws IOException if the image cannot be opened or has no decoder
+     */
+    public ImagePyramid(String filePath, long cacheBytes) throws IOException {
+        this.filePath = filePath;
+        this.tiles = new ImageCache(cacheBytes);
+        input = ImageIO.createImageInputStream(new File(filePath));
+        if (input == null) {
+            throw new IOException("Cannot open image: " + filePath);
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            input.close();
+            throw new IOException("No decoder for image: " + filePath);
+        }
+        reader = readers.next();
+        reader.setInput(input, true, true);
+        try {
+            width = reader.getWidth(0);
+            height = reader.getHeight(0);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        int levels = 1;
+        while (Math.max(width, height) > TILE_SIZE << (levels - 1)) {
+            levels++;
+        }
+        levelCount = levels;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of levels, the last of which fits within one tile.
+     *
+     * @return the number of levels
+     */
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    /**
+     * Returns the width of the image at a level.
+     *
+     * @param level the level, 0 being the full resolution
+     * @return the width in pixels
+     */
+    public int getWidth(int level) {
+        return Math.max(1, (width + (1 << level) - 1) >> level);
+    }
+
+    /**
+     * Returns the height of the image at a level.
+     *
+     * @param level the level, 0 being the full resolution
+     * @return the height in pixels
+     */
+    public int getHeight(int level) {
+        return Math.max(1, (height + (1 << level) - 1) >> level);
+    }
+
+    /**
+     * Returns the number of tile columns at a level.
+     *
+     * @param level the level
+     * @return the number of columns
+     */
+    public int getColumns(int level) {
+        return (getWidth(level) + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    /**
+     * Returns the number of tile rows at a level.
+     *
+     * @param level the level
+     * @return the number of rows
+     */
+    public int getRows(int level) {
+        return (getHeight(level) + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    /**
+     * Returns a tile if it has been decoded and is still cached, without decoding it.
+     *
+     * @param level the level of the tile
+     * @param column the column of the tile
+     * @param row the row of the tile
+     * @return the tile, or null if it is not cached
+     */
+    public BufferedImage getCachedTile(int level, int column, int row) {
+        return tiles.get(getKey(level, column, row));
+    }
+
+    /**
+     * Returns a tile, decoding it from its region of the image if it is not cached.
+     * Tiles at the right and bottom edges are smaller than {@link #TILE_SIZE}.
+     *
+     * @param level the level of the tile
+     * @param column the column of the tile
+     * @param row the row of the tile
+     * @return the tile
+     * @throws IOException if the region cannot be decoded
+     */
+    public BufferedImage getTile(int level, int column, int row) throws IOException {
+        assert level >= 0 && level < levelCount : "Level should be within the pyramid";
+        assert column >= 0 && column < getColumns(level) : "Column should be within the level";
+        assert row >= 0 && row < getRows(level) : "Row should be within the level";
+        String key = getKey(level, column, row);
+        BufferedImage tile = tiles.get(key);
+        if (tile != null) {
+            return tile;
+        }
+
+        int scale = 1 << level;
+        int x = column * TILE_SIZE * scale;
+        int y = row * TILE_SIZE * scale;
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle(x, y, Math.min(TILE_SIZE * scale, width - x),
+                Math.min(TILE_SIZE * scale, height - y)));
+        param.setSourceSubsampling(scale, scale, 0, 0);
+        synchronized (reader) {
+            tile = reader.read(0, param);
+        }
+        tiles.put(key, tile);
+        return tile;
+    }
+
+    /**
+     * Returns the lowest level at which the whole image fits within the given bounds.
+     *
+     * @param maxWidth the maximum width
+     * @param maxHeight the maximum height
+     * @return the level
+     */
+    public int getLevelToFit(int maxWidth, int maxHeight) {
+        int level = 0;
+        while (level < levelCount - 1 && (getWidth(level) > maxWidth || getHeight(level) > maxHeight)) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Returns the range of tiles at a level that intersect an area, in tile columns and rows.
+     *
+     * @param level the level
+     * @param area the area in pixels of the level
+     * @return the columns and rows of the intersecting tiles, empty if the area is outside the image
+     */
+    public Rectangle getTileRange(int level, Rectangle area) {
+        int firstColumn = Math.max(0, area.x / TILE_SIZE);
+        int firstRow = Math.max(0, area.y / TILE_SIZE);
+        int lastColumn = Math.min(getColumns(level) - 1, (area.x + area.width - 1) / TILE_SIZE);
+        int lastRow = Math.min(getRows(level) - 1, (area.y + area.height - 1) / TILE_SIZE);
+        if (area.isEmpty() || lastColumn < firstColumn || lastRow < firstRow) {
+            return new Rectangle();
+        }
+        return new Rectangle(firstColumn, firstRow, lastColumn - firstColumn + 1, lastRow - firstRow + 1);
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (reader) {
+            reader.dispose();
+        }
+        input.close();
+    }
+
+    private static String getKey(int level, int column, int row) {
+        return level + "/" + column + "/" + row;
+    }
+}
@@ -0,0 +1,52 @@
+package photo;
+
+/**
+ * Accumulates the number, average and maximum of measured latencies of one operation,
+ * such as decoding or displaying a photo. Methods are synchronized, as latencies are recorded
+ * from background threads and read from the command thread.
+ */
+public class LatencyStats {
+    private final String name;
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Creates empty statistics for the named operation.
+     *
+     * @param name the operation being measured, used in {@link #toString()}
+     */
+    public LatencyStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one measured latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        assert nanos >= 0 : "Latency should not be negative";
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized double getAverageMillis() {
+        return count == 0 ? 0 : totalNanos / 1e6 / count;
+    }
+
+    public synchronized double getMaxMillis() {
+        return maxNanos / 1e6;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: %d samples, average %.1f ms, max %.1f ms", name, count,
+                getAverageMillis(), getMaxMillis());
+    }
+}
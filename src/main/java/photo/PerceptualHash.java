@@ -0,0 +1,79 @@
+package photo;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Computes the perceptual hash (dHash) of a photo: a 64-bit fingerprint of its coarse structure that stays the
+ * same, or changes in only a few bits, when the photo is resized, recompressed or slightly retouched. The photo is
+ * decoded with source subsampling to a small thumbnail, averaged down to a 9x8 grid of grey levels, and each bit
+ * records whether a cell is brighter than its right neighbour. The number of differing bits between two hashes
+ * measures how different the photos look.
+ */
+public class PerceptualHash {
+    private static final int GRID_WIDTH = 9;
+    private static final int GRID_HEIGHT = 8;
+    /** Size the photo is decoded to before it is averaged down to the grid */
+    private static final int DECODE_SIZE = 72;
+
+    /**
+     * Computes the perceptual hash of a photo file.
+     *
+     * @param filePath the path of the photo
+     * @return the 64-bit hash
+     * @throws IOException if the photo cannot be decoded
+     */
+    public static long compute(String filePath) throws IOException {
+        return compute(ThumbnailCache.createThumbnail(new File(filePath), DECODE_SIZE, DECODE_SIZE));
+    }
+
+    /**
+     * Computes the perceptual hash of an image.
+     *
+     * @param image the image
+     * @return the 64-bit hash
+     */
+    static long compute(BufferedImage image) {
+        double[][] grid = toGreyGrid(image);
+        long hash = 0;
+        for (int y = 0; y < GRID_HEIGHT; y++) {
+            for (int x = 0; x < GRID_WIDTH - 1; x++) {
+                hash <<= 1;
+                if (grid[y][x] > grid[y][x + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Averages the grey levels of all pixels falling into each cell of the grid, so that the hash does not
+     * depend on how the photo was scaled.
+     */
+    private static double[][] toGreyGrid(BufferedImage image) {
+        double[][] sums = new double[GRID_HEIGHT][GRID_WIDTH];
+        int[][] counts = new int[GRID_HEIGHT][GRID_WIDTH];
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellY = y * GRID_HEIGHT / height;
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                int cellX = x * GRID_WIDTH / width;
+                sums[cellY][cellX] += 0.299 * ((pixel >> 16) & 0xFF) + 0.587 * ((pixel >> 8) & 0xFF)
+                        + 0.114 * (pixel & 0xFF);
+                counts[cellY][cellX]++;
+            }
+        }
+        for (int y = 0; y < GRID_HEIGHT; y++) {
+            for (int x = 0; x < GRID_WIDTH; x++) {
+                sums[y][x] = counts[y][x] == 0 ? 0 : sums[y][x] / counts[y][x];
+            }
+        }
+        return sums;
+    }
+}
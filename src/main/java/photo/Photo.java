@@ -17,14 +17,29 @@ import java.util.logging.Logger;
  * the photo file using the PhotoMetadataExtractor.
  */
 public class Photo {
+    /** Format of the date and time shown for photos and trips, shared so that it is compiled only once */
+    public static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd h:mma");
     private static final Logger logger = Logger.getLogger(Photo.class.getName());
 
-    private String filePath;
+    /** Changed only when the file has moved and the photo is relinked, possibly from a background thread */
+    private volatile String filePath;
     private String photoName;
     private String caption;
     private String locationName;
     private LocalDateTime datetime;
     private Location location;
+    /**
+     * The text returned by toString, rendered on first use. It depends only on the name, location name, date and
+     * caption, which never change after the photo is created; relinking the file or recording its perceptual hash
+     * or fingerprint leaves it valid. A setter added for any of those four fields must clear it.
+     */
+    private String rendered;
+    /** The perceptual hash of the photo, computed when first needed and then saved with the diary */
+    private volatile Long perceptualHash;
+    /** The size of the file, or -1 if its fingerprint has not been recorded */
+    private long fileSize = -1;
+    /** The content hash of the file, recorded so that the file can be found again after it is moved */
+    private String contentHash;
 
     /**
      * Constructs a Photo object with all specified parameters.
@@ -68,6 +83,28 @@ public class Photo {
         extractData(filePath, datetime);
     }
 
+    /**
+     * Constructs a Photo from details saved earlier, without reading the file. This keeps a photo whose file
+     * has been moved or is on a drive that is not connected, so that it can be relinked later.
+     *
+     * @param filePath The file path the photo was saved with.
+     * @param photoName The name of the photo.
+     * @param caption The caption for the photo.
+     * @param datetime The saved datetime of the photo.
+     * @param location The saved location of the photo.
+     */
+    public Photo(String filePath, String photoName, String caption, LocalDateTime datetime, Location location) {
+        assert filePath != null && !filePath.isEmpty() : "File path cannot be null or empty.";
+        assert datetime != null && location != null : "Saved datetime and location cannot be null.";
+        this.filePath = filePath;
+        this.photoName = photoName;
+        this.caption = caption;
+        this.datetime = datetime;
+        this.location = location;
+        this.locationName = location.getLocationName();
+        logger.info("Restored photo without reading its file: " + filePath);
+    }
+
     /**
      * Constructs a Photo object without specifying datetime.
      * Defaults datetime to metadata or current time.
@@ -94,6 +131,17 @@ public class Photo {
         return this.filePath;
     }
 
+    /**
+     * Changes the file path of the photo after its file has been moved.
+     * Photos in an album should be relinked through the album, so that its listeners are notified.
+     * @param filePath The new file path.
+     */
+    public void setFilePath(String filePath) {
+        assert filePath != null && !filePath.isEmpty() : "File path cannot be null or empty.";
+        logger.info(String.format("Relinking photo %s from %s to %s", photoName, this.filePath, filePath));
+        this.filePath = filePath;
+    }
+
     public String getLocationName() {
         return locationName;
     }
@@ -136,6 +184,49 @@ public class Photo {
         return this.datetime;
     }
 
+    /**
+     * Returns the perceptual hash of the photo, if it has been computed.
+     * @return The hash, or null if it has not been computed yet.
+     */
+    public Long getPerceptualHash() {
+        return perceptualHash;
+    }
+
+    /**
+     * Sets the perceptual hash of the photo, as computed by {@link PerceptualHash} or loaded from storage.
+     * @param perceptualHash The hash of the photo.
+     */
+    public void setPerceptualHash(long perceptualHash) {
+        this.perceptualHash = perceptualHash;
+    }
+
+    /**
+     * Records the size and content hash of the file, by which it can be found again after it is moved.
+     * @param fileSize The size of the file in bytes.
+     * @param contentHash The content hash of the file.
+     */
+    public synchronized void setFingerprint(long fileSize, String contentHash) {
+        assert fileSize >= 0 && contentHash != null : "Fingerprint should have a size and a hash.";
+        this.fileSize = fileSize;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Returns the recorded size of the file.
+     * @return The size in bytes, or -1 if no fingerprint has been recorded.
+     */
+    public synchronized long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Returns the recorded content hash of the file.
+     * @return The hash, or null if no fingerprint has been recorded.
+     */
+    public synchronized String getContentHash() {
+        return contentHash;
+    }
+
     /**
      * Checks whether the photo has a valid location name.
      * A valid location name is not null, not empty, and not "Location not found".
@@ -200,10 +291,12 @@ public class Photo {
      */
     @Override
     public String toString() {
-        DateTimeFormatter outputFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd h:mma");
-        String result = String.format("%s (%s) %s \n\t\t%s", photoName,
-                locationName, datetime.format(outputFormatter), caption);
-        logger.fine("Photo toString: " + result);
+        String result = rendered;
+        if (result == null) {
+            result = photoName + " (" + locationName + ") " + datetime.format(DISPLAY_FORMAT) + " \n\t\t" + caption;
+            rendered = result;
+            logger.fine(() -> "Photo toString: " + rendered);
+        }
         return result;
     }
 }
@@ -0,0 +1,180 @@
+package photo;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Draws the card shown by the photo viewer, with the location and date above the photo and the caption
+ * below it, into an image instead of a window. Only Java2D is used, so cards can be rendered with
+ * {@code java.awt.headless=true}, e.g. on a server or in CI. A whole trip can be rendered to files at once,
+ * spread over all processor cores.
+ */
+public class PhotoCardRenderer {
+    /** Image formats cards can be written in */
+    public static final List<String> FORMATS = List.of("png", "jpg");
+
+    private static final int PADDING = 12;
+    private static final int BORDER_WIDTH = 5;
+
+    private static final Logger logger = Logger.getLogger(PhotoCardRenderer.class.getName());
+
+    /**
+     * Renders the card of a photo.
+     *
+     * @param photo the photo to render
+     * @return the rendered card
+     * @throws IOException if the photo cannot be decoded
+     */
+    public static BufferedImage render(Photo photo) throws IOException {
+        BufferedImage image = ThumbnailCache.getDefault().getThumbnail(photo.getFilePath());
+        String header = PhotoViewer.getLocationAndDate(photo);
+        String caption = photo.getCaption();
+
+        // Measure the text on a scratch image, as the size of the card depends on it
+        Graphics2D scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+        FontMetrics headerMetrics = scratch.getFontMetrics(PhotoViewer.LOCATION_FONT);
+        FontMetrics captionMetrics = scratch.getFontMetrics(PhotoViewer.CAPTION_FONT);
+        scratch.dispose();
+
+        int framedWidth = image.getWidth() + 2 * BORDER_WIDTH;
+        int framedHeight = image.getHeight() + 2 * BORDER_WIDTH;
+        int width = Math.max(framedWidth, Math.max(headerMetrics.stringWidth(header),
+                captionMetrics.stringWidth(caption))) + 2 * PADDING;
+        int height = PADDING + headerMetrics.getHeight() + PADDING + framedHeight + PADDING
+                + captionMetrics.getHeight() + PADDING;
+
+        BufferedImage card = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = card.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setColor(PhotoViewer.BACKGROUND_COLOR);
+            graphics.fillRect(0, 0, width, height);
+
+            int y = PADDING;
+            drawCentered(graphics, header, PhotoViewer.LOCATION_FONT, Color.DARK_GRAY, width, y);
+            y += headerMetrics.getHeight() + PADDING;
+
+            int x = (width - framedWidth) / 2;
+            graphics.setColor(PhotoViewer.BORDER_COLOR);
+            graphics.fillRect(x, y, framedWidth, framedHeight);
+            graphics.drawImage(image, x + BORDER_WIDTH, y + BORDER_WIDTH, null);
+            y += framedHeight + PADDING;
+
+            drawCentered(graphics, caption, PhotoViewer.CAPTION_FONT, Color.BLACK, width, y);
+        } finally {
+            graphics.dispose();
+        }
+        return card;
+    }
+
+    /**
+     * Renders the card of a photo and writes it to a file, in the format given by the file extension.
+     *
+     * @param photo the photo to render
+     * @param output the file to write, ending in one of {@link #FORMATS}
+     * @throws IOException if the photo cannot be decoded or the file cannot be written
+     */
+    public static void write(Photo photo, Path output) throws IOException {
+        String format = getFormat(output);
+        if (!ImageIO.write(render(photo), format, output.toFile())) {
+            throw new IOException("No writer for image format: " + format);
+        }
+    }
+
+    /**
+     * Renders the cards of all given photos into a directory in parallel, one file per photo named after
+     * its position and name. Photos that cannot be rendered are logged and skipped.
+     *
+     * @param photos the photos to render, in the order they should be numbered
+     * @param directory the directory to write the cards to, which is created if needed
+     * @param format the image format, one of {@link #FORMATS}
+     * @return the files that were written
+     * @throws IOException if the directory cannot be created
+     */
+    public static List<Path> renderAll(List<Photo> photos, Path directory, String format) throws IOException {
+        assert FORMATS.contains(format) : "Format should be one of " + FORMATS;
+        Files.createDirectories(directory);
+        if (photos.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        int threads = Math.min(photos.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Path>> results = new ArrayList<>();
+            for (int i = 0; i < photos.size(); i++) {
+                Photo photo = photos.get(i);
+                Path output = directory.resolve(getFileName(i + 1, photo, format));
+                results.add(workers.submit(() -> {
+                    write(photo, output);
+                    return output;
+                }));
+            }
+
+            List<Path> written = new ArrayList<>();
+            for (Future<Path> result : results) {
+                try {
+                    written.add(result.get());
+                } catch (ExecutionException e) {
+                    logger.warning("Failed to render photo card: " + e.getCause().getMessage());
+                }
+            }
+            logger.info(String.format("Rendered %d of %d photo cards to %s", written.size(), photos.size(),
+                    directory));
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering photo cards", e);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the name of the file a card is written to, e.g. {@code 003_Night_lights.png}.
+     *
+     * @param number the position of the photo, starting at 1
+     * @param photo the photo of the card
+     * @param format the image format
+     * @return the file name
+     */
+    static String getFileName(int number, Photo photo, String format) {
+        String name = photo.getPhotoName().replaceAll("[^A-Za-z0-9._-]+", "_");
+        return String.format("%03d_%s.%s", number, name, format);
+    }
+
+    private static String getFormat(Path output) throws IOException {
+        String fileName = output.getFileName().toString().toLowerCase();
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1);
+        if (extension.equals("jpeg")) {
+            extension = "jpg";
+        }
+        if (!FORMATS.contains(extension)) {
+            throw new IOException("Photo cards can only be written as " + String.join(" or ", FORMATS) + ": "
+                    + output);
+        }
+        return extension;
+    }
+
+    private static void drawCentered(Graphics2D graphics, String text, Font font, Color color, int width, int top) {
+        graphics.setFont(font);
+        graphics.setColor(color);
+        FontMetrics metrics = graphics.getFontMetrics();
+        graphics.drawString(text, (width - metrics.stringWidth(text)) / 2, top + metrics.getAscent());
+    }
+}
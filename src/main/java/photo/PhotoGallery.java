@@ -0,0 +1,244 @@
+package photo;
+
+import javax.swing.AbstractListModel;
+import javax.swing.BorderFactory;
+import javax.swing.ImageIcon;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JScrollPane;
+import javax.swing.ListCellRenderer;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * A window that shows the photos of an album as a grid of thumbnails in chronological order.
+ * The grid is a JList with fixed cell sizes, so opening it neither measures nor decodes any photo,
+ * and only the visible cells are rendered, all by one recycled label. Thumbnails are loaded in the
+ * background only for cells that are visible when their turn comes, and are kept in an LRU cache
+ * bounded by pixel memory, so the gallery of a large album opens at once and its memory stays bounded
+ * however far the user scrolls. Double-clicking a thumbnail opens the photo in the {@link PhotoViewer}.
+ */
+public class PhotoGallery {
+    public static final int THUMBNAIL_WIDTH = 160;
+    public static final int THUMBNAIL_HEIGHT = 120;
+    private static final int CELL_WIDTH = THUMBNAIL_WIDTH + 16;
+    private static final int CELL_HEIGHT = THUMBNAIL_HEIGHT + 32;
+    private static final long CACHE_BYTES = 32L * 1024 * 1024;
+
+    private static final Color BACKGROUND_COLOR = new Color(255, 254, 224);
+    private static final ImageIcon PLACEHOLDER = new ImageIcon(
+            new BufferedImage(THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT, BufferedImage.TYPE_INT_RGB));
+
+    private static final Logger logger = Logger.getLogger(PhotoGallery.class.getName());
+
+    /** Loads thumbnails for all galleries, one at a time so that scrolling does not flood the disk */
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gallery-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<Photo> photos;
+    private final ImageCache thumbnails = new ImageCache(CACHE_BYTES);
+    /** Paths of the photos whose thumbnails are being loaded, only used on the event dispatch thread */
+    private final Set<String> pending = new HashSet<>();
+    /** Paths of the photos that could not be decoded, so they are not tried again on every repaint */
+    private final Set<String> failed = new HashSet<>();
+    private final JFrame frame;
+    private final JList<Photo> grid;
+
+    /** Range of cells visible in the grid, read by the loader to skip cells scrolled out of view */
+    private volatile int firstVisible = 0;
+    private volatile int lastVisible = -1;
+    private volatile boolean isClosed = false;
+
+    /**
+     * Creates a gallery window for the given photos. Must be called on the event dispatch thread.
+     *
+     * @param title the title of the window
+     * @param photos the photos to show, in chronological order
+     */
+    PhotoGallery(String title, List<Photo> photos) {
+        this.photos = photos;
+        grid = new JList<>(new PhotoListModel(photos));
+        grid.setLayoutOrientation(JList.HORIZONTAL_WRAP);
+        grid.setVisibleRowCount(-1);
+        grid.setFixedCellWidth(CELL_WIDTH);
+        grid.setFixedCellHeight(CELL_HEIGHT);
+        grid.setBackground(BACKGROUND_COLOR);
+        grid.setCellRenderer(new ThumbnailRenderer());
+        grid.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = grid.locationToIndex(e.getPoint());
+                if (e.getClickCount() == 2 && index >= 0) {
+                    open(index);
+                }
+            }
+        });
+
+        JScrollPane scrollPane = new JScrollPane(grid);
+        scrollPane.getVerticalScrollBar().setUnitIncrement(CELL_HEIGHT / 4);
+        scrollPane.getViewport().addChangeListener(e -> updateVisibleRange());
+        scrollPane.setPreferredSize(new Dimension(CELL_WIDTH * 5 + 24, CELL_HEIGHT * 4));
+
+        frame = new JFrame(title);
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.add(scrollPane);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                isClosed = true;
+            }
+        });
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        updateVisibleRange();
+    }
+
+    /**
+     * Opens a gallery window for the given photos without waiting for it to appear.
+     *
+     * @param title the title of the window
+     * @param photos the photos to show, in chronological order
+     */
+    public static void open(String title, List<Photo> photos) {
+        SwingUtilities.invokeLater(() -> {
+            PhotoGallery gallery = new PhotoGallery(title, photos);
+            gallery.frame.setVisible(true);
+            logger.info(String.format("Opened gallery of %d photos", photos.size()));
+        });
+    }
+
+    private void open(int index) {
+        try {
+            PhotoPrinter.browse(photos, index);
+        } catch (FileNotFoundException e) {
+            logger.warning(e.getMessage());
+        }
+    }
+
+    private void updateVisibleRange() {
+        firstVisible = grid.getFirstVisibleIndex();
+        lastVisible = grid.getLastVisibleIndex();
+    }
+
+    /**
+     * Returns the thumbnail of the photo in a cell if it is loaded, and starts loading it otherwise.
+     */
+    private ImageIcon getThumbnail(int index, Photo photo) {
+        String filePath = photo.getFilePath();
+        BufferedImage thumbnail = thumbnails.get(filePath);
+        if (thumbnail != null) {
+            return new ImageIcon(thumbnail);
+        }
+        if (!failed.contains(filePath) && pending.add(filePath)) {
+            loader.execute(() -> load(index, filePath));
+        }
+        return PLACEHOLDER;
+    }
+
+    /**
+     * Loads the thumbnail of a cell on the loader thread, unless the cell has been scrolled out of view or the
+     * gallery has been closed since it was requested, and then repaints the cell. A skipped cell requests its
+     * thumbnail again when it is painted the next time.
+     */
+    private void load(int index, String filePath) {
+        boolean isSkipped = isClosed || index < firstVisible || index > lastVisible;
+        BufferedImage thumbnail = isSkipped ? null : loadThumbnail(filePath);
+        SwingUtilities.invokeLater(() -> {
+            pending.remove(filePath);
+            if (thumbnail != null) {
+                thumbnails.put(filePath, thumbnail);
+            } else if (!isSkipped) {
+                failed.add(filePath);
+            }
+            Rectangle cell = grid.getCellBounds(index, index);
+            if (cell != null && grid.getVisibleRect().intersects(cell)) {
+                grid.repaint(cell);
+            }
+        });
+    }
+
+    /**
+     * Returns a grid-sized thumbnail of a photo. The preview embedded in the EXIF data is used if there is one,
+     * as it is about the size of a cell and needs no decoding of the original.
+     *
+     * @param filePath the path of the photo
+     * @return the thumbnail, or null if the photo cannot be decoded
+     */
+    static BufferedImage loadThumbnail(String filePath) {
+        BufferedImage source = ExifThumbnailReader.read(filePath);
+        try {
+            if (source == null) {
+                source = ThumbnailCache.getDefault().getThumbnail(filePath);
+            }
+            return ThumbnailCache.scaleToFit(source, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
+        } catch (IOException e) {
+            logger.fine(() -> "Failed to load gallery thumbnail " + filePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Exposes the photos to the grid without copying them.
+     */
+    private static class PhotoListModel extends AbstractListModel<Photo> {
+        private final List<Photo> photos;
+
+        PhotoListModel(List<Photo> photos) {
+            this.photos = photos;
+        }
+
+        @Override
+        public int getSize() {
+            return photos.size();
+        }
+
+        @Override
+        public Photo getElementAt(int index) {
+            return photos.get(index);
+        }
+    }
+
+    /**
+     * Renders every visible cell with the same label, showing the thumbnail above the photo name.
+     */
+    private class ThumbnailRenderer extends JLabel implements ListCellRenderer<Photo> {
+        ThumbnailRenderer() {
+            setOpaque(true);
+            setHorizontalAlignment(SwingConstants.CENTER);
+            setHorizontalTextPosition(SwingConstants.CENTER);
+            setVerticalTextPosition(SwingConstants.BOTTOM);
+            setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Photo> list, Photo photo, int index,
+                boolean isSelected, boolean cellHasFocus) {
+            setIcon(getThumbnail(index, photo));
+            setText(photo.getPhotoName());
+            setBackground(isSelected ? list.getSelectionBackground() : list.getBackground());
+            setForeground(isSelected ? list.getSelectionForeground() : list.getForeground());
+            return this;
+        }
+    }
+}
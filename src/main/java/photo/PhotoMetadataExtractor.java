@@ -2,12 +2,18 @@ package photo;
 
 import com.drew.imaging.ImageMetadataReader;
 import com.drew.imaging.ImageProcessingException;
+import com.drew.imaging.jpeg.JpegMetadataReader;
+import com.drew.imaging.jpeg.JpegProcessingException;
+import com.drew.imaging.jpeg.JpegSegmentMetadataReader;
 import com.drew.metadata.Metadata;
+import com.drew.metadata.exif.ExifReader;
 import com.drew.metadata.exif.ExifSubIFDDirectory;
 import com.drew.metadata.exif.GpsDirectory;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -28,8 +34,16 @@ import tracker.Tracker;
 
 public class PhotoMetadataExtractor {
     private static final String DATA_FILEPATH = "assets/1000cities.csv";
+    /**
+     * Only the EXIF segment is parsed, as it holds the date, GPS and preview directories.
+     * ExifReader keeps no state, so one instance is shared by all threads.
+     */
+    private static final List<JpegSegmentMetadataReader> EXIF_READERS = List.of(new ExifReader());
+    /** Large enough for the headers of most JPEGs, while the segments that are not needed are skipped over */
+    private static final int HEADER_BUFFER_SIZE = 16 * 1024;
     // Static KD-tree instance, built from the CSV file.
-    private static KDNode kdTree = null;
+    /** Built on first use and published once, as photos may be created on several threads */
+    private static volatile KDNode kdTree = null;
 
     private String location;
     private LocalDateTime datetime;
@@ -51,7 +65,7 @@ public class PhotoMetadataExtractor {
             MetadataFilepathNotFound {
         File imageFile = new File(filepath);
         try {
-            Metadata metadata = ImageMetadataReader.readMetadata(imageFile);
+            Metadata metadata = readExifMetadata(imageFile);
             ExifSubIFDDirectory exifDirectory = metadata.getFirstDirectoryOfType(ExifSubIFDDirectory.class);
 
             if (exifDirectory != null) {
@@ -86,6 +100,36 @@ public class PhotoMetadataExtractor {
         }
     }
 
+    /**
+     * Reads the EXIF metadata of an image. JPEGs are read only up to the start of their image data, and of their
+     * header segments only the EXIF segment is parsed, while the XMP, ICC and IPTC segments are skipped over
+     * unread. Files that are not JPEGs despite their extension are read in full by the format-detecting reader.
+     *
+     * @param imageFile the image to read
+     * @return the metadata of the image
+     * @throws ImageProcessingException if the metadata cannot be parsed
+     * @throws IOException if the file cannot be read
+     */
+    static Metadata readExifMetadata(File imageFile) throws ImageProcessingException, IOException {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(imageFile), HEADER_BUFFER_SIZE)) {
+            return readExifMetadata(input);
+        } catch (JpegProcessingException e) {
+            return ImageMetadataReader.readMetadata(imageFile);
+        }
+    }
+
+    /**
+     * Reads the EXIF metadata from the header segments of a JPEG, e.g. from a prefix of the file read into memory.
+     *
+     * @param jpeg the JPEG data, positioned at its start
+     * @return the metadata of the JPEG
+     * @throws JpegProcessingException if the data is not a JPEG
+     * @throws IOException if the data ends before the image data starts
+     */
+    static Metadata readExifMetadata(InputStream jpeg) throws JpegProcessingException, IOException {
+        return JpegMetadataReader.readMetadata(jpeg, EXIF_READERS);
+    }
+
     public LocalDateTime getDatetime() {
         return datetime;
     }
@@ -113,8 +157,32 @@ public class PhotoMetadataExtractor {
     }
 
     public static String getLocationFromCoordinates(double latitude, double longitude) {
-        if (kdTree == null) {
-            try {
+        KDNode tree;
+        try {
+            tree = getKDTree();
+        } catch (IOException e) {
+            return "Error loading city data: " + e.getMessage();
+        }
+        City initialBest = tree.city;
+        double initDist = Tracker.calculateHaversineDistance(latitude, longitude, initialBest.lat, initialBest.lon);
+        City nearest = searchKDTree(tree, latitude, longitude, 0, initialBest, initDist);
+        return nearest.name + ", " + nearest.country;
+    }
+
+    /**
+     * Returns the KD-Tree of cities, building it on first use. Only one thread builds it, and threads
+     * that ask meanwhile wait for it. If the city data cannot be loaded, it is tried again on the next call.
+     *
+     * @return the root of the tree
+     * @throws IOException if the city data cannot be loaded
+     */
+    private static KDNode getKDTree() throws IOException {
+        KDNode tree = kdTree;
+        if (tree != null) {
+            return tree;
+        }
+        synchronized (PhotoMetadataExtractor.class) {
+            if (kdTree == null) {
                 // Load the file as a resource from the classpath
                 InputStream inputStream = ClassLoader.getSystemResourceAsStream(DATA_FILEPATH);
                 if (inputStream == null) {
@@ -122,14 +190,9 @@ public class PhotoMetadataExtractor {
                 }
                 List<City> cities = loadCities(inputStream); // Updated to load from InputStream
                 kdTree = buildKDTree(cities, 0);
-            } catch (IOException e) {
-                return "Error loading city data: " + e.getMessage();
             }
+            return kdTree;
         }
-        City initialBest = kdTree.city;
-        double initDist = Tracker.calculateHaversineDistance(latitude, longitude, initialBest.lat, initialBest.lon);
-        City nearest = searchKDTree(kdTree, latitude, longitude, 0, initialBest, initDist);
-        return nearest.name + ", " + nearest.country;
     }
 
     // ---------------------- Offline KD-Tree Reverse Geocoding Helpers ----------------------
@@ -1,37 +1,213 @@
 package photo;
 
 import javax.swing.JFrame;
-import javax.swing.JLabel;
 import javax.swing.ImageIcon;
-import javax.swing.BorderFactory;
-import javax.swing.SwingConstants;
-import java.awt.BorderLayout;
-import java.awt.Color;
-import java.awt.Font;
+import javax.swing.SwingUtilities;
 import java.awt.Image;
 import java.awt.Window;
+import java.awt.image.BufferedImage;
 import java.io.FileNotFoundException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
 import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 /**
  * PhotoPrinter class creates a PhotoFrame with JLabels based on Photo details.
  * It can display the PhotoFrame in a GUI window.
  * It loads an image, displays its caption, location, and formatted date.
+ * Images are decoded on a dedicated background thread and only the window is updated on the
+ * event dispatch thread, so that displaying a photo does not block the command prompt.
+ * Selected photos are all shown in one shared {@link PhotoViewer} window.
  */
 public class PhotoPrinter {
 
     private static final Logger logger = Logger.getLogger(PhotoPrinter.class.getName());
 
+    /** Decodes images one at a time, so that several large photos are never held in memory together */
+    private static final ExecutorService decoder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "photo-decoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Decodes photos the user is likely to open next, separately so that it never delays the photo opened now */
+    private static final ExecutorService prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "photo-prefetch");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private static final Executor eventDispatchThread = SwingUtilities::invokeLater;
+
+    /** Recently shown and prefetched thumbnails, keyed on the version of their original file */
+    private static final ImageCache decodedImages = new ImageCache(64L * 1024 * 1024);
+    /** Prefetches scheduled for the photo shown last, guarded by the class lock */
+    private static final List<Future<?>> prefetches = new ArrayList<>();
+
+    /** Number of the latest photo requested for the shared viewer, so that older requests are not shown */
+    private static final AtomicLong latestRequest = new AtomicLong();
+
+    private static final LatencyStats decodeLatency = new LatencyStats("Photo decode");
+    private static final LatencyStats displayLatency = new LatencyStats("Photo display");
+
     /**
      * Returns a PhotoFrame object with JLabels based on Photo details.
+     * The image is decoded on the calling thread.
      *
      * @param photo The photo containing image path, caption, extracted location, and datetime.
      * @return PhotoFrame object containing JLabels and JFrame of the printed photo.
      */
     public static PhotoFrame createFrame(Photo photo) throws FileNotFoundException {
+        checkExists(photo);
+        DecodedImage image = decode(photo.getFilePath());
+        PhotoViewer viewer = new PhotoViewer();
+        viewer.show(List.of(photo), 0, image.icon);
+        if (image.isPreview) {
+            replaceWhenDecoded(viewer, photo);
+        }
+        logger.info(String.format("PhotoFrame instantiated: %s, %s", photo.getCaption(), photo.getLocation()));
+        return viewer.getPhotoFrame();
+    }
+
+    /**
+     * Decodes a photo in the background and then displays it in the shared viewer, without waiting for either.
+     *
+     * @param photo The photo to display.
+     * @return a future completed with the PhotoFrame of the viewer once the photo is visible.
+     * @throws FileNotFoundException if the photo file does not exist.
+     */
+    public static CompletableFuture<PhotoFrame> displayAsync(Photo photo) throws FileNotFoundException {
+        return browse(List.of(photo), 0);
+    }
+
+    /**
+     * Decodes a photo in the background and then displays it in the shared viewer, without waiting for either.
+     * The other photos can then be browsed in the viewer, and the neighbours of the photo are prefetched.
+     * If another photo is requested before this one is decoded, this one is not shown.
+     * The decode and display latencies are recorded in {@link #getDecodeLatency()} and
+     * {@link #getDisplayLatency()}.
+     *
+     * @param photos The photos that can be browsed, in chronological order.
+     * @param position The position of the photo to display.
+     * @return a future completed with the PhotoFrame of the viewer once the photo is visible,
+     *     or with null if a later request replaced it.
+     * @throws FileNotFoundException if the photo file does not exist.
+     */
+    public static CompletableFuture<PhotoFrame> browse(List<Photo> photos, int position)
+            throws FileNotFoundException {
+        assert position >= 0 && position < photos.size() : "Position should be within the photos";
+        Photo photo = photos.get(position);
+        checkExists(photo);
+        long request = latestRequest.incrementAndGet();
+        long requested = System.nanoTime();
+        String filePath = photo.getFilePath();
+        prefetch(getNeighbours(photos, position));
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            DecodedImage image = decode(filePath);
+            long elapsed = System.nanoTime() - start;
+            decodeLatency.record(elapsed);
+            logger.info(String.format("Decoded %s in %d ms", filePath, TimeUnit.NANOSECONDS.toMillis(elapsed)));
+            return image;
+        }, decoder).thenApplyAsync(image -> {
+            if (request != latestRequest.get()) {
+                logger.fine(() -> "Skipped showing " + filePath + ", another photo was requested");
+                return null;
+            }
+            PhotoViewer viewer = PhotoViewer.getShared();
+            viewer.show(photos, position, image.icon);
+            if (image.isPreview) {
+                replaceWhenDecoded(viewer, photo);
+            }
+            PhotoFrame photoFrame = viewer.getPhotoFrame();
+            display(photoFrame);
+            long elapsed = System.nanoTime() - requested;
+            displayLatency.record(elapsed);
+            logger.info(String.format("Displayed %s %d ms after it was selected", filePath,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed)));
+            return photoFrame;
+        }, eventDispatchThread).whenComplete((photoFrame, e) -> {
+            if (e != null) {
+                logger.warning("Failed to display " + filePath + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Decodes and scales the given photos in the background, so that they are shown without delay if they
+     * are opened next. Prefetches scheduled earlier that have not started yet are cancelled, since the user
+     * has moved on to another photo.
+     *
+     * @param photos the photos to prefetch, most likely to be opened first
+     */
+    public static synchronized void prefetch(List<Photo> photos) {
+        for (Future<?> prefetch : prefetches) {
+            prefetch.cancel(false);
+        }
+        prefetches.clear();
+        for (Photo photo : photos) {
+            String filePath = photo.getFilePath();
+            prefetches.add(prefetcher.submit(() -> {
+                if (decodedImages.contains(ThumbnailCache.getKey(new File(filePath)))) {
+                    return;
+                }
+                try {
+                    getThumbnail(filePath);
+                    logger.fine(() -> "Prefetched " + filePath);
+                } catch (IOException e) {
+                    logger.fine(() -> "Failed to prefetch " + filePath + ": " + e.getMessage());
+                }
+            }));
+        }
+    }
+
+    /**
+     * Returns the photos right after and right before the given position, which are the ones
+     * most likely to be opened next when browsing.
+     *
+     * @param photos the photos being browsed, in chronological order
+     * @param position the position of the photo being opened
+     * @return the next and then the previous photo, where they exist
+     */
+    static List<Photo> getNeighbours(List<Photo> photos, int position) {
+        List<Photo> neighbours = new ArrayList<>();
+        if (position + 1 < photos.size()) {
+            neighbours.add(photos.get(position + 1));
+        }
+        if (position > 0) {
+            neighbours.add(photos.get(position - 1));
+        }
+        return neighbours;
+    }
+
+    /**
+     * Returns the time taken to decode photos for display.
+     *
+     * @return the decode latency statistics
+     */
+    public static LatencyStats getDecodeLatency() {
+        return decodeLatency;
+    }
+
+    /**
+     * Returns the time from requesting a photo with {@link #browse(List, int)} until it is visible.
+     *
+     * @return the display latency statistics
+     */
+    public static LatencyStats getDisplayLatency() {
+        return displayLatency;
+    }
+
+    private static void checkExists(Photo photo) throws FileNotFoundException {
         assert photo != null : "Photo object cannot be null";
         String filePath = photo.getFilePath();
         assert filePath != null && !filePath.isEmpty() : "Photo file path cannot be null or empty";
@@ -39,51 +215,98 @@ public class PhotoPrinter {
         if (!(new File(filePath).exists())) {
             throw new FileNotFoundException("File does not exist: " + filePath);
         }
+    }
 
-        JFrame frame = new JFrame(photo.getPhotoName());
-        logger.info("Created JFrame for: " + photo.getPhotoName());
-        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        frame.setLayout(new BorderLayout());
-        frame.getContentPane().setBackground(new Color(255, 254, 224));
-
-        // Load and resize image
-        ImageIcon originalIcon = new ImageIcon(filePath);
-        Image scaledImage = originalIcon.getImage().getScaledInstance(600, 400, Image.SCALE_SMOOTH);
-        JLabel imageLabel = new JLabel(new ImageIcon(scaledImage));
-        imageLabel.setBorder(BorderFactory.createLineBorder(new Color(51, 36, 33), 5));
-
-        // Assert image icon is correctly loaded
-        assert originalIcon.getIconWidth() > 0 : "Image icon width must be greater than 0";
-        assert originalIcon.getIconHeight() > 0 : "Image icon height must be greater than 0";
-
-        // Format the datetime
-        LocalDateTime dateTime = photo.getDatetime();
-        assert dateTime != null : "Photo datetime cannot be null";
-        DateTimeFormatter outputFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd h:mma");
-        String formattedDate = dateTime.format(outputFormatter);
-
-        // Create a label for location and datetime
-        String locationAndDateText = photo.getLocation() + " | " + formattedDate;
-        JLabel locationLabel = new JLabel(locationAndDateText, SwingConstants.CENTER);
-        locationLabel.setFont(new Font("Helvetica", Font.BOLD, 14));
-        locationLabel.setForeground(Color.DARK_GRAY);
-
-        // Caption label
-        JLabel captionLabel = new JLabel(photo.getCaption(), SwingConstants.CENTER);
-        assert captionLabel.getText() != null &&
-                !captionLabel.getText().isEmpty() : "Caption label text cannot be null or empty";
-
-        captionLabel.setFont(new Font("Helvetica", Font.BOLD, 16));
-
-        // Adding labels to Frame
-        frame.add(locationLabel, BorderLayout.NORTH);
-        frame.add(imageLabel, BorderLayout.CENTER);
-        frame.add(captionLabel, BorderLayout.SOUTH);
-
-        frame.pack();
-        frame.setLocationRelativeTo(null);
-        logger.info(String.format("PhotoFrame instantiated: %s, %s", photo.getCaption(), photo.getLocation()));
-        return new PhotoFrame(frame, captionLabel, locationLabel);
+    /**
+     * Loads the image to show for a photo. This is the cached thumbnail if there is one, so the
+     * full-resolution original is only decoded once. Otherwise it is the preview embedded in the EXIF data,
+     * which is replaced by the thumbnail once that is decoded, or the newly generated thumbnail if the photo
+     * has no preview.
+     *
+     * @param filePath the path of the photo
+     * @return the loaded image
+     */
+    private static DecodedImage decode(String filePath) {
+        boolean isThumbnailReady = decodedImages.contains(ThumbnailCache.getKey(new File(filePath)))
+                || ThumbnailCache.getDefault().isCached(filePath);
+        BufferedImage preview = isThumbnailReady ? null : ExifThumbnailReader.read(filePath);
+        if (preview != null) {
+            return new DecodedImage(new ImageIcon(fitToViewer(preview)), true);
+        }
+        return new DecodedImage(loadThumbnail(filePath), false);
+    }
+
+    /**
+     * Returns the thumbnail of a photo from memory, or from the thumbnail cache if it was not decoded recently.
+     *
+     * @param filePath the path of the photo
+     * @return the thumbnail of the photo
+     * @throws IOException if the photo cannot be decoded
+     */
+    private static BufferedImage getThumbnail(String filePath) throws IOException {
+        String key = ThumbnailCache.getKey(new File(filePath));
+        BufferedImage thumbnail = decodedImages.get(key);
+        if (thumbnail == null) {
+            thumbnail = ThumbnailCache.getDefault().getThumbnail(filePath);
+            decodedImages.put(key, thumbnail);
+        }
+        return thumbnail;
+    }
+
+    /**
+     * Returns the thumbnail of a photo. If the photo cannot be decoded by ImageIO,
+     * falls back to loading the original with Swing and scaling it to the size of the viewer.
+     *
+     * @param filePath the path of the photo
+     * @return an icon of the photo that fits the viewer
+     */
+    private static ImageIcon loadThumbnail(String filePath) {
+        try {
+            return new ImageIcon(getThumbnail(filePath));
+        } catch (IOException e) {
+            logger.warning("Failed to create thumbnail for " + filePath + ": " + e.getMessage());
+            Image original = new ImageIcon(filePath).getImage();
+            return new ImageIcon(original.getScaledInstance(ThumbnailCache.MAX_WIDTH, ThumbnailCache.MAX_HEIGHT,
+                    Image.SCALE_SMOOTH));
+        }
+    }
+
+    /**
+     * Scales an embedded preview up to the size the thumbnail will have, so the window does not
+     * change size when the sharp version is swapped in.
+     *
+     * @param preview the embedded preview of a photo
+     * @return the preview scaled to fit the viewer
+     */
+    private static Image fitToViewer(BufferedImage preview) {
+        double scale = Math.min((double) ThumbnailCache.MAX_WIDTH / preview.getWidth(),
+                (double) ThumbnailCache.MAX_HEIGHT / preview.getHeight());
+        int width = Math.max(1, (int) Math.round(preview.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(preview.getHeight() * scale));
+        return preview.getScaledInstance(width, height, Image.SCALE_FAST);
+    }
+
+    /**
+     * Decodes the thumbnail of a photo in the background and shows it in place of the preview
+     * once it is ready, unless the viewer has moved on to another photo in the meantime.
+     * The viewer is only updated on the event dispatch thread.
+     *
+     * @param viewer the viewer showing the preview
+     * @param photo the photo whose preview is shown
+     */
+    private static void replaceWhenDecoded(PhotoViewer viewer, Photo photo) {
+        String filePath = photo.getFilePath();
+        CompletableFuture.supplyAsync(() -> loadThumbnail(filePath), decoder).thenAcceptAsync(icon -> {
+            if (viewer.isShowing(photo)) {
+                viewer.setImage(icon);
+                logger.fine(() -> "Replaced preview with thumbnail: " + filePath);
+            }
+        }, eventDispatchThread).whenComplete((ignored, e) -> {
+            if (e != null) {
+                // Keep showing the preview, which is better than no image at all
+                logger.warning("Failed to decode " + filePath + ": " + e.getMessage());
+            }
+        });
     }
 
     /**
@@ -99,6 +322,19 @@ public class PhotoPrinter {
         logger.info(String.format("Photo displayed: %s", photoFrame.getTitle()));
     }
 
+    /**
+     * The image to show for a photo, and whether it is only the embedded preview.
+     */
+    private static class DecodedImage {
+        final ImageIcon icon;
+        final boolean isPreview;
+
+        DecodedImage(ImageIcon icon, boolean isPreview) {
+            this.icon = icon;
+            this.isPreview = isPreview;
+        }
+    }
+
     /**
      * Closes all open photo windows in the application.
      * tf there are no open windows,
@@ -113,17 +349,26 @@ public class PhotoPrinter {
      * - Prints a message to the console indicating the total number of windows that were closed.
      */
     public static void closeAllWindows() {
+        closeAllWindows(new PrintWriter(System.out, true));
+    }
+
+    /**
+     * Closes all open windows and confirms it on the given writer.
+     *
+     * @param out the writer to confirm on
+     */
+    public static void closeAllWindows(PrintWriter out) {
         Window[] windows = Window.getWindows();
         int numOfWindows = windows.length;
         assert numOfWindows >= 0 : "Number of windows cannot be negative";
         if (numOfWindows == 0) {
-            System.out.println("\tAll photos have been closed.");
+            out.println("\tAll photos have been closed.");
         } else {
             for (int i = 0; i < numOfWindows; i++) {
                 windows[i].dispose(); // Close each open window
                 logger.info(String.format("%s photo has been closed.", i + 1));
             }
-            System.out.println(String.format("\t%s photo has been closed.", numOfWindows));
+            out.println(String.format("\t%s photo has been closed.", numOfWindows));
         }
     }
 }
@@ -0,0 +1,224 @@
+package photo;
+
+import javax.swing.AbstractAction;
+import javax.swing.ActionMap;
+import javax.swing.BorderFactory;
+import javax.swing.ImageIcon;
+import javax.swing.InputMap;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.KeyStroke;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A window that shows one photo at a time with its location, date and caption.
+ * The application shares one viewer for all selected photos and swaps its content instead of opening
+ * a new window per photo, so the number of native windows and decoded images held by Swing stays
+ * bounded however many photos are opened. The right and left arrow keys move to the next and previous
+ * photo of the album in chronological order, and the Z key opens the photo in a {@link ZoomViewer}.
+ * A viewer must only be used on the event dispatch thread.
+ */
+public class PhotoViewer {
+    static final Color BACKGROUND_COLOR = new Color(255, 254, 224);
+    static final Color BORDER_COLOR = new Color(51, 36, 33);
+    static final Font LOCATION_FONT = new Font("Helvetica", Font.BOLD, 14);
+    static final Font CAPTION_FONT = new Font("Helvetica", Font.BOLD, 16);
+
+    private static final Logger logger = Logger.getLogger(PhotoViewer.class.getName());
+
+    /** The viewer shared by all selections, created on first use */
+    private static PhotoViewer shared;
+
+    private final JFrame frame;
+    private final JLabel imageLabel;
+    private final JLabel locationLabel;
+    private final JLabel captionLabel;
+    private boolean isPositioned = false;
+
+    /** The photos that can be browsed in the viewer, in chronological order */
+    private List<Photo> photos = Collections.emptyList();
+    /** The position of the photo currently shown */
+    private int position = 0;
+
+    /**
+     * Creates a viewer with an empty window, which is shown once it has a photo.
+     * Apart from the shared viewer, viewers are only created for standalone frames by
+     * {@link PhotoPrinter#createFrame(Photo)}.
+     */
+    PhotoViewer() {
+        frame = new JFrame();
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.setLayout(new BorderLayout());
+        frame.getContentPane().setBackground(BACKGROUND_COLOR);
+
+        imageLabel = new JLabel();
+        imageLabel.setBorder(BorderFactory.createLineBorder(BORDER_COLOR, 5));
+
+        locationLabel = new JLabel("", SwingConstants.CENTER);
+        locationLabel.setFont(LOCATION_FONT);
+        locationLabel.setForeground(Color.DARK_GRAY);
+
+        captionLabel = new JLabel("", SwingConstants.CENTER);
+        captionLabel.setFont(CAPTION_FONT);
+
+        frame.add(locationLabel, BorderLayout.NORTH);
+        frame.add(imageLabel, BorderLayout.CENTER);
+        frame.add(captionLabel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Returns the viewer shared by all selections, creating it with its navigation keys on first use.
+     *
+     * @return the shared viewer
+     */
+    static PhotoViewer getShared() {
+        assert SwingUtilities.isEventDispatchThread() : "Shared viewer should only be used on the EDT";
+        if (shared == null) {
+            shared = new PhotoViewer();
+            shared.bindNavigationKeys();
+            logger.info("Created the photo viewer window");
+        }
+        return shared;
+    }
+
+    /**
+     * Shows a photo and its details in the viewer.
+     *
+     * @param photos the photos that can be browsed, in chronological order
+     * @param position the position of the photo to show
+     * @param icon the decoded image of the photo
+     */
+    void show(List<Photo> photos, int position, ImageIcon icon) {
+        assert position >= 0 && position < photos.size() : "Position should be within the photos";
+        this.photos = photos;
+        this.position = position;
+        showDetails(photos.get(position));
+        setImage(icon);
+    }
+
+    /**
+     * Replaces the image shown, e.g. with the sharp thumbnail of a photo whose preview is shown.
+     *
+     * @param icon the new image
+     */
+    void setImage(ImageIcon icon) {
+        assert icon.getIconWidth() > 0 : "Image icon width must be greater than 0";
+        assert icon.getIconHeight() > 0 : "Image icon height must be greater than 0";
+        imageLabel.setIcon(icon);
+        frame.pack();
+        if (!isPositioned) {
+            frame.setLocationRelativeTo(null);
+            isPositioned = true;
+        }
+    }
+
+    /**
+     * Returns whether the given photo is the one currently shown.
+     *
+     * @param photo the photo to check
+     * @return true if the viewer shows the photo
+     */
+    boolean isShowing(Photo photo) {
+        return position < photos.size() && photos.get(position) == photo;
+    }
+
+    /**
+     * Returns the window and labels of the viewer.
+     *
+     * @return the PhotoFrame of the viewer
+     */
+    PhotoFrame getPhotoFrame() {
+        return new PhotoFrame(frame, captionLabel, locationLabel);
+    }
+
+    /**
+     * Returns the header shown above a photo, made up of its location and the date it was taken.
+     *
+     * @param photo the photo to describe
+     * @return the location and date of the photo
+     */
+    static String getLocationAndDate(Photo photo) {
+        LocalDateTime dateTime = photo.getDatetime();
+        assert dateTime != null : "Photo datetime cannot be null";
+        return photo.getLocation() + " | " + dateTime.format(Photo.DISPLAY_FORMAT);
+    }
+
+    private void showDetails(Photo photo) {
+        frame.setTitle(photo.getPhotoName());
+        locationLabel.setText(getLocationAndDate(photo));
+        captionLabel.setText(photo.getCaption());
+        assert captionLabel.getText() != null &&
+                !captionLabel.getText().isEmpty() : "Caption label text cannot be null or empty";
+    }
+
+    private void bindNavigationKeys() {
+        InputMap inputMap = frame.getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        ActionMap actionMap = frame.getRootPane().getActionMap();
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_RIGHT, 0), "next");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_LEFT, 0), "previous");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, 0), "zoom");
+        actionMap.put("next", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                move(1);
+            }
+        });
+        actionMap.put("previous", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                move(-1);
+            }
+        });
+        actionMap.put("zoom", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                zoom();
+            }
+        });
+    }
+
+    private void zoom() {
+        if (position >= photos.size()) {
+            return;
+        }
+        try {
+            ZoomViewer.open(photos.get(position).getFilePath());
+        } catch (IOException e) {
+            logger.warning(e.getMessage());
+            captionLabel.setText(e.getMessage());
+        }
+    }
+
+    /**
+     * Moves to the photo at the given offset from the current one. Its details are shown right away
+     * and its image once it is decoded, so that holding down a key skips through the photos.
+     */
+    private void move(int offset) {
+        int target = position + offset;
+        if (target < 0 || target >= photos.size()) {
+            return;
+        }
+        position = target;
+        Photo photo = photos.get(target);
+        showDetails(photo);
+        try {
+            PhotoPrinter.browse(photos, target);
+        } catch (FileNotFoundException e) {
+            logger.warning(e.getMessage());
+            captionLabel.setText(e.getMessage());
+        }
+    }
+}
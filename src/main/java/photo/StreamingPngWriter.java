@@ -0,0 +1,156 @@
+package photo;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes an RGB PNG image band by band, so that images far larger than the memory available can be written
+ * while only one band of rows is held at a time. ImageIO needs the whole image as one raster instead.
+ * The caller writes exactly as many rows as the declared height and then closes the writer.
+ */
+public class StreamingPngWriter implements Closeable {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    /** Size of the compressed data collected before it is written out as one IDAT chunk */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final DataOutputStream out;
+    private final int width;
+    private final int height;
+    private final ChunkBuffer imageData = new ChunkBuffer();
+    /** Ended on close, as a DeflaterOutputStream does not release the native memory of a deflater it was given */
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final DeflaterOutputStream compressor;
+    private final byte[] scanline;
+    private int rowsWritten = 0;
+
+    /**
+     * Starts a PNG image of the given size by writing its header.
+     *
+     * @param out the stream to write the image to, which is closed with the writer
+     * @param width the width of the image in pixels
+     * @param height the height of the image in pixels
+     * @throws IOException if the header cannot be written
+     */
+    public StreamingPngWriter(OutputStream out, int width, int height) throws IOException {
+        assert width > 0 && height > 0 : "Image should not be empty";
+        this.out = new DataOutputStream(out);
+        this.width = width;
+        this.height = height;
+        this.compressor = new DeflaterOutputStream(imageData, deflater);
+        this.scanline = new byte[1 + width * 3];
+
+        this.out.write(SIGNATURE);
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerData = new DataOutputStream(header);
+        headerData.writeInt(width);
+        headerData.writeInt(height);
+        headerData.writeByte(8); // Bit depth
+        headerData.writeByte(2); // Colour type: RGB
+        headerData.writeByte(0); // Compression method: deflate
+        headerData.writeByte(0); // Filter method: adaptive
+        headerData.writeByte(0); // Interlace method: none
+        writeChunk("IHDR", header.toByteArray(), header.size());
+    }
+
+    /**
+     * Appends all rows of a band to the image. The band must be as wide as the image.
+     *
+     * @param band the rows to append
+     * @throws IOException if the rows cannot be written
+     */
+    public void writeRows(BufferedImage band) throws IOException {
+        assert band.getWidth() == width : "Band should be as wide as the image";
+        if (rowsWritten + band.getHeight() > height) {
+            throw new IOException("More rows written than the declared height of " + height);
+        }
+        int[] pixels = new int[width];
+        for (int y = 0; y < band.getHeight(); y++) {
+            band.getRGB(0, y, width, 1, pixels, 0, width);
+            scanline[0] = 0; // Filter type: none
+            for (int x = 0; x < width; x++) {
+                int pixel = pixels[x];
+                scanline[1 + x * 3] = (byte) (pixel >> 16);
+                scanline[2 + x * 3] = (byte) (pixel >> 8);
+                scanline[3 + x * 3] = (byte) pixel;
+            }
+            compressor.write(scanline);
+        }
+        rowsWritten += band.getHeight();
+    }
+
+    /**
+     * Finishes the image, closes the underlying stream and releases the compressor.
+     *
+     * @throws IOException if fewer rows were written than the declared height, or the image cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            compressor.finish();
+            imageData.flushChunk();
+            writeChunk("IEND", new byte[0], 0);
+            if (rowsWritten != height) {
+                throw new IOException(String.format("Only %d of %d rows were written", rowsWritten, height));
+            }
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Collects compressed image data and writes it out as an IDAT chunk whenever it reaches the chunk size.
+     */
+    private class ChunkBuffer extends OutputStream {
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int size = 0;
+
+        @Override
+        public void write(int b) throws IOException {
+            buffer[size++] = (byte) b;
+            if (size == buffer.length) {
+                flushChunk();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int count = Math.min(len, buffer.length - size);
+                System.arraycopy(b, off, buffer, size, count);
+                size += count;
+                off += count;
+                len -= count;
+                if (size == buffer.length) {
+                    flushChunk();
+                }
+            }
+        }
+
+        void flushChunk() throws IOException {
+            if (size > 0) {
+                writeChunk("IDAT", buffer, size);
+                size = 0;
+            }
+        }
+    }
+}
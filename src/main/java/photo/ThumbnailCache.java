@@ -0,0 +1,224 @@
+package photo;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.logging.Logger;
+
+/**
+ * Keeps downscaled copies of photos on disk, so that the photo viewer does not decode the full-resolution
+ * original every time a photo is selected. A thumbnail is stored under a name derived from the path,
+ * modification time and size of the original, so it is regenerated automatically when the original changes.
+ * Thumbnails are generated by decoding only every n-th pixel of the original and then scaling the result
+ * down in halving steps with bilinear interpolation, keeping the aspect ratio of the photo.
+ */
+public class ThumbnailCache {
+    /** Directory used by the application to store thumbnails */
+    public static final String DEFAULT_DIRECTORY = "./data/thumbs";
+    public static final int MAX_WIDTH = 600;
+    public static final int MAX_HEIGHT = 400;
+
+    private static final Logger logger = Logger.getLogger(ThumbnailCache.class.getName());
+    private static final ThumbnailCache defaultCache = new ThumbnailCache(Paths.get(DEFAULT_DIRECTORY));
+
+    private final Path directory;
+
+    /**
+     * Creates a thumbnail cache that stores its thumbnails in the given directory.
+     * The directory is created when the first thumbnail is stored.
+     *
+     * @param directory the directory to store thumbnails in
+     */
+    public ThumbnailCache(Path directory) {
+        assert directory != null : "Thumbnail directory should not be null";
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the thumbnail cache used by the photo viewer.
+     *
+     * @return the cache stored in {@link #DEFAULT_DIRECTORY}
+     */
+    public static ThumbnailCache getDefault() {
+        return defaultCache;
+    }
+
+    /**
+     * Returns the thumbnail of a photo file, reading it from the cache if it exists and generating
+     * and storing it otherwise. The thumbnail fits within {@link #MAX_WIDTH} x {@link #MAX_HEIGHT}.
+     *
+     * @param filePath the path of the original photo
+     * @return the thumbnail of the photo
+     * @throws IOException if the original cannot be decoded
+     */
+    public BufferedImage getThumbnail(String filePath) throws IOException {
+        File original = new File(filePath);
+        Path cached = getCachedPath(original);
+        if (Files.exists(cached)) {
+            BufferedImage thumbnail = ImageIO.read(cached.toFile());
+            if (thumbnail != null) {
+                logger.fine(() -> "Thumbnail cache hit: " + filePath);
+                return thumbnail;
+            }
+            logger.warning("Discarding unreadable thumbnail: " + cached);
+        }
+
+        BufferedImage thumbnail = createThumbnail(original, MAX_WIDTH, MAX_HEIGHT);
+        store(thumbnail, cached);
+        logger.info("Generated thumbnail for: " + filePath);
+        return thumbnail;
+    }
+
+    /**
+     * Returns whether the thumbnail of a photo file is already stored, so it can be shown without decoding
+     * the original.
+     *
+     * @param filePath the path of the original photo
+     * @return true if a thumbnail for the current version of the file exists
+     */
+    public boolean isCached(String filePath) {
+        return Files.exists(getCachedPath(new File(filePath)));
+    }
+
+    /**
+     * Returns the path the thumbnail of the given file is stored at, which depends on the absolute path,
+     * modification time and size of the file.
+     *
+     * @param original the original photo file
+     * @return the path of its thumbnail
+     */
+    Path getCachedPath(File original) {
+        return directory.resolve(hash(getKey(original)) + ".jpg");
+    }
+
+    /**
+     * Returns a key that identifies the current version of a photo file, made up of its absolute path,
+     * modification time and size.
+     *
+     * @param original the original photo file
+     * @return the key of the file
+     */
+    static String getKey(File original) {
+        return original.getAbsolutePath() + "|" + original.lastModified() + "|" + original.length();
+    }
+
+    /**
+     * Decodes an image subsampled to roughly the requested bounds and scales it down to fit within them.
+     *
+     * @param original the image file to decode
+     * @param maxWidth the maximum width of the result
+     * @param maxHeight the maximum height of the result
+     * @return the downscaled image
+     * @throws IOException if the image cannot be decoded
+     */
+    static BufferedImage createThumbnail(File original, int maxWidth, int maxHeight) throws IOException {
+        return scaleToFit(decodeSubsampled(original, maxWidth, maxHeight), maxWidth, maxHeight);
+    }
+
+    /**
+     * Scales an image down to fit within the given bounds, keeping its aspect ratio.
+     * Images that already fit are copied unchanged.
+     *
+     * @param image the image to scale
+     * @param maxWidth the maximum width of the result
+     * @param maxHeight the maximum height of the result
+     * @return the downscaled image
+     */
+    static BufferedImage scaleToFit(BufferedImage image, int maxWidth, int maxHeight) {
+        double scale = Math.min(1.0, Math.min((double) maxWidth / image.getWidth(),
+                (double) maxHeight / image.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        return downscale(image, targetWidth, targetHeight);
+    }
+
+    private static BufferedImage decodeSubsampled(File original, int maxWidth, int maxHeight) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original)) {
+            if (input == null) {
+                throw new IOException("Cannot open image: " + original);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("No decoder for image: " + original);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Keep at least twice the target resolution, so the final downscale still has detail to average
+                int subsampling = Math.max(1, Math.min(reader.getWidth(0) / (2 * maxWidth),
+                        reader.getHeight(0) / (2 * maxHeight)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales an image down by halving it until it is within a factor of two of the target size,
+     * then scales it to the exact size. Each step uses bilinear interpolation, which together
+     * averages over all source pixels instead of skipping most of them.
+     */
+    private static BufferedImage downscale(BufferedImage image, int targetWidth, int targetHeight) {
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, width, height, null);
+            graphics.dispose();
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void store(BufferedImage thumbnail, Path cached) {
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "thumb", ".tmp");
+            try {
+                ImageIO.write(thumbnail, "jpg", temporary.toFile());
+                Files.move(temporary, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            // The thumbnail can still be shown, it is only generated again next time
+            logger.warning("Failed to store thumbnail " + cached + ": " + e.getMessage());
+        }
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 should be available on every Java platform", e);
+        }
+    }
+}
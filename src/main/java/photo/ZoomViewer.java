@@ -0,0 +1,324 @@
+package photo;
+
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.JScrollPane;
+import javax.swing.JViewport;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.ActionEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * A window that shows a single image at any zoom level, for images too large to decode as a whole,
+ * such as panoramas of a hundred megapixels. The image is read through an {@link ImagePyramid}, and only
+ * the tiles visible at the current zoom level are decoded, in the background. Until a tile is decoded,
+ * the matching part of a coarser level is shown scaled up in its place. The mouse wheel and the + and -
+ * keys zoom in and out, and dragging the image pans it.
+ */
+public class ZoomViewer {
+    /** Memory budget for the decoded tiles of one window */
+    private static final long CACHE_BYTES = 48L * 1024 * 1024;
+    private static final int MAX_WINDOW_WIDTH = 1200;
+    private static final int MAX_WINDOW_HEIGHT = 800;
+    private static final Color PLACEHOLDER_COLOR = new Color(210, 205, 190);
+
+    private static final Logger logger = Logger.getLogger(ZoomViewer.class.getName());
+
+    /** Decodes tiles for all zoom viewers, one at a time so that panning does not flood the disk */
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tile-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ImagePyramid pyramid;
+    private final JFrame frame;
+    private final JScrollPane scrollPane;
+    private final TileCanvas canvas = new TileCanvas();
+    /** Keys of the tiles being decoded, only used on the event dispatch thread */
+    private final Set<String> pending = new HashSet<>();
+    /** Keys of the tiles that could not be decoded, so they are not tried again on every repaint */
+    private final Set<String> failed = new HashSet<>();
+
+    /** Current level and range of visible tiles, read by the loader to skip tiles that are no longer needed */
+    private volatile int level;
+    private volatile Rectangle visibleTiles = new Rectangle();
+    private volatile boolean isClosed = false;
+
+    /**
+     * Creates a zoom viewer window for an opened image, zoomed out to fit the window.
+     * Must be called on the event dispatch thread.
+     *
+     * @param pyramid the image to show, which is closed with the window
+     */
+    ZoomViewer(ImagePyramid pyramid) {
+        this.pyramid = pyramid;
+        level = pyramid.getLevelToFit(MAX_WINDOW_WIDTH, MAX_WINDOW_HEIGHT);
+
+        scrollPane = new JScrollPane(canvas);
+        scrollPane.getViewport().addChangeListener(e -> updateVisibleTiles());
+        scrollPane.setPreferredSize(new Dimension(Math.min(pyramid.getWidth(level), MAX_WINDOW_WIDTH) + 4,
+                Math.min(pyramid.getHeight(level), MAX_WINDOW_HEIGHT) + 4));
+        scrollPane.setWheelScrollingEnabled(false);
+        scrollPane.addMouseWheelListener(this::zoomWithWheel);
+
+        PanListener panListener = new PanListener();
+        canvas.addMouseListener(panListener);
+        canvas.addMouseMotionListener(panListener);
+        bindZoomKeys();
+
+        frame = new JFrame(pyramid.getFilePath());
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.add(scrollPane);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                isClosed = true;
+                // Closed on the loader, so that no tile is being decoded from the image while it closes
+                loader.execute(() -> closePyramid());
+            }
+        });
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+
+        // The single tile of the coarsest level is the fallback for every other tile, so it is decoded first
+        requestTile(pyramid.getLevelCount() - 1, 0, 0);
+        updateVisibleTiles();
+    }
+
+    /**
+     * Opens an image in a new zoom viewer window without waiting for it to appear.
+     * Only the size of the image is read before returning.
+     *
+     * @param filePath the path of the image
+     * @throws IOException if the image cannot be opened or has no decoder
+     */
+    public static void open(String filePath) throws IOException {
+        ImagePyramid pyramid = new ImagePyramid(filePath, CACHE_BYTES);
+        logger.info(String.format("Opening %s (%dx%d) in %d zoom levels", filePath, pyramid.getWidth(),
+                pyramid.getHeight(), pyramid.getLevelCount()));
+        SwingUtilities.invokeLater(() -> new ZoomViewer(pyramid).frame.setVisible(true));
+    }
+
+    private void closePyramid() {
+        try {
+            pyramid.close();
+        } catch (IOException e) {
+            logger.warning("Failed to close " + pyramid.getFilePath() + ": " + e.getMessage());
+        }
+    }
+
+    private void updateVisibleTiles() {
+        visibleTiles = pyramid.getTileRange(level, scrollPane.getViewport().getViewRect());
+    }
+
+    /**
+     * Changes the zoom level, keeping the point of the image under an anchor in the viewport in place.
+     *
+     * @param newLevel the level to show
+     * @param anchor the point in the viewport to zoom around
+     */
+    private void setLevel(int newLevel, Point anchor) {
+        newLevel = Math.max(0, Math.min(pyramid.getLevelCount() - 1, newLevel));
+        if (newLevel == level) {
+            return;
+        }
+        JViewport viewport = scrollPane.getViewport();
+        Point viewPosition = viewport.getViewPosition();
+        double factor = Math.pow(2, level - newLevel);
+        int x = (int) Math.round((viewPosition.x + anchor.x) * factor) - anchor.x;
+        int y = (int) Math.round((viewPosition.y + anchor.y) * factor) - anchor.y;
+
+        level = newLevel;
+        canvas.revalidate();
+        viewport.doLayout();
+        viewport.setViewPosition(clamp(new Point(x, y)));
+        updateVisibleTiles();
+        canvas.repaint();
+    }
+
+    private void zoomWithWheel(MouseWheelEvent e) {
+        Point anchor = SwingUtilities.convertPoint(e.getComponent(), e.getPoint(), scrollPane.getViewport());
+        setLevel(level + (e.getWheelRotation() > 0 ? 1 : -1), anchor);
+    }
+
+    private void zoomAroundCentre(int offset) {
+        Rectangle viewRect = scrollPane.getViewport().getViewRect();
+        setLevel(level + offset, new Point(viewRect.width / 2, viewRect.height / 2));
+    }
+
+    private Point clamp(Point position) {
+        JViewport viewport = scrollPane.getViewport();
+        Dimension extent = viewport.getExtentSize();
+        int maxX = Math.max(0, pyramid.getWidth(level) - extent.width);
+        int maxY = Math.max(0, pyramid.getHeight(level) - extent.height);
+        return new Point(Math.max(0, Math.min(maxX, position.x)), Math.max(0, Math.min(maxY, position.y)));
+    }
+
+    private void bindZoomKeys() {
+        canvas.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('+'), "zoomIn");
+        canvas.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('='), "zoomIn");
+        canvas.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke('-'), "zoomOut");
+        canvas.getActionMap().put("zoomIn", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                zoomAroundCentre(-1);
+            }
+        });
+        canvas.getActionMap().put("zoomOut", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                zoomAroundCentre(1);
+            }
+        });
+    }
+
+    /**
+     * Starts decoding a tile unless it is already being decoded or could not be decoded before.
+     */
+    private void requestTile(int tileLevel, int column, int row) {
+        String key = tileLevel + "/" + column + "/" + row;
+        if (!failed.contains(key) && pending.add(key)) {
+            loader.execute(() -> load(tileLevel, column, row, key));
+        }
+    }
+
+    /**
+     * Decodes a tile on the loader thread, unless the window has been closed or the tile is no longer visible
+     * since it was requested, and then repaints the canvas. A skipped tile is requested again when it becomes
+     * visible the next time. The coarsest tile is always decoded, as it is the fallback for all others.
+     */
+    private void load(int tileLevel, int column, int row, String key) {
+        boolean isCoarsest = tileLevel == pyramid.getLevelCount() - 1;
+        boolean isSkipped = isClosed
+                || !isCoarsest && (tileLevel != level || !visibleTiles.contains(column, row));
+        boolean isDecoded = !isSkipped && decode(tileLevel, column, row, key);
+        boolean isFailed = !isSkipped && !isDecoded;
+        SwingUtilities.invokeLater(() -> {
+            pending.remove(key);
+            if (isFailed) {
+                failed.add(key);
+            }
+            if (isDecoded) {
+                canvas.repaint();
+            }
+        });
+    }
+
+    private boolean decode(int tileLevel, int column, int row, String key) {
+        try {
+            pyramid.getTile(tileLevel, column, row);
+            return true;
+        } catch (IOException e) {
+            logger.warning("Failed to decode tile " + key + " of " + pyramid.getFilePath() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Paints the visible tiles of the current level, falling back to coarser levels for tiles not yet decoded.
+     */
+    private class TileCanvas extends JComponent {
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension(pyramid.getWidth(level), pyramid.getHeight(level));
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D graphics = (Graphics2D) g;
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            int currentLevel = level;
+            Rectangle clip = graphics.getClipBounds();
+            Rectangle range = pyramid.getTileRange(currentLevel, clip == null ? getVisibleRect() : clip);
+            for (int row = range.y; row < range.y + range.height; row++) {
+                for (int column = range.x; column < range.x + range.width; column++) {
+                    paintTile(graphics, currentLevel, column, row);
+                }
+            }
+        }
+
+        private void paintTile(Graphics2D graphics, int tileLevel, int column, int row) {
+            int x = column * ImagePyramid.TILE_SIZE;
+            int y = row * ImagePyramid.TILE_SIZE;
+            BufferedImage tile = pyramid.getCachedTile(tileLevel, column, row);
+            if (tile != null) {
+                graphics.drawImage(tile, x, y, null);
+                return;
+            }
+            requestTile(tileLevel, column, row);
+
+            int width = Math.min(ImagePyramid.TILE_SIZE, pyramid.getWidth(tileLevel) - x);
+            int height = Math.min(ImagePyramid.TILE_SIZE, pyramid.getHeight(tileLevel) - y);
+            for (int coarser = tileLevel + 1; coarser < pyramid.getLevelCount(); coarser++) {
+                // The same area of the image at the coarser level, in pixels of that level
+                int shift = coarser - tileLevel;
+                int sourceX = x >> shift;
+                int sourceY = y >> shift;
+                BufferedImage source = pyramid.getCachedTile(coarser, sourceX / ImagePyramid.TILE_SIZE,
+                        sourceY / ImagePyramid.TILE_SIZE);
+                if (source != null) {
+                    int offsetX = sourceX % ImagePyramid.TILE_SIZE;
+                    int offsetY = sourceY % ImagePyramid.TILE_SIZE;
+                    int sourceWidth = Math.max(1, Math.min(width >> shift, source.getWidth() - offsetX));
+                    int sourceHeight = Math.max(1, Math.min(height >> shift, source.getHeight() - offsetY));
+                    graphics.drawImage(source, x, y, x + width, y + height, offsetX, offsetY,
+                            offsetX + sourceWidth, offsetY + sourceHeight, null);
+                    return;
+                }
+            }
+            graphics.setColor(PLACEHOLDER_COLOR);
+            graphics.fillRect(x, y, width, height);
+        }
+    }
+
+    /**
+     * Pans the image by dragging it with the mouse.
+     */
+    private class PanListener extends MouseAdapter {
+        private Point dragStart;
+        private Point viewStart;
+
+        @Override
+        public void mousePressed(MouseEvent e) {
+            dragStart = e.getLocationOnScreen();
+            viewStart = scrollPane.getViewport().getViewPosition();
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent e) {
+            if (dragStart == null) {
+                return;
+            }
+            Point current = e.getLocationOnScreen();
+            scrollPane.getViewport().setViewPosition(clamp(new Point(viewStart.x - (current.x - dragStart.x),
+                    viewStart.y - (current.y - dragStart.y))));
+        }
+
+        @Override
+        public void mouseReleased(MouseEvent e) {
+            dragStart = null;
+        }
+    }
+}
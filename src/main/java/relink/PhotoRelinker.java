@@ -0,0 +1,370 @@
+package relink;
+
+import duplicate.ContentHash;
+import duplicate.DuplicateMatch;
+import duplicate.MultiIndexHash;
+import duplicate.NearDuplicateFinder;
+import exception.FileWriteException;
+import photo.PerceptualHash;
+import photo.Photo;
+import storage.Storage;
+import trip.Trip;
+import trip.TripManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Finds the files of photos that have been moved, e.g. after reorganising the folders of a NAS, and relinks
+ * the photos to them. The size and a content hash of every photo file are recorded while the file is still in
+ * place. A search walks the given folders, hashes only files whose size matches a missing photo, across all
+ * processor cores, and relinks each missing photo to the file with its fingerprint. Photos recorded before
+ * fingerprints were kept are matched by a unique file name instead, checked against their perceptual hash when
+ * they have one. Searches run on a background thread, so the diary stays usable meanwhile, and the new paths are
+ * saved as soon as a search ends.
+ */
+public class PhotoRelinker {
+    private static final Logger logger = Logger.getLogger(PhotoRelinker.class.getName());
+    /** Longest time to wait on exit for the background thread to stop */
+    private static final long SHUTDOWN_SECONDS = 10;
+
+    private final TripManager tripManager;
+    /** Runs searches and fingerprinting one at a time, so they never relink or save concurrently */
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "photo-relinker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger filesScanned = new AtomicInteger();
+    /** The path the diary is saved to after photos are relinked, or null to never save */
+    private volatile String dataFilePath;
+    private volatile RelinkResult lastResult;
+    private Future<?> search;
+
+    /**
+     * Constructs a relinker for the photos of all trips of a trip manager.
+     *
+     * @param tripManager the trips whose photos are relinked
+     */
+    public PhotoRelinker(TripManager tripManager) {
+        this.tripManager = tripManager;
+    }
+
+    /**
+     * Sets the path the diary is saved to after photos are relinked or fingerprinted in the background.
+     *
+     * @param dataFilePath the path of the data file, or null to never save
+     */
+    public void setDataFilePath(String dataFilePath) {
+        this.dataFilePath = dataFilePath;
+    }
+
+    /**
+     * Starts searching the given folders for the files of missing photos on the background thread.
+     *
+     * @param roots the folders to search, including all their subfolders
+     * @return false if a search is already running, so none was started
+     */
+    public synchronized boolean start(List<Path> roots) {
+        if (isRunning()) {
+            return false;
+        }
+        filesScanned.set(0);
+        search = worker.submit(() -> {
+            try {
+                lastResult = relink(roots);
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to search for missing photos", e);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Records the fingerprints of photos that do not have one yet on the background thread, so that their
+     * files can be found if they are moved later.
+     */
+    public void fingerprintInBackground() {
+        worker.submit(() -> {
+            try {
+                if (fingerprint(getPhotos()) > 0) {
+                    save();
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to fingerprint photos", e);
+            }
+        });
+    }
+
+    /**
+     * Stops the background thread before the program exits. Work not started yet is dropped, a search or
+     * fingerprinting in progress is interrupted, and a save in progress is waited for, so that the diary is
+     * not saved while the program saves it for the last time.
+     */
+    public void shutdown() {
+        worker.shutdownNow();
+        try {
+            if (!worker.awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+                logger.warning("Photo relinker did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns whether a search started by {@link #start(List)} is still running.
+     *
+     * @return true if a search is running
+     */
+    public synchronized boolean isRunning() {
+        return search != null && !search.isDone();
+    }
+
+    /**
+     * Returns the number of files looked at so far by the current or last search.
+     *
+     * @return the number of files
+     */
+    public int getFilesScanned() {
+        return filesScanned.get();
+    }
+
+    /**
+     * Returns the outcome of the last search that has ended.
+     *
+     * @return the result, or null if no search has ended yet
+     */
+    public RelinkResult getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Searches the given folders for the files of missing photos and relinks the photos to them, on the
+     * calling thread. Photos whose files are in place are fingerprinted first if needed.
+     *
+     * @param roots the folders to search, including all their subfolders
+     * @return the photos relinked and still missing
+     * @throws IOException if interrupted while hashing files
+     */
+    RelinkResult relink(List<Path> roots) throws IOException {
+        List<DuplicateMatch> photos = getPhotos();
+        int fingerprinted = fingerprint(photos);
+        List<DuplicateMatch> missing = new ArrayList<>();
+        for (DuplicateMatch match : photos) {
+            if (!new File(match.getPhoto().getFilePath()).isFile()) {
+                missing.add(match);
+            }
+        }
+        if (missing.isEmpty()) {
+            if (fingerprinted > 0) {
+                save();
+            }
+            return new RelinkResult(List.of(), List.of(), 0);
+        }
+
+        Map<Long, List<DuplicateMatch>> missingBySize = new HashMap<>();
+        Map<String, List<DuplicateMatch>> missingByName = new HashMap<>();
+        for (DuplicateMatch match : missing) {
+            Photo photo = match.getPhoto();
+            if (photo.getContentHash() != null) {
+                missingBySize.computeIfAbsent(photo.getFileSize(), size -> new ArrayList<>()).add(match);
+            } else {
+                missingByName.computeIfAbsent(getName(photo.getFilePath()), name -> new ArrayList<>()).add(match);
+            }
+        }
+        List<Path> sameSize = new ArrayList<>();
+        Map<String, List<Path>> sameName = new HashMap<>();
+        for (Path root : roots) {
+            walk(root, missingBySize, missingByName, sameSize, sameName);
+        }
+
+        Map<String, Path> filesByHash = new HashMap<>();
+        Map<Path, String> hashes = hashAll(sameSize);
+        for (Map.Entry<Path, String> entry : hashes.entrySet()) {
+            filesByHash.put(entry.getValue(), entry.getKey());
+        }
+
+        List<DuplicateMatch> relinked = new ArrayList<>();
+        List<DuplicateMatch> stillMissing = new ArrayList<>();
+        for (DuplicateMatch match : missing) {
+            Photo photo = match.getPhoto();
+            Path file;
+            if (photo.getContentHash() != null) {
+                file = filesByHash.get(photo.getContentHash());
+            } else {
+                List<Path> candidates = sameName.getOrDefault(getName(photo.getFilePath()), List.of());
+                file = candidates.size() == 1 && looksLike(photo, candidates.get(0)) ? candidates.get(0) : null;
+            }
+            if (file != null && match.getTrip().album.relinkPhoto(photo, file.toString())) {
+                relinked.add(match);
+            } else {
+                stillMissing.add(match);
+            }
+        }
+        if (!relinked.isEmpty()) {
+            fingerprint(relinked);
+        }
+        if (fingerprinted > 0 || !relinked.isEmpty()) {
+            save();
+        }
+        logger.info(String.format("Relinked %d of %d missing photos after looking at %d files", relinked.size(),
+                missing.size(), filesScanned.get()));
+        return new RelinkResult(relinked, stillMissing, filesScanned.get());
+    }
+
+    /**
+     * Records the fingerprints of the photos whose files are in place and that do not have one yet.
+     *
+     * @return the number of photos fingerprinted
+     */
+    int fingerprint(List<DuplicateMatch> photos) throws IOException {
+        List<Path> files = new ArrayList<>();
+        List<Photo> unrecorded = new ArrayList<>();
+        for (DuplicateMatch match : photos) {
+            Photo photo = match.getPhoto();
+            File file = new File(photo.getFilePath());
+            if (photo.getContentHash() == null && file.isFile()) {
+                files.add(file.toPath());
+                unrecorded.add(photo);
+            }
+        }
+        Map<Path, String> hashes = hashAll(files);
+        int count = 0;
+        for (int i = 0; i < files.size(); i++) {
+            String hash = hashes.get(files.get(i));
+            if (hash != null) {
+                unrecorded.get(i).setFingerprint(files.get(i).toFile().length(), hash);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private List<DuplicateMatch> getPhotos() {
+        List<DuplicateMatch> photos = new ArrayList<>();
+        for (Trip trip : tripManager.getTrips()) {
+            for (Photo photo : trip.album.getPhotos()) {
+                photos.add(new DuplicateMatch(trip, photo));
+            }
+        }
+        return photos;
+    }
+
+    /**
+     * Collects the photo files under a folder whose size matches a missing photo with a fingerprint,
+     * or whose name matches a missing photo without one. Folders that cannot be read are skipped.
+     */
+    private void walk(Path root, Map<Long, List<DuplicateMatch>> missingBySize,
+            Map<String, List<DuplicateMatch>> missingByName, List<Path> sameSize, Map<String, List<Path>> sameName)
+            throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                filesScanned.incrementAndGet();
+                String name = getName(file.toString());
+                if (attributes.isRegularFile() && name.endsWith(".jpg")) {
+                    if (missingBySize.containsKey(attributes.size())) {
+                        sameSize.add(file);
+                    }
+                    if (missingByName.containsKey(name)) {
+                        sameName.computeIfAbsent(name, key -> new ArrayList<>()).add(file);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                logger.fine("Skipping unreadable path " + file + ": " + e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Hashes files across all processor cores, leaving out files that cannot be read.
+     */
+    private static Map<Path, String> hashAll(List<Path> files) throws IOException {
+        Map<Path, String> hashes = new HashMap<>();
+        if (files.isEmpty()) {
+            return hashes;
+        }
+        int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (Path file : files) {
+                results.add(workers.submit(() -> ContentHash.ofHeadAndTail(file)));
+            }
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    hashes.put(files.get(i), results.get(i).get());
+                } catch (ExecutionException e) {
+                    logger.warning("Failed to hash " + files.get(i) + ": " + e.getCause().getMessage());
+                }
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while hashing files", e);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns whether a file found by name looks like the photo, if the photo has a perceptual hash to compare.
+     */
+    private static boolean looksLike(Photo photo, Path file) {
+        Long expected = photo.getPerceptualHash();
+        if (expected == null) {
+            return true;
+        }
+        try {
+            return MultiIndexHash.distance(expected, PerceptualHash.compute(file.toString()))
+                    <= NearDuplicateFinder.DEFAULT_DISTANCE;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static String getName(String filePath) {
+        return new File(filePath).getName().toLowerCase();
+    }
+
+    /**
+     * Saves the trips once no command group is running, so that a group that may still be rolled back is not saved.
+     */
+    private void save() {
+        String path = dataFilePath;
+        if (path == null) {
+            return;
+        }
+        tripManager.getGroupLock().lock();
+        try {
+            Storage.saveTasks(tripManager.getTrips(), path);
+        } catch (FileWriteException e) {
+            logger.log(Level.WARNING, "Failed to save relinked photos", e);
+        } finally {
+            tripManager.getGroupLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package relink;
+
+import duplicate.DuplicateMatch;
+
+import java.util.List;
+
+/**
+ * Represents the outcome of a search for missing photo files: the photos that were relinked to the files
+ * found, the photos whose files are still missing, and how many files were looked at.
+ */
+public class RelinkResult {
+    private final List<DuplicateMatch> relinked;
+    private final List<DuplicateMatch> stillMissing;
+    private final int filesScanned;
+
+    /**
+     * Constructs a RelinkResult.
+     *
+     * @param relinked the photos relinked to a new file path, with their trips
+     * @param stillMissing the photos whose files were not found, with their trips
+     * @param filesScanned the number of files looked at under the search roots
+     */
+    public RelinkResult(List<DuplicateMatch> relinked, List<DuplicateMatch> stillMissing, int filesScanned) {
+        this.relinked = List.copyOf(relinked);
+        this.stillMissing = List.copyOf(stillMissing);
+        this.filesScanned = filesScanned;
+    }
+
+    /**
+     * Returns the photos relinked to a new file path.
+     *
+     * @return the relinked photos with their trips
+     */
+    public List<DuplicateMatch> getRelinked() {
+        return relinked;
+    }
+
+    /**
+     * Returns the photos whose files were not found.
+     *
+     * @return the missing photos with their trips
+     */
+    public List<DuplicateMatch> getStillMissing() {
+        return stillMissing;
+    }
+
+    /**
+     * Returns the number of files looked at under the search roots.
+     *
+     * @return the number of files
+     */
+    public int getFilesScanned() {
+        return filesScanned;
+    }
+}
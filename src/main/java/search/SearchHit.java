@@ -0,0 +1,79 @@
+package search;
+
+import photo.Photo;
+import trip.Trip;
+
+/**
+ * Represents a single ranked result returned by the {@link SearchIndex}.
+ * A hit refers either to a whole trip (matched on its name or description)
+ * or to a photo inside a trip (matched on its name, caption or location name).
+ */
+public class SearchHit {
+    private final Trip trip;
+    private final Photo photo;
+    private final double score;
+
+    /**
+     * Constructs a SearchHit for the given trip and optional photo.
+     *
+     * @param trip The trip the hit belongs to
+     * @param photo The matched photo, or null if the trip itself matched
+     * @param score The relevance score of the hit (higher is better)
+     */
+    public SearchHit(Trip trip, Photo photo, double score) {
+        assert trip != null : "Trip of a search hit should not be null";
+        this.trip = trip;
+        this.photo = photo;
+        this.score = score;
+    }
+
+    /**
+     * Returns the trip the hit belongs to.
+     *
+     * @return The owning trip
+     */
+    public Trip getTrip() {
+        return trip;
+    }
+
+    /**
+     * Returns the matched photo.
+     *
+     * @return The matched photo, or null if the hit is a trip
+     */
+    public Photo getPhoto() {
+        return photo;
+    }
+
+    /**
+     * Returns whether the hit refers to a photo rather than a trip.
+     *
+     * @return true if a photo matched, false if the trip itself matched
+     */
+    public boolean isPhoto() {
+        return photo != null;
+    }
+
+    /**
+     * Returns the relevance score of the hit.
+     *
+     * @return The score, higher meaning more relevant
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Returns a one-line description of the hit suitable for the search listing.
+     *
+     * @return A formatted string describing the hit
+     */
+    @Override
+    public String toString() {
+        if (photo == null) {
+            return String.format("[Trip] %s - %s", trip.getName(), trip.description);
+        }
+        return String.format("[%s] %s (%s) - %s", trip.getName(), photo.getPhotoName(),
+                photo.getLocationName(), photo.getCaption());
+    }
+}
@@ -0,0 +1,390 @@
+package search;
+
+import album.Album;
+import album.AlbumListener;
+import photo.Photo;
+import trip.Trip;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * In-memory inverted index over trip and photo text used by the search command.
+ * Trip names and descriptions as well as photo names, captions and location names
+ * are tokenized into lower-case terms. Each term maps to a compact posting list of
+ * integers, where every posting encodes a document id together with the field the
+ * term occurred in. Terms are kept in a sorted dictionary so that prefix lookups
+ * are a simple range scan. Deleted documents leave a free slot behind, and once more than half
+ * of the slots are free the remaining documents are renumbered in order, so the memory used stays
+ * proportional to the number of indexed trips and photos.
+ * The index is updated incrementally by the TripManager and Album whenever trips
+ * or photos are added, deleted or loaded from storage.
+ * All methods are synchronized, so the index can be searched while another thread changes the trips.
+ */
+public class SearchIndex implements AlbumListener {
+    private static final Logger logger = Logger.getLogger(SearchIndex.class.getName());
+
+    /** Field holding a trip name or photo name */
+    private static final int FIELD_NAME = 0;
+    /** Field holding a trip description or photo caption */
+    private static final int FIELD_TEXT = 1;
+    /** Field holding a photo location name */
+    private static final int FIELD_LOCATION = 2;
+    /** Number of bits used to store the field inside a posting */
+    private static final int FIELD_BITS = 2;
+    private static final int FIELD_MASK = (1 << FIELD_BITS) - 1;
+
+    /** Weight of a match in each field, indexed by field number */
+    private static final double[] FIELD_WEIGHTS = {3.0, 1.0, 2.0};
+    /** Multiplier applied when a query term only matches the prefix of an indexed term */
+    private static final double PREFIX_WEIGHT = 0.5;
+    /** Number of free document slots below which the documents are never renumbered */
+    private static final int MIN_FREE_SLOTS = 64;
+
+    /** Sorted term dictionary, mapping each term to its posting list */
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    /** Documents by id; deleted documents leave a null slot so that ids stay ascending */
+    private List<Document> documents = new ArrayList<>();
+    /** Number of null slots in the documents */
+    private int freeSlots = 0;
+    /** Reverse lookup from an indexed trip or photo to its document id */
+    private final Map<Object, Integer> documentIds = new IdentityHashMap<>();
+    /** Owning trip of every album currently tracked by the index */
+    private final Map<Album, Trip> albumOwners = new IdentityHashMap<>();
+
+    /**
+     * Indexes a trip together with all photos already in its album, and registers
+     * the album so that photos added or deleted later are indexed automatically.
+     *
+     * @param trip The trip to index
+     */
+    public synchronized void addTrip(Trip trip) {
+        assert trip != null : "Trip to index should not be null";
+        if (documentIds.containsKey(trip)) {
+            return;
+        }
+        addDocument(new Document(trip, null));
+        albumOwners.put(trip.album, trip);
+        // Listen before reading the photos, so that a photo added concurrently is not missed
+        trip.album.addListener(this);
+        for (Photo photo : trip.album.getPhotos()) {
+            if (!documentIds.containsKey(photo)) {
+                addDocument(new Document(trip, photo));
+            }
+        }
+        logger.fine("Indexed trip: " + trip.getName());
+    }
+
+    /**
+     * Removes a trip and all photos in its album from the index.
+     *
+     * @param trip The trip to remove
+     */
+    public synchronized void removeTrip(Trip trip) {
+        assert trip != null : "Trip to remove should not be null";
+        for (Photo photo : trip.album.getPhotos()) {
+            removeDocument(photo);
+        }
+        removeDocument(trip);
+        albumOwners.remove(trip.album);
+        trip.album.removeListener(this);
+        logger.fine("Removed trip from index: " + trip.getName());
+    }
+
+    /**
+     * Indexes a photo that was added to a tracked album.
+     * Photos of albums that do not belong to an indexed trip are ignored.
+     *
+     * @param album The album the photo was added to
+     * @param photo The photo to index
+     */
+    @Override
+    public synchronized void photoAdded(Album album, Photo photo) {
+        Trip owner = albumOwners.get(album);
+        if (owner == null || documentIds.containsKey(photo)) {
+            return;
+        }
+        addDocument(new Document(owner, photo));
+    }
+
+    /**
+     * Removes a photo that was deleted from a tracked album from the index.
+     *
+     * @param album The album the photo was removed from
+     * @param photo The photo to remove
+     */
+    @Override
+    public synchronized void photoRemoved(Album album, Photo photo) {
+        removeDocument(photo);
+    }
+
+    /**
+     * Returns the number of trips and photos currently indexed.
+     *
+     * @return The number of indexed documents
+     */
+    public synchronized int size() {
+        return documentIds.size();
+    }
+
+    /**
+     * Returns the number of document slots, including the free slots of deleted documents.
+     *
+     * @return The number of slots
+     */
+    synchronized int getSlotCount() {
+        return documents.size();
+    }
+
+    /**
+     * Searches the index and returns the best matching trips and photos.
+     * Every query term has to match, either exactly or as the prefix of an indexed term.
+     * Matches on names rank above location names, which rank above captions and descriptions,
+     * and exact matches rank above prefix matches.
+     *
+     * @param query The free-text query
+     * @param limit The maximum number of hits to return
+     * @return The hits ordered from most to least relevant
+     */
+    public synchronized List<SearchHit> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, Double> scores = null;
+        for (String queryTerm : queryTerms) {
+            scores = scoreTerm(queryTerm, scores);
+            if (scores.isEmpty()) {
+                return new ArrayList<>();
+            }
+        }
+        return selectTopHits(scores, limit);
+    }
+
+    /**
+     * Splits text into lower-case terms made up of letters and digits.
+     *
+     * @param text The text to tokenize, may be null
+     * @return The terms in order of occurrence
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isTermChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isTermChar && start < 0) {
+                start = i;
+            } else if (!isTermChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Scores all documents matching a single query term, keeping only documents that
+     * matched every previous term.
+     *
+     * @param queryTerm The query term to look up as a prefix
+     * @param previousScores Accumulated scores of the previous terms, or null for the first term
+     * @return Accumulated scores of documents matching all terms so far
+     */
+    private Map<Integer, Double> scoreTerm(String queryTerm, Map<Integer, Double> previousScores) {
+        Map<Integer, Double> termScores = new HashMap<>();
+        Map<String, Postings> matches = terms.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Postings> match : matches.entrySet()) {
+            double factor = match.getKey().length() == queryTerm.length() ? 1.0 : PREFIX_WEIGHT;
+            Postings postings = match.getValue();
+            for (int i = 0; i < postings.size; i++) {
+                int documentId = postings.values[i] >>> FIELD_BITS;
+                if (previousScores != null && !previousScores.containsKey(documentId)) {
+                    continue;
+                }
+                double weight = FIELD_WEIGHTS[postings.values[i] & FIELD_MASK] * factor;
+                termScores.merge(documentId, weight, Math::max);
+            }
+        }
+        if (previousScores != null) {
+            termScores.replaceAll((documentId, score) -> score + previousScores.get(documentId));
+        }
+        return termScores;
+    }
+
+    /**
+     * Picks the highest scoring documents using a bounded heap.
+     * Ties are broken in favour of the document that was indexed first.
+     *
+     * @param scores The scores of all matching documents
+     * @param limit The maximum number of hits to return
+     * @return The hits ordered from most to least relevant
+     */
+    private List<SearchHit> selectTopHits(Map<Integer, Double> scores, int limit) {
+        PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(limit + 1, (a, b) -> {
+            int byScore = Double.compare(a.getValue(), b.getValue());
+            return byScore != 0 ? byScore : Integer.compare(b.getKey(), a.getKey());
+        });
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Map.Entry<Integer, Double> entry = heap.poll();
+            Document document = documents.get(entry.getKey());
+            hits.add(0, new SearchHit(document.trip, document.photo, entry.getValue()));
+        }
+        return hits;
+    }
+
+    /**
+     * Assigns the next document id and adds the document's terms to the posting lists.
+     *
+     * @param document The trip or photo document to add
+     */
+    private void addDocument(Document document) {
+        int documentId = documents.size();
+        documents.add(document);
+        documentIds.put(document.key(), documentId);
+        String[] fields = document.fields();
+        for (int field = 0; field < fields.length; field++) {
+            int posting = (documentId << FIELD_BITS) | field;
+            for (String token : tokenize(fields[field])) {
+                terms.computeIfAbsent(token, t -> new Postings()).append(posting);
+            }
+        }
+    }
+
+    /**
+     * Removes a document's terms from the posting lists, dropping terms that no longer occur.
+     *
+     * @param key The trip or photo that was indexed
+     */
+    private void removeDocument(Object key) {
+        Integer documentId = documentIds.remove(key);
+        if (documentId == null) {
+            return;
+        }
+        String[] fields = documents.get(documentId).fields();
+        documents.set(documentId, null);
+        freeSlots++;
+        for (int field = 0; field < fields.length; field++) {
+            int posting = (documentId << FIELD_BITS) | field;
+            for (String token : tokenize(fields[field])) {
+                Postings postings = terms.get(token);
+                if (postings != null && postings.remove(posting) && postings.size == 0) {
+                    terms.remove(token);
+                }
+            }
+        }
+        if (freeSlots >= MIN_FREE_SLOTS && freeSlots * 2 > documents.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumbers the remaining documents in their current order, dropping the free slots. As the order is kept,
+     * every posting list stays sorted and ties in the search results are still broken the same way.
+     * This takes time proportional to the number of postings, which is spread over the deletions that freed
+     * the slots.
+     */
+    private void compact() {
+        int[] newIds = new int[documents.size()];
+        List<Document> remainingDocuments = new ArrayList<>(documentIds.size());
+        for (int documentId = 0; documentId < documents.size(); documentId++) {
+            Document document = documents.get(documentId);
+            if (document != null) {
+                newIds[documentId] = remainingDocuments.size();
+                documentIds.put(document.key(), remainingDocuments.size());
+                remainingDocuments.add(document);
+            }
+        }
+        for (Postings postings : terms.values()) {
+            for (int i = 0; i < postings.size; i++) {
+                int posting = postings.values[i];
+                postings.values[i] = (newIds[posting >>> FIELD_BITS] << FIELD_BITS) | (posting & FIELD_MASK);
+            }
+        }
+        logger.fine(String.format("Compacted search index from %d to %d slots", documents.size(),
+                remainingDocuments.size()));
+        documents = remainingDocuments;
+        freeSlots = 0;
+    }
+
+    /**
+     * An indexed trip, or an indexed photo together with the trip that owns it.
+     */
+    private static class Document {
+        final Trip trip;
+        final Photo photo;
+
+        Document(Trip trip, Photo photo) {
+            this.trip = trip;
+            this.photo = photo;
+        }
+
+        Object key() {
+            return photo != null ? photo : trip;
+        }
+
+        String[] fields() {
+            String[] fields = new String[FIELD_LOCATION + 1];
+            if (photo == null) {
+                fields[FIELD_NAME] = trip.getName();
+                fields[FIELD_TEXT] = trip.description;
+            } else {
+                fields[FIELD_NAME] = photo.getPhotoName();
+                fields[FIELD_TEXT] = photo.getCaption();
+                fields[FIELD_LOCATION] = photo.getLocationName();
+            }
+            return fields;
+        }
+    }
+
+    /**
+     * A growable, sorted array of postings for a single term.
+     * Postings are appended in ascending document order, so the array stays sorted
+     * and repeated occurrences of a term in the same field collapse into one posting.
+     */
+    private static class Postings {
+        int[] values = new int[2];
+        int size;
+
+        void append(int posting) {
+            if (size > 0 && values[size - 1] == posting) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1) + 1);
+            }
+            values[size++] = posting;
+        }
+
+        boolean remove(int posting) {
+            int position = Arrays.binarySearch(values, 0, size, posting);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
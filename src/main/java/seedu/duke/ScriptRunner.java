@@ -0,0 +1,180 @@
+package seedu.duke;
+
+import com.drew.imaging.ImageProcessingException;
+import command.Command;
+import command.CommandFactory;
+import exception.CommandNotRecogniseException;
+import exception.DuplicateFilepathException;
+import exception.DuplicateNameException;
+import exception.FileReadException;
+import exception.FileWriteException;
+import exception.InvalidIndexException;
+import exception.MetadataFilepathNotFound;
+import exception.MissingCompulsoryParameter;
+import exception.NoMetaDataException;
+import exception.ParserException;
+import exception.TravelDiaryException;
+import exception.TripNotSelectedException;
+import parser.Parser;
+import session.Session;
+import storage.Storage;
+import trip.TripManager;
+import ui.Ui;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a file of commands non-interactively, as started with {@code --script <file>}.
+ * Each line is parsed and executed exactly like a command typed at the prompt, but without
+ * prompts, page banners or separator lines, and the diary is saved only at explicit
+ * {@code checkpoint} lines and once at the end instead of after every command.
+ * Blank lines and lines starting with {@code #} are ignored. A failing command is reported
+ * with its line number and the script continues with the next line.
+ */
+public class ScriptRunner {
+    /** Script line that saves the diary immediately */
+    public static final String CHECKPOINT = "checkpoint";
+    private static final Logger logger = Logger.getLogger(ScriptRunner.class.getName());
+
+    private final TripManager tripManager;
+    private final Ui ui;
+    private final String dataFilePath;
+
+    /** Page and selections of the script, starting on the Trip Page */
+    private final Session session = new Session();
+    private int commandCount = 0;
+    private int failedCount = 0;
+
+    /**
+     * Constructs a ScriptRunner operating on the given trips.
+     *
+     * @param tripManager the trip manager the commands are executed against
+     * @param ui the user interface used to report errors and the summary
+     * @param dataFilePath the path the diary is saved to at checkpoints and at the end
+     */
+    public ScriptRunner(TripManager tripManager, Ui ui, String dataFilePath) {
+        this.tripManager = tripManager;
+        this.ui = ui;
+        this.dataFilePath = dataFilePath;
+    }
+
+    /**
+     * Runs every command in the script file.
+     *
+     * @param scriptPath the path of the script file
+     * @throws FileReadException if the script file cannot be read
+     * @throws FileWriteException if the diary cannot be saved
+     */
+    public void run(String scriptPath) throws FileReadException, FileWriteException {
+        try (Reader reader = new FileReader(scriptPath)) {
+            run(reader);
+        } catch (FileWriteException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new FileReadException(scriptPath, e);
+        }
+    }
+
+    /**
+     * Runs every command read from the given reader, then saves the diary and reports throughput.
+     *
+     * @param reader the source of the script lines
+     * @throws IOException if the script cannot be read
+     * @throws FileWriteException if the diary cannot be saved
+     */
+    public void run(Reader reader) throws IOException, FileWriteException {
+        long startTime = System.nanoTime();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        boolean exitScript = false;
+        while (!exitScript && (line = lines.readLine()) != null) {
+            lineNumber++;
+            String input = line.trim();
+            if (input.isEmpty() || input.startsWith("#")) {
+                continue;
+            }
+            if (input.equalsIgnoreCase(CHECKPOINT)) {
+                save();
+                continue;
+            }
+            exitScript = executeLine(input, lineNumber);
+        }
+        long executionTime = System.nanoTime() - startTime;
+        save();
+        showSummary(executionTime);
+    }
+
+    /**
+     * Returns the number of commands executed, including failed ones.
+     *
+     * @return the number of commands executed
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Returns the number of commands that failed.
+     *
+     * @return the number of failed commands
+     */
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Returns the session of the script, holding the page and selections the script ended in.
+     *
+     * @return the session of the script
+     */
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * Parses and executes a single script line.
+     *
+     * @param input the trimmed command line
+     * @param lineNumber the line number, used in error messages
+     * @return true if the command asks the application to exit
+     */
+    private boolean executeLine(String input, int lineNumber) {
+        commandCount++;
+        try {
+            List<Map<String, String>> parsedCommands = Parser.processLine(input);
+            Command command = CommandFactory.getCommand(parsedCommands, session);
+            command.execute(tripManager, ui, session);
+            ui.flush();
+            return command.isExit();
+        } catch (TravelDiaryException | CommandNotRecogniseException | ParserException | InvalidIndexException |
+                 NumberFormatException | MissingCompulsoryParameter | ImageProcessingException |
+                 NoMetaDataException | IOException | TripNotSelectedException | DuplicateNameException |
+                 DuplicateFilepathException | MetadataFilepathNotFound e) {
+            failedCount++;
+            ui.showToUser(String.format("Line %d: %s", lineNumber, String.valueOf(e.getMessage()).trim()));
+            ui.flush();
+            logger.log(Level.FINE, "Script command failed: " + input, e);
+            return false;
+        }
+    }
+
+    private void save() throws FileWriteException {
+        Storage.saveTasks(tripManager.getTrips(), dataFilePath);
+    }
+
+    private void showSummary(long executionTime) {
+        double seconds = executionTime / 1_000_000_000.0;
+        double commandsPerSecond = seconds > 0 ? commandCount / seconds : commandCount;
+        ui.showToUser(String.format("Executed %d command(s), %d failed, in %.1f ms (%.0f commands/sec).",
+                commandCount, failedCount, seconds * 1000, commandsPerSecond));
+        ui.flush();
+    }
+}
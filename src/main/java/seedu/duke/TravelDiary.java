@@ -18,35 +18,67 @@ import exception.DuplicateFilepathException;
 import exception.DuplicateNameException;
 import parser.Parser;
 import photo.PhotoPrinter;
+import server.ApiServer;
+import session.Session;
 import storage.Storage;
 import trip.TripManager;
 import ui.Ui;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
 
 public class TravelDiary {
-    public static int fsmValue = 0;
     private static final Logger logger = Logger.getLogger(TravelDiary.class.getName());
     private static final String FILE_PATH = "./data/travel_diary.txt";
-    // Finite State Machine (FSM) to track user's current context
-    // FSM States:
-    // 0 -> No trip selected
-    // 1 -> Inside a specific trip
+    private static final int DEFAULT_SERVER_PORT = 8080;
 
+    /**
+     * Starts the application. Runs the interactive prompt, or with {@code --script <file>}
+     * runs the commands in the file non-interactively and exits, or with {@code --server [port]}
+     * serves the diary over a local HTTP API until Enter is pressed.
+     *
+     * @param args the command line arguments
+     */
     public static void main(String[] args) {
         Ui ui = new Ui();
+        try {
+            run(ui, args);
+        } finally {
+            ui.flush();
+        }
+    }
+
+    private static void run(Ui ui, String[] args) {
         TripManager tripManager = new TripManager();
         Logger rootLogger = Logger.getLogger("");
         rootLogger.setLevel(Level.OFF);
+        boolean isScriptMode = args.length > 0 && args[0].equals("--script");
+        if (isScriptMode && args.length < 2) {
+            ui.showToUser("Usage: --script <file>");
+            return;
+        }
+        boolean isServerMode = args.length > 0 && args[0].equals("--server");
+        int serverPort = DEFAULT_SERVER_PORT;
+        if (isServerMode && args.length > 1) {
+            try {
+                serverPort = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                ui.showToUser("Usage: --server [port]");
+                return;
+            }
+        }
 
         // Load existing trips from storage
         try {
             Storage.loadTrips(tripManager, FILE_PATH);
-            ui.showWelcome();  // Show welcome message only after successful load
+            if (!isScriptMode && !isServerMode) {
+                ui.showWelcome();  // Show welcome message only after successful load
+            }
         } catch (FileReadException | FileFormatException e) {
             ui.showToUser("Error loading saved trips: " + e.getMessage());
             logger.log(Level.SEVERE, "Failed to load trips", e);
@@ -54,17 +86,41 @@ public class TravelDiary {
         } catch (NoMetaDataException e) {
             ui.showToUser(e.getMessage());
         }
+        // Scripts save only at their checkpoints, so nothing is changed or saved in the background while they run
+        if (!isScriptMode) {
+            // Record how to find photo files again if they are moved, without delaying the first command
+            tripManager.getRelinker().setDataFilePath(FILE_PATH);
+            tripManager.getRelinker().fingerprintInBackground();
+            // Keep importing from the folders that trips were watching
+            tripManager.getFolderWatcher().setDataFilePath(FILE_PATH);
+            tripManager.getFolderWatcher().resumeAll();
+        }
 
+        if (isScriptMode) {
+            runScript(ui, tripManager, args[1]);
+            stopBackgroundWork(tripManager);
+            return;
+        }
+        if (isServerMode) {
+            runServer(ui, tripManager, serverPort);
+            stopBackgroundWork(tripManager);
+            return;
+        }
+
+        // The session tracks the user's current context, starting on the Trip Page
+        Session session = new Session();
         boolean exitProgram = false;
         while (!exitProgram) {
-            ui.showFsmState(fsmValue);
+            ui.showFsmState(session.getFsmValue());
+            ui.flush(); // Prompt boundary: show everything before asking for the next command
             try {
-                exitProgram = processCommand(ui, tripManager);
+                exitProgram = processCommand(ui, tripManager, session);
             } catch (InvalidIndexException e) {
                 ui.showToUser("Invalid index: " + e.getMessage());
             }
             ui.showLine();
         }
+        stopBackgroundWork(tripManager);
         // Save trips before exiting
         try {
             Storage.saveTasks(tripManager.getTrips(), FILE_PATH);
@@ -72,13 +128,57 @@ public class TravelDiary {
             ui.showToUser("Error saving trips: " + e.getMessage());
             logger.log(Level.SEVERE, "Failed to save trips", e);
         }
-        PhotoPrinter.closeAllWindows();
+        PhotoPrinter.closeAllWindows(ui.getWriter());
+        ui.flush();
+    }
+
+    /**
+     * Waits for the threads that change and save the diary in the background to stop, so that none of them is
+     * still saving when the program exits.
+     */
+    private static void stopBackgroundWork(TripManager tripManager) {
+        // The watcher first, as its imports hand new photos to the relinker
+        tripManager.getFolderWatcher().shutdown();
+        tripManager.getRelinker().shutdown();
+    }
+
+    private static void runScript(Ui ui, TripManager tripManager, String scriptPath) {
+        try {
+            new ScriptRunner(tripManager, ui, FILE_PATH).run(scriptPath);
+        } catch (FileReadException | FileWriteException e) {
+            ui.showToUser("Error running script: " + e.getMessage());
+            logger.log(Level.SEVERE, "Failed to run script", e);
+        }
+    }
+
+    private static void runServer(Ui ui, TripManager tripManager, int port) {
+        ApiServer server = new ApiServer(tripManager, FILE_PATH);
+        try {
+            server.start(port);
+        } catch (IOException e) {
+            ui.showToUser("Error starting server: " + e.getMessage());
+            logger.log(Level.SEVERE, "Failed to start server", e);
+            return;
+        }
+        ui.showToUser("Serving the diary on http://127.0.0.1:" + server.getPort() + ", press Enter to stop.");
+        try {
+            ui.readInput();
+        } catch (NoSuchElementException e) {
+            // No console to read from, so serve until the process is stopped
+            try {
+                Thread.currentThread().join();
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        server.stop();
     }
 
-    private static boolean processCommand(Ui ui, TripManager tripManager) throws InvalidIndexException {
-        Map<String, String> parsedCommand;
+    private static boolean processCommand(Ui ui, TripManager tripManager, Session session)
+            throws InvalidIndexException {
+        List<Map<String, String>> parsedCommands;
         try {
-            parsedCommand = Parser.getCommandDetails();
+            parsedCommands = Parser.getCommandGroupDetails(ui);
         } catch (TravelDiaryException | CommandNotRecogniseException | ParserException e) {
             ui.showToUser(e.getMessage());
             return false;
@@ -86,11 +186,10 @@ public class TravelDiary {
 
         Command command;
         try {
-            command = CommandFactory.getCommand(parsedCommand, fsmValue);
-            command.execute(tripManager, ui, fsmValue);
-            fsmValue = command.fsmValue;
+            command = CommandFactory.getCommand(parsedCommands, session);
+            command.execute(tripManager, ui, session);
 
-            // Save trips after each command to maintain persistent storage
+            // Save trips after each command, or once after a command group, to maintain persistent storage
             try {
                 Storage.saveTasks(tripManager.getTrips(), FILE_PATH);
             } catch (FileWriteException e) {
@@ -0,0 +1,494 @@
+package server;
+
+import com.drew.imaging.ImageProcessingException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import command.Command;
+import command.CommandFactory;
+import exception.CommandNotRecogniseException;
+import exception.DuplicateFilepathException;
+import exception.DuplicateNameException;
+import exception.FileWriteException;
+import exception.InvalidIndexException;
+import exception.MetadataFilepathNotFound;
+import exception.MissingCompulsoryParameter;
+import exception.NoMetaDataException;
+import exception.ParserException;
+import exception.TravelDiaryException;
+import exception.TripNotSelectedException;
+import parser.Parser;
+import photo.Photo;
+import search.SearchHit;
+import session.Session;
+import storage.Storage;
+import trip.Trip;
+import trip.TripManager;
+import ui.Ui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves the diary over a local HTTP API so that other tools can query and update it
+ * without driving the interactive prompt. The server only listens on the loopback address.
+ *
+ * <p>Endpoints:
+ * <ul>
+ *   <li>{@code GET /trips} lists all trips</li>
+ *   <li>{@code GET /trips/N/photos} lists the photos of trip N (1-based)</li>
+ *   <li>{@code GET /search?q=TERMS&limit=N} searches trips and photos</li>
+ *   <li>{@code POST /sessions} creates a session and returns its id</li>
+ *   <li>{@code DELETE /sessions/ID} ends a session</li>
+ *   <li>{@code POST /commands} runs the command line in the request body, with the session id
+ *       in the {@code X-Session} header, and returns the output of the command</li>
+ * </ul>
+ *
+ * <p>Commands are created by the CommandFactory and run one at a time, each in the page and
+ * selection of its own session, and the diary is saved after every command line. The output of a command
+ * is captured by a UI of its own request. Commands that open windows, i.e. selecting a photo, gallery and
+ * zoom, and bye are rejected, as a client can neither see the windows nor stop the diary. Sessions that
+ * have not been used for a while are ended, and starting a session when the most allowed are open ends the
+ * least recently used one, so clients that never end their sessions cannot exhaust the memory of the server.
+ * Listing requests take no lock: they use the immutable snapshots of the trips and photos,
+ * so they are served in parallel with each other and with a running command. Searches only
+ * hold the lock of the search index while it is queried.
+ */
+public class ApiServer {
+    /** Header carrying the session id of a command request */
+    public static final String SESSION_HEADER = "X-Session";
+    private static final Logger logger = Logger.getLogger(ApiServer.class.getName());
+    /** Number of pending connections the operating system queues before refusing new ones */
+    private static final int BACKLOG = 4096;
+    /** Worker threads per core; requests are short, so a bounded pool keeps up with many clients */
+    private static final int THREADS_PER_CORE = 8;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    /** Time after which a session that has not been used is ended */
+    private static final long SESSION_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    /** Most sessions open at once */
+    private static final int MAX_SESSIONS = 1024;
+
+    private final TripManager tripManager;
+    private final String dataFilePath;
+    /** Open sessions by id, from least to most recently used, guarded by their own monitor */
+    private final LinkedHashMap<String, ClientSession> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxSessions;
+    private final long sessionIdleNanos;
+    /** Serializes command execution, as commands of different sessions change the same trips */
+    private final Lock commandLock = new ReentrantLock();
+    private HttpServer httpServer;
+    private ExecutorService executor;
+
+    /**
+     * Constructs a server for the given trips.
+     *
+     * @param tripManager the trips to serve
+     * @param dataFilePath the path the diary is saved to after every command, or null to never save
+     */
+    public ApiServer(TripManager tripManager, String dataFilePath) {
+        this(tripManager, dataFilePath, MAX_SESSIONS, SESSION_IDLE_MILLIS);
+    }
+
+    /**
+     * Constructs a server for the given trips with the given limits on sessions.
+     *
+     * @param tripManager the trips to serve
+     * @param dataFilePath the path the diary is saved to after every command, or null to never save
+     * @param maxSessions the most sessions open at once
+     * @param sessionIdleMillis the time after which a session that has not been used is ended
+     */
+    ApiServer(TripManager tripManager, String dataFilePath, int maxSessions, long sessionIdleMillis) {
+        assert maxSessions > 0 && sessionIdleMillis > 0 : "Session limits should be positive";
+        this.tripManager = tripManager;
+        this.dataFilePath = dataFilePath;
+        this.maxSessions = maxSessions;
+        this.sessionIdleNanos = TimeUnit.MILLISECONDS.toNanos(sessionIdleMillis);
+    }
+
+    /**
+     * Starts listening on the given port of the loopback address.
+     *
+     * @param port the port to listen on, or 0 to pick a free port
+     * @throws IOException if the server cannot be started
+     */
+    public void start(int port) throws IOException {
+        assert httpServer == null : "Server is already running";
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        int threads = Runtime.getRuntime().availableProcessors() * THREADS_PER_CORE;
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "api-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/trips", exchange -> handle(exchange, this::handleTrips));
+        httpServer.createContext("/search", exchange -> handle(exchange, this::handleSearch));
+        httpServer.createContext("/sessions", exchange -> handle(exchange, this::handleSessions));
+        httpServer.createContext("/commands", exchange -> handle(exchange, this::handleCommands));
+        httpServer.start();
+        logger.info("API server listening on port " + getPort());
+    }
+
+    /**
+     * Stops the server, waiting briefly for requests in progress to finish.
+     */
+    public void stop() {
+        if (httpServer == null) {
+            return;
+        }
+        httpServer.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        httpServer = null;
+        logger.info("API server stopped");
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the port number
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Runs a handler and sends its response, turning unexpected failures into a 500 response.
+     *
+     * @param exchange the request and response
+     * @param handler the handler producing the response
+     */
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        Response response;
+        try {
+            response = handler.handle(exchange);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Failed to handle " + exchange.getRequestURI(), e);
+            response = error(500, "Internal error: " + e.getMessage());
+        }
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private Response handleTrips(HttpExchange exchange) {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            return error(405, "Method not allowed");
+        }
+        String[] segments = exchange.getRequestURI().getPath().split("/");
+        if (segments.length == 2) {
+            return listTrips();
+        }
+        if (segments.length == 4 && "photos".equals(segments[3])) {
+            try {
+                return listPhotos(Integer.parseInt(segments[2]) - 1);
+            } catch (NumberFormatException e) {
+                return error(400, "Invalid trip index: " + segments[2]);
+            }
+        }
+        return error(404, "Not found");
+    }
+
+    private Response listTrips() {
+        JsonWriter json = new JsonWriter().beginObject().beginArray("trips");
+        List<Trip> trips = tripManager.getTrips();
+        for (int i = 0; i < trips.size(); i++) {
+            Trip trip = trips.get(i);
+            json.beginObject()
+                    .value("index", i + 1)
+                    .value("name", trip.getName())
+                    .value("description", trip.description)
+                    .value("photos", trip.album.getPhotos().size())
+                    .endObject();
+        }
+        return new Response(200, json.endArray().endObject().toString());
+    }
+
+    private Response listPhotos(int tripIndex) {
+        List<Trip> trips = tripManager.getTrips();
+        if (tripIndex < 0 || tripIndex >= trips.size()) {
+            return error(404, "No trip at index " + (tripIndex + 1));
+        }
+        Trip trip = trips.get(tripIndex);
+        JsonWriter json = new JsonWriter().beginObject().value("trip", trip.getName()).beginArray("photos");
+        List<Photo> photos = trip.album.getPhotos();
+        for (int i = 0; i < photos.size(); i++) {
+            writePhoto(json.beginObject().value("index", i + 1), photos.get(i)).endObject();
+        }
+        return new Response(200, json.endArray().endObject().toString());
+    }
+
+    private Response handleSearch(HttpExchange exchange) {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            return error(405, "Method not allowed");
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String terms = query.get("q");
+        if (terms == null || terms.isBlank()) {
+            return error(400, "Missing query parameter q");
+        }
+        int limit;
+        try {
+            limit = Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_SEARCH_LIMIT)));
+        } catch (NumberFormatException e) {
+            return error(400, "Invalid limit: " + query.get("limit"));
+        }
+
+        JsonWriter json = new JsonWriter().beginObject().beginArray("hits");
+        for (SearchHit hit : tripManager.getSearchIndex().search(terms, limit)) {
+            json.beginObject().value("trip", hit.getTrip().getName()).value("score", hit.getScore());
+            if (hit.isPhoto()) {
+                writePhoto(json.beginObject("photo"), hit.getPhoto()).endObject();
+            }
+            json.endObject();
+        }
+        return new Response(200, json.endArray().endObject().toString());
+    }
+
+    private Response handleSessions(HttpExchange exchange) {
+        String[] segments = exchange.getRequestURI().getPath().split("/");
+        if (segments.length == 2) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                return error(405, "Method not allowed");
+            }
+            return new Response(201, new JsonWriter().beginObject().value("session", openSession())
+                    .endObject().toString());
+        }
+        if (segments.length == 3) {
+            if (!"DELETE".equals(exchange.getRequestMethod())) {
+                return error(405, "Method not allowed");
+            }
+            synchronized (sessions) {
+                if (sessions.remove(segments[2]) == null) {
+                    return error(404, "Unknown session: " + segments[2]);
+                }
+            }
+            return new Response(200, new JsonWriter().beginObject().value("ok", true).endObject().toString());
+        }
+        return error(404, "Not found");
+    }
+
+    /**
+     * Starts a session, ending the least recently used one if the most allowed are already open.
+     *
+     * @return the id of the new session
+     */
+    private String openSession() {
+        String sessionId = UUID.randomUUID().toString();
+        long now = System.nanoTime();
+        synchronized (sessions) {
+            endIdleSessions(now);
+            if (sessions.size() >= maxSessions) {
+                Iterator<String> leastRecentlyUsed = sessions.keySet().iterator();
+                logger.info("Ending least recently used session " + leastRecentlyUsed.next());
+                leastRecentlyUsed.remove();
+            }
+            sessions.put(sessionId, new ClientSession(now));
+        }
+        return sessionId;
+    }
+
+    /**
+     * Returns an open session and marks it as used.
+     *
+     * @param sessionId the id of the session
+     * @return the session, or null if it does not exist or has been ended
+     */
+    private Session useSession(String sessionId) {
+        long now = System.nanoTime();
+        synchronized (sessions) {
+            endIdleSessions(now);
+            ClientSession clientSession = sessions.get(sessionId);
+            if (clientSession == null) {
+                return null;
+            }
+            clientSession.lastUsed = now;
+            return clientSession.session;
+        }
+    }
+
+    /**
+     * Ends the sessions that have not been used for the idle time. Sessions are ordered by last use,
+     * so only the ended sessions and the first one still in use are looked at.
+     */
+    private void endIdleSessions(long now) {
+        Iterator<ClientSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext() && now - iterator.next().lastUsed >= sessionIdleNanos) {
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Returns the number of open sessions.
+     *
+     * @return the number of sessions
+     */
+    int getSessionCount() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    private Response handleCommands(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            return error(405, "Method not allowed");
+        }
+        String sessionId = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        Session session = sessionId == null ? null : useSession(sessionId);
+        if (session == null) {
+            return error(404, "Unknown session, create one with POST /sessions");
+        }
+        String line;
+        try (InputStream input = exchange.getRequestBody()) {
+            line = new String(input.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+
+        List<Map<String, String>> parsedCommands;
+        try {
+            parsedCommands = Parser.processLine(line);
+        } catch (TravelDiaryException | InvalidIndexException | CommandNotRecogniseException |
+                 ParserException e) {
+            return error(400, e.getMessage().trim());
+        }
+        // Sessions only serialize with each other, so a session can be used from one client at a time
+        synchronized (session) {
+            return runCommands(session, parsedCommands);
+        }
+    }
+
+    /**
+     * Runs the commands of one request in the page and selection of the session.
+     * Commands print their results through a UI of this request, whose output becomes the response.
+     * Commands that open windows or exit the diary fail, as the session belongs to a client.
+     * The UI is flushed before the output is read, as it buffers its output.
+     *
+     * @param session the session of the client
+     * @param parsedCommands the parsed commands of the request
+     * @return the response holding the captured output
+     */
+    private Response runCommands(Session session, List<Map<String, String>> parsedCommands) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Ui ui = new Ui(output);
+        commandLock.lock();
+        try {
+            // Another client may have deleted the trip or photo this session selected
+            session.refresh(tripManager);
+            Command command = CommandFactory.getCommand(parsedCommands, session);
+            command.execute(tripManager, ui, session);
+            ui.flush();
+            save();
+        } catch (TravelDiaryException | NumberFormatException | MissingCompulsoryParameter |
+                 ImageProcessingException | NoMetaDataException | IOException | TripNotSelectedException |
+                 DuplicateNameException | DuplicateFilepathException | MetadataFilepathNotFound |
+                 InvalidIndexException e) {
+            ui.flush();
+            return new Response(400, new JsonWriter().beginObject()
+                    .value("ok", false)
+                    .value("error", String.valueOf(e.getMessage()).trim())
+                    .value("output", output.toString(Charset.defaultCharset()))
+                    .endObject().toString());
+        } finally {
+            commandLock.unlock();
+        }
+        return new Response(200, new JsonWriter().beginObject()
+                .value("ok", true)
+                .value("fsm", session.getFsmValue())
+                .value("output", output.toString(Charset.defaultCharset()))
+                .endObject().toString());
+    }
+
+    private void save() throws FileWriteException {
+        if (dataFilePath != null) {
+            Storage.saveTasks(tripManager.getTrips(), dataFilePath);
+        }
+    }
+
+    private static JsonWriter writePhoto(JsonWriter json, Photo photo) {
+        return json.value("name", photo.getPhotoName())
+                .value("caption", photo.getCaption())
+                .value("location", photo.getLocationName())
+                .value("datetime", String.valueOf(photo.getDatetime()))
+                .value("file", photo.getFilePath());
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, new JsonWriter().beginObject()
+                .value("ok", false)
+                .value("error", message)
+                .endObject().toString());
+    }
+
+    /**
+     * A session of a client, with the time it was last used. The client cannot open windows or exit the diary.
+     */
+    private static class ClientSession {
+        final Session session = new Session();
+        long lastUsed;
+
+        ClientSession(long lastUsed) {
+            this.lastUsed = lastUsed;
+            session.setRemote(true);
+        }
+    }
+
+    /**
+     * Produces the response to a request.
+     */
+    private interface Handler {
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * The status code and JSON body of a response.
+     */
+    private static class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package server;
+
+/**
+ * Builds JSON text for API responses.
+ * Values are appended in order and commas between members or elements are inserted automatically,
+ * so callers only describe the structure.
+ */
+public class JsonWriter {
+    private final StringBuilder json = new StringBuilder();
+    /** Whether the next member or element is the first in its object or array */
+    private boolean isFirst = true;
+
+    /**
+     * Starts an object, either at the top level or as an array element.
+     *
+     * @return this writer
+     */
+    public JsonWriter beginObject() {
+        separate();
+        json.append('{');
+        isFirst = true;
+        return this;
+    }
+
+    /**
+     * Starts an object as the value of a member.
+     *
+     * @param name the member name
+     * @return this writer
+     */
+    public JsonWriter beginObject(String name) {
+        name(name);
+        json.append('{');
+        isFirst = true;
+        return this;
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @return this writer
+     */
+    public JsonWriter endObject() {
+        json.append('}');
+        isFirst = false;
+        return this;
+    }
+
+    /**
+     * Starts an array as the value of a member.
+     *
+     * @param name the member name
+     * @return this writer
+     */
+    public JsonWriter beginArray(String name) {
+        name(name);
+        json.append('[');
+        isFirst = true;
+        return this;
+    }
+
+    /**
+     * Ends the current array.
+     *
+     * @return this writer
+     */
+    public JsonWriter endArray() {
+        json.append(']');
+        isFirst = false;
+        return this;
+    }
+
+    /**
+     * Appends a string member, written as null if the value is null.
+     *
+     * @param name the member name
+     * @param value the member value
+     * @return this writer
+     */
+    public JsonWriter value(String name, String value) {
+        name(name);
+        if (value == null) {
+            json.append("null");
+        } else {
+            appendString(value);
+        }
+        return this;
+    }
+
+    /**
+     * Appends a number member.
+     *
+     * @param name the member name
+     * @param value the member value
+     * @return this writer
+     */
+    public JsonWriter value(String name, long value) {
+        name(name);
+        json.append(value);
+        return this;
+    }
+
+    /**
+     * Appends a number member.
+     *
+     * @param name the member name
+     * @param value the member value
+     * @return this writer
+     */
+    public JsonWriter value(String name, double value) {
+        name(name);
+        json.append(value);
+        return this;
+    }
+
+    /**
+     * Appends a boolean member.
+     *
+     * @param name the member name
+     * @param value the member value
+     * @return this writer
+     */
+    public JsonWriter value(String name, boolean value) {
+        name(name);
+        json.append(value);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return json.toString();
+    }
+
+    private void name(String name) {
+        separate();
+        appendString(name);
+        json.append(':');
+    }
+
+    private void separate() {
+        if (!isFirst) {
+            json.append(',');
+        }
+        isFirst = false;
+    }
+
+    private void appendString(String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                json.append("\\\"");
+                break;
+            case '\\':
+                json.append("\\\\");
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    json.append(String.format("\\u%04x", (int) c));
+                } else {
+                    json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+}
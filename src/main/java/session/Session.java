@@ -0,0 +1,163 @@
+package session;
+
+import photo.Photo;
+import trip.Trip;
+import trip.TripManager;
+
+/**
+ * Holds the state of one user of the Travel Diary: the page they are on, the trip and photo
+ * they selected and how far they have paged through a listing. The trips themselves live in a
+ * TripManager that can be shared by many sessions, such as the interactive prompt, script runners
+ * and API clients, each with its own Session.
+ */
+public class Session {
+    /** FSM value of the Trip Page (main menu) */
+    public static final int TRIP_PAGE = 0;
+    /** FSM value of the Photo Page, inside a selected trip */
+    public static final int PHOTO_PAGE = 1;
+    /** Number of rows the list command shows per page unless the user picks another size */
+    public static final int DEFAULT_LIST_PAGE_SIZE = 20;
+
+    /** The FSM (Finite State Machine) value of the page the session is on */
+    private int fsmValue = TRIP_PAGE;
+    /** The currently selected trip, or null if no trip is selected */
+    private Trip selectedTrip = null;
+    /** The currently selected photo of the selected trip, or null if none is selected */
+    private Photo selectedPhoto = null;
+    /** The page the list command showed last on the current page, or 0 if nothing was listed yet */
+    private int listPage = 0;
+    /** The number of rows the list command shows per page */
+    private int listPageSize = DEFAULT_LIST_PAGE_SIZE;
+    /** Whether the session belongs to another program, e.g. an API client, rather than the user at the prompt */
+    private boolean isRemote = false;
+
+    /**
+     * Returns whether the session belongs to another program rather than the user at the prompt. Such a session
+     * cannot open windows, which would appear on the computer running the diary, or exit the diary.
+     *
+     * @return true if the session belongs to another program
+     */
+    public boolean isRemote() {
+        return isRemote;
+    }
+
+    public void setRemote(boolean isRemote) {
+        this.isRemote = isRemote;
+    }
+
+    public int getFsmValue() {
+        return fsmValue;
+    }
+
+    public void setFsmValue(int fsmValue) {
+        this.fsmValue = fsmValue;
+    }
+
+    /**
+     * Gets the currently selected trip. This method includes an assertion to ensure that a trip is selected.
+     *
+     * @return the selected trip
+     */
+    public Trip getSelectedTrip() {
+        assert selectedTrip != null : "Selected trip should not be null";
+        return selectedTrip;
+    }
+
+    /**
+     * Returns whether a trip is selected.
+     *
+     * @return true if a trip is selected
+     */
+    public boolean hasSelectedTrip() {
+        return selectedTrip != null;
+    }
+
+    public Photo getSelectedPhoto() {
+        return selectedPhoto;
+    }
+
+    public void setSelectedPhoto(Photo selectedPhoto) {
+        this.selectedPhoto = selectedPhoto;
+    }
+
+    public int getListPage() {
+        return listPage;
+    }
+
+    public void setListPage(int listPage) {
+        this.listPage = listPage;
+    }
+
+    public int getListPageSize() {
+        return listPageSize;
+    }
+
+    public void setListPageSize(int listPageSize) {
+        assert listPageSize > 0 : "Page size should be positive";
+        this.listPageSize = listPageSize;
+    }
+
+    /**
+     * Selects a trip and moves the session to the Photo Page, where listing starts again from the first page.
+     *
+     * @param trip the trip to select
+     */
+    public void enterTrip(Trip trip) {
+        assert trip != null : "Trip to enter should not be null";
+        selectedTrip = trip;
+        selectedPhoto = null;
+        fsmValue = PHOTO_PAGE;
+        listPage = 0;
+    }
+
+    /**
+     * Clears the selection and moves the session back to the Trip Page, where listing starts again
+     * from the first page.
+     */
+    public void returnToMenu() {
+        selectedTrip = null;
+        selectedPhoto = null;
+        fsmValue = TRIP_PAGE;
+        listPage = 0;
+    }
+
+    /**
+     * Returns the session to the Trip Page if its selected trip has been deleted, e.g. by another
+     * session, and drops the selected photo if it has been deleted from the selected trip.
+     *
+     * @param tripManager the trips shared by the sessions
+     */
+    public void refresh(TripManager tripManager) {
+        if (selectedTrip != null && !tripManager.getTrips().contains(selectedTrip)) {
+            returnToMenu();
+        }
+        boolean isPhotoDeleted = selectedTrip == null || !selectedTrip.album.getPhotos().contains(selectedPhoto);
+        if (selectedPhoto != null && isPhotoDeleted) {
+            selectedPhoto = null;
+        }
+    }
+
+    /**
+     * Returns a copy of this session, e.g. to restore it after a failed command group.
+     *
+     * @return a session in the same state
+     */
+    public Session copy() {
+        Session copy = new Session();
+        copy.restore(this);
+        return copy;
+    }
+
+    /**
+     * Puts this session back into the state of another session.
+     *
+     * @param saved the session whose state to take over
+     */
+    public void restore(Session saved) {
+        fsmValue = saved.fsmValue;
+        selectedTrip = saved.selectedTrip;
+        selectedPhoto = saved.selectedPhoto;
+        listPage = saved.listPage;
+        listPageSize = saved.listPageSize;
+    }
+}
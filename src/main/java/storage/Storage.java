@@ -26,12 +26,13 @@ public class Storage {
 
     /**
      * Saves a list of trips to a specified file path.
+     * Saves are serialized, as the diary may also be saved from a background task such as relinking photos.
      *
      * @param trips    The list of {@code Trip} objects to be saved.
      * @param filePath The destination file path for saving trip data.
      * @throws FileWriteException If an error occurs while writing to the file.
      */
-    public static void saveTasks(List<Trip> trips, String filePath) throws FileWriteException {
+    public static synchronized void saveTasks(List<Trip> trips, String filePath) throws FileWriteException {
         File dataFile = new File(filePath);
 
         // Create parent directory if it doesn't exist
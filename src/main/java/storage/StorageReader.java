@@ -11,6 +11,8 @@ import exception.DuplicateFilepathException;
 import exception.DuplicateNameException;
 import exception.TripLoadException;
 import exception.PhotoLoadException;
+import photo.Location;
+import photo.Photo;
 import trip.Trip;
 import trip.TripManager;
 
@@ -22,6 +24,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -289,6 +292,9 @@ public class StorageReader {
             // Use the existing addTripSilently method to respect silent mode flag
             Trip newTrip = tripManager.addTripSilently(name, description);
             ensureTripHasAlbum(newTrip);
+            if (parts.length > 3 && !parts[3].isEmpty()) {
+                newTrip.setWatchFolder(StringEncoder.decodeString(parts[3]));
+            }
             return newTrip;
         } catch (TravelDiaryException|MissingCompulsoryParameter|DuplicateNameException e) {
             String tripName = "unknown";
@@ -349,8 +355,24 @@ public class StorageReader {
             String caption = StringEncoder.decodeString(parts[3]);
             LocalDateTime photoTime = extractPhotoTime(parts);
 
-            addPhotoWithSilentMode(currentTrip, photoPath, photoName, caption, photoTime);
-        } catch (DateTimeParseException e) {
+            if (!new File(photoPath).isFile() && photoTime != null && parts.length > 7) {
+                // Keep the photo while its file is missing, so that it can be relinked once found
+                Location location = new Location(Double.parseDouble(parts[6]), Double.parseDouble(parts[7]),
+                        StringEncoder.decodeString(parts[5]));
+                currentTrip.album.addRestoredPhoto(new Photo(photoPath, photoName, caption, photoTime, location));
+            } else {
+                addPhotoWithSilentMode(currentTrip, photoPath, photoName, caption, photoTime);
+            }
+            List<Photo> photos = currentTrip.album.getPhotos();
+            Photo photo = photos.get(photos.size() - 1);
+            Long perceptualHash = extractPerceptualHash(parts);
+            if (perceptualHash != null) {
+                photo.setPerceptualHash(perceptualHash);
+            }
+            if (parts.length > 10 && !parts[10].isEmpty()) {
+                photo.setFingerprint(Long.parseLong(parts[9]), parts[10]);
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
             throw new FileFormatException(filePath, lineNumber, e);
         } catch (TravelDiaryException | ImageProcessingException | MetadataFilepathNotFound |
                  DuplicateNameException | DuplicateFilepathException e) {
@@ -450,4 +472,22 @@ public class StorageReader {
 
         return LocalDateTime.parse(timeStr, DATETIME_FORMAT);
     }
+
+    /**
+     * Extracts the perceptual hash of a photo from parts.
+     * The hash is only a cache, so a missing or invalid hash is ignored and computed again when needed.
+     *
+     * @param parts The parts of the line split by delimiter
+     * @return The perceptual hash, or null if not available
+     */
+    private static Long extractPerceptualHash(String[] parts) {
+        if (parts.length <= 8 || parts[8].length() != 16) {
+            return null;
+        }
+        try {
+            return HexFormat.fromHexDigitsToLong(parts[8]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
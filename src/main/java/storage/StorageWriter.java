@@ -10,7 +10,11 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 import java.util.List;
 
 /**
@@ -26,6 +30,8 @@ public class StorageWriter {
      * Writes a list of trips to a file.
      * This method iterates through all trips and calls writeTrip for each one,
      * handling any IO exceptions that may occur during the writing process.
+     * The trips are written to a temporary file that then replaces the file in one step,
+     * so the file is never left half written if the program stops while saving.
      *
      * @param trips The list of Trip objects to write
      * @param dataFile The File object representing the destination file
@@ -33,9 +39,18 @@ public class StorageWriter {
      * @throws FileWriteException If an error occurs while writing to the file
      */
     protected static void writeTripsToFile(List<Trip> trips, File dataFile, String filePath) throws FileWriteException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(dataFile))) {
-            for (Trip trip : trips) {
-                writeTrip(writer, trip, filePath);
+        try {
+            Path target = dataFile.toPath().toAbsolutePath();
+            Path temporary = Files.createTempFile(target.getParent(), dataFile.getName(), ".tmp");
+            try {
+                try (BufferedWriter writer = new BufferedWriter(new FileWriter(temporary.toFile()))) {
+                    for (Trip trip : trips) {
+                        writeTrip(writer, trip, filePath);
+                    }
+                }
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
             }
         } catch (IOException e) {
             throw new FileWriteException(filePath, e);
@@ -69,12 +84,12 @@ public class StorageWriter {
         writer.newLine();
 
         // Skip if no photos
-        if (trip.album.photos == null || trip.album.photos.isEmpty()) {
+        if (trip.album.getPhotos() == null || trip.album.getPhotos().isEmpty()) {
             return;
         }
 
         // Write each photo
-        for (Photo photo : trip.album.photos) {
+        for (Photo photo : trip.album.getPhotos()) {
             try {
                 writer.write(formatPhotoLine(photo));
                 writer.newLine();
@@ -93,16 +108,22 @@ public class StorageWriter {
      * @return A formatted string containing the trip data
      */
     private static String formatTripLine(Trip trip) {
-        return Storage.TRIP_MARKER + Storage.DELIMITER +
+        String line = Storage.TRIP_MARKER + Storage.DELIMITER +
                 StringEncoder.encodeString(trip.name) + Storage.DELIMITER +
                 StringEncoder.encodeString(trip.description == null ? "" : trip.description);
+        // The watched folder is only written when set, so the lines of other trips keep their format
+        String watchFolder = trip.getWatchFolder();
+        if (watchFolder != null) {
+            line += Storage.DELIMITER + StringEncoder.encodeString(watchFolder);
+        }
+        return line;
     }
 
     /**
      * Formats a photo into a line for storage.
      * This method creates a properly formatted and encoded string representation
      * of a Photo object suitable for storage in a file. It includes the photo's
-     * file path, name, caption, datetime, and location information.
+     * file path, name, caption, datetime, location information, perceptual hash and file fingerprint.
      *
      * @param photo The Photo object to format
      * @return A formatted string containing the photo data
@@ -125,6 +146,14 @@ public class StorageWriter {
             longitude = location.getLongitude();
         }
 
+        // The perceptual hash is left empty until it has been computed
+        Long hash = photo.getPerceptualHash();
+        String perceptualHash = hash == null ? "" : HexFormat.of().toHexDigits(hash);
+        // So is the fingerprint by which a moved file is found again
+        String contentHash = photo.getContentHash();
+        String fileSize = contentHash == null ? "" : String.valueOf(photo.getFileSize());
+        contentHash = contentHash == null ? "" : contentHash;
+
         return Storage.PHOTO_MARKER + Storage.DELIMITER +
                 StringEncoder.encodeString(photo.getFilePath()) + Storage.DELIMITER +
                 StringEncoder.encodeString(photo.getPhotoName()) + Storage.DELIMITER +
@@ -132,6 +161,9 @@ public class StorageWriter {
                 dateTimeString + Storage.DELIMITER +
                 StringEncoder.encodeString(locationName) + Storage.DELIMITER +
                 latitude + Storage.DELIMITER +
-                longitude;
+                longitude + Storage.DELIMITER +
+                perceptualHash + Storage.DELIMITER +
+                fileSize + Storage.DELIMITER +
+                contentHash;
     }
 }
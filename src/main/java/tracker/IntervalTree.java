@@ -0,0 +1,213 @@
+package tracker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A self-balancing interval tree holding closed intervals [start, end] with an attached value.
+ * The tree is an AVL tree ordered by interval start, where every node is augmented with the
+ * largest end point in its subtree. Insertions and removals take O(log n) time, and finding
+ * all k intervals that overlap a query range takes O(log n + k) time.
+ *
+ * @param <T> the type of value attached to each interval
+ */
+public class IntervalTree<T> {
+    private Node<T> root;
+    private int size;
+    /** Sequence number used to order intervals that share the same start */
+    private long nextSequence;
+
+    /**
+     * Inserts an interval into the tree.
+     *
+     * @param start the inclusive start of the interval
+     * @param end the inclusive end of the interval, not before start
+     * @param value the value attached to the interval
+     * @return a handle identifying the inserted interval, used to remove it later
+     */
+    public Object insert(long start, long end, T value) {
+        assert start <= end : "Interval start should not be after its end";
+        Node<T> node = new Node<>(start, end, nextSequence++, value);
+        root = insert(root, node);
+        size++;
+        return node;
+    }
+
+    /**
+     * Removes an interval previously returned by {@link #insert(long, long, Object)}.
+     *
+     * @param handle the handle of the interval to remove
+     */
+    @SuppressWarnings("unchecked")
+    public void remove(Object handle) {
+        Node<T> node = (Node<T>) handle;
+        root = remove(root, node.start, node.sequence);
+        size--;
+    }
+
+    /**
+     * Returns the values of all intervals overlapping the closed range [from, to],
+     * ordered by interval start.
+     *
+     * @param from the inclusive start of the query range
+     * @param to the inclusive end of the query range
+     * @return the values of the overlapping intervals
+     */
+    public List<T> findOverlapping(long from, long to) {
+        List<T> results = new ArrayList<>();
+        collectOverlapping(root, from, to, results);
+        return results;
+    }
+
+    /**
+     * Returns the number of intervals in the tree.
+     *
+     * @return the number of intervals
+     */
+    public int size() {
+        return size;
+    }
+
+    private void collectOverlapping(Node<T> node, long from, long to, List<T> results) {
+        // No interval in this subtree ends late enough to reach the query range
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, results);
+        // Intervals to the right start no earlier than this one, so they all start too late
+        if (node.start > to) {
+            return;
+        }
+        if (node.end >= from) {
+            results.add(node.value);
+        }
+        collectOverlapping(node.right, from, to, results);
+    }
+
+    private Node<T> insert(Node<T> subtree, Node<T> node) {
+        if (subtree == null) {
+            return node;
+        }
+        if (compare(node.start, node.sequence, subtree) < 0) {
+            subtree.left = insert(subtree.left, node);
+        } else {
+            subtree.right = insert(subtree.right, node);
+        }
+        return rebalance(subtree);
+    }
+
+    private Node<T> remove(Node<T> subtree, long start, long sequence) {
+        if (subtree == null) {
+            return null;
+        }
+        int comparison = compare(start, sequence, subtree);
+        if (comparison < 0) {
+            subtree.left = remove(subtree.left, start, sequence);
+        } else if (comparison > 0) {
+            subtree.right = remove(subtree.right, start, sequence);
+        } else {
+            if (subtree.left == null) {
+                return subtree.right;
+            }
+            if (subtree.right == null) {
+                return subtree.left;
+            }
+            // Replace the removed node with its in-order successor
+            Node<T> successor = subtree.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMinimum(subtree.right);
+            successor.left = subtree.left;
+            return rebalance(successor);
+        }
+        return rebalance(subtree);
+    }
+
+    private Node<T> removeMinimum(Node<T> subtree) {
+        if (subtree.left == null) {
+            return subtree.right;
+        }
+        subtree.left = removeMinimum(subtree.left);
+        return rebalance(subtree);
+    }
+
+    private int compare(long start, long sequence, Node<T> node) {
+        int byStart = Long.compare(start, node.start);
+        return byStart != 0 ? byStart : Long.compare(sequence, node.sequence);
+    }
+
+    private Node<T> rebalance(Node<T> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node<T> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private int height(Node<T> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * A tree node holding one interval and the augmented subtree data.
+     */
+    private static class Node<T> {
+        final long start;
+        final long end;
+        final long sequence;
+        final T value;
+        long maxEnd;
+        int height = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(long start, long end, long sequence, T value) {
+            this.start = start;
+            this.end = end;
+            this.sequence = sequence;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -54,7 +54,8 @@ public class Tracker {
         Location location1 = photo1.getLocation();
         Location location2 = photo2.getLocation();
 
-        logger.info(String.format("Calculating distance between %s and %s.",
+        // Listings call this for every pair of photos, so the messages are only built when logged
+        logger.fine(() -> String.format("Calculating distance between %s and %s.",
                 photo1.getPhotoName(), photo2.getPhotoName()));
 
         // Calculate the distance using the Haversine formula
@@ -64,7 +65,7 @@ public class Tracker {
         );
 
         // Log the calculated distance along with photo names
-        logger.info(String.format("Distance between %s and %s: %skm",
+        logger.fine(() -> String.format("Distance between %s and %s: %skm",
                 photo1.getPhotoName(), photo2.getPhotoName(), distance));
 
         return distance;
@@ -128,8 +129,8 @@ public class Tracker {
         LocalDateTime minimumDateTime = dateTimeList.stream().min(LocalDateTime::compareTo).orElse(null);
         LocalDateTime maximumDateTime = dateTimeList.stream().max(LocalDateTime::compareTo).orElse(null);
 
-        // Define the format for date-time representation.
-        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd h:mma");
+        // Use the shared format for date-time representation.
+        DateTimeFormatter dateTimeFormatter = Photo.DISPLAY_FORMAT;
 
         logger.info(String.format("Date range retrieved: Min - %s, Max - %s",
                 formatDate(minimumDateTime, dateTimeFormatter),
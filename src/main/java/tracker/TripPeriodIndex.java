@@ -0,0 +1,192 @@
+package tracker;
+
+import album.Album;
+import album.AlbumListener;
+import photo.Photo;
+import trip.Trip;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Maintains the period of every trip, from its earliest to its latest photo, in an interval tree.
+ * This allows the application to find the trips overlapping a date range, or the trip that
+ * contains a given timestamp, without recomputing the period of every album as
+ * {@link Tracker#getPeriod(Album)} does. Periods are updated incrementally as photos are
+ * added to or deleted from the albums of indexed trips. Trips without photos have no period
+ * and are never returned. All methods are synchronized, so the index can be queried while another
+ * thread changes the trips.
+ */
+public class TripPeriodIndex implements AlbumListener {
+    private static final Logger logger = Logger.getLogger(TripPeriodIndex.class.getName());
+
+    private final IntervalTree<Trip> tree = new IntervalTree<>();
+    /** Current period of every trip that has at least one photo */
+    private final Map<Trip, Period> periods = new IdentityHashMap<>();
+    /** Owning trip of every album currently tracked by the index */
+    private final Map<Album, Trip> albumOwners = new IdentityHashMap<>();
+
+    /**
+     * Starts tracking the period of a trip and of any photos added to it later.
+     *
+     * @param trip The trip to index
+     */
+    public synchronized void addTrip(Trip trip) {
+        assert trip != null : "Trip to index should not be null";
+        albumOwners.put(trip.album, trip);
+        trip.album.addListener(this);
+        recomputePeriod(trip);
+    }
+
+    /**
+     * Stops tracking the period of a trip.
+     *
+     * @param trip The trip to remove
+     */
+    public synchronized void removeTrip(Trip trip) {
+        assert trip != null : "Trip to remove should not be null";
+        removePeriod(trip);
+        albumOwners.remove(trip.album);
+        trip.album.removeListener(this);
+    }
+
+    /**
+     * Extends the period of the owning trip if the new photo lies outside of it.
+     *
+     * @param album The album the photo was added to
+     * @param photo The photo that was added
+     */
+    @Override
+    public synchronized void photoAdded(Album album, Photo photo) {
+        Trip trip = albumOwners.get(album);
+        if (trip == null) {
+            return;
+        }
+        long time = toKey(photo.getDatetime());
+        Period period = periods.get(trip);
+        if (period == null) {
+            putPeriod(trip, time, time);
+        } else if (time < period.start || time > period.end) {
+            putPeriod(trip, Math.min(time, period.start), Math.max(time, period.end));
+        }
+    }
+
+    /**
+     * Shrinks the period of the owning trip if the deleted photo was its earliest or latest photo.
+     *
+     * @param album The album the photo was removed from
+     * @param photo The photo that was removed
+     */
+    @Override
+    public synchronized void photoRemoved(Album album, Photo photo) {
+        Trip trip = albumOwners.get(album);
+        Period period = periods.get(trip);
+        if (trip == null || period == null) {
+            return;
+        }
+        long time = toKey(photo.getDatetime());
+        if (time == period.start || time == period.end) {
+            recomputePeriod(trip);
+        }
+    }
+
+    /**
+     * Returns all trips whose period overlaps the given range, ordered by the start of their period.
+     *
+     * @param from The inclusive start of the range
+     * @param to The inclusive end of the range
+     * @return The overlapping trips
+     */
+    public synchronized List<Trip> findOverlapping(LocalDateTime from, LocalDateTime to) {
+        assert from != null && to != null : "Query range should not be null";
+        return tree.findOverlapping(toKey(from), toKey(to));
+    }
+
+    /**
+     * Returns all other trips whose period overlaps the period of the given trip.
+     *
+     * @param trip The trip to check
+     * @return The overlapping trips, or an empty list if the trip has no photos
+     */
+    public synchronized List<Trip> findOverlapping(Trip trip) {
+        Period period = periods.get(trip);
+        if (period == null) {
+            return new ArrayList<>();
+        }
+        List<Trip> overlapping = tree.findOverlapping(period.start, period.end);
+        overlapping.remove(trip);
+        return overlapping;
+    }
+
+    /**
+     * Returns all trips whose period contains the given timestamp.
+     *
+     * @param time The timestamp to look up
+     * @return The trips that were in progress at that time
+     */
+    public synchronized List<Trip> findContaining(LocalDateTime time) {
+        return findOverlapping(time, time);
+    }
+
+    /**
+     * Returns the number of trips that currently have a period.
+     *
+     * @return The number of indexed periods
+     */
+    public synchronized int size() {
+        return tree.size();
+    }
+
+    private void recomputePeriod(Trip trip) {
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (Photo photo : trip.album.getPhotos()) {
+            long time = toKey(photo.getDatetime());
+            start = Math.min(start, time);
+            end = Math.max(end, time);
+        }
+        if (start > end) {
+            removePeriod(trip);
+        } else {
+            putPeriod(trip, start, end);
+        }
+    }
+
+    private void putPeriod(Trip trip, long start, long end) {
+        removePeriod(trip);
+        Object handle = tree.insert(start, end, trip);
+        periods.put(trip, new Period(start, end, handle));
+        logger.fine("Updated period of trip: " + trip.getName());
+    }
+
+    private void removePeriod(Trip trip) {
+        Period period = periods.remove(trip);
+        if (period != null) {
+            tree.remove(period.handle);
+        }
+    }
+
+    private static long toKey(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * The current period of a trip and the handle of its interval in the tree.
+     */
+    private static class Period {
+        final long start;
+        final long end;
+        final Object handle;
+
+        Period(long start, long end, Object handle) {
+            this.start = start;
+            this.end = end;
+            this.handle = handle;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package trip;
 
 import album.Album;
+import album.RenderCache;
 import exception.MissingCompulsoryParameter;
 import exception.TravelDiaryException;
 import tracker.Tracker;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -25,6 +27,12 @@ public class Trip {
     /** The album containing photos from this trip */
     public Album album;
 
+    /** The folder whose new photos are imported into this trip automatically, or null if none */
+    private volatile String watchFolder;
+
+    /** Last rendering of toString, keyed on the name, description and album version it was rendered for */
+    private final RenderCache renderCache = new RenderCache();
+
     /**
      * Constructs a new Trip with the specified name and description.
      * Initializes a new empty album for the trip. Validates that required
@@ -74,6 +82,25 @@ public class Trip {
         return name;
     }
 
+    /**
+     * Gets the folder whose new photos are imported into this trip automatically.
+     *
+     * @return The path of the watched folder, or null if the trip does not watch a folder
+     */
+    public String getWatchFolder() {
+        return watchFolder;
+    }
+
+    /**
+     * Sets the folder whose new photos are imported into this trip automatically.
+     * Use the FolderWatcher of the TripManager to start or stop watching it.
+     *
+     * @param watchFolder The path of the folder, or null to watch none
+     */
+    public void setWatchFolder(String watchFolder) {
+        this.watchFolder = watchFolder;
+    }
+
     /**
      * Gets the album associated with this trip.
      *
@@ -87,12 +114,16 @@ public class Trip {
      * Returns a string representation of the trip.
      * The string includes the trip name, description, and, if photos exist,
      * the date range of the photos in the trip. If no photos exist, it indicates
-     * that there are no photos in the trip.
+     * that there are no photos in the trip. The rendering is cached until the trip or its album changes.
      *
      * @return A formatted string representing the trip
      */
     @Override
     public String toString() {
+        return renderCache.get(Arrays.asList(name, description, album, album.getVersion()), this::render);
+    }
+
+    private String render() {
         // Check if there are no photos in the trip directly
         if (this.album.getPhotos().isEmpty()) {
             return String.format("%s\n\t\t%s (No Photos in trip)\n", name, description);
@@ -1,28 +1,63 @@
 package trip;
 
+import duplicate.DuplicateIndex;
 import exception.DuplicateNameException;
 import exception.MissingCompulsoryParameter;
 import exception.TravelDiaryException;
 import exception.IndexOutOfRangeException;
+import photo.Photo;
+import relink.PhotoRelinker;
+import search.SearchIndex;
+import tracker.TripPeriodIndex;
+import watch.FolderWatcher;
 
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 /**
  * Manages the collection of trips in the Travel Diary application.
  * This class serves as the central repository for all trips, providing methods for
- * creating, selecting, viewing, and deleting trips. It maintains the state of the
- * currently selected trip and offers both standard and silent operating modes.
+ * creating, selecting, viewing, and deleting trips, and offers both standard and silent operating modes.
+ * The selected trip is not stored here but in the Session of each user, so that one TripManager
+ * can be shared by several sessions.
+ * Changes are serialized on the TripManager and publish a new immutable list of trips,
+ * so concurrent readers can use {@link #getTrips()} without locking.
  */
 public class TripManager {
     private static final Logger logger = Logger.getLogger(TripManager.class.getName());
 
-    /** The collection of all trips in the application */
-    private final List<Trip> trips = new ArrayList<>();
+    /** Immutable list of all trips in the application, replaced as a whole on every change */
+    private volatile List<Trip> trips = Collections.emptyList();
 
-    /** The currently selected trip, or null if no trip is selected */
-    private Trip selectedTrip = null;
+    /** Full-text index over all trips and their photos */
+    private final SearchIndex searchIndex = new SearchIndex();
+
+    /** Interval index over the period of every trip */
+    private final TripPeriodIndex periodIndex = new TripPeriodIndex();
+
+    /** Content index over the photo files of every trip */
+    private final DuplicateIndex duplicateIndex = new DuplicateIndex();
+
+    /** Finds the files of photos that have been moved, in the background */
+    private final PhotoRelinker relinker = new PhotoRelinker(this);
+
+    /** Imports new photos from the folders bound to trips, in the background */
+    private final FolderWatcher folderWatcher = new FolderWatcher(this);
+
+    /**
+     * Held by a command group while it runs, and by background tasks while they change trips or save them,
+     * so that a background task never sees or saves a group that may still be rolled back
+     */
+    private final ReentrantLock groupLock = new ReentrantLock();
 
     /** Flag to control whether operations produce console output */
     private boolean silentMode = false;
@@ -59,17 +94,33 @@ public class TripManager {
      * @throws DuplicateNameException If a trip with the same name already exists
      * @throws MissingCompulsoryParameter If name or description is null
      */
-    public void addTrip(String name, String description) throws TravelDiaryException, DuplicateNameException,
-            MissingCompulsoryParameter {
+    public void addTrip(String name, String description) throws TravelDiaryException,
+            DuplicateNameException, MissingCompulsoryParameter {
+        addTrip(name, description, new PrintWriter(System.out, true));
+    }
+
+    /**
+     * Adds a trip to the collection and confirms it on the given writer.
+     *
+     * @param name The name of the trip to add
+     * @param description The description of the trip
+     * @param out The writer to confirm the addition on
+     * @throws TravelDiaryException If there is a general error creating the trip
+     * @throws DuplicateNameException If a trip with the same name already exists
+     * @throws MissingCompulsoryParameter If name or description is null
+     */
+    public synchronized void addTrip(String name, String description, PrintWriter out) throws TravelDiaryException,
+            DuplicateNameException, MissingCompulsoryParameter {
         logger.info("Adding a new trip: " + name);
         boolean anyContainsDuplicateName = trips.stream()
                 .anyMatch(s -> s.getName().equals(name));
         if (anyContainsDuplicateName){
             throw new DuplicateNameException("trip", name);
         }
-        trips.add(new Trip(name, description));
+        Trip newTrip = new Trip(name, description);
+        publishTrips(newTrip, -1);
         logger.info("Trip added successfully: " + name);
-        System.out.printf("\tTrip [%s] has been added successfully.\n", name);
+        out.printf("\tTrip [%s] has been added successfully.\n", name);
     }
 
     /**
@@ -85,7 +136,7 @@ public class TripManager {
      * @throws MissingCompulsoryParameter If name or description is null
      * @throws DuplicateNameException If a trip with the same name already exists
      */
-    public Trip addTripSilently(String name, String description) throws TravelDiaryException,
+    public synchronized Trip addTripSilently(String name, String description) throws TravelDiaryException,
             MissingCompulsoryParameter, DuplicateNameException {
         logger.info("Adding a new trip silently: " + name);
         boolean anyContainsDuplicateName = trips.stream()
@@ -94,98 +145,134 @@ public class TripManager {
             throw new DuplicateNameException("trip", name);
         }
         Trip newTrip = new Trip(name, description);
-        trips.add(newTrip);
+        publishTrips(newTrip, -1);
         logger.info("Trip added silently: " + name);
         return newTrip;
     }
 
     /**
-     * Sets the currently selected trip.
-     * Updates the currently selected trip to the provided trip.
+     * Deletes a trip at the specified index.
+     * Removes the trip at the given index from the collection and
+     * displays a confirmation message unless silent mode is enabled.
      *
-     * @param selectedTrip The trip to select, or null to clear the selection
+     * @param index The index of the trip to delete
+     * @throws IndexOutOfRangeException If the index is out of range
      */
-    public void setSelectedTrip(Trip selectedTrip) {
-        logger.info("Setting selected trip: " + (selectedTrip != null ? selectedTrip.name : "null"));
-        this.selectedTrip = selectedTrip;
+    public void deleteTrip(int index) throws IndexOutOfRangeException {
+        deleteTrip(index, new PrintWriter(System.out, true));
     }
 
     /**
-     * Deletes a trip at the specified index.
-     * Removes the trip at the given index from the collection and
-     * displays a confirmation message unless silent mode is enabled.
+     * Deletes a trip at the specified index, and confirms it on the given writer unless silent mode is enabled.
      *
      * @param index The index of the trip to delete
+     * @param out The writer to confirm the deletion on
      * @throws IndexOutOfRangeException If the index is out of range
      */
-    public void deleteTrip(int index) throws IndexOutOfRangeException {
+    public synchronized void deleteTrip(int index, PrintWriter out) throws IndexOutOfRangeException {
         logger.info("Attempting to delete trip at index: " + index);
         if (index < 0 || index >= trips.size()) {
             throw new IndexOutOfRangeException();
         }
-        logger.info("Trip deleted: " + trips.get(index).name);
-        trips.remove(index);
+        Trip deletedTrip = trips.get(index);
+        logger.info("Trip deleted: " + deletedTrip.name);
+        publishTrips(null, index);
+        folderWatcher.unbind(deletedTrip);
 
         if (!silentMode) {
-            System.out.println("Trip deleted successfully.");
+            out.println("Trip deleted successfully.");
         }
     }
 
     /**
-     * Displays all trips in the collection.
+     * Displays all trips in the collection on the standard output.
      * Lists all trips with their indices and details, or displays a message
      * if no trips are available. This method does nothing if silent mode is enabled.
      */
     public void viewTrips() {
-        logger.info("Viewing all trips.");
+        PrintWriter out = new PrintWriter(System.out);
+        viewTrips(out);
+        out.flush();
+    }
+
+    /**
+     * Writes all trips in the collection to the given writer, one row at a time.
+     * Lists all trips with their indices and details, or displays a message
+     * if no trips are available. This method does nothing if silent mode is enabled.
+     * The writer is not flushed, so that the caller decides when the output is shown.
+     *
+     * @param out the writer to write the listing to
+     */
+    public void viewTrips(PrintWriter out) {
+        viewTrips(out, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Writes one page of the trips to the given writer, one row at a time.
+     * Rows are numbered by their position in the whole collection, so the numbers can be used by later commands.
+     * This method does nothing if silent mode is enabled.
+     *
+     * @param out the writer to write the listing to
+     * @param from the position of the first trip to write
+     * @param count the maximum number of trips to write
+     */
+    public void viewTrips(PrintWriter out, int from, int count) {
+        assert from >= 0 && count > 0 : "Page should start at a valid position and hold at least one trip";
+        logger.info("Viewing trips from position " + from);
 
         if (silentMode) {
             return; // Skip printing in silent mode
         }
 
-        if (trips.isEmpty()) {
+        List<Trip> currentTrips = trips;
+        if (currentTrips.isEmpty()) {
             logger.warning("No trips available.");
-            System.out.println("\n\tNo trips available. Start adding a new trip now!");
+            out.println("\n\tNo trips available. Start adding a new trip now!");
         } else {
-            for (int i = 0; i < trips.size(); i++) {
-                System.out.println(i + 1 + ": " + trips.get(i)); // Display index with trip details
+            int to = (int) Math.min((long) from + count, currentTrips.size());
+            for (int i = from; i < to; i++) {
+                out.print(i + 1); // Display index with trip details
+                out.print(": ");
+                out.println(currentTrips.get(i));
             }
         }
     }
 
     /**
      * Selects a trip at the specified index.
-     * Updates the currently selected trip to the trip at the given index
-     * and displays a confirmation message unless silent mode is enabled.
+     * Looks up the trip at the given index and displays a confirmation message
+     * unless silent mode is enabled. The caller records the selection in its Session.
      *
      * @param index The index of the trip to select
+     * @return The selected trip
      * @throws IndexOutOfRangeException If the index is out of range
      */
-    public void selectTrip(int index) throws IndexOutOfRangeException {
+    public Trip selectTrip(int index) throws IndexOutOfRangeException {
+        return selectTrip(index, new PrintWriter(System.out, true));
+    }
+
+    /**
+     * Selects a trip at the specified index, and shows it on the given writer unless silent mode is enabled.
+     *
+     * @param index The index of the trip to select
+     * @param out The writer to show the selected trip on
+     * @return The selected trip
+     * @throws IndexOutOfRangeException If the index is out of range
+     */
+    public Trip selectTrip(int index, PrintWriter out) throws IndexOutOfRangeException {
         logger.info("Selecting trip at index: " + index);
-        if (index < 0 || index >= trips.size()) {
+        List<Trip> currentTrips = trips;
+        if (index < 0 || index >= currentTrips.size()) {
             logger.severe("Invalid trip index: " + index);
             throw new IndexOutOfRangeException();
         }
-        selectedTrip = trips.get(index);
+        Trip selectedTrip = currentTrips.get(index);
         logger.info("Selected trip: " + selectedTrip.name);
 
         if (!silentMode) {
-            System.out.println("\tSelected trip: " + selectedTrip);
+            out.println("\tSelected trip: " + selectedTrip);
         }
-    }
-
-    /**
-     * Gets the currently selected trip.
-     * Returns the Trip object that is currently selected. This method
-     * includes an assertion to ensure that a trip is selected.
-     *
-     * @return The currently selected Trip object
-     */
-    public Trip getSelectedTrip() {
-        logger.info("Retrieving selected trip.");
-        assert selectedTrip != null : "Selected trip should not be null";
-        return this.selectedTrip;
+        return selectedTrip;
     }
 
     /**
@@ -199,6 +286,106 @@ public class TripManager {
         }
     }
 
+    /**
+     * Captures the current trips and album contents so that they can be restored later.
+     *
+     * @return A snapshot of the current state
+     */
+    public synchronized TripSnapshot takeSnapshot() {
+        return new TripSnapshot(trips);
+    }
+
+    /**
+     * Restores the trips and album contents captured by a snapshot.
+     * Trips added since the snapshot are dropped, deleted trips and photos are brought back,
+     * and the search, period and duplicate indexes are updated for every trip whose photos changed.
+     * Every trip watches the folder it watched in the snapshot again, including trips that are brought back,
+     * and a dropped trip stops watching.
+     *
+     * @param snapshot A snapshot previously taken from this TripManager
+     */
+    public synchronized void restoreSnapshot(TripSnapshot snapshot) {
+        assert snapshot != null : "Snapshot to restore should not be null";
+        Set<Trip> currentTrips = Collections.newSetFromMap(new IdentityHashMap<>());
+        currentTrips.addAll(trips);
+        for (Trip trip : trips) {
+            if (!snapshot.photos.containsKey(trip)) {
+                searchIndex.removeTrip(trip);
+                periodIndex.removeTrip(trip);
+                duplicateIndex.removeTrip(trip);
+                folderWatcher.unbind(trip);
+            }
+        }
+
+        for (Trip trip : snapshot.trips) {
+            List<Photo> savedPhotos = snapshot.photos.get(trip);
+            boolean isIndexed = currentTrips.contains(trip);
+            boolean isUnchanged = isIndexed && trip.album.getPhotos() == savedPhotos;
+            if (isIndexed && !isUnchanged) {
+                searchIndex.removeTrip(trip);
+                periodIndex.removeTrip(trip);
+                duplicateIndex.removeTrip(trip);
+            }
+            if (!isUnchanged) {
+                trip.album.replacePhotos(savedPhotos);
+                searchIndex.addTrip(trip);
+                periodIndex.addTrip(trip);
+                duplicateIndex.addTrip(trip);
+            }
+        }
+
+        trips = Collections.unmodifiableList(new ArrayList<>(snapshot.trips));
+        for (Trip trip : snapshot.trips) {
+            String savedFolder = snapshot.watchFolders.get(trip);
+            if (currentTrips.contains(trip) && Objects.equals(savedFolder, trip.getWatchFolder())) {
+                continue;
+            }
+            if (savedFolder == null) {
+                folderWatcher.unwatch(trip);
+            } else {
+                rewatch(trip, savedFolder);
+            }
+        }
+        logger.info("Restored snapshot with " + trips.size() + " trips.");
+    }
+
+    /**
+     * Publishes a new list of trips with one trip added or removed, and updates the indexes.
+     *
+     * @param addedTrip The trip to append, or null to only remove
+     * @param removedIndex The index of the trip to remove, or -1 to only add
+     */
+    private void publishTrips(Trip addedTrip, int removedIndex) {
+        List<Trip> updatedTrips = new ArrayList<>(trips);
+        if (removedIndex >= 0) {
+            Trip removedTrip = updatedTrips.remove(removedIndex);
+            searchIndex.removeTrip(removedTrip);
+            periodIndex.removeTrip(removedTrip);
+            duplicateIndex.removeTrip(removedTrip);
+        }
+        if (addedTrip != null) {
+            updatedTrips.add(addedTrip);
+            searchIndex.addTrip(addedTrip);
+            periodIndex.addTrip(addedTrip);
+            duplicateIndex.addTrip(addedTrip);
+        }
+        trips = Collections.unmodifiableList(updatedTrips);
+    }
+
+    /**
+     * Watches again the folder a trip watched before a rolled back change. A folder that is not available is kept
+     * on the trip, as when watching is resumed, so that it is tried again the next time.
+     */
+    private void rewatch(Trip trip, String folder) {
+        try {
+            folderWatcher.watch(trip, Paths.get(folder));
+        } catch (IOException | RuntimeException e) {
+            folderWatcher.unbind(trip);
+            trip.setWatchFolder(folder);
+            logger.warning("Cannot watch " + folder + " for trip " + trip.name + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Returns a string representation of all trips in the collection.
      * Creates a formatted string containing details of all trips, with each trip
@@ -218,11 +405,70 @@ public class TripManager {
 
     /**
      * Gets the list of all trips in the collection.
-     * Returns the complete list of Trip objects managed by this TripManager.
+     * Returns an immutable snapshot of the Trip objects managed by this TripManager,
+     * which is not affected by trips added or deleted later.
      *
      * @return The list of Trip objects
      */
     public List<Trip> getTrips() {
         return trips;
     }
+
+    /**
+     * Gets the full-text search index over all trips and photos in the collection.
+     * The index is kept up to date as trips and photos are added, deleted or loaded.
+     *
+     * @return The search index of this TripManager
+     */
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Gets the interval index over the periods of all trips in the collection.
+     * The index is kept up to date as trips and photos are added, deleted or loaded.
+     *
+     * @return The trip period index of this TripManager
+     */
+    public TripPeriodIndex getPeriodIndex() {
+        return periodIndex;
+    }
+
+    /**
+     * Gets the content index over the photo files of all trips in the collection.
+     * The index is kept up to date as trips and photos are added, deleted or loaded.
+     *
+     * @return The duplicate index of this TripManager
+     */
+    public DuplicateIndex getDuplicateIndex() {
+        return duplicateIndex;
+    }
+
+    /**
+     * Gets the lock held by a command group while it runs. Background tasks take it to change trips or save them,
+     * so that they wait until the group has either completed or been rolled back.
+     *
+     * @return The command group lock of this TripManager
+     */
+    public ReentrantLock getGroupLock() {
+        return groupLock;
+    }
+
+    /**
+     * Gets the relinker that finds the files of moved photos of all trips in the collection.
+     *
+     * @return The photo relinker of this TripManager
+     */
+    public PhotoRelinker getRelinker() {
+        return relinker;
+    }
+
+    /**
+     * Gets the watcher that imports new photos from the folders bound to trips in the collection.
+     *
+     * @return The folder watcher of this TripManager
+     */
+    public FolderWatcher getFolderWatcher() {
+        return folderWatcher;
+    }
 }
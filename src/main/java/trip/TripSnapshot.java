@@ -0,0 +1,37 @@
+package trip;
+
+import photo.Photo;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A point-in-time copy of the state of a TripManager, used to roll back a group of commands
+ * that failed part-way through. Only the list of trips is copied. The photo list of each album is an
+ * immutable snapshot replaced as a whole on every change, so it is kept by reference, and taking a snapshot
+ * does not depend on the number of photos. Trip and photo objects themselves are shared, since no command
+ * modifies them in place, except for the folder a trip watches, which is recorded separately.
+ * Selections belong to a Session and are saved separately.
+ */
+public class TripSnapshot {
+    final List<Trip> trips;
+    /** Photos of every album in the snapshot, in their original order */
+    final Map<Trip, List<Photo>> photos = new IdentityHashMap<>();
+    /** Folder every trip in the snapshot watched, or null if it watched none */
+    final Map<Trip, String> watchFolders = new IdentityHashMap<>();
+
+    /**
+     * Captures the given trips, their photos and the folders they watch.
+     *
+     * @param trips The trips of the TripManager
+     */
+    TripSnapshot(List<Trip> trips) {
+        this.trips = new ArrayList<>(trips);
+        for (Trip trip : trips) {
+            photos.put(trip, trip.album.getPhotos());
+            watchFolders.put(trip, trip.getWatchFolder());
+        }
+    }
+}
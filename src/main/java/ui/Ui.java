@@ -1,5 +1,10 @@
 package ui;
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
 import java.util.Scanner;
 import parser.Parser;
 import java.io.InputStream;
@@ -7,6 +12,8 @@ import java.io.InputStream;
  * Handles all user interface operations in the Travel Diary application.
  * This class is responsible for displaying information to the user and
  * collecting user input through command-line interface.
+ * Output is written to a buffered writer that is only flushed at prompt and command boundaries,
+ * so that long listings are not written to the console one line at a time.
  */
 public class Ui {
     /** Separator line used for UI formatting */
@@ -21,32 +28,73 @@ public class Ui {
     /** Array of valid command names from the Parser */
     public static final String[] COMMAND_ARRAY = Parser.COMMAND_ARRAY;
     
-    /** Scanner object for reading user input */
-    private final Scanner scanner;
+    /** Size of the output buffer in characters, large enough to hold a page of listing rows */
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    /** Scanner object for reading user input, created on the first read so that output-only UIs have none */
+    private Scanner scanner;
+
+    /** Buffered writer all output of this UI goes through */
+    private final PrintWriter out;
 
     /**
-     * Constructs a new UI object with a scanner for input.
+     * Constructs a new UI object reading from the standard input and writing to the standard output.
+     * The standard output is looked up on every flush, so output redirected with
+     * {@link System#setOut(java.io.PrintStream)} is still captured.
      */
     public Ui() {
-        this.scanner = new Scanner(System.in);
+        this(new StandardOutputStream());
+    }
+
+    /**
+     * Constructs a new UI object reading from the standard input and writing to the given stream.
+     *
+     * @param output the stream the output is written to
+     */
+    public Ui(OutputStream output) {
+        this.out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(output, Charset.defaultCharset()),
+                OUTPUT_BUFFER_SIZE), false);
     }
 
     /**
-     * Reads a line of input from the user.
+     * Reads a line of input from the user. Any buffered output is flushed first,
+     * so that the user sees everything printed before the prompt.
      *
      * @return the input string entered by the user
      */
     public String readInput() {
+        flush();
+        if (scanner == null) {
+            scanner = new Scanner(System.in);
+        }
         return scanner.nextLine();
     }
 
+    /**
+     * Returns the buffered writer of this UI, so that commands producing long listings
+     * can write their rows directly instead of building intermediate strings.
+     * The caller must not close the writer.
+     *
+     * @return the output writer
+     */
+    public PrintWriter getWriter() {
+        return out;
+    }
+
+    /**
+     * Writes all buffered output. Called at prompt and command boundaries.
+     */
+    public void flush() {
+        out.flush();
+    }
+
     /**
      * Displays the welcome message and logo when the application starts.
      */
     public void showWelcome() {
-        System.out.println("Welcome to your Travel Diary Management System!");
-        System.out.println("Capture and manage your travel memories with ease!\n");
-        System.out.println("Please type \"help\" if you need instructions \n");
+        out.println("Welcome to your Travel Diary Management System!");
+        out.println("Capture and manage your travel memories with ease!\n");
+        out.println("Please type \"help\" if you need instructions \n");
         this.showLogo();
     }
 
@@ -54,7 +102,7 @@ public class Ui {
      * Displays a separator line for UI formatting.
      */
     public void showLine() {
-        System.out.println(SEPARATOR_LINE);
+        out.println(SEPARATOR_LINE);
     }
 
     /**
@@ -63,7 +111,7 @@ public class Ui {
      * @param message the message to display
      */
     public void showToUser(String message) {
-        System.out.println(message);
+        out.println(message);
     }
 
     /**
@@ -85,8 +133,8 @@ public class Ui {
      * This is shown when the application is in the main menu state (FSM state 0).
      */
     public void showTripPage() {
-        System.out.println(SEPARATOR_LINE);
-        System.out.println(" ".repeat(PADDING) + "|Trip Page|");
+        out.println(SEPARATOR_LINE);
+        out.println(" ".repeat(PADDING) + "|Trip Page|");
     }
 
     /**
@@ -95,8 +143,8 @@ public class Ui {
      * the photo management state (FSM state 1).
      */
     public void showPhotoPage() {
-        System.out.println(SEPARATOR_LINE);
-        System.out.println(" ".repeat(PADDING) + "|Photo Page|");
+        out.println(SEPARATOR_LINE);
+        out.println(" ".repeat(PADDING) + "|Photo Page|");
     }
 
     /**
@@ -113,7 +161,7 @@ public class Ui {
             // Directly read the InputStream and print its content using Scanner
             try (Scanner scanner = new Scanner(inputStream)) {
                 while (scanner.hasNextLine()) {
-                    System.out.println(scanner.nextLine());
+                    out.println(scanner.nextLine());
                 }
             }
         } catch (Exception e) {
@@ -123,9 +171,32 @@ public class Ui {
 
 
     /**
-     * Closes the scanner when the application is shutting down.
+     * Flushes any buffered output and closes the scanner when the application is shutting down.
      */
     public void close() {
-        scanner.close();
+        flush();
+        if (scanner != null) {
+            scanner.close();
+        }
+    }
+
+    /**
+     * Forwards all writes to the current standard output.
+     */
+    private static class StandardOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+            System.out.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            System.out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() {
+            System.out.flush();
+        }
     }
 }
@@ -0,0 +1,534 @@
+package watch;
+
+import duplicate.ContentHash;
+import exception.FileWriteException;
+import photo.Photo;
+import storage.Storage;
+import trip.Trip;
+import trip.TripManager;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Imports new photos dropped into a folder bound to a trip, e.g. the target folder of a phone sync, so the
+ * diary stays current without add_photo commands. A single background thread waits on a WatchService for all
+ * watched folders. A file is only imported once it has had no events and kept the same size for a quiet period,
+ * so files still being copied are left alone. Ready files are imported in batches: their metadata is extracted
+ * and their locations looked up across all processor cores, each batch is added to the album at once, and the
+ * diary is saved once per batch. Files whose content is already in the diary are skipped.
+ * Photos already in a folder when it is bound, or when Travel Diary starts, are imported as well.
+ */
+public class FolderWatcher {
+    /** Time a file must go without events before it is imported */
+    public static final long DEFAULT_QUIET_MILLIS = 2000;
+    /** Largest number of photos added to an album and saved at once */
+    public static final int BATCH_SIZE = 50;
+    /** Caption of imported photos */
+    public static final String CAPTION = "Imported from watched folder";
+    private static final long POLL_MILLIS = 200;
+    /** Longest time to wait on exit for the watcher thread to stop */
+    private static final long SHUTDOWN_SECONDS = 10;
+    private static final Logger logger = Logger.getLogger(FolderWatcher.class.getName());
+
+    private final TripManager tripManager;
+    private final long quietMillis;
+    private final Map<WatchKey, Binding> bindingsByKey = new HashMap<>();
+    private final Map<Trip, Binding> bindingsByTrip = new IdentityHashMap<>();
+    /** Folders whose existing photos are still to be queued, handed to the watcher thread */
+    private final Queue<Binding> foldersToScan = new ConcurrentLinkedQueue<>();
+    /** Files waiting for their quiet period to pass, only used by the watcher thread */
+    private final Map<Path, PendingFile> pendingFiles = new LinkedHashMap<>();
+    /** The path the diary is saved to after each batch, or null to never save */
+    private volatile String dataFilePath;
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    /**
+     * Constructs a watcher that imports into the trips of a trip manager.
+     *
+     * @param tripManager the trips that folders can be bound to
+     */
+    public FolderWatcher(TripManager tripManager) {
+        this(tripManager, DEFAULT_QUIET_MILLIS);
+    }
+
+    /**
+     * Constructs a watcher with the given quiet period.
+     *
+     * @param tripManager the trips that folders can be bound to
+     * @param quietMillis the time a file must go without events before it is imported
+     */
+    FolderWatcher(TripManager tripManager, long quietMillis) {
+        this.tripManager = tripManager;
+        this.quietMillis = quietMillis;
+    }
+
+    /**
+     * Sets the path the diary is saved to after each batch of imported photos.
+     *
+     * @param dataFilePath the path of the data file, or null to never save
+     */
+    public void setDataFilePath(String dataFilePath) {
+        this.dataFilePath = dataFilePath;
+    }
+
+    /**
+     * Binds a folder to a trip, replacing the folder the trip watched before, and imports the photos
+     * already in it in the background.
+     *
+     * @param trip the trip to import into
+     * @param folder the folder to watch
+     * @throws IOException if the folder does not exist or cannot be watched
+     */
+    public synchronized void watch(Trip trip, Path folder) throws IOException {
+        if (!Files.isDirectory(folder)) {
+            throw new IOException("Not a folder: " + folder);
+        }
+        unbind(trip);
+        if (watchService == null) {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            watchService = service;
+            watcherThread = new Thread(() -> run(service), "folder-watcher");
+            watcherThread.setDaemon(true);
+            watcherThread.start();
+        }
+        WatchKey key = folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        Binding binding = new Binding(trip, folder, key);
+        bindingsByKey.put(key, binding);
+        bindingsByTrip.put(trip, binding);
+        trip.setWatchFolder(folder.toString());
+        foldersToScan.add(binding);
+        logger.info(String.format("Watching %s for trip %s", folder, trip.getName()));
+    }
+
+    /**
+     * Stops watching the folder bound to a trip.
+     *
+     * @param trip the trip
+     * @return false if the trip was not watching a folder
+     */
+    public synchronized boolean unwatch(Trip trip) {
+        trip.setWatchFolder(null);
+        return unbind(trip);
+    }
+
+    /**
+     * Stops watching the folder bound to a trip that has been deleted. The folder stays recorded on the trip,
+     * so that it is watched again if the deletion is rolled back.
+     *
+     * @param trip the deleted trip
+     * @return false if the trip was not watching a folder
+     */
+    public synchronized boolean unbind(Trip trip) {
+        Binding binding = bindingsByTrip.remove(trip);
+        if (binding == null) {
+            return false;
+        }
+        bindingsByKey.remove(binding.key);
+        binding.key.cancel();
+        logger.info(String.format("Stopped watching %s for trip %s", binding.folder, trip.getName()));
+        return true;
+    }
+
+    /**
+     * Stops watching all folders before the program exits. Files not imported yet are left for the next time,
+     * and a batch being saved is waited for, so that the diary is not saved while the program saves it for the
+     * last time. The folders stay recorded on their trips, so that they are watched again the next time.
+     */
+    public void shutdown() {
+        WatchService service;
+        Thread thread;
+        synchronized (this) {
+            service = watchService;
+            thread = watcherThread;
+            watchService = null;
+            watcherThread = null;
+            bindingsByKey.clear();
+            bindingsByTrip.clear();
+        }
+        if (service == null) {
+            return;
+        }
+        try {
+            service.close();
+        } catch (IOException e) {
+            logger.fine("Failed to close the watch service: " + e.getMessage());
+        }
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            logger.warning("Folder watcher did not stop in time");
+        }
+    }
+
+    /**
+     * Returns the folder a trip is watching.
+     *
+     * @param trip the trip
+     * @return the folder, or null if the trip is not watching a folder
+     */
+    public synchronized Path getFolder(Trip trip) {
+        Binding binding = bindingsByTrip.get(trip);
+        return binding == null ? null : binding.folder;
+    }
+
+    /**
+     * Returns the number of photos imported into a trip since its folder was bound.
+     *
+     * @param trip the trip
+     * @return the number of photos imported, 0 if the trip is not watching a folder
+     */
+    public synchronized int getImportedCount(Trip trip) {
+        Binding binding = bindingsByTrip.get(trip);
+        return binding == null ? 0 : binding.importedCount;
+    }
+
+    /**
+     * Watches again the folders of all trips that were watching one when the diary was saved.
+     * A folder that is not available, e.g. on a drive that is not connected, is logged and kept on its trip,
+     * so that it is tried again the next time.
+     */
+    public void resumeAll() {
+        for (Trip trip : tripManager.getTrips()) {
+            String folder = trip.getWatchFolder();
+            if (folder == null) {
+                continue;
+            }
+            try {
+                watch(trip, Paths.get(folder));
+            } catch (IOException | RuntimeException e) {
+                trip.setWatchFolder(folder);
+                logger.warning("Cannot watch " + folder + " for trip " + trip.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Imports a batch of files into a trip: files already in the trip, whose content is already in the diary or
+     * that are copies of an earlier file of the batch are skipped, and the photos of the others are created
+     * in parallel, added to the album at once and saved.
+     * The photos are added and saved under the group lock of the TripManager, so that a command group running
+     * at the same time neither rolls them back nor has its own changes saved half-applied.
+     *
+     * @param trip the trip to import into
+     * @param files the photo files to import
+     * @return the number of photos added
+     */
+    int importBatch(Trip trip, List<Path> files) {
+        if (!tripManager.getTrips().contains(trip)) {
+            // The trip has been deleted since the files were queued
+            unbind(trip);
+            return 0;
+        }
+        Set<String> names = new HashSet<>();
+        Set<String> filePaths = new HashSet<>();
+        for (Photo photo : trip.album.getPhotos()) {
+            names.add(photo.getPhotoName());
+            filePaths.add(photo.getFilePath());
+        }
+        Map<Path, String> namesByFile = new LinkedHashMap<>();
+        for (Path file : withoutCopies(files)) {
+            if (!filePaths.contains(file.toString()) && !isDuplicate(file)) {
+                namesByFile.put(file, getUniqueName(file, names));
+            }
+        }
+        if (namesByFile.isEmpty()) {
+            return 0;
+        }
+
+        List<Photo> photos = createPhotos(namesByFile);
+        List<Photo> added;
+        tripManager.getGroupLock().lock();
+        try {
+            if (!tripManager.getTrips().contains(trip)) {
+                return 0;
+            }
+            added = trip.album.addPhotos(photos);
+            if (!added.isEmpty()) {
+                save();
+            }
+        } finally {
+            tripManager.getGroupLock().unlock();
+        }
+        synchronized (this) {
+            Binding binding = bindingsByTrip.get(trip);
+            if (binding != null) {
+                binding.importedCount += added.size();
+            }
+        }
+        if (!added.isEmpty()) {
+            logger.info(String.format("Imported %d photos into trip %s", added.size(), trip.getName()));
+            tripManager.getRelinker().fingerprintInBackground();
+        }
+        return added.size();
+    }
+
+    private void run(WatchService service) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                for (Binding binding = foldersToScan.poll(); binding != null; binding = foldersToScan.poll()) {
+                    queueExistingFiles(binding);
+                }
+                if (key != null) {
+                    queueEvents(key);
+                }
+                importReadyFiles(System.currentTimeMillis());
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.info("Folder watcher stopped");
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Folder watcher failed", e);
+        }
+    }
+
+    private void queueEvents(WatchKey key) {
+        Binding binding;
+        synchronized (this) {
+            binding = bindingsByKey.get(key);
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (binding == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost, so look at every file of the folder
+                queueExistingFiles(binding);
+            } else {
+                queue(binding, binding.folder.resolve((Path) event.context()), System.currentTimeMillis());
+            }
+        }
+        key.reset();
+    }
+
+    private void queueExistingFiles(Binding binding) {
+        try (Stream<Path> files = Files.list(binding.folder)) {
+            // Files that were already there need not wait for a quiet period
+            files.forEach(file -> queue(binding, file, System.currentTimeMillis() - quietMillis));
+        } catch (IOException e) {
+            logger.warning("Cannot list " + binding.folder + ": " + e.getMessage());
+        }
+    }
+
+    private void queue(Binding binding, Path file, long eventTime) {
+        if (file.getFileName().toString().toLowerCase().endsWith(".jpg")) {
+            PendingFile pending = pendingFiles.get(file);
+            if (pending == null || pending.binding != binding) {
+                pendingFiles.put(file, new PendingFile(binding, eventTime, -1));
+            } else {
+                pending.lastEventTime = Math.max(pending.lastEventTime, eventTime);
+            }
+        }
+    }
+
+    /**
+     * Imports the pending files that have gone without events and kept their size for the quiet period,
+     * in batches per trip.
+     */
+    private void importReadyFiles(long now) {
+        Map<Binding, List<Path>> readyFiles = new LinkedHashMap<>();
+        Iterator<Map.Entry<Path, PendingFile>> iterator = pendingFiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, PendingFile> entry = iterator.next();
+            PendingFile pending = entry.getValue();
+            long size;
+            try {
+                size = Files.isRegularFile(entry.getKey()) ? Files.size(entry.getKey()) : -1;
+            } catch (IOException e) {
+                size = -1;
+            }
+            if (size < 0) {
+                iterator.remove();
+            } else if (size != pending.size) {
+                // Still being written, so wait for another quiet period
+                pending.size = size;
+                pending.lastEventTime = Math.max(pending.lastEventTime, now - quietMillis / 2);
+            } else if (now - pending.lastEventTime >= quietMillis) {
+                iterator.remove();
+                readyFiles.computeIfAbsent(pending.binding, binding -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+
+        for (Map.Entry<Binding, List<Path>> entry : readyFiles.entrySet()) {
+            Binding binding = entry.getKey();
+            List<Path> files = entry.getValue();
+            // The folder may be unbound or the watcher shut down between batches
+            for (int start = 0; start < files.size() && isBound(binding); start += BATCH_SIZE) {
+                importBatch(binding.trip, files.subList(start, Math.min(files.size(), start + BATCH_SIZE)));
+            }
+        }
+    }
+
+    /**
+     * Leaves out the files with the same content as an earlier file of the batch, e.g. a photo synced twice under
+     * different names. Only files whose size matches another file of the batch are hashed, in full, as a photo may
+     * differ from another only in the middle of its file. Files that cannot be read are kept, so that importing
+     * them reports the problem.
+     */
+    private static List<Path> withoutCopies(List<Path> files) {
+        Map<Path, Long> sizes = new HashMap<>();
+        Map<Long, Integer> countsBySize = new HashMap<>();
+        for (Path file : files) {
+            try {
+                long size = Files.size(file);
+                sizes.put(file, size);
+                countsBySize.merge(size, 1, Integer::sum);
+            } catch (IOException e) {
+                logger.fine("Cannot read size of " + file + ": " + e.getMessage());
+            }
+        }
+        List<Path> uniqueFiles = new ArrayList<>();
+        Set<String> hashes = new HashSet<>();
+        for (Path file : files) {
+            Long size = sizes.get(file);
+            try {
+                if (size == null || countsBySize.get(size) == 1 || hashes.add(ContentHash.of(file))) {
+                    uniqueFiles.add(file);
+                } else {
+                    logger.info("Skipping copy of another file of the batch: " + file);
+                }
+            } catch (IOException e) {
+                uniqueFiles.add(file);
+            }
+        }
+        return uniqueFiles;
+    }
+
+    private boolean isDuplicate(Path file) {
+        try {
+            return tripManager.getDuplicateIndex().findDuplicate(file.toString()) != null;
+        } catch (IOException e) {
+            // The file has gone or cannot be read, so there is nothing to import
+            return true;
+        }
+    }
+
+    private synchronized boolean isBound(Binding binding) {
+        return bindingsByTrip.get(binding.trip) == binding;
+    }
+
+    /**
+     * Returns the file name without its extension, numbered if a photo with that name already exists.
+     */
+    private static String getUniqueName(Path file, Set<String> names) {
+        String fileName = file.getFileName().toString();
+        String baseName = fileName.substring(0, fileName.length() - ".jpg".length()).trim();
+        baseName = baseName.isEmpty() ? "Photo" : baseName;
+        String name = baseName;
+        for (int number = 2; !names.add(name); number++) {
+            name = String.format("%s (%d)", baseName, number);
+        }
+        return name;
+    }
+
+    /**
+     * Creates the photos of a batch across all processor cores, which extracts their metadata and looks up
+     * their locations. Files that cannot be read as photos are logged and left out.
+     */
+    private static List<Photo> createPhotos(Map<Path, String> namesByFile) {
+        int threads = Math.min(namesByFile.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Photo>> results = new ArrayList<>();
+            for (Map.Entry<Path, String> entry : namesByFile.entrySet()) {
+                results.add(workers.submit(() -> new Photo(entry.getKey().toString(), entry.getValue(), CAPTION)));
+            }
+            List<Photo> photos = new ArrayList<>();
+            for (Future<Photo> result : results) {
+                try {
+                    photos.add(result.get());
+                } catch (ExecutionException e) {
+                    logger.warning("Failed to import photo: " + e.getCause().getMessage());
+                }
+            }
+            return photos;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Saves the trips once no command group is running, so that a group that may still be rolled back is not saved.
+     */
+    private void save() {
+        String path = dataFilePath;
+        if (path == null) {
+            return;
+        }
+        tripManager.getGroupLock().lock();
+        try {
+            Storage.saveTasks(tripManager.getTrips(), path);
+        } catch (FileWriteException e) {
+            logger.log(Level.WARNING, "Failed to save imported photos", e);
+        } finally {
+            tripManager.getGroupLock().unlock();
+        }
+    }
+
+    /**
+     * A folder bound to a trip, with the key it is registered with and the number of photos imported from it.
+     */
+    private static class Binding {
+        final Trip trip;
+        final Path folder;
+        final WatchKey key;
+        int importedCount = 0;
+
+        Binding(Trip trip, Path folder, WatchKey key) {
+            this.trip = trip;
+            this.folder = folder;
+            this.key = key;
+        }
+    }
+
+    /**
+     * A file waiting to be imported, with the time of its last event and its size when last looked at.
+     */
+    private static class PendingFile {
+        final Binding binding;
+        long lastEventTime;
+        long size;
+
+        PendingFile(Binding binding, long lastEventTime, long size) {
+            this.binding = binding;
+            this.lastEventTime = lastEventTime;
+            this.size = size;
+        }
+    }
+}
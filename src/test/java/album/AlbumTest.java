@@ -2,14 +2,19 @@ package album;
 
 import exception.InvalidIndexException;
 import org.junit.jupiter.api.Test;
+import photo.Photo;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 class AlbumTest {
 
@@ -135,4 +140,65 @@ class AlbumTest {
         assertThrows(InvalidIndexException.class, () -> album.selectPhoto(5), "Selecting photo " +
                 "with an invalid index should throw an InvalidIndexException.");
     }
+
+    @Test
+    void toString_afterPhotoAdded_isRenderedAgain() throws Exception {
+        Album album = new Album();
+        long initialVersion = album.getVersion();
+        String empty = album.toString();
+        assertSame(empty, album.toString(), "Unchanged album should reuse its rendering.");
+
+        album.addPhoto("./data/photos/samurai.jpg", "Photo2", "Sunset");
+
+        assertTrue(album.getVersion() > initialVersion, "Adding a photo should change the version.");
+        assertTrue(album.toString().contains("Photo2"), "Rendering should include the added photo.");
+    }
+
+    @Test
+    void getPhotosByDate_photosAddedOutOfOrder_returnsChronologicalOrder() throws Exception {
+        Album album = new Album();
+        album.setSilentMode(true);
+        album.addPhoto("./data/photos/sample1.jpg", "Second", "Castle", LocalDateTime.of(2024, 1, 2, 10, 0));
+        album.addPhoto("./data/photos/samurai.jpg", "First", "Museum", LocalDateTime.of(2024, 1, 1, 10, 0));
+        album.addPhoto("./data/photos/clem.jpg", "Third", "Harbour", LocalDateTime.of(2024, 1, 3, 10, 0));
+
+        List<Photo> photosByDate = album.getPhotosByDate();
+
+        assertEquals(3, photosByDate.size());
+        assertEquals("First", photosByDate.get(0).getPhotoName());
+        assertEquals("Second", photosByDate.get(1).getPhotoName());
+        assertEquals("Third", photosByDate.get(2).getPhotoName());
+        assertEquals("Second", album.getPhotos().get(0).getPhotoName(), "Album itself should not be reordered.");
+    }
+
+    @Test
+    void addPhotos_batch_addsOnceAndSkipsDuplicates() throws Exception {
+        Album album = new Album();
+        album.setSilentMode(true);
+        album.addPhoto("./data/photos/samurai.jpg", "Samurai", "Museum visit", LocalDateTime.of(2024, 1, 2, 10, 0));
+        long version = album.getVersion();
+        List<Photo> notified = new ArrayList<>();
+        album.addListener(new AlbumListener() {
+            @Override
+            public void photoAdded(Album changed, Photo photo) {
+                notified.add(photo);
+            }
+
+            @Override
+            public void photoRemoved(Album changed, Photo photo) {
+            }
+        });
+        Photo castle = new Photo("./data/photos/sample1.jpg", "Castle", "Friends", LocalDateTime.of(2024, 1, 1, 9, 0));
+        Photo sameName = new Photo("./data/photos/clem.jpg", "Samurai", "Again", LocalDateTime.of(2024, 1, 3, 9, 0));
+        Photo samePath = new Photo("./data/photos/sample1.jpg", "Castle 2", "Again",
+                LocalDateTime.of(2024, 1, 3, 9, 0));
+
+        List<Photo> added = album.addPhotos(List.of(castle, sameName, samePath));
+
+        assertEquals(List.of(castle), added);
+        assertEquals(List.of(castle), notified);
+        assertEquals(2, album.getPhotos().size());
+        assertEquals(version + 1, album.getVersion());
+        assertEquals("Castle", album.getPhotosByDate().get(0).getPhotoName());
+    }
 }
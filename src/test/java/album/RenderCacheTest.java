@@ -0,0 +1,32 @@
+package album;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RenderCacheTest {
+
+    @Test
+    void get_sameKey_rendersOnce() {
+        RenderCache cache = new RenderCache();
+        AtomicInteger renders = new AtomicInteger();
+
+        assertEquals("view 1", cache.get(1L, () -> "view " + renders.incrementAndGet()));
+        assertEquals("view 1", cache.get(1L, () -> "view " + renders.incrementAndGet()));
+
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void get_changedKey_rendersAgain() {
+        RenderCache cache = new RenderCache();
+        AtomicInteger renders = new AtomicInteger();
+
+        cache.get(1L, () -> "view " + renders.incrementAndGet());
+        assertEquals("view 2", cache.get(2L, () -> "view " + renders.incrementAndGet()));
+
+        assertEquals(2, renders.get());
+    }
+}
@@ -6,6 +6,7 @@ import exception.MissingCompulsoryParameter;
 import exception.TravelDiaryException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import session.Session;
 import trip.TripManager;
 import ui.Ui;
 
@@ -26,6 +27,7 @@ public class AddPhotoCommandTest {
     
     private TripManager tripManager;
     private Ui ui;
+    private Session session;
 
     /**
      * Sets up the test environment before each test.
@@ -43,7 +45,8 @@ public class AddPhotoCommandTest {
         
         // Create and select a trip for testing photo addition
         tripManager.addTrip("Test Trip", "Test Trip Description");
-        tripManager.selectTrip(0);
+        session = new Session();
+        session.enterTrip(tripManager.selectTrip(0));
     }
 
     /**
@@ -58,7 +61,7 @@ public class AddPhotoCommandTest {
         Command command = new AddPhotoCommand(VALID_FILEPATH, VALID_PHOTONAME, VALID_CAPTION);
         
         assertThrows(TravelDiaryException.class, () -> 
-            command.execute(null, ui, 1)
+            command.execute(null, ui, session)
         );
     }
     
@@ -78,7 +81,7 @@ public class AddPhotoCommandTest {
         
         // This should throw an assertion error
         assertThrows(AssertionError.class, () -> 
-            command.execute(emptyTripManager, ui, 1)
+            command.execute(emptyTripManager, ui, new Session())
         );
     }
     
@@ -95,7 +98,7 @@ public class AddPhotoCommandTest {
         // Either IOException or UnsupportedImageFormatException might be thrown
         // depending on the implementation
         assertThrows(Exception.class, () -> 
-            command.execute(tripManager, ui, 1)
+            command.execute(tripManager, ui, session)
         );
     }
 } 
@@ -3,6 +3,7 @@ package command;
 import exception.TravelDiaryException;
 import exception.TripNotSelectedException;
 import org.junit.jupiter.api.Test;
+import session.Session;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,6 +20,12 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
  */
 public class CommandFactoryTest {
 
+    private static Session sessionOn(int fsmValue) {
+        Session session = new Session();
+        session.setFsmValue(fsmValue);
+        return session;
+    }
+
     /**
      * Tests that ExitCommand is returned for "bye" command in both FSM states.
      * 
@@ -30,12 +37,12 @@ public class CommandFactoryTest {
         Map<String, String> parsedCommand = new HashMap<>();
         parsedCommand.put("command", "bye");
         
-        Command command = CommandFactory.getCommand(parsedCommand, 0);
+        Command command = CommandFactory.getCommand(parsedCommand, sessionOn(0));
         assertTrue(command instanceof ExitCommand);
         assertTrue(command.isExit());
         
         // Exit command in trip state
-        command = CommandFactory.getCommand(parsedCommand, 1);
+        command = CommandFactory.getCommand(parsedCommand, sessionOn(1));
         assertTrue(command instanceof ExitCommand);
         assertTrue(command.isExit());
     }
@@ -52,11 +59,11 @@ public class CommandFactoryTest {
         parsedCommand.put("command", "list");
         
         // In menu state
-        Command command = CommandFactory.getCommand(parsedCommand, 0);
+        Command command = CommandFactory.getCommand(parsedCommand, sessionOn(0));
         assertTrue(command instanceof ListCommand);
         
         // In trip state
-        command = CommandFactory.getCommand(parsedCommand, 1);
+        command = CommandFactory.getCommand(parsedCommand, sessionOn(1));
         assertTrue(command instanceof ListCommand);
     }
     
@@ -73,11 +80,11 @@ public class CommandFactoryTest {
         parsedCommand.put("index", "1");
         
         // In menu state
-        Command command = CommandFactory.getCommand(parsedCommand, 0);
+        Command command = CommandFactory.getCommand(parsedCommand, sessionOn(0));
         assertTrue(command instanceof SelectCommand);
         
         // In trip state
-        command = CommandFactory.getCommand(parsedCommand, 1);
+        command = CommandFactory.getCommand(parsedCommand, sessionOn(1));
         assertTrue(command instanceof SelectCommand);
     }
     
@@ -94,11 +101,11 @@ public class CommandFactoryTest {
         parsedCommand.put("index", "1");
         
         // In menu state
-        Command command = CommandFactory.getCommand(parsedCommand, 0);
+        Command command = CommandFactory.getCommand(parsedCommand, sessionOn(0));
         assertTrue(command instanceof DeleteCommand);
         
         // In trip state
-        command = CommandFactory.getCommand(parsedCommand, 1);
+        command = CommandFactory.getCommand(parsedCommand, sessionOn(1));
         assertTrue(command instanceof DeleteCommand);
     }
     
@@ -114,11 +121,11 @@ public class CommandFactoryTest {
         parsedCommand.put("command", "help");
         
         // In menu state
-        Command command = CommandFactory.getCommand(parsedCommand, 0);
+        Command command = CommandFactory.getCommand(parsedCommand, sessionOn(0));
         assertTrue(command instanceof HelpCommand);
         
         // In trip state
-        command = CommandFactory.getCommand(parsedCommand, 1);
+        command = CommandFactory.getCommand(parsedCommand, sessionOn(1));
         assertTrue(command instanceof HelpCommand);
     }
     
@@ -136,7 +143,7 @@ public class CommandFactoryTest {
         parsedCommand.put("description", "Test Description");
         parsedCommand.put("location", "Test Location");
         
-        Command command = CommandFactory.getCommand(parsedCommand, 0);
+        Command command = CommandFactory.getCommand(parsedCommand, sessionOn(0));
         assertTrue(command instanceof AddTripCommand);
     }
     
@@ -150,7 +157,7 @@ public class CommandFactoryTest {
         parsedCommand.put("command", "menu");
         
         assertThrows(TravelDiaryException.class, () -> 
-            CommandFactory.getCommand(parsedCommand, 0)
+            CommandFactory.getCommand(parsedCommand, sessionOn(0))
         );
     }
     
@@ -168,7 +175,7 @@ public class CommandFactoryTest {
         parsedCommand.put("photoname", "Test Photo");
         parsedCommand.put("caption", "Test Caption");
         
-        Command command = CommandFactory.getCommand(parsedCommand, 1);
+        Command command = CommandFactory.getCommand(parsedCommand, sessionOn(1));
         assertTrue(command instanceof AddPhotoCommand);
     }
     
@@ -183,10 +190,39 @@ public class CommandFactoryTest {
         Map<String, String> parsedCommand = new HashMap<>();
         parsedCommand.put("command", "menu");
         
-        Command command = CommandFactory.getCommand(parsedCommand, 1);
+        Command command = CommandFactory.getCommand(parsedCommand, sessionOn(1));
         assertTrue(command instanceof MenuCommand);
     }
     
+    /**
+     * Tests that GalleryCommand is returned for "gallery" command in trip state (FSM=1).
+     *
+     * @throws Exception if there's an issue with execution
+     */
+    @Test
+    void testGetCommandGalleryCommandInTripStateShouldReturnGalleryCommand() throws Exception {
+        Map<String, String> parsedCommand = new HashMap<>();
+        parsedCommand.put("command", "gallery");
+
+        Command command = CommandFactory.getCommand(parsedCommand, sessionOn(1));
+        assertTrue(command instanceof GalleryCommand);
+    }
+
+    /**
+     * Tests that ZoomCommand is returned for "zoom" command in trip state (FSM=1).
+     *
+     * @throws Exception if there's an issue with execution
+     */
+    @Test
+    void testGetCommandZoomCommandInTripStateShouldReturnZoomCommand() throws Exception {
+        Map<String, String> parsedCommand = new HashMap<>();
+        parsedCommand.put("command", "zoom");
+        parsedCommand.put("index", "1");
+
+        Command command = CommandFactory.getCommand(parsedCommand, sessionOn(1));
+        assertTrue(command instanceof ZoomCommand);
+    }
+
     /**
      * Tests that exception is thrown for "add_trip" command in trip state (FSM=1).
      */
@@ -200,7 +236,7 @@ public class CommandFactoryTest {
         parsedCommand.put("location", "Test Location");
         
         assertThrows(TravelDiaryException.class, () -> 
-            CommandFactory.getCommand(parsedCommand, 1)
+            CommandFactory.getCommand(parsedCommand, sessionOn(1))
         );
     }
     
@@ -217,7 +253,7 @@ public class CommandFactoryTest {
         parsedCommand.put("caption", "Test Caption");
         
         assertThrows(TripNotSelectedException.class, () -> 
-            CommandFactory.getCommand(parsedCommand, 0)
+            CommandFactory.getCommand(parsedCommand, sessionOn(0))
         );
     }
     
@@ -233,7 +269,7 @@ public class CommandFactoryTest {
         
         // Invalid FSM value (not 0 or 1) should throw a TravelDiaryException
         TravelDiaryException exception = assertThrows(TravelDiaryException.class, () -> 
-            CommandFactory.getCommand(parsedCommand, 999)
+            CommandFactory.getCommand(parsedCommand, sessionOn(999))
         );
         
         // Verify the exception message
@@ -250,11 +286,11 @@ public class CommandFactoryTest {
         parsedCommand.put("command", "invalid_command");
         
         assertThrows(TripNotSelectedException.class, () -> 
-            CommandFactory.getCommand(parsedCommand, 0)
+            CommandFactory.getCommand(parsedCommand, sessionOn(0))
         );
         
         assertThrows(TravelDiaryException.class, () -> 
-            CommandFactory.getCommand(parsedCommand, 1)
+            CommandFactory.getCommand(parsedCommand, sessionOn(1))
         );
     }
     
@@ -269,7 +305,7 @@ public class CommandFactoryTest {
         // No index provided
         
         assertThrows(NumberFormatException.class, () -> 
-            CommandFactory.getCommand(parsedCommand, 0)
+            CommandFactory.getCommand(parsedCommand, sessionOn(0))
         );
     }
 } 
@@ -0,0 +1,125 @@
+package command;
+
+import exception.DuplicateNameException;
+import exception.InvalidIndexException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import parser.Parser;
+import session.Session;
+import trip.Trip;
+import trip.TripManager;
+import ui.Ui;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandGroupTest {
+    @TempDir
+    Path directory;
+
+    private TripManager tripManager;
+    private Ui ui;
+    private Session session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tripManager = new TripManager();
+        tripManager.setSilentMode(true);
+        ui = new Ui();
+        session = new Session();
+        tripManager.addTrip("Japan", "Skiing in Hokkaido");
+    }
+
+    @Test
+    void execute_allCommandsSucceed_appliesAllChanges() throws Exception {
+        Command command = CommandFactory.getCommand(
+                Parser.processLine("add_trip n#Korea d#Seoul; add_trip n#Taiwan d#Taipei; select 3"), session);
+        assertInstanceOf(CommandGroup.class, command);
+        command.execute(tripManager, ui, session);
+
+        assertEquals(3, tripManager.getTrips().size());
+        assertEquals("Taiwan", session.getSelectedTrip().getName());
+        assertEquals(Session.PHOTO_PAGE, session.getFsmValue());
+        assertFalse(command.isExit());
+    }
+
+    @Test
+    void execute_commandFails_rollsBackEarlierCommands() throws Exception {
+        Command command = CommandFactory.getCommand(
+                Parser.processLine("add_trip n#Korea d#Seoul; delete 1; add_trip n#Korea d#Busan"), session);
+
+        assertThrows(DuplicateNameException.class, () -> command.execute(tripManager, ui, session));
+        assertEquals(1, tripManager.getTrips().size());
+        assertEquals("Japan", tripManager.getTrips().get(0).getName());
+        // The indexes are restored along with the trips
+        assertTrue(tripManager.getSearchIndex().search("korea", 5).isEmpty());
+        assertEquals(1, tripManager.getSearchIndex().search("hokkaido", 5).size());
+    }
+
+    @Test
+    void execute_commandFailsAfterSelect_restoresSelection() throws Exception {
+        tripManager.addTrip("Korea", "Cherry blossoms in Seoul");
+        session.enterTrip(tripManager.selectTrip(0));
+        Command command = CommandFactory.getCommand(Parser.processLine("menu; select 2; select 5"), session);
+
+        assertThrows(InvalidIndexException.class, () -> command.execute(tripManager, ui, session));
+        assertEquals("Japan", session.getSelectedTrip().getName());
+        assertEquals(Session.PHOTO_PAGE, session.getFsmValue());
+    }
+
+    @Test
+    void execute_commandFailsAfterWatch_restoresWatchedFolders() throws Exception {
+        Path phone = Files.createDirectories(directory.resolve("phone"));
+        Path camera = Files.createDirectories(directory.resolve("camera"));
+        Trip japan = tripManager.getTrips().get(0);
+        Trip korea = tripManager.addTripSilently("Korea", "Cherry blossoms in Seoul");
+        tripManager.getFolderWatcher().watch(korea, phone);
+        Command command = CommandFactory.getCommand(Parser.processLine(
+                "select 1; watch d#" + camera + "; menu; select 2; unwatch; menu; add_trip n#Japan d#Again"), session);
+
+        assertThrows(DuplicateNameException.class, () -> command.execute(tripManager, ui, session));
+        assertNull(japan.getWatchFolder());
+        assertNull(tripManager.getFolderWatcher().getFolder(japan));
+        assertEquals(phone.toString(), korea.getWatchFolder());
+        assertEquals(phone, tripManager.getFolderWatcher().getFolder(korea));
+        tripManager.getFolderWatcher().shutdown();
+    }
+
+    @Test
+    void execute_exitInGroup_skipsRemainingCommands() throws Exception {
+        Command command = CommandFactory.getCommand(Parser.processLine("bye; add_trip n#Korea d#Seoul"), session);
+        command.execute(tripManager, ui, session);
+
+        assertTrue(command.isExit());
+        assertEquals(1, tripManager.getTrips().size());
+    }
+
+    @Test
+    void execute_messagesOfAllCommands_writtenToUiInOrder() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Ui bufferedUi = new Ui(output);
+        Command command = CommandFactory.getCommand(
+                Parser.processLine("add_trip n#Korea d#Seoul; help; add_trip n#Taiwan d#Taipei"), session);
+
+        command.execute(tripManager, bufferedUi, session);
+        // Nothing bypasses the buffer of the UI
+        assertEquals(0, output.size());
+        bufferedUi.flush();
+
+        String text = output.toString(Charset.defaultCharset());
+        int korea = text.indexOf("Trip [Korea] has been added");
+        int help = text.indexOf("TRAVEL DIARY HELP");
+        int taiwan = text.indexOf("Trip [Taiwan] has been added");
+        assertTrue(korea >= 0 && korea < help && help < taiwan);
+    }
+}
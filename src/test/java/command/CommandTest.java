@@ -6,11 +6,16 @@ import exception.InvalidIndexException;
 import exception.TravelDiaryException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import session.Session;
 import trip.TripManager;
 import ui.Ui;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -25,16 +30,18 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 public class CommandTest {
     private TripManager tripManager;
     private Ui ui;
+    private Session session;
 
     /**
      * Sets up the test environment before each test.
-     * Initializes a TripManager in silent mode and a UI instance.
+     * Initializes a TripManager in silent mode, a UI instance and a session on the Trip Page.
      */
     @BeforeEach
     void setUp() {
         tripManager = new TripManager();
         tripManager.setSilentMode(true); // Avoid console output during tests
         ui = new Ui();
+        session = new Session();
     }
 
     /**
@@ -50,7 +57,7 @@ public class CommandTest {
         String location = "Japan";
         
         Command command = new AddTripCommand(name, description, location);
-        command.execute(tripManager, ui, 0);
+        command.execute(tripManager, ui, session);
         
         // Verify trip was added
         assertEquals(1, tripManager.getTrips().size());
@@ -71,7 +78,7 @@ public class CommandTest {
         Command command = new AddTripCommand(name, description, location);
         
         assertThrows(TravelDiaryException.class, () -> 
-            command.execute(null, ui, 0)
+            command.execute(null, ui, session)
         );
     }
     
@@ -86,7 +93,7 @@ public class CommandTest {
         Command command = new ListCommand();
         
         // Should not throw exception when list is empty
-        assertDoesNotThrow(() -> command.execute(tripManager, ui, 0));
+        assertDoesNotThrow(() -> command.execute(tripManager, ui, session));
     }
     
     /**
@@ -104,9 +111,36 @@ public class CommandTest {
         Command command = new ListCommand();
         
         // Should not throw exception
-        assertDoesNotThrow(() -> command.execute(tripManager, ui, 0));
+        assertDoesNotThrow(() -> command.execute(tripManager, ui, session));
     }
     
+    /**
+     * Tests that ListCommand shows one page of trips at a time and continues with "list next".
+     *
+     * @throws Exception if there's an issue with execution
+     */
+    @Test
+    void testListCommandPagesShouldShowOnePageAtATime() throws Exception {
+        tripManager.setSilentMode(false);
+        for (int i = 1; i <= 5; i++) {
+            tripManager.addTripSilently("Trip " + i, "Description " + i);
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Ui pagedUi = new Ui(output);
+
+        new ListCommand(1, 2).execute(tripManager, pagedUi, session);
+        new ListCommand(ListCommand.NEXT_PAGE, 0).execute(tripManager, pagedUi, session);
+        pagedUi.flush();
+
+        String listing = output.toString(Charset.defaultCharset());
+        assertTrue(listing.contains("Page 1 of 3 (5 in total)."));
+        assertTrue(listing.contains("4: Trip 4"));
+        assertFalse(listing.contains("5: Trip 5"));
+        assertEquals(2, session.getListPage());
+        assertThrows(TravelDiaryException.class, () ->
+                new ListCommand(4, 0).execute(tripManager, pagedUi, session));
+    }
+
     /**
      * Tests that SelectCommand correctly selects a trip with valid index.
      * 
@@ -119,11 +153,11 @@ public class CommandTest {
         int validIndex = 0; // Zero-based index
         
         Command command = new SelectCommand(validIndex);
-        command.execute(tripManager, ui, 0);
+        command.execute(tripManager, ui, session);
         
         // Verify the trip was selected
-        assertNotNull(tripManager.getSelectedTrip());
-        assertEquals("Trip 1", tripManager.getSelectedTrip().name);
+        assertNotNull(session.getSelectedTrip());
+        assertEquals("Trip 1", session.getSelectedTrip().name);
     }
     
     /**
@@ -141,7 +175,7 @@ public class CommandTest {
         
         // Should throw exception for invalid index
         assertThrows(InvalidIndexException.class, () -> 
-            command.execute(tripManager, ui, 0)
+            command.execute(tripManager, ui, session)
         );
     }
     
@@ -160,7 +194,7 @@ public class CommandTest {
         
         // Should throw exception for negative index
         assertThrows(InvalidIndexException.class, () -> 
-            command.execute(tripManager, ui, 0)
+            command.execute(tripManager, ui, session)
         );
     }
     
@@ -175,7 +209,7 @@ public class CommandTest {
         Command command = new HelpCommand(null);
         
         // Should not throw exception
-        assertDoesNotThrow(() -> command.execute(tripManager, ui, 0));
+        assertDoesNotThrow(() -> command.execute(tripManager, ui, session));
     }
     
     /**
@@ -189,7 +223,7 @@ public class CommandTest {
         Command command = new HelpCommand("0");
         
         // Should not throw exception
-        assertDoesNotThrow(() -> command.execute(tripManager, ui, 0));
+        assertDoesNotThrow(() -> command.execute(tripManager, ui, session));
     }
     
     /**
@@ -203,7 +237,8 @@ public class CommandTest {
         Command command = new MenuCommand();
         
         // Should not throw exception
-        assertDoesNotThrow(() -> command.execute(tripManager, ui, 1));
+        session.setFsmValue(Session.PHOTO_PAGE);
+        assertDoesNotThrow(() -> command.execute(tripManager, ui, session));
     }
     
     /**
@@ -231,7 +266,7 @@ public class CommandTest {
         int validIndex = 0; // Zero-based index
         
         Command command = new DeleteCommand(validIndex);
-        command.execute(tripManager, ui, 0);
+        command.execute(tripManager, ui, session);
         
         // Verify the trip was deleted
         assertEquals(1, tripManager.getTrips().size());
@@ -253,7 +288,7 @@ public class CommandTest {
         
         // Should throw exception for invalid index
         assertThrows(IndexOutOfRangeException.class, () -> 
-            command.execute(tripManager, ui, 0)
+            command.execute(tripManager, ui, session)
         );
     }
 
@@ -263,30 +298,25 @@ public class CommandTest {
         String name = "Japan Trip";
         String description = "Skiing in Hokkaido";
         String location = "Japan";
-        int fsmValue = 0;
         String filepath = "./data/photos/group_photo.jpg";
         String photoname = "street photo";
         String caption = "final day";
 
 
         Command command = new AddTripCommand(name, description, location);
-        command.execute(tripManager, ui, 0);
+        command.execute(tripManager, ui, session);
 
         command = new SelectCommand(0);
-        command.execute(tripManager, ui, fsmValue);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
 
         command = new AddPhotoCommand(filepath,photoname,caption);
-        command.execute(tripManager, ui, fsmValue);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
 
         command = new SelectCommand(0);
-        command.execute(tripManager, ui, fsmValue);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
 
         command = new ExitCommand();
-        command.execute(tripManager, ui, fsmValue);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
 
 
         // Verify trip was added
@@ -294,9 +324,10 @@ public class CommandTest {
         assertEquals(1, tripManager.getTrips().size());
         assertEquals(name, tripManager.getTrips().get(0).name);
         assertEquals(description, tripManager.getTrips().get(0).description);
-        assertEquals(1, tripManager.getTrips().get(0).album.photos.size());
-        assertEquals(photoname, tripManager.getTrips().get(0).album.photos.get(0).getPhotoName());
-        assertEquals("Tokyo, Japan", tripManager.getTrips().get(0).album.photos.get(0).getLocation().getLocationName());
+        assertEquals(1, tripManager.getTrips().get(0).album.getPhotos().size());
+        assertEquals(photoname, tripManager.getTrips().get(0).album.getPhotos().get(0).getPhotoName());
+        assertEquals("Tokyo, Japan",
+                tripManager.getTrips().get(0).album.getPhotos().get(0).getLocation().getLocationName());
     }
 
     @Test
@@ -305,22 +336,19 @@ public class CommandTest {
         String name = "Japan Trip";
         String description = "Skiing in Hokkaido";
         String location = "Japan";
-        int fsmValue = 0;
         String filepath = "./data/photos/group_photo.jpg";
         String photoname = "street photo";
         String caption = "final day";
 
 
         Command command = new AddTripCommand(name, description, location);
-        command.execute(tripManager, ui, 0);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
 
 
         command = new AddPhotoCommand(filepath,photoname,caption);
         Command finalCommand = command;
-        int finalFsmValue = fsmValue;
         assertThrows(java.lang.AssertionError.class, () ->
-                finalCommand.execute(tripManager, ui, finalFsmValue));
+                finalCommand.execute(tripManager, ui, session));
     }
 
     @Test
@@ -329,7 +357,6 @@ public class CommandTest {
         String name = "Japan Trip";
         String description = "Skiing in Hokkaido";
         String location = "Japan";
-        int fsmValue = 0;
         String filepath = "./data/photos/group_photo.jpg";
         String photoname = "street photo";
         String caption = "final day";
@@ -339,35 +366,29 @@ public class CommandTest {
 
 
         Command command = new AddTripCommand(name, description, location);
-        command.execute(tripManager, ui, 0);
+        command.execute(tripManager, ui, session);
 
         command = new SelectCommand(0);
-        command.execute(tripManager, ui, fsmValue);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
 
         command = new AddPhotoCommand(filepath,photoname,caption);
-        command.execute(tripManager, ui, fsmValue);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
 
         command = new AddPhotoCommand(filepath1,photoname1,caption1);
-        command.execute(tripManager, ui, fsmValue);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
 
         command = new ExitCommand();
-        command.execute(tripManager, ui, fsmValue);
-        fsmValue = command.fsmValue;
-
-        assertEquals(2, tripManager.getTrips().get(0).album.photos.size());
-        assertEquals(photoname, tripManager.getTrips().get(0).album.photos.get(0).getPhotoName());
-        assertEquals(caption, tripManager.getTrips().get(0).album.photos.get(0).getCaption());
-        assertEquals(photoname1, tripManager.getTrips().get(0).album.photos.get(1).getPhotoName());
-        assertEquals(caption1, tripManager.getTrips().get(0).album.photos.get(1).getCaption());
+        command.execute(tripManager, ui, session);
+
+        assertEquals(2, tripManager.getTrips().get(0).album.getPhotos().size());
+        assertEquals(photoname, tripManager.getTrips().get(0).album.getPhotos().get(0).getPhotoName());
+        assertEquals(caption, tripManager.getTrips().get(0).album.getPhotos().get(0).getCaption());
+        assertEquals(photoname1, tripManager.getTrips().get(0).album.getPhotos().get(1).getPhotoName());
+        assertEquals(caption1, tripManager.getTrips().get(0).album.getPhotos().get(1).getCaption());
         command = new MenuCommand();
-        command.execute(tripManager, ui, fsmValue);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
         command = new DeleteCommand(0);
-        command.execute(tripManager, ui, fsmValue);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
         assertEquals(0, tripManager.getTrips().size());
     }
 
@@ -376,19 +397,16 @@ public class CommandTest {
         String name = "Japan Trip";
         String description = "Skiing in Hokkaido";
         String location = "Japan";
-        int fsmValue = 0;
 
 
         Command command = new AddTripCommand(name, description, location);
-        command.execute(tripManager, ui, 0);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
 
 
         command = new AddTripCommand(name, description, location);
-        int finalFsmValue = fsmValue;
         Command finalCommand = command;
         assertThrows(exception.DuplicateNameException.class, () ->
-                finalCommand.execute(tripManager, ui, finalFsmValue));;
+                finalCommand.execute(tripManager, ui, session));;
 
     }
 
@@ -398,27 +416,23 @@ public class CommandTest {
         String name = "Japan Trip";
         String description = "Skiing in Hokkaido";
         String location = "Japan";
-        int fsmValue = 0;
         String filepath = "./data/photos/group_photo.jpg";
         String photoname = "street photo";
         String caption = "final day";
 
 
         Command command = new AddTripCommand(name, description, location);
-        command.execute(tripManager, ui, 0);
+        command.execute(tripManager, ui, session);
 
         command = new SelectCommand(0);
-        command.execute(tripManager, ui, fsmValue);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
 
         command = new AddPhotoCommand(filepath,photoname,caption);
-        command.execute(tripManager, ui, fsmValue);
-        fsmValue = command.fsmValue;
+        command.execute(tripManager, ui, session);
 
         command = new AddPhotoCommand(filepath,photoname + "1",caption + " 1");
         Command finalCommand = command;
-        int finalFsmValue = fsmValue;
-        assertThrows(DuplicateFilepathException.class, () -> finalCommand.execute(tripManager,ui, finalFsmValue));
+        assertThrows(DuplicateFilepathException.class, () -> finalCommand.execute(tripManager, ui, session));
 
 
     }
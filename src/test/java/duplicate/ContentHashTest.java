@@ -0,0 +1,59 @@
+package duplicate;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class ContentHashTest {
+
+    @Test
+    void of_knownContent_returnsSha256() throws Exception {
+        Path file = Files.createTempFile("hash", ".txt");
+        Files.write(file, "abc".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", ContentHash.of(file));
+    }
+
+    @Test
+    void of_copiedFile_returnsSameHash() throws Exception {
+        Path original = Path.of("./data/photos/samurai.jpg");
+        Path copy = Files.copy(original, Files.createTempDirectory("hash").resolve("copy.jpg"));
+
+        assertEquals(ContentHash.of(original), ContentHash.of(copy));
+    }
+
+    @Test
+    void ofHeadAndTail_changedHeadOrTail_returnsDifferentHash() throws Exception {
+        byte[] content = new byte[300 * 1024];
+        new Random(7).nextBytes(content);
+        Path file = Files.createTempFile("hash", ".bin");
+        Files.write(file, content);
+        String hash = ContentHash.ofHeadAndTail(file);
+
+        content[content.length - 1]++;
+        Files.write(file, content);
+        String changedTail = ContentHash.ofHeadAndTail(file);
+        content[0]++;
+        Files.write(file, content);
+
+        assertNotEquals(hash, changedTail);
+        assertNotEquals(changedTail, ContentHash.ofHeadAndTail(file));
+        assertEquals(ContentHash.ofHeadAndTail(file), ContentHash.ofHeadAndTail(file));
+    }
+
+    @Test
+    void ofHeadAndTail_smallFile_hashesSizeAndContent() throws Exception {
+        Path file = Files.createTempFile("hash", ".txt");
+        Files.write(file, "abc".getBytes(StandardCharsets.US_ASCII));
+        Path longer = Files.createTempFile("hash", ".txt");
+        Files.write(longer, "abc\0".getBytes(StandardCharsets.US_ASCII));
+
+        assertNotEquals(ContentHash.ofHeadAndTail(file), ContentHash.ofHeadAndTail(longer));
+    }
+}
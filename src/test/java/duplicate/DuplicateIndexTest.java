@@ -0,0 +1,147 @@
+package duplicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import photo.Photo;
+import trip.Trip;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DuplicateIndexTest {
+    private static final LocalDateTime TAKEN = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private DuplicateIndex index;
+    private Trip japan;
+    private Trip korea;
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new DuplicateIndex();
+        japan = new Trip("Japan", "Winter trip");
+        korea = new Trip("Korea", "Spring trip");
+        index.addTrip(japan);
+        index.addTrip(korea);
+        directory = Files.createTempDirectory("duplicates");
+    }
+
+    private String copy(String photo, String name) throws IOException {
+        return Files.copy(Path.of("./data/photos", photo), directory.resolve(name)).toString();
+    }
+
+    @Test
+    void findDuplicate_copyInOtherFolder_returnsOriginalPhoto() throws Exception {
+        japan.album.addPhoto("./data/photos/samurai.jpg", "Samurai", "Museum visit", TAKEN);
+
+        DuplicateMatch match = index.findDuplicate(copy("samurai.jpg", "card_0001.jpg"));
+
+        assertNotNull(match);
+        assertSame(japan, match.getTrip());
+        assertEquals("Samurai", match.getPhoto().getPhotoName());
+    }
+
+    @Test
+    void findDuplicate_differentSize_readsNoFile() throws Exception {
+        japan.album.addPhoto("./data/photos/samurai.jpg", "Samurai", "Museum visit", TAKEN);
+        korea.album.addPhoto("./data/photos/sample1.jpg", "Castle", "Friends at the castle", TAKEN);
+
+        assertNull(index.findDuplicate("./data/photos/clem.jpg"));
+        assertEquals(0, index.getHashCount());
+    }
+
+    @Test
+    void findDuplicate_sameSizeDifferentContent_returnsNull() throws Exception {
+        String original = copy("samurai.jpg", "original.jpg");
+        japan.album.addPhoto(original, "Samurai", "Museum visit", TAKEN);
+        Path edited = Path.of(copy("samurai.jpg", "edited.jpg"));
+        byte[] bytes = Files.readAllBytes(edited);
+        bytes[bytes.length - 3] ^= 0x01;
+        Files.write(edited, bytes);
+
+        assertNull(index.findDuplicate(edited.toString()));
+        assertNotEquals(0, index.getHashCount());
+    }
+
+    @Test
+    void findDuplicate_photoDeleted_returnsNull() throws Exception {
+        japan.album.addPhoto("./data/photos/samurai.jpg", "Samurai", "Museum visit", TAKEN);
+        japan.album.deletePhoto(0);
+
+        assertNull(index.findDuplicate(copy("samurai.jpg", "again.jpg")));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void findDuplicate_tripRemoved_returnsNull() throws Exception {
+        korea.album.addPhoto("./data/photos/samurai.jpg", "Samurai", "Museum visit", TAKEN);
+        index.removeTrip(korea);
+
+        assertNull(index.findDuplicate("./data/photos/samurai.jpg"));
+    }
+
+    @Test
+    void findDuplicate_missingFile_throwsIoException() {
+        assertThrows(IOException.class, () -> index.findDuplicate("./data/photos/missing.jpg"));
+    }
+
+    @Test
+    void findDuplicate_recordedFingerprint_hashesOnlyIncomingFile() throws Exception {
+        String original = copy("samurai.jpg", "original.jpg");
+        japan.album.addPhoto(original, "Samurai", "Museum visit", TAKEN);
+        Photo photo = japan.album.getPhotos().get(0);
+        photo.setFingerprint(Files.size(Path.of(original)), ContentHash.ofHeadAndTail(Path.of(original)));
+
+        assertNotNull(index.findDuplicate(copy("samurai.jpg", "card_0001.jpg")));
+        assertEquals(1, index.getHashCount());
+        assertEquals(2, index.getFullHashCount());
+    }
+
+    @Test
+    void findDuplicate_sameHeadAndTailDifferentMiddle_returnsNull() throws Exception {
+        String original = copy("samurai.jpg", "original.jpg");
+        japan.album.addPhoto(original, "Samurai", "Museum visit", TAKEN);
+        Path edited = Path.of(copy("samurai.jpg", "edited.jpg"));
+        byte[] bytes = Files.readAllBytes(edited);
+        bytes[bytes.length / 2] ^= 0x01;
+        Files.write(edited, bytes);
+
+        assertNull(index.findDuplicate(edited.toString()));
+        assertEquals(ContentHash.ofHeadAndTail(Path.of(original)), ContentHash.ofHeadAndTail(edited));
+        assertEquals(2, index.getFullHashCount());
+    }
+
+    @Test
+    void findDuplicate_differentFingerprint_readsNoFileInFull() throws Exception {
+        String original = copy("samurai.jpg", "original.jpg");
+        japan.album.addPhoto(original, "Samurai", "Museum visit", TAKEN);
+        Path edited = Path.of(copy("samurai.jpg", "edited.jpg"));
+        byte[] bytes = Files.readAllBytes(edited);
+        bytes[bytes.length - 3] ^= 0x01;
+        Files.write(edited, bytes);
+
+        assertNull(index.findDuplicate(edited.toString()));
+        assertEquals(0, index.getFullHashCount());
+    }
+
+    @Test
+    void findDuplicate_computedHash_recordedAsFingerprint() throws Exception {
+        String original = copy("samurai.jpg", "original.jpg");
+        japan.album.addPhoto(original, "Samurai", "Museum visit", TAKEN);
+
+        assertNotNull(index.findDuplicate(copy("samurai.jpg", "card_0001.jpg")));
+
+        Photo photo = japan.album.getPhotos().get(0);
+        assertEquals(Files.size(Path.of(original)), photo.getFileSize());
+        assertEquals(ContentHash.ofHeadAndTail(Path.of(original)), photo.getContentHash());
+    }
+}
@@ -0,0 +1,77 @@
+package duplicate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MultiIndexHashTest {
+
+    /**
+     * Returns random hashes, most of them a few bits away from the one before, like resized copies of a photo.
+     */
+    private static long[] createHashes(int count) {
+        Random random = new Random(42);
+        long[] hashes = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (i % 4 == 0) {
+                hashes[i] = random.nextLong();
+            } else {
+                hashes[i] = hashes[i - 1] ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64));
+            }
+        }
+        return hashes;
+    }
+
+    @Test
+    void distance_countsDifferingBits() {
+        assertEquals(0, MultiIndexHash.distance(0x1234L, 0x1234L));
+        assertEquals(64, MultiIndexHash.distance(0L, -1L));
+        assertEquals(2, MultiIndexHash.distance(0b1010L, 0b0110L));
+    }
+
+    @Test
+    void search_matchesBruteForce() {
+        long[] hashes = createHashes(2000);
+        MultiIndexHash index = new MultiIndexHash(hashes);
+
+        for (int radius = 0; radius <= MultiIndexHash.MAX_RADIUS; radius++) {
+            for (int query = 0; query < hashes.length; query += 37) {
+                Set<Integer> expected = new HashSet<>();
+                for (int i = 0; i < hashes.length; i++) {
+                    if (MultiIndexHash.distance(hashes[query], hashes[i]) <= radius) {
+                        expected.add(i);
+                    }
+                }
+                List<Integer> found = index.search(hashes[query], radius);
+                assertEquals(expected.size(), found.size(), "Each match should be found exactly once");
+                assertEquals(expected, new HashSet<>(found));
+            }
+        }
+    }
+
+    @Test
+    void search_hashNotInIndex_findsNeighbours() {
+        long[] hashes = {0L, 0b111L, -1L};
+        MultiIndexHash index = new MultiIndexHash(hashes);
+
+        assertEquals(List.of(0), index.search(0b1L, 1));
+        assertEquals(Set.of(0, 1), new HashSet<>(index.search(0b1L, 2)));
+        assertTrue(index.search(0xFFFF_0000L, MultiIndexHash.MAX_RADIUS).isEmpty());
+    }
+
+    @Test
+    void search_duplicateHashes_findsAll() {
+        MultiIndexHash index = new MultiIndexHash(new long[] {5L, 5L, 5L});
+
+        assertEquals(List.of(0, 1, 2), new ArrayList<>(new TreeSet<>(index.search(5L, 0))));
+        assertEquals(3, index.size());
+    }
+}
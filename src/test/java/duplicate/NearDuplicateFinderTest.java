@@ -0,0 +1,123 @@
+package duplicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import photo.Photo;
+import trip.Trip;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NearDuplicateFinderTest {
+    private static final LocalDateTime TAKEN = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private Trip japan;
+    private Trip korea;
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        japan = new Trip("Japan", "Winter trip");
+        korea = new Trip("Korea", "Spring trip");
+        directory = Files.createTempDirectory("similar");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Writes a half-size copy of a photo, recompressed as a new JPEG.
+     */
+    private String writeSmallerCopy(String photo, String name) throws IOException {
+        BufferedImage original = ImageIO.read(new File("./data/photos", photo));
+        BufferedImage smaller = new BufferedImage(original.getWidth() / 2, original.getHeight() / 2,
+                BufferedImage.TYPE_INT_RGB);
+        smaller.createGraphics().drawImage(original, 0, 0, smaller.getWidth(), smaller.getHeight(), null);
+        Path copy = directory.resolve(name);
+        ImageIO.write(smaller, "jpg", copy.toFile());
+        return copy.toString();
+    }
+
+    @Test
+    void findGroups_smallerCopyInOtherTrip_groupedTogether() throws Exception {
+        japan.album.addPhoto("./data/photos/samurai.jpg", "Samurai", "Museum visit", TAKEN);
+        japan.album.addPhoto("./data/photos/sample1.jpg", "Castle", "Friends at the castle", TAKEN);
+        korea.album.addPhoto(writeSmallerCopy("samurai.jpg", "samurai_small.jpg"), "Small samurai", "Shared",
+                TAKEN);
+
+        List<List<DuplicateMatch>> groups = NearDuplicateFinder.findGroups(List.of(japan, korea),
+                NearDuplicateFinder.DEFAULT_DISTANCE);
+
+        assertEquals(1, groups.size());
+        List<DuplicateMatch> group = groups.get(0);
+        assertEquals(2, group.size());
+        assertSame(japan, group.get(0).getTrip());
+        assertEquals("Samurai", group.get(0).getPhoto().getPhotoName());
+        assertSame(korea, group.get(1).getTrip());
+        assertEquals("Small samurai", group.get(1).getPhoto().getPhotoName());
+    }
+
+    @Test
+    void findGroups_computesHashesOnce() throws Exception {
+        japan.album.addPhoto("./data/photos/samurai.jpg", "Samurai", "Museum visit", TAKEN);
+        Photo photo = japan.album.getPhotos().get(0);
+        assertNull(photo.getPerceptualHash());
+
+        NearDuplicateFinder.findGroups(List.of(japan), NearDuplicateFinder.DEFAULT_DISTANCE);
+        assertNotNull(photo.getPerceptualHash());
+
+        // A stored hash is used as is, without decoding the photo again
+        photo.setPerceptualHash(0x5555L);
+        korea.album.addPhoto("./data/photos/sample1.jpg", "Castle", "Friends at the castle", TAKEN);
+        korea.album.getPhotos().get(0).setPerceptualHash(0x5554L);
+        List<List<DuplicateMatch>> groups = NearDuplicateFinder.findGroups(List.of(japan, korea), 1);
+        assertEquals(1, groups.size());
+        assertEquals(Long.valueOf(0x5555L), photo.getPerceptualHash());
+    }
+
+    @Test
+    void findGroups_chainOfSimilarPhotos_formsOneGroup() throws Exception {
+        japan.album.addPhoto("./data/photos/samurai.jpg", "First", "Burst", TAKEN);
+        japan.album.addPhoto("./data/photos/sample1.jpg", "Second", "Burst", TAKEN);
+        japan.album.addPhoto("./data/photos/clem.jpg", "Third", "Burst", TAKEN);
+        List<Photo> photos = japan.album.getPhotos();
+        photos.get(0).setPerceptualHash(0b0000L);
+        photos.get(1).setPerceptualHash(0b0011L);
+        photos.get(2).setPerceptualHash(0b1111L);
+
+        assertEquals(3, NearDuplicateFinder.findGroups(List.of(japan), 2).get(0).size());
+        assertTrue(NearDuplicateFinder.findGroups(List.of(japan), 1).isEmpty());
+    }
+
+    @Test
+    void findGroups_unreadablePhoto_leftOut() throws Exception {
+        String copy = Files.copy(Path.of("./data/photos/samurai.jpg"), directory.resolve("gone.jpg")).toString();
+        japan.album.addPhoto("./data/photos/samurai.jpg", "Samurai", "Museum visit", TAKEN);
+        korea.album.addPhoto(copy, "Gone", "Deleted later", TAKEN);
+        Files.delete(Path.of(copy));
+
+        assertTrue(NearDuplicateFinder.findGroups(List.of(japan, korea), NearDuplicateFinder.DEFAULT_DISTANCE)
+                .isEmpty());
+        assertNull(korea.album.getPhotos().get(0).getPerceptualHash());
+    }
+}
@@ -2,6 +2,7 @@ package parser;
 
 
 import org.junit.jupiter.api.Test;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -57,6 +58,143 @@ class ParserTest {
         assertEquals("list", parsedCommand.get("command"));
     }
 
+    @Test
+    public void listPagingParsingTest() {
+        Map<String, String> parsedCommand = assertDoesNotThrow(() -> Parser.processInput("list p#3 s#50"));
+        assertEquals("3", parsedCommand.get("page"));
+        assertEquals("50", parsedCommand.get("size"));
+        parsedCommand = assertDoesNotThrow(() -> Parser.processInput("list next"));
+        assertEquals("next", parsedCommand.get("page"));
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("list p#0"));
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("list s#many"));
+    }
+
+    @Test
+    public void searchParsingTest() {
+        Map<String, String> parsedCommand = assertDoesNotThrow(() -> Parser.processInput("search Sunset  beach"));
+        // Verify the parsed result
+        assertEquals("search", parsedCommand.get("command"));
+        assertEquals("Sunset  beach", parsedCommand.get("query"));
+        assertThrows(exception.TravelDiaryException.class, () -> Parser.processInput("search"));
+    }
+
+    @Test
+    public void commandGroupParsingTest() {
+        List<Map<String, String>> parsedCommands = assertDoesNotThrow(() ->
+                Parser.processLine("add_trip n#Japan d#Skiing ; select 1;list;"));
+        // Verify the parsed result
+        assertEquals(3, parsedCommands.size());
+        assertEquals("Skiing", parsedCommands.get(0).get("description"));
+        assertEquals("1", parsedCommands.get(1).get("index"));
+        assertEquals("list", parsedCommands.get(2).get("command"));
+        assertEquals(1, assertDoesNotThrow(() -> Parser.processLine("list")).size());
+        // A single invalid command rejects the whole line
+        assertThrows(exception.CommandNotRecogniseException.class, () -> Parser.processLine("list; bla; list"));
+        assertThrows(exception.TravelDiaryException.class, () -> Parser.processLine(" ; ;"));
+    }
+
+    @Test
+    public void commandGroupEscapedSeparatorParsingTest() {
+        List<Map<String, String>> parsedCommands = assertDoesNotThrow(() ->
+                Parser.processLine("add_photo f#./data/photos/x.jpg n#a c#Sunset\\; beach; list"));
+        assertEquals(2, parsedCommands.size());
+        assertEquals("Sunset; beach", parsedCommands.get(0).get("caption"));
+        assertEquals("list", parsedCommands.get(1).get("command"));
+        // A backslash that does not escape a separator is kept, e.g. in a Windows path
+        parsedCommands = assertDoesNotThrow(() -> Parser.processLine("add_trip n#C:\\Trips d#a\\;b"));
+        assertEquals(1, parsedCommands.size());
+        assertEquals("C:\\Trips", parsedCommands.get(0).get("name"));
+        assertEquals("a;b", parsedCommands.get(0).get("description"));
+        // Without the escape, the text after a ; is read as the next command
+        assertThrows(exception.CommandNotRecogniseException.class, () ->
+                Parser.processLine("add_photo f#./data/photos/x.jpg n#a c#Sunset; beach"));
+    }
+
+    @Test
+    public void whenParsingTest() {
+        Map<String, String> parsedCommand = assertDoesNotThrow(() -> Parser.processInput("when 2024-11-15"));
+        assertEquals("when", parsedCommand.get("command"));
+        assertEquals("2024-11-15T00:00", parsedCommand.get("from"));
+        assertEquals("2024-11-15T23:59:59.999999999", parsedCommand.get("to"));
+
+        parsedCommand = assertDoesNotThrow(() -> Parser.processInput("when 2024-11-01 08:30 to 2024-11-30"));
+        assertEquals("2024-11-01T08:30", parsedCommand.get("from"));
+        assertEquals("2024-11-30T23:59:59.999999999", parsedCommand.get("to"));
+
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("when yesterday"));
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("when 2024-11-30 to 2024-11-01"));
+    }
+
+    @Test
+    public void similarParsingTest() {
+        Map<String, String> parsedCommand = assertDoesNotThrow(() -> Parser.processInput("similar"));
+        assertEquals("similar", parsedCommand.get("command"));
+        assertEquals("6", parsedCommand.get("distance"));
+
+        parsedCommand = assertDoesNotThrow(() -> Parser.processInput("similar 10"));
+        assertEquals("10", parsedCommand.get("distance"));
+
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("similar 12"));
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("similar -1"));
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("similar close"));
+    }
+
+    @Test
+    public void relinkParsingTest() {
+        Map<String, String> parsedCommand = assertDoesNotThrow(() -> Parser.processInput("relink"));
+        assertEquals("relink", parsedCommand.get("command"));
+        assertEquals(null, parsedCommand.get("folders"));
+
+        parsedCommand = assertDoesNotThrow(() -> Parser.processInput("relink d#/mnt/nas/photos, /mnt/archive"));
+        assertEquals("/mnt/nas/photos, /mnt/archive", parsedCommand.get("folders"));
+
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("relink f#/mnt/nas"));
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("relink d#,"));
+    }
+
+    @Test
+    public void watchParsingTest() {
+        Map<String, String> parsedCommand = assertDoesNotThrow(() -> Parser.processInput("watch d#./phone sync"));
+        assertEquals("watch", parsedCommand.get("command"));
+        assertEquals("./phone sync", parsedCommand.get("folder"));
+
+        parsedCommand = assertDoesNotThrow(() -> Parser.processInput("watch"));
+        assertEquals(null, parsedCommand.get("folder"));
+        assertEquals("unwatch", assertDoesNotThrow(() -> Parser.processInput("unwatch")).get("command"));
+
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("watch f#./phone"));
+    }
+
+    @Test
+    public void exportParsingTest() {
+        Map<String, String> parsedCommand = assertDoesNotThrow(() -> Parser.processInput("export d#./cards"));
+        assertEquals("export", parsedCommand.get("command"));
+        assertEquals("./cards", parsedCommand.get("directory"));
+        assertEquals("png", parsedCommand.get("format"));
+
+        parsedCommand = assertDoesNotThrow(() -> Parser.processInput("export d#./cards t#JPG"));
+        assertEquals("jpg", parsedCommand.get("format"));
+
+        assertThrows(exception.MissingTagsException.class, () -> Parser.processInput("export t#png"));
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("export d#./cards t#gif"));
+    }
+
+    @Test
+    public void sheetParsingTest() {
+        Map<String, String> parsedCommand = assertDoesNotThrow(() -> Parser.processInput("sheet f#./trip.png"));
+        assertEquals("sheet", parsedCommand.get("command"));
+        assertEquals("./trip.png", parsedCommand.get("filepath"));
+        assertEquals("5", parsedCommand.get("columns"));
+
+        parsedCommand = assertDoesNotThrow(() -> Parser.processInput("sheet f#./trip.png w#3"));
+        assertEquals("3", parsedCommand.get("columns"));
+
+        assertThrows(exception.MissingTagsException.class, () -> Parser.processInput("sheet w#3"));
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("sheet f#./trip.jpg"));
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("sheet f#./trip.png w#0"));
+        assertThrows(exception.ParserException.class, () -> Parser.processInput("sheet f#./trip.png w#many"));
+    }
+
     @Test
     public void unrecogniseParsing() {
         assertThrows(exception.CommandNotRecogniseException.class, () ->
@@ -0,0 +1,37 @@
+package parser;
+
+import exception.TagException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TagTokenizerTest {
+    private final TagTokenizer tokenizer = new TagTokenizer('n', 'd');
+
+    @Test
+    public void splitCommand_whitespaceSeparated_lowerCaseCommandAndTrimmedRest() {
+        assertArrayEquals(new String[]{"add_trip", "n#Japan d#Ski"},
+                TagTokenizer.splitCommand("ADD_TRIP\t n#Japan d#Ski "));
+        assertArrayEquals(new String[]{"list", ""}, TagTokenizer.splitCommand("list"));
+    }
+
+    @Test
+    public void tokenize_valuesWithSpaces_splitOnlyBeforeTags() {
+        Map<String, String> tags = assertDoesNotThrow(() -> tokenizer.tokenize("n#Great dReef  d#Summer n break"));
+        assertEquals("Great dReef", tags.get("n#"));
+        assertEquals("Summer n break", tags.get("d#"));
+    }
+
+    @Test
+    public void tokenize_invalidTags_throwTagException() {
+        assertThrows(TagException.class, () -> tokenizer.tokenize("x#Japan"));
+        assertThrows(TagException.class, () -> tokenizer.tokenize("n#Japan n#Korea"));
+        assertThrows(TagException.class, () -> tokenizer.tokenize("n# d#Ski"));
+        assertThrows(TagException.class, () -> tokenizer.tokenize(""));
+    }
+}
@@ -0,0 +1,63 @@
+package photo;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContactSheetTest {
+
+    @Test
+    void write_tripWithUnreadablePhoto_writesWholeGrid() throws Exception {
+        Photo first = new Photo("./data/photos/samurai.jpg", "Samurai", "Museum visit",
+                LocalDateTime.of(2024, 1, 1, 10, 0));
+        Photo second = new Photo("./data/photos/sample1.jpg", "Night lights", "Harbour",
+                LocalDateTime.of(2024, 1, 2, 10, 0));
+        Path directory = Files.createTempDirectory("sheets");
+        Path missing = Files.copy(Path.of("./data/photos/samurai.jpg"), directory.resolve("missing.jpg"));
+        Photo third = new Photo(missing.toString(), "Peak", "View from the peak",
+                LocalDateTime.of(2024, 1, 3, 10, 0));
+        Files.delete(missing);
+        Path output = directory.resolve("trip").resolve("sheet.png");
+
+        int decoded = ContactSheet.write(List.of(first, second, third), output, 2);
+
+        assertEquals(2, decoded);
+        BufferedImage sheet = ImageIO.read(output.toFile());
+        assertEquals(ContactSheet.getWidth(2), sheet.getWidth());
+        assertEquals(ContactSheet.getHeight(2), sheet.getHeight());
+    }
+
+    @Test
+    void loadTile_largePhoto_fitsWithinTile() throws Exception {
+        Photo photo = new Photo("./data/photos/samurai.jpg", "Samurai", "Museum visit");
+
+        BufferedImage tile = ContactSheet.loadTile(photo);
+
+        assertTrue(tile.getWidth() <= ContactSheet.TILE_WIDTH);
+        assertTrue(tile.getHeight() <= ContactSheet.TILE_HEIGHT);
+    }
+
+    @Test
+    void fitText_longCaption_isShortenedWithEllipsis() {
+        Graphics2D graphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+        FontMetrics metrics = graphics.getFontMetrics(new Font("Helvetica", Font.BOLD, 14));
+        graphics.dispose();
+
+        String fitted = ContactSheet.fitText("A very long caption that cannot possibly fit in a tile", metrics, 100);
+
+        assertTrue(fitted.endsWith("..."));
+        assertTrue(metrics.stringWidth(fitted) <= 100);
+        assertEquals("Short", ContactSheet.fitText("Short", metrics, 100));
+    }
+}
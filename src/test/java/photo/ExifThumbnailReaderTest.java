@@ -0,0 +1,108 @@
+package photo;
+
+import com.drew.metadata.exif.ExifThumbnailDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ExifThumbnailReaderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void findTiffHeader_exifAfterJfifSegment_returnsPositionAfterIdentifier() {
+        byte[] jpeg = {
+            (byte) 0xFF, (byte) 0xD8,
+            (byte) 0xFF, (byte) 0xE0, 0, 4, 'J', 'F',
+            (byte) 0xFF, (byte) 0xE1, 0, 10, 'E', 'x', 'i', 'f', 0, 0, 'I', 'I',
+        };
+
+        assertEquals(18, ExifThumbnailReader.findTiffHeader(jpeg));
+    }
+
+    @Test
+    void findTiffHeader_noExifSegment_returnsNotFound() {
+        byte[] jpeg = {
+            (byte) 0xFF, (byte) 0xD8,
+            (byte) 0xFF, (byte) 0xE0, 0, 4, 'J', 'F',
+            (byte) 0xFF, (byte) 0xDA, 0, 2,
+        };
+
+        assertEquals(-1, ExifThumbnailReader.findTiffHeader(jpeg));
+        assertEquals(-1, ExifThumbnailReader.findTiffHeader(new byte[] {'P', 'N', 'G', 0}));
+    }
+
+    @Test
+    void read_largeSegmentsAfterExif_returnsPreview() throws Exception {
+        BufferedImage preview = new BufferedImage(16, 12, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream previewJpeg = new ByteArrayOutputStream();
+        ImageIO.write(preview, "jpg", previewJpeg);
+        Path photo = directory.resolve("depth_map.jpg");
+        // Extended XMP, e.g. holding a depth map, runs far past the header the preview is read from
+        Files.write(photo, jpegWithPreview(previewJpeg.toByteArray(), 6));
+
+        BufferedImage read = ExifThumbnailReader.read(photo.toString());
+
+        assertNotNull(read);
+        assertEquals(16, read.getWidth());
+        assertEquals(12, read.getHeight());
+    }
+
+    @Test
+    void read_missingFile_returnsNull() {
+        assertNull(ExifThumbnailReader.read("./data/photos/missing.jpg"));
+    }
+
+    /**
+     * Returns a JPEG whose EXIF segment holds only the given preview, followed by full-size APP2 segments.
+     */
+    private static byte[] jpegWithPreview(byte[] preview, int largeSegments) throws IOException {
+        // Little-endian TIFF with an empty IFD0 followed by IFD1 pointing to the preview
+        ByteBuffer tiff = ByteBuffer.allocate(44 + preview.length).order(ByteOrder.LITTLE_ENDIAN);
+        tiff.put((byte) 'I').put((byte) 'I').putShort((short) 42).putInt(8);
+        tiff.putShort((short) 0).putInt(14);
+        tiff.putShort((short) 2);
+        tiff.putShort((short) ExifThumbnailDirectory.TAG_THUMBNAIL_OFFSET).putShort((short) 4).putInt(1).putInt(44);
+        tiff.putShort((short) ExifThumbnailDirectory.TAG_THUMBNAIL_LENGTH).putShort((short) 4).putInt(1)
+                .putInt(preview.length);
+        tiff.putInt(0).put(preview);
+
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        jpeg.write(new byte[] {(byte) 0xFF, (byte) 0xD8});
+        writeSegment(jpeg, 0xE1, concat("Exif\0\0".getBytes(StandardCharsets.ISO_8859_1), tiff.array()));
+        for (int i = 0; i < largeSegments; i++) {
+            writeSegment(jpeg, 0xE2, new byte[0xFFFF - 2]);
+        }
+        jpeg.write(new byte[] {(byte) 0xFF, (byte) 0xDA, 0, 2, (byte) 0xFF, (byte) 0xD9});
+        return jpeg.toByteArray();
+    }
+
+    private static void writeSegment(ByteArrayOutputStream jpeg, int marker, byte[] data) {
+        int length = data.length + 2;
+        jpeg.write(0xFF);
+        jpeg.write(marker);
+        jpeg.write(length >> 8);
+        jpeg.write(length & 0xFF);
+        jpeg.writeBytes(data);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+}
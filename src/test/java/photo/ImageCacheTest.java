@@ -0,0 +1,54 @@
+package photo;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ImageCacheTest {
+    private static final long IMAGE_BYTES = 10 * 10 * 4;
+
+    @Test
+    void put_beyondBound_evictsLeastRecentlyUsed() {
+        ImageCache cache = new ImageCache(2 * IMAGE_BYTES);
+        cache.put("first", image());
+        cache.put("second", image());
+        assertNotNull(cache.get("first"));
+
+        cache.put("third", image());
+
+        assertTrue(cache.contains("first"));
+        assertFalse(cache.contains("second"));
+        assertTrue(cache.contains("third"));
+        assertEquals(2 * IMAGE_BYTES, cache.getUsedBytes());
+    }
+
+    @Test
+    void put_imageLargerThanCache_isNotCached() {
+        ImageCache cache = new ImageCache(IMAGE_BYTES - 1);
+
+        cache.put("large", image());
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getUsedBytes());
+    }
+
+    @Test
+    void put_sameKeyTwice_countsImageOnce() {
+        ImageCache cache = new ImageCache(2 * IMAGE_BYTES);
+
+        cache.put("photo", image());
+        cache.put("photo", image());
+
+        assertEquals(1, cache.size());
+        assertEquals(IMAGE_BYTES, cache.getUsedBytes());
+    }
+
+    private static BufferedImage image() {
+        return new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+    }
+}
@@ -0,0 +1,97 @@
+package photo;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ImagePyramidTest {
+    private static final long CACHE_BYTES = 8L * 1024 * 1024;
+
+    /**
+     * Writes a PNG whose pixels encode their own coordinates, so decoded tiles can be checked exactly.
+     */
+    private static Path writeGradient(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x & 0xFFF) << 12 | (y & 0xFFF));
+            }
+        }
+        Path file = Files.createTempFile("pyramid", ".png");
+        ImageIO.write(image, "png", file.toFile());
+        return file;
+    }
+
+    @Test
+    void constructor_largeImage_hasLevelsDownToOneTile() throws Exception {
+        try (ImagePyramid pyramid = new ImagePyramid(writeGradient(1000, 600).toString(), CACHE_BYTES)) {
+            assertEquals(3, pyramid.getLevelCount());
+            assertEquals(4, pyramid.getColumns(0));
+            assertEquals(3, pyramid.getRows(0));
+            assertEquals(250, pyramid.getWidth(2));
+            assertEquals(150, pyramid.getHeight(2));
+            assertEquals(1, pyramid.getColumns(2));
+            assertEquals(1, pyramid.getRows(2));
+        }
+    }
+
+    @Test
+    void getTile_fullResolution_decodesOnlyItsRegion() throws Exception {
+        try (ImagePyramid pyramid = new ImagePyramid(writeGradient(1000, 600).toString(), CACHE_BYTES)) {
+            BufferedImage tile = pyramid.getTile(0, 1, 2);
+
+            assertEquals(ImagePyramid.TILE_SIZE, tile.getWidth());
+            assertEquals(600 - 2 * ImagePyramid.TILE_SIZE, tile.getHeight());
+            assertEquals(256 << 12 | 512, tile.getRGB(0, 0) & 0xFFFFFF);
+            assertEquals(300 << 12 | 550, tile.getRGB(44, 38) & 0xFFFFFF);
+        }
+    }
+
+    @Test
+    void getTile_coarserLevel_isSubsampledAndCached() throws Exception {
+        try (ImagePyramid pyramid = new ImagePyramid(writeGradient(1000, 600).toString(), CACHE_BYTES)) {
+            assertNull(pyramid.getCachedTile(1, 1, 0));
+
+            BufferedImage tile = pyramid.getTile(1, 1, 0);
+
+            assertEquals(500 - ImagePyramid.TILE_SIZE, tile.getWidth());
+            assertEquals(ImagePyramid.TILE_SIZE, tile.getHeight());
+            assertEquals(514 << 12 | 6, tile.getRGB(1, 3) & 0xFFFFFF);
+            assertSame(tile, pyramid.getCachedTile(1, 1, 0));
+        }
+    }
+
+    @Test
+    void getLevelToFit_smallWindow_returnsFirstLevelThatFits() throws Exception {
+        try (ImagePyramid pyramid = new ImagePyramid(writeGradient(1000, 600).toString(), CACHE_BYTES)) {
+            assertEquals(0, pyramid.getLevelToFit(1200, 800));
+            assertEquals(1, pyramid.getLevelToFit(800, 800));
+            assertEquals(2, pyramid.getLevelToFit(10, 10));
+        }
+    }
+
+    @Test
+    void getTileRange_area_coversIntersectingTilesWithinLevel() throws Exception {
+        try (ImagePyramid pyramid = new ImagePyramid(writeGradient(1000, 600).toString(), CACHE_BYTES)) {
+            assertEquals(new Rectangle(0, 0, 2, 1), pyramid.getTileRange(0, new Rectangle(0, 0, 300, 256)));
+            assertEquals(new Rectangle(3, 2, 1, 1), pyramid.getTileRange(0, new Rectangle(900, 550, 500, 500)));
+            assertTrue(pyramid.getTileRange(0, new Rectangle(2000, 0, 100, 100)).isEmpty());
+        }
+    }
+
+    @Test
+    void constructor_undecodableFile_throwsIoException() {
+        assertThrows(IOException.class, () -> new ImagePyramid("./data/photos/hongkong_1.jpeg", CACHE_BYTES));
+    }
+}
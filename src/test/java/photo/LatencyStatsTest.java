@@ -0,0 +1,26 @@
+package photo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LatencyStatsTest {
+
+    @Test
+    void record_severalLatencies_tracksCountAverageAndMax() {
+        LatencyStats stats = new LatencyStats("Decode");
+
+        stats.record(2_000_000);
+        stats.record(4_000_000);
+
+        assertEquals(2, stats.getCount());
+        assertEquals(3.0, stats.getAverageMillis(), 1e-9);
+        assertEquals(4.0, stats.getMaxMillis(), 1e-9);
+        assertEquals("Decode: 2 samples, average 3.0 ms, max 4.0 ms", stats.toString());
+    }
+
+    @Test
+    void getAverageMillis_noSamples_returnsZero() {
+        assertEquals(0.0, new LatencyStats("Display").getAverageMillis(), 1e-9);
+    }
+}
@@ -0,0 +1,79 @@
+package photo;
+
+import duplicate.MultiIndexHash;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PerceptualHashTest {
+
+    /**
+     * Writes a copy of a photo scaled to the given width, recompressed as a new JPEG.
+     */
+    private static Path writeScaledCopy(String photo, int width) throws IOException {
+        BufferedImage original = ImageIO.read(new File("./data/photos", photo));
+        int height = original.getHeight() * width / original.getWidth();
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(original, 0, 0, width, height, null);
+        graphics.dispose();
+        Path copy = Files.createTempFile("scaled", ".jpg");
+        ImageIO.write(scaled, "jpg", copy.toFile());
+        return copy;
+    }
+
+    @Test
+    void compute_samePhoto_sameHash() throws IOException {
+        assertEquals(PerceptualHash.compute("./data/photos/samurai.jpg"),
+                PerceptualHash.compute("./data/photos/samurai.jpg"));
+    }
+
+    @Test
+    void compute_scaledCopy_fewBitsDiffer() throws IOException {
+        Path copy = writeScaledCopy("samurai.jpg", 200);
+        try {
+            long original = PerceptualHash.compute("./data/photos/samurai.jpg");
+            long scaled = PerceptualHash.compute(copy.toString());
+            assertTrue(MultiIndexHash.distance(original, scaled) <= 4);
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    @Test
+    void compute_differentPhotos_manyBitsDiffer() throws IOException {
+        long samurai = PerceptualHash.compute("./data/photos/samurai.jpg");
+        long castle = PerceptualHash.compute("./data/photos/sample1.jpg");
+        assertTrue(MultiIndexHash.distance(samurai, castle) > 16);
+    }
+
+    @Test
+    void compute_gradient_setsBitsWhereBrightnessFalls() {
+        BufferedImage image = new BufferedImage(90, 80, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                int grey = 255 - x * 255 / image.getWidth();
+                image.setRGB(x, y, grey << 16 | grey << 8 | grey);
+            }
+        }
+        assertEquals(-1L, PerceptualHash.compute(image));
+        assertEquals(0L, PerceptualHash.compute(new BufferedImage(90, 80, BufferedImage.TYPE_INT_RGB)));
+    }
+
+    @Test
+    void compute_missingFile_throwsIoException() {
+        assertThrows(IOException.class, () -> PerceptualHash.compute("./data/photos/missing.jpg"));
+    }
+}
@@ -0,0 +1,56 @@
+package photo;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PhotoCardRendererTest {
+
+    @Test
+    void render_validPhoto_framesThumbnailWithText() throws Exception {
+        Photo photo = new Photo("./data/photos/samurai.jpg", "Samurai", "Museum visit",
+                LocalDateTime.of(2024, 1, 1, 10, 0));
+        BufferedImage thumbnail = ThumbnailCache.getDefault().getThumbnail(photo.getFilePath());
+
+        BufferedImage card = PhotoCardRenderer.render(photo);
+
+        assertTrue(card.getWidth() > thumbnail.getWidth(), "Card should be wider than the photo.");
+        assertTrue(card.getHeight() > thumbnail.getHeight(), "Card should be taller than the photo.");
+    }
+
+    @Test
+    void renderAll_trip_writesOneReadableFilePerPhoto() throws Exception {
+        Photo first = new Photo("./data/photos/samurai.jpg", "Samurai", "Museum visit",
+                LocalDateTime.of(2024, 1, 1, 10, 0));
+        Photo second = new Photo("./data/photos/sample1.jpg", "Night lights", "Harbour",
+                LocalDateTime.of(2024, 1, 2, 10, 0));
+        Path directory = Files.createTempDirectory("cards");
+
+        List<Path> written = PhotoCardRenderer.renderAll(List.of(first, second), directory.resolve("trip"), "png");
+
+        assertEquals(List.of(directory.resolve("trip").resolve("001_Samurai.png"),
+                directory.resolve("trip").resolve("002_Night_lights.png")), written);
+        for (Path file : written) {
+            assertNotNull(ImageIO.read(file.toFile()), "Written card should be a readable image.");
+        }
+    }
+
+    @Test
+    void write_unsupportedExtension_throwsIoException() throws Exception {
+        Photo photo = new Photo("./data/photos/samurai.jpg", "Samurai", "Museum visit");
+        Path output = Files.createTempDirectory("cards").resolve("card.gif");
+
+        assertThrows(IOException.class, () -> PhotoCardRenderer.write(photo, output));
+    }
+}
@@ -0,0 +1,26 @@
+package photo;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PhotoGalleryTest {
+
+    @Test
+    void loadThumbnail_largePhoto_fitsCell() {
+        BufferedImage thumbnail = PhotoGallery.loadThumbnail("./data/photos/samurai.jpg");
+
+        assertNotNull(thumbnail);
+        assertTrue(thumbnail.getWidth() <= PhotoGallery.THUMBNAIL_WIDTH, "Thumbnail should fit the cell width.");
+        assertTrue(thumbnail.getHeight() <= PhotoGallery.THUMBNAIL_HEIGHT, "Thumbnail should fit the cell height.");
+    }
+
+    @Test
+    void loadThumbnail_undecodableFile_returnsNull() {
+        assertNull(PhotoGallery.loadThumbnail("./data/photos/hongkong_1.jpeg"));
+    }
+}
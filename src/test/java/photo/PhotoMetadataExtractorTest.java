@@ -1,9 +1,21 @@
 package photo;
 
+import com.drew.imaging.ImageMetadataReader;
+import com.drew.metadata.Metadata;
+import com.drew.metadata.exif.ExifSubIFDDirectory;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -43,4 +55,47 @@ class PhotoMetadataExtractorTest {
         assertEquals("Tokyo, Japan", location);
     }
 
+    @Test
+    void getLocationFromCoordinates_manyThreads_sameLocation() throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> locations = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                locations.add(workers.submit(() -> PhotoMetadataExtractor.getLocationFromCoordinates(35.69, 139.70)));
+            }
+            String expected = PhotoMetadataExtractor.getLocationFromCoordinates(35.69, 139.70);
+            for (Future<String> location : locations) {
+                assertEquals(expected, location.get());
+            }
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    @Test
+    void readExifMetadata_jpeg_matchesFullRead() throws Exception {
+        File photo = new File("./data/photos/samurai.jpg");
+
+        Metadata exifOnly = PhotoMetadataExtractor.readExifMetadata(photo);
+        Metadata full = ImageMetadataReader.readMetadata(photo);
+
+        assertEquals(getDateTaken(full), getDateTaken(exifOnly));
+    }
+
+    @Test
+    void readExifMetadata_notJpeg_fallsBackToFullRead() throws Exception {
+        // Stored as HEIC despite its extension
+        assertNotNull(PhotoMetadataExtractor.readExifMetadata(new File("./data/photos/hongkong_1.jpeg")));
+    }
+
+    @Test
+    void readExifMetadata_missingFile_throwsIoException() {
+        assertThrows(IOException.class, () ->
+                PhotoMetadataExtractor.readExifMetadata(new File("./data/photos/missing.jpg")));
+    }
+
+    private static Date getDateTaken(Metadata metadata) {
+        ExifSubIFDDirectory directory = metadata.getFirstDirectoryOfType(ExifSubIFDDirectory.class);
+        return directory == null ? null : directory.getDate(ExifSubIFDDirectory.TAG_DATETIME_ORIGINAL);
+    }
 }
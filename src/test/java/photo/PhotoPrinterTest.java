@@ -2,7 +2,11 @@ package photo;
 
 import org.junit.jupiter.api.Test;
 import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.time.format.DateTimeFormatter;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -197,4 +201,49 @@ public class PhotoPrinterTest {
             System.out.println("Unexpected exception occurred: " + e.getMessage());
         }
     }
+
+    /**
+     * Tests displaying a photo asynchronously.
+     * Verifies that the decode latency is recorded once the background decode has finished,
+     * whether or not a window can be shown in this environment.
+     */
+    @Test
+    void displayAsync_validPhoto_recordsDecodeLatency() throws Exception {
+        Photo photo = new Photo("./data/photos/samurai.jpg", "photo 1 name", "photo 1 caption");
+        long decodedBefore = PhotoPrinter.getDecodeLatency().getCount();
+
+        PhotoPrinter.displayAsync(photo).handle((photoFrame, e) -> photoFrame).join();
+
+        assertEquals(decodedBefore + 1, PhotoPrinter.getDecodeLatency().getCount());
+    }
+
+    /**
+     * Tests displaying a missing photo asynchronously.
+     * Verifies that the missing file is reported right away instead of in the background.
+     */
+    @Test
+    void displayAsync_missingPhoto_expectFileNotFoundException() throws Exception {
+        Path copy = Files.createTempFile("photo", ".jpg");
+        Files.copy(Path.of("./data/photos/samurai.jpg"), copy, StandardCopyOption.REPLACE_EXISTING);
+        Photo photo = new Photo(copy.toString(), "photo 1 name", "photo 1 caption");
+        Files.delete(copy);
+
+        assertThrows(FileNotFoundException.class, () -> PhotoPrinter.displayAsync(photo));
+    }
+
+    /**
+     * Tests finding the photos to prefetch when browsing.
+     * Verifies that the next photo comes before the previous one, and that the ends of the album are handled.
+     */
+    @Test
+    void getNeighbours_positionsInAlbum_returnsNextThenPrevious() throws Exception {
+        Photo first = new Photo("./data/photos/samurai.jpg", "first", "caption");
+        Photo second = new Photo("./data/photos/sample1.jpg", "second", "caption");
+        Photo third = new Photo("./data/photos/clem.jpg", "third", "caption");
+        List<Photo> photos = List.of(first, second, third);
+
+        assertEquals(List.of(third, first), PhotoPrinter.getNeighbours(photos, 1));
+        assertEquals(List.of(second), PhotoPrinter.getNeighbours(photos, 0));
+        assertEquals(List.of(second), PhotoPrinter.getNeighbours(photos, 2));
+    }
 }
@@ -0,0 +1,56 @@
+package photo;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StreamingPngWriterTest {
+
+    @Test
+    void writeRows_severalBands_readsBackSamePixels() throws Exception {
+        BufferedImage image = new BufferedImage(300, 250, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x * 7 + y * 13) << 8 | x ^ y);
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (StreamingPngWriter writer = new StreamingPngWriter(bytes, 300, 250)) {
+            writer.writeRows(image.getSubimage(0, 0, 300, 100));
+            writer.writeRows(image.getSubimage(0, 100, 300, 150));
+        }
+
+        BufferedImage read = ImageIO.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(300, read.getWidth());
+        assertEquals(250, read.getHeight());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                assertEquals(image.getRGB(x, y), read.getRGB(x, y), "Pixel should be unchanged at " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    void close_missingRows_throwsIoException() throws Exception {
+        StreamingPngWriter writer = new StreamingPngWriter(new ByteArrayOutputStream(), 10, 10);
+        writer.writeRows(new BufferedImage(10, 5, BufferedImage.TYPE_INT_RGB));
+
+        assertThrows(IOException.class, writer::close);
+    }
+
+    @Test
+    void writeRows_tooManyRows_throwsIoException() throws Exception {
+        StreamingPngWriter writer = new StreamingPngWriter(new ByteArrayOutputStream(), 10, 10);
+
+        assertThrows(IOException.class, () -> writer.writeRows(new BufferedImage(10, 11,
+                BufferedImage.TYPE_INT_RGB)));
+    }
+}
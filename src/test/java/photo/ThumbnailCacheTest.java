@@ -0,0 +1,46 @@
+package photo;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ThumbnailCacheTest {
+
+    @Test
+    void getThumbnail_largePhoto_fitsViewerAndIsStored() throws Exception {
+        Path directory = Files.createTempDirectory("thumbs");
+        ThumbnailCache cache = new ThumbnailCache(directory);
+        String filePath = "./data/photos/samurai.jpg";
+
+        BufferedImage thumbnail = cache.getThumbnail(filePath);
+
+        assertTrue(thumbnail.getWidth() <= ThumbnailCache.MAX_WIDTH, "Thumbnail should fit the viewer width.");
+        assertTrue(thumbnail.getHeight() <= ThumbnailCache.MAX_HEIGHT, "Thumbnail should fit the viewer height.");
+        assertTrue(Files.exists(cache.getCachedPath(new File(filePath))), "Thumbnail should be stored on disk.");
+
+        BufferedImage cached = cache.getThumbnail(filePath);
+        assertEquals(thumbnail.getWidth(), cached.getWidth());
+        assertEquals(thumbnail.getHeight(), cached.getHeight());
+    }
+
+    @Test
+    void getCachedPath_originalModified_changesPath() throws Exception {
+        Path directory = Files.createTempDirectory("thumbs");
+        ThumbnailCache cache = new ThumbnailCache(directory);
+        Path copy = directory.resolve("copy.jpg");
+        Files.copy(Path.of("./data/photos/samurai.jpg"), copy, StandardCopyOption.REPLACE_EXISTING);
+        Path before = cache.getCachedPath(copy.toFile());
+
+        assertTrue(copy.toFile().setLastModified(copy.toFile().lastModified() - 60_000));
+
+        assertNotEquals(before, cache.getCachedPath(copy.toFile()));
+    }
+}
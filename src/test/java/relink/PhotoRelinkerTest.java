@@ -0,0 +1,195 @@
+package relink;
+
+import duplicate.DuplicateMatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import photo.PerceptualHash;
+import photo.Photo;
+import storage.Storage;
+import trip.Trip;
+import trip.TripManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PhotoRelinkerTest {
+    private static final LocalDateTime TAKEN = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @TempDir
+    Path directory;
+
+    private TripManager tripManager;
+    private Trip trip;
+    private Path oldFolder;
+    private Path newFolder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tripManager = new TripManager();
+        tripManager.setSilentMode(true);
+        trip = tripManager.addTripSilently("Japan", "Winter trip");
+        oldFolder = Files.createDirectories(directory.resolve("old"));
+        newFolder = Files.createDirectories(directory.resolve("nas/2024/japan"));
+    }
+
+    private Photo addPhoto(String photo, String fileName, String name) throws Exception {
+        Path file = Files.copy(Path.of("./data/photos", photo), oldFolder.resolve(fileName));
+        trip.album.addPhoto(file.toString(), name, "Caption", TAKEN);
+        List<Photo> photos = trip.album.getPhotos();
+        return photos.get(photos.size() - 1);
+    }
+
+    private static Path move(Photo photo, Path folder, String fileName) throws Exception {
+        return Files.move(Path.of(photo.getFilePath()), folder.resolve(fileName));
+    }
+
+    @Test
+    void relink_movedAndRenamedFile_foundByContent() throws Exception {
+        Photo samurai = addPhoto("samurai.jpg", "IMG_0001.jpg", "Samurai");
+        Photo castle = addPhoto("sample1.jpg", "IMG_0002.jpg", "Castle");
+        PhotoRelinker relinker = tripManager.getRelinker();
+        assertEquals(2, relinker.fingerprint(List.of(new DuplicateMatch(trip, samurai),
+                new DuplicateMatch(trip, castle))));
+        Path moved = move(samurai, newFolder, "2024-01-01 samurai.jpg");
+        Files.copy(Path.of("./data/photos/clem.jpg"), newFolder.resolve("IMG_0001.jpg"));
+
+        RelinkResult result = relinker.relink(List.of(directory.resolve("nas")));
+
+        assertEquals(1, result.getRelinked().size());
+        assertSame(samurai, result.getRelinked().get(0).getPhoto());
+        assertTrue(result.getStillMissing().isEmpty());
+        assertEquals(moved.toString(), samurai.getFilePath());
+        assertEquals(2, result.getFilesScanned());
+        // Listeners are told about the new path
+        assertSame(samurai, tripManager.getDuplicateIndex().findDuplicate(moved.toString()).getPhoto());
+    }
+
+    @Test
+    void relink_notFound_reportedMissing() throws Exception {
+        Photo samurai = addPhoto("samurai.jpg", "IMG_0001.jpg", "Samurai");
+        tripManager.getRelinker().fingerprint(List.of(new DuplicateMatch(trip, samurai)));
+        String oldPath = samurai.getFilePath();
+        Files.delete(Path.of(oldPath));
+
+        RelinkResult result = tripManager.getRelinker().relink(List.of(newFolder, directory.resolve("unknown")));
+
+        assertTrue(result.getRelinked().isEmpty());
+        assertEquals(1, result.getStillMissing().size());
+        assertEquals(oldPath, samurai.getFilePath());
+    }
+
+    @Test
+    void relink_withoutFingerprint_foundByUniqueName() throws Exception {
+        Photo samurai = addPhoto("samurai.jpg", "IMG_0001.jpg", "Samurai");
+        Path moved = move(samurai, newFolder, "img_0001.JPG");
+
+        RelinkResult result = tripManager.getRelinker().relink(List.of(newFolder));
+
+        assertEquals(1, result.getRelinked().size());
+        assertEquals(moved.toString(), samurai.getFilePath());
+        assertNotNull(samurai.getContentHash());
+    }
+
+    @Test
+    void relink_withoutFingerprint_ambiguousOrDifferentFileLeftMissing() throws Exception {
+        Photo samurai = addPhoto("samurai.jpg", "IMG_0001.jpg", "Samurai");
+        Photo castle = addPhoto("sample1.jpg", "IMG_0002.jpg", "Castle");
+        castle.setPerceptualHash(PerceptualHash.compute(castle.getFilePath()));
+        Files.delete(Path.of(samurai.getFilePath()));
+        Files.delete(Path.of(castle.getFilePath()));
+        Files.copy(Path.of("./data/photos/samurai.jpg"), newFolder.resolve("IMG_0001.jpg"));
+        Path archive = Files.createDirectories(directory.resolve("archive"));
+        Files.copy(Path.of("./data/photos/samurai.jpg"), archive.resolve("IMG_0001.jpg"));
+        // Same name as the castle photo, but a different picture
+        Files.copy(Path.of("./data/photos/clem.jpg"), newFolder.resolve("IMG_0002.jpg"));
+
+        RelinkResult result = tripManager.getRelinker().relink(List.of(newFolder, archive));
+        assertTrue(result.getRelinked().isEmpty());
+        assertEquals(2, result.getStillMissing().size());
+
+        Files.delete(archive.resolve("IMG_0001.jpg"));
+        result = tripManager.getRelinker().relink(List.of(newFolder));
+        assertEquals(1, result.getRelinked().size());
+        assertSame(samurai, result.getRelinked().get(0).getPhoto());
+    }
+
+    @Test
+    void start_runsInBackgroundAndSaves() throws Exception {
+        Photo samurai = addPhoto("samurai.jpg", "IMG_0001.jpg", "Samurai");
+        Path moved = move(samurai, newFolder, "IMG_0001.jpg");
+        Path dataFile = directory.resolve("diary.txt");
+        PhotoRelinker relinker = tripManager.getRelinker();
+        relinker.setDataFilePath(dataFile.toString());
+        assertNull(relinker.getLastResult());
+
+        assertTrue(relinker.start(List.of(newFolder)));
+        for (int i = 0; i < 500 && relinker.isRunning(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertFalse(relinker.isRunning());
+        assertEquals(1, relinker.getLastResult().getRelinked().size());
+        TripManager loaded = new TripManager();
+        Storage.loadTrips(loaded, dataFile.toString(), true);
+        Photo loadedPhoto = loaded.getTrips().get(0).album.getPhotos().get(0);
+        assertEquals(moved.toString(), loadedPhoto.getFilePath());
+        assertEquals(samurai.getContentHash(), loadedPhoto.getContentHash());
+    }
+
+    @Test
+    void start_duringCommandGroup_savesAfterGroup() throws Exception {
+        Photo samurai = addPhoto("samurai.jpg", "IMG_0001.jpg", "Samurai");
+        move(samurai, newFolder, "IMG_0001.jpg");
+        Path dataFile = directory.resolve("diary.txt");
+        PhotoRelinker relinker = tripManager.getRelinker();
+        relinker.setDataFilePath(dataFile.toString());
+
+        tripManager.getGroupLock().lock();
+        try {
+            assertTrue(relinker.start(List.of(newFolder)));
+            Thread.sleep(300);
+            // The relinked photo is not saved while a group that may still be rolled back is running
+            assertFalse(Files.exists(dataFile));
+        } finally {
+            tripManager.getGroupLock().unlock();
+        }
+        for (int i = 0; i < 500 && relinker.isRunning(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(Files.exists(dataFile));
+    }
+
+    @Test
+    void shutdown_saveInProgress_waitedFor() throws Exception {
+        Photo samurai = addPhoto("samurai.jpg", "IMG_0001.jpg", "Samurai");
+        move(samurai, newFolder, "IMG_0001.jpg");
+        Path dataFile = directory.resolve("diary.txt");
+        PhotoRelinker relinker = tripManager.getRelinker();
+        relinker.setDataFilePath(dataFile.toString());
+
+        tripManager.getGroupLock().lock();
+        try {
+            assertTrue(relinker.start(List.of(newFolder)));
+            // Wait until the search has ended and its save waits for the group
+            for (int i = 0; i < 500 && !tripManager.getGroupLock().hasQueuedThreads(); i++) {
+                Thread.sleep(10);
+            }
+        } finally {
+            tripManager.getGroupLock().unlock();
+        }
+        relinker.shutdown();
+
+        assertFalse(relinker.isRunning());
+        assertTrue(Files.readString(dataFile).contains("IMG_0001.jpg"));
+    }
+}
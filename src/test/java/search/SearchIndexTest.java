@@ -0,0 +1,86 @@
+package search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import trip.Trip;
+import trip.TripManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchIndexTest {
+    private TripManager tripManager;
+
+    @BeforeEach
+    void setUp() {
+        tripManager = new TripManager();
+        tripManager.setSilentMode(true);
+        assertDoesNotThrow(() -> tripManager.addTripSilently("Japan Trip", "Skiing in Hokkaido"));
+        assertDoesNotThrow(() -> tripManager.addTripSilently("Bali Getaway", "Sunset on the beach in Japan"));
+        assertDoesNotThrow(() -> tripManager.addTripSilently("Rome", "Exploring the Colosseum"));
+    }
+
+    @Test
+    void tokenize_mixedCaseAndPunctuation_lowerCaseTerms() {
+        assertEquals(List.of("sunset", "at", "kuta", "2024"), SearchIndex.tokenize("Sunset at KUTA, 2024!"));
+        assertTrue(SearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void search_nameMatch_ranksAboveDescriptionMatch() {
+        List<SearchHit> hits = tripManager.getSearchIndex().search("japan", 10);
+        assertEquals(2, hits.size());
+        assertEquals("Japan Trip", hits.get(0).getTrip().getName());
+        assertEquals("Bali Getaway", hits.get(1).getTrip().getName());
+    }
+
+    @Test
+    void search_prefixAndCaseInsensitive_matches() {
+        List<SearchHit> hits = tripManager.getSearchIndex().search("COLOS", 10);
+        assertEquals(1, hits.size());
+        assertEquals("Rome", hits.get(0).getTrip().getName());
+    }
+
+    @Test
+    void search_allTermsRequired_onlyMatchingTrip() {
+        List<SearchHit> hits = tripManager.getSearchIndex().search("sunset japan", 10);
+        assertEquals(1, hits.size());
+        assertEquals("Bali Getaway", hits.get(0).getTrip().getName());
+        assertTrue(tripManager.getSearchIndex().search("sunset paris", 10).isEmpty());
+    }
+
+    @Test
+    void search_afterDeleteTrip_tripNoLongerFound() {
+        assertDoesNotThrow(() -> tripManager.deleteTrip(0));
+        List<SearchHit> hits = tripManager.getSearchIndex().search("hokkaido", 10);
+        assertTrue(hits.isEmpty());
+        assertEquals(2, tripManager.getSearchIndex().size());
+    }
+
+    @Test
+    void search_limit_returnsAtMostLimitHits() {
+        assertEquals(1, tripManager.getSearchIndex().search("japan", 1).size());
+        assertTrue(tripManager.getSearchIndex().search("   ", 10).isEmpty());
+    }
+
+    @Test
+    void removeTrip_manyDeletions_freeSlotsCompacted() throws Exception {
+        SearchIndex index = tripManager.getSearchIndex();
+        for (int i = 0; i < 1000; i++) {
+            Trip trip = new Trip("Day trip " + i, "Hiking in Japan");
+            index.addTrip(trip);
+            index.removeTrip(trip);
+        }
+
+        assertEquals(3, index.size());
+        assertTrue(index.getSlotCount() <= 3 + 64);
+        List<SearchHit> hits = index.search("japan", 10);
+        assertEquals(2, hits.size());
+        assertEquals("Japan Trip", hits.get(0).getTrip().getName());
+        assertEquals("Bali Getaway", hits.get(1).getTrip().getName());
+        assertEquals("Rome", index.search("colosseum", 10).get(0).getTrip().getName());
+    }
+}
@@ -0,0 +1,76 @@
+package seedu.duke;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import trip.TripManager;
+import ui.Ui;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScriptRunnerTest {
+    @TempDir
+    Path tempDir;
+
+    private TripManager tripManager;
+    private Path dataFile;
+
+    @BeforeEach
+    void setUp() {
+        tripManager = new TripManager();
+        tripManager.setSilentMode(true);
+        dataFile = tempDir.resolve("travel_diary.txt");
+    }
+
+    @Test
+    void run_validScript_executesAllCommandsAndSavesOnce() throws Exception {
+        String script = "# generated change set\n"
+                + "add_trip n#Japan d#Skiing in Hokkaido\n"
+                + "\n"
+                + "add_trip n#Korea d#Cherry blossoms\n"
+                + "select 2\n";
+        ScriptRunner runner = new ScriptRunner(tripManager, new Ui(), dataFile.toString());
+        runner.run(new StringReader(script));
+
+        assertEquals(3, runner.getCommandCount());
+        assertEquals(0, runner.getFailedCount());
+        assertEquals(1, runner.getSession().getFsmValue());
+        List<String> savedLines = Files.readAllLines(dataFile);
+        assertTrue(savedLines.contains("T | Japan | Skiing in Hokkaido"));
+        assertTrue(savedLines.contains("T | Korea | Cherry blossoms"));
+    }
+
+    @Test
+    void run_failingCommand_continuesWithNextLine() {
+        String script = "add_trip n#Japan\n"
+                + "bla\n"
+                + "add_trip n#Japan d#Skiing\n";
+        ScriptRunner runner = new ScriptRunner(tripManager, new Ui(), dataFile.toString());
+        assertDoesNotThrow(() -> runner.run(new StringReader(script)));
+
+        assertEquals(3, runner.getCommandCount());
+        assertEquals(2, runner.getFailedCount());
+        assertEquals(1, tripManager.getTrips().size());
+    }
+
+    @Test
+    void run_checkpointAndExit_savesAndStopsAtBye() throws Exception {
+        String script = "add_trip n#Japan d#Skiing\n"
+                + "checkpoint\n"
+                + "bye\n"
+                + "add_trip n#Korea d#Never added\n";
+        ScriptRunner runner = new ScriptRunner(tripManager, new Ui(), dataFile.toString());
+        runner.run(new StringReader(script));
+
+        assertEquals(2, runner.getCommandCount());
+        assertEquals(1, tripManager.getTrips().size());
+        assertTrue(Files.exists(dataFile));
+    }
+}
@@ -0,0 +1,199 @@
+package server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import trip.TripManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiServerTest {
+    @TempDir
+    Path tempDir;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private TripManager tripManager;
+    private ApiServer server;
+    private Path dataFile;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tripManager = new TripManager();
+        tripManager.setSilentMode(true);
+        tripManager.addTripSilently("Japan", "Skiing in Hokkaido");
+        tripManager.addTripSilently("Korea", "Cherry blossoms in Seoul");
+        dataFile = tempDir.resolve("travel_diary.txt");
+        server = new ApiServer(tripManager, dataFile.toString());
+        server.start(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void getTrips_listsAllTrips() throws Exception {
+        HttpResponse<String> response = get("/trips");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"trips\":[{\"index\":1,\"name\":\"Japan\",\"description\":\"Skiing in Hokkaido\","
+                + "\"photos\":0},{\"index\":2,\"name\":\"Korea\",\"description\":\"Cherry blossoms in Seoul\","
+                + "\"photos\":0}]}", response.body());
+        assertEquals("{\"trip\":\"Korea\",\"photos\":[]}", get("/trips/2/photos").body());
+        assertEquals(404, get("/trips/3/photos").statusCode());
+    }
+
+    @Test
+    void search_returnsMatchingTrips() throws Exception {
+        HttpResponse<String> response = get("/search?q=cherry%20seo");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("{\"hits\":[{\"trip\":\"Korea\""));
+        assertEquals(400, get("/search").statusCode());
+    }
+
+    @Test
+    void postCommands_sessionsKeepTheirOwnSelection() throws Exception {
+        String first = createSession();
+        String second = createSession();
+
+        assertEquals(200, postCommand(first, "select 1").statusCode());
+        assertEquals(200, postCommand(second, "select 2").statusCode());
+        assertTrue(postCommand(first, "menu; add_trip n#Taiwan d#Taipei").body().contains("\"fsm\":0"));
+        assertTrue(postCommand(second, "list").body().contains("\"fsm\":1"));
+        assertEquals(3, tripManager.getTrips().size());
+        assertTrue(Files.readString(dataFile).contains("Taiwan"));
+
+        // A session whose trip was deleted by another session returns to the Trip Page
+        assertEquals(200, postCommand(first, "delete 2").statusCode());
+        assertTrue(postCommand(second, "list").body().contains("\"fsm\":0"));
+    }
+
+    @Test
+    void postCommands_invalidRequests_areRejected() throws Exception {
+        String session = createSession();
+
+        assertEquals(404, postCommand("unknown", "list").statusCode());
+        assertEquals(400, postCommand(session, "bla").statusCode());
+        HttpResponse<String> response = postCommand(session, "add_trip n#Japan d#Again");
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("\"ok\":false"));
+        assertEquals(2, tripManager.getTrips().size());
+    }
+
+    @Test
+    void postCommands_outputOfCommand_returnedWithoutStandardOutput() throws Exception {
+        tripManager.setSilentMode(false);
+        String session = createSession();
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream standardOutput = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(standardOutput, true));
+        HttpResponse<String> response;
+        try {
+            response = postCommand(session, "list");
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("Skiing in Hokkaido"));
+        assertEquals("", standardOutput.toString());
+    }
+
+    @Test
+    void postCommands_windowAndExitCommands_areRejected() throws Exception {
+        String session = createSession();
+
+        HttpResponse<String> response = postCommand(session, "bye");
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("only available at the prompt"));
+        assertEquals(200, postCommand(session, "select 1").statusCode());
+        assertEquals(400, postCommand(session, "gallery").statusCode());
+        assertEquals(400, postCommand(session, "zoom 1").statusCode());
+        // The group is rolled back when it reaches the command that would open a window
+        assertEquals(400, postCommand(session, "menu; add_trip n#Taiwan d#Taipei; select 3; select 1").statusCode());
+        assertEquals(2, tripManager.getTrips().size());
+    }
+
+    @Test
+    void deleteSession_endsSession() throws Exception {
+        String session = createSession();
+
+        assertEquals(200, deleteSession(session).statusCode());
+        assertEquals(404, postCommand(session, "list").statusCode());
+        assertEquals(404, deleteSession(session).statusCode());
+        assertEquals(0, server.getSessionCount());
+    }
+
+    @Test
+    void createSession_atMostSessions_leastRecentlyUsedEnded() throws Exception {
+        server.stop();
+        server = new ApiServer(tripManager, null, 2, 60_000);
+        server.start(0);
+        String first = createSession();
+        String second = createSession();
+
+        assertEquals(200, postCommand(first, "list").statusCode());
+        String third = createSession();
+
+        assertEquals(2, server.getSessionCount());
+        assertEquals(404, postCommand(second, "list").statusCode());
+        assertEquals(200, postCommand(first, "list").statusCode());
+        assertEquals(200, postCommand(third, "list").statusCode());
+    }
+
+    @Test
+    void postCommands_idleSession_ended() throws Exception {
+        server.stop();
+        server = new ApiServer(tripManager, null, 2, 1);
+        server.start(0);
+        String session = createSession();
+
+        Thread.sleep(10);
+
+        assertEquals(404, postCommand(session, "list").statusCode());
+        assertEquals(0, server.getSessionCount());
+    }
+
+    private String createSession() throws IOException, InterruptedException {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/sessions"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build());
+        assertEquals(201, response.statusCode());
+        return response.body().replaceAll(".*\"session\":\"([^\"]+)\".*", "$1");
+    }
+
+    private HttpResponse<String> postCommand(String session, String line) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri("/commands"))
+                .header(ApiServer.SESSION_HEADER, session)
+                .POST(HttpRequest.BodyPublishers.ofString(line)).build());
+    }
+
+    private HttpResponse<String> deleteSession(String session) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri("/sessions/" + session)).DELETE().build());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri(path)).GET().build());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+}
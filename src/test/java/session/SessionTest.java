@@ -0,0 +1,76 @@
+package session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import trip.Trip;
+import trip.TripManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionTest {
+    private TripManager tripManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tripManager = new TripManager();
+        tripManager.setSilentMode(true);
+        tripManager.addTrip("Japan", "Skiing in Hokkaido");
+        tripManager.addTrip("Korea", "Cherry blossoms in Seoul");
+    }
+
+    @Test
+    void enterTrip_thenReturnToMenu_updatesPageAndSelection() throws Exception {
+        Session session = new Session();
+        assertEquals(Session.TRIP_PAGE, session.getFsmValue());
+        assertFalse(session.hasSelectedTrip());
+
+        session.enterTrip(tripManager.selectTrip(1));
+        assertEquals(Session.PHOTO_PAGE, session.getFsmValue());
+        assertEquals("Korea", session.getSelectedTrip().getName());
+
+        session.returnToMenu();
+        assertEquals(Session.TRIP_PAGE, session.getFsmValue());
+        assertFalse(session.hasSelectedTrip());
+    }
+
+    @Test
+    void sessions_sharingTripManager_keepSeparateSelections() throws Exception {
+        Session first = new Session();
+        Session second = new Session();
+        first.enterTrip(tripManager.selectTrip(0));
+        second.enterTrip(tripManager.selectTrip(1));
+
+        assertEquals("Japan", first.getSelectedTrip().getName());
+        assertEquals("Korea", second.getSelectedTrip().getName());
+    }
+
+    @Test
+    void refresh_selectedTripDeleted_returnsToMenu() throws Exception {
+        Session session = new Session();
+        session.enterTrip(tripManager.selectTrip(0));
+
+        tripManager.deleteTrip(0);
+        session.refresh(tripManager);
+
+        assertEquals(Session.TRIP_PAGE, session.getFsmValue());
+        assertFalse(session.hasSelectedTrip());
+    }
+
+    @Test
+    void restore_afterChanges_returnsToSavedState() throws Exception {
+        Session session = new Session();
+        Trip japan = tripManager.selectTrip(0);
+        session.enterTrip(japan);
+        Session saved = session.copy();
+
+        session.returnToMenu();
+        session.restore(saved);
+
+        assertTrue(session.hasSelectedTrip());
+        assertSame(japan, session.getSelectedTrip());
+        assertEquals(Session.PHOTO_PAGE, session.getFsmValue());
+    }
+}
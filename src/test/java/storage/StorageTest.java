@@ -13,6 +13,7 @@ import exception.MissingCompulsoryParameter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import photo.Photo;
 import trip.Trip;
 import trip.TripManager;
 
@@ -25,6 +26,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -128,11 +130,103 @@ class StorageTest {
 
         assertEquals("Test Trip 1", loadedTrip1.name);
         assertEquals("Test Description 1", loadedTrip1.description);
-        assertEquals(1, loadedTrip1.album.photos.size());
+        assertEquals(1, loadedTrip1.album.getPhotos().size());
 
         assertEquals("Test Trip 2", loadedTrip2.name);
         assertEquals("Test Description 2", loadedTrip2.description);
-        assertEquals(1, loadedTrip2.album.photos.size());
+        assertEquals(1, loadedTrip2.album.getPhotos().size());
+    }
+
+    /**
+     * Tests that the perceptual hash of a photo is saved and loaded, and that a photo without one
+     * is loaded without a hash.
+     *
+     * @throws Exception if the trips cannot be saved or loaded
+     */
+    @Test
+    void saveAndLoadPerceptualHash() throws Exception {
+        tripManager.addTrip("Test Trip 1", "Test Description 1");
+        Trip trip = tripManager.getTrips().get(0);
+        LocalDateTime photoTime = LocalDateTime.now();
+        trip.album.addPhoto(copyRealTestPhoto("data/photos/samurai.jpg"), "Photo 1", "Caption 1", photoTime);
+        trip.album.addPhoto(copyRealTestPhoto("data/photos/sample1.jpg"), "Photo 2", "Caption 2", photoTime);
+        trip.album.getPhotos().get(0).setPerceptualHash(0x8000_0000_0000_00F1L);
+        Storage.saveTasks(tripManager.getTrips(), testFilePath);
+
+        TripManager newTripManager = new TripManager();
+        Storage.loadTrips(newTripManager, testFilePath, true);
+
+        List<Photo> photos = newTripManager.getTrips().get(0).album.getPhotos();
+        assertEquals(Long.valueOf(0x8000_0000_0000_00F1L), photos.get(0).getPerceptualHash());
+        assertNull(photos.get(1).getPerceptualHash());
+    }
+
+    /**
+     * Tests that a photo whose file has gone missing is kept with its saved details and fingerprint,
+     * so that it can be relinked later.
+     *
+     * @throws Exception if the trips cannot be saved or loaded
+     */
+    @Test
+    void loadPhotoWithMissingFileKeepsPhoto() throws Exception {
+        tripManager.addTrip("Test Trip 1", "Test Description 1");
+        Trip trip = tripManager.getTrips().get(0);
+        String photoPath = copyRealTestPhoto("data/photos/samurai.jpg");
+        trip.album.addPhoto(photoPath, "Photo 1", "Caption 1", LocalDateTime.of(2024, 1, 1, 10, 0));
+        Photo photo = trip.album.getPhotos().get(0);
+        photo.setFingerprint(1234, "abcd");
+        Storage.saveTasks(tripManager.getTrips(), testFilePath);
+        Files.delete(Path.of(photoPath));
+
+        TripManager newTripManager = new TripManager();
+        Storage.loadTrips(newTripManager, testFilePath, true);
+
+        Photo loaded = newTripManager.getTrips().get(0).album.getPhotos().get(0);
+        assertEquals(photoPath, loaded.getFilePath());
+        assertEquals("Photo 1", loaded.getPhotoName());
+        assertEquals(photo.getDatetime(), loaded.getDatetime());
+        assertEquals(photo.getLocation().getLatitude(), loaded.getLocation().getLatitude());
+        assertEquals(1234, loaded.getFileSize());
+        assertEquals("abcd", loaded.getContentHash());
+    }
+
+    /**
+     * Tests that the folder a trip is watching is saved and loaded with the trip.
+     *
+     * @throws Exception if the trips cannot be saved or loaded
+     */
+    @Test
+    void saveAndLoadWatchFolder() throws Exception {
+        tripManager.addTrip("Test Trip 1", "Test Description 1");
+        tripManager.addTrip("Test Trip 2", "Test Description 2");
+        tripManager.getTrips().get(0).setWatchFolder("/home/me/Pictures/phone | sync");
+        Storage.saveTasks(tripManager.getTrips(), testFilePath);
+
+        TripManager newTripManager = new TripManager();
+        Storage.loadTrips(newTripManager, testFilePath, true);
+
+        assertEquals("/home/me/Pictures/phone | sync", newTripManager.getTrips().get(0).getWatchFolder());
+        assertNull(newTripManager.getTrips().get(1).getWatchFolder());
+    }
+
+    /**
+     * Tests that saving replaces an existing file without leaving a temporary file behind.
+     *
+     * @throws Exception if the trips cannot be saved or loaded
+     */
+    @Test
+    void saveReplacesFileWithoutTemporaryFile() throws Exception {
+        tripManager.addTrip("Test Trip 1", "Test Description 1");
+        Storage.saveTasks(tripManager.getTrips(), testFilePath);
+        tripManager.addTrip("Test Trip 2", "Test Description 2");
+        Storage.saveTasks(tripManager.getTrips(), testFilePath);
+
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(Path.of(testFilePath)), files.toList());
+        }
+        TripManager newTripManager = new TripManager();
+        Storage.loadTrips(newTripManager, testFilePath, true);
+        assertEquals(2, newTripManager.getTrips().size());
     }
 
     /**
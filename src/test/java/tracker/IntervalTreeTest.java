@@ -0,0 +1,76 @@
+package tracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalTreeTest {
+
+    @Test
+    void findOverlapping_simpleIntervals_expectOverlappingValuesInStartOrder() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, 20, "Japan");
+        tree.insert(15, 25, "Korea");
+        tree.insert(30, 40, "Bali");
+
+        assertEquals(List.of("Japan", "Korea"), tree.findOverlapping(18, 18));
+        assertEquals(List.of("Korea", "Bali"), tree.findOverlapping(21, 30));
+        assertTrue(tree.findOverlapping(26, 29).isEmpty());
+        assertEquals(3, tree.size());
+    }
+
+    @Test
+    void remove_insertedInterval_expectNoLongerFound() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        Object japan = tree.insert(10, 20, "Japan");
+        tree.insert(10, 20, "Korea");
+
+        tree.remove(japan);
+
+        assertEquals(List.of("Korea"), tree.findOverlapping(0, 100));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    void findOverlapping_randomInsertsAndRemoves_expectSameAsLinearScan() {
+        Random random = new Random(42);
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        List<long[]> intervals = new ArrayList<>();
+        List<Object> handles = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            if (!handles.isEmpty() && random.nextInt(3) == 0) {
+                int victim = random.nextInt(handles.size());
+                tree.remove(handles.remove(victim));
+                intervals.remove(victim);
+            } else {
+                long start = random.nextInt(10000);
+                long end = start + random.nextInt(200);
+                long id = i;
+                handles.add(tree.insert(start, end, i));
+                intervals.add(new long[]{start, end, id});
+            }
+        }
+
+        for (int query = 0; query < 200; query++) {
+            long from = random.nextInt(10000);
+            long to = from + random.nextInt(300);
+            List<Integer> expected = new ArrayList<>();
+            for (long[] interval : intervals) {
+                if (interval[0] <= to && interval[1] >= from) {
+                    expected.add((int) interval[2]);
+                }
+            }
+            List<Integer> actual = tree.findOverlapping(from, to);
+            expected.sort(null);
+            actual.sort(null);
+            assertEquals(expected, actual);
+        }
+        assertEquals(intervals.size(), tree.size());
+    }
+}
@@ -0,0 +1,131 @@
+package trip;
+
+import album.Album;
+import org.junit.jupiter.api.Test;
+import photo.Photo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress tests concurrent readers of the TripManager and Album while a writer changes them.
+ * Every list a reader obtains has to be complete and consistent with some state the writer published.
+ */
+class TripManagerConcurrencyTest {
+    private static final int TRIP_WRITES = 5_000;
+    private static final int PHOTO_WRITES = 200;
+    private static final int MAX_TRIPS = 20;
+    private static final int READERS = 4;
+    private static final String[] PHOTO_FILES = {"./data/photos/sample1.jpg", "./data/photos/samurai.jpg",
+        "./data/photos/clem.jpg"};
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicBoolean isWriting = new AtomicBoolean(true);
+
+    @Test
+    void concurrentReaders_neverSeeTornTrips() throws Exception {
+        TripManager tripManager = new TripManager();
+        tripManager.setSilentMode(true);
+
+        List<Thread> readers = startReaders(() -> {
+            // Trips are appended in ascending order and deleted from the front
+            List<Trip> trips = tripManager.getTrips();
+            assertTrue(trips.size() <= MAX_TRIPS + 1, "Too many trips: " + trips.size());
+            int previous = -1;
+            for (Trip trip : trips) {
+                int number = Integer.parseInt(trip.getName().substring("Trip ".length()));
+                assertTrue(number > previous, "Trips out of order: " + trips);
+                previous = number;
+            }
+            tripManager.getSearchIndex().search("trip", 5);
+        });
+
+        runWriter(() -> {
+            for (int i = 0; i < TRIP_WRITES; i++) {
+                tripManager.addTripSilently("Trip " + i, "Description " + i);
+                if (tripManager.getTrips().size() > MAX_TRIPS) {
+                    tripManager.deleteTrip(0);
+                }
+            }
+        }, readers);
+
+        assertNull(failure.get(), () -> "Reader saw torn state: " + failure.get());
+        assertEquals(MAX_TRIPS, tripManager.getTrips().size());
+        assertEquals(MAX_TRIPS, tripManager.getSearchIndex().search("trip", 100).size());
+    }
+
+    @Test
+    void concurrentReaders_neverSeeTornPhotos() throws Exception {
+        Album album = new Album();
+        album.setSilentMode(true);
+
+        List<Thread> readers = startReaders(() -> {
+            List<Photo> photos = album.getPhotos();
+            assertTrue(photos.size() <= PHOTO_FILES.length, "Too many photos: " + photos.size());
+            Set<String> filePaths = new HashSet<>();
+            for (Photo photo : photos) {
+                assertTrue(filePaths.add(photo.getFilePath()), "Duplicate photo: " + photo.getFilePath());
+            }
+        });
+
+        runWriter(() -> {
+            LocalDateTime time = LocalDateTime.of(2024, 1, 1, 0, 0);
+            for (int i = 0; i < PHOTO_WRITES; i++) {
+                int file = i % PHOTO_FILES.length;
+                if (album.getPhotos().size() == PHOTO_FILES.length) {
+                    album.deletePhoto(0);
+                }
+                album.addPhoto(PHOTO_FILES[file], "Photo " + i, "Caption " + i, time.plusHours(i));
+                album.toString();
+            }
+        }, readers);
+
+        assertNull(failure.get(), () -> "Reader saw torn state: " + failure.get());
+        assertEquals(PHOTO_FILES.length, album.getPhotos().size());
+    }
+
+    private List<Thread> startReaders(Runnable check) {
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (isWriting.get()) {
+                        check.run();
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        return readers;
+    }
+
+    private void runWriter(Writer writer, List<Thread> readers) throws Exception {
+        try {
+            writer.write();
+        } finally {
+            isWriting.set(false);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        }
+    }
+
+    /**
+     * A sequence of changes made by the writer thread.
+     */
+    private interface Writer {
+        void write() throws Exception;
+    }
+}
@@ -77,8 +77,8 @@ class TripManagerTest {
     @Test
     void testSelectTrip() throws TravelDiaryException, DuplicateNameException, MissingCompulsoryParameter {
         tripManager.addTrip("Japan Trip", "Skiing in Hokkaido");
-        org.junit.jupiter.api.Assertions.assertDoesNotThrow(() -> tripManager.selectTrip(0));
-        org.junit.jupiter.api.Assertions.assertEquals("Japan Trip", tripManager.getSelectedTrip().name);
+        Trip selectedTrip = org.junit.jupiter.api.Assertions.assertDoesNotThrow(() -> tripManager.selectTrip(0));
+        org.junit.jupiter.api.Assertions.assertEquals("Japan Trip", selectedTrip.name);
     }
 
     /**
@@ -0,0 +1,43 @@
+package ui;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UiTest {
+
+    @Test
+    void showToUser_beforeFlush_isBuffered() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Ui ui = new Ui(output);
+
+        ui.showToUser("Hello");
+        ui.showLine();
+        assertEquals(0, output.size());
+
+        ui.flush();
+        String text = output.toString(Charset.defaultCharset());
+        assertTrue(text.startsWith("Hello" + System.lineSeparator()));
+        assertTrue(text.contains("____"));
+    }
+
+    @Test
+    void getWriter_rowsWritten_appearInOrderAfterFlush() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Ui ui = new Ui(output);
+
+        ui.showToUser("Header");
+        for (int i = 1; i <= 3; i++) {
+            ui.getWriter().println("row " + i);
+        }
+        ui.flush();
+
+        String separator = System.lineSeparator();
+        assertEquals("Header" + separator + "row 1" + separator + "row 2" + separator + "row 3" + separator,
+                output.toString(Charset.defaultCharset()));
+    }
+}
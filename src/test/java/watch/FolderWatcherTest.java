@@ -0,0 +1,188 @@
+package watch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import photo.Photo;
+import trip.Trip;
+import trip.TripManager;
+import trip.TripSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FolderWatcherTest {
+    private static final long QUIET_MILLIS = 100;
+
+    @TempDir
+    Path directory;
+
+    private TripManager tripManager;
+    private Trip trip;
+    private FolderWatcher watcher;
+    private Path folder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tripManager = new TripManager();
+        tripManager.setSilentMode(true);
+        trip = tripManager.addTripSilently("Japan", "Winter trip");
+        trip.album.setSilentMode(true);
+        watcher = new FolderWatcher(tripManager, QUIET_MILLIS);
+        folder = Files.createDirectories(directory.resolve("phone"));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void watch_newPhoto_importedAfterQuietPeriod() throws Exception {
+        watcher.watch(trip, folder);
+        Files.copy(Path.of("./data/photos/samurai.jpg"), folder.resolve("IMG_0001.jpg"));
+        Files.writeString(folder.resolve("notes.txt"), "not a photo");
+
+        // The count is updated just after the photos are added
+        waitFor(() -> watcher.getImportedCount(trip) == 1);
+
+        Photo photo = trip.album.getPhotos().get(0);
+        assertEquals("IMG_0001", photo.getPhotoName());
+        assertEquals(FolderWatcher.CAPTION, photo.getCaption());
+        assertEquals(folder.resolve("IMG_0001.jpg").toString(), photo.getFilePath());
+        assertEquals(1, watcher.getImportedCount(trip));
+        assertEquals(folder.toString(), trip.getWatchFolder());
+    }
+
+    @Test
+    void watch_existingPhotos_importedExceptDuplicates() throws Exception {
+        Trip korea = tripManager.addTripSilently("Korea", "Spring trip");
+        korea.album.setSilentMode(true);
+        korea.album.addPhoto("./data/photos/samurai.jpg", "Samurai", "Museum visit", LocalDateTime.now());
+        Files.copy(Path.of("./data/photos/samurai.jpg"), folder.resolve("copy of samurai.jpg"));
+        Files.copy(Path.of("./data/photos/sample1.jpg"), folder.resolve("castle.jpg"));
+
+        watcher.watch(trip, folder);
+        waitFor(() -> !trip.album.getPhotos().isEmpty());
+        Thread.sleep(QUIET_MILLIS * 3);
+
+        assertEquals(1, trip.album.getPhotos().size());
+        assertEquals("castle", trip.album.getPhotos().get(0).getPhotoName());
+    }
+
+    @Test
+    void shutdown_stopsImportingAndKeepsFolder() throws Exception {
+        watcher.watch(trip, folder);
+        watcher.shutdown();
+        Files.copy(Path.of("./data/photos/samurai.jpg"), folder.resolve("IMG_0001.jpg"));
+        Thread.sleep(QUIET_MILLIS * 5);
+
+        assertTrue(trip.album.getPhotos().isEmpty());
+        assertNull(watcher.getFolder(trip));
+        assertEquals(folder.toString(), trip.getWatchFolder());
+    }
+
+    @Test
+    void unwatch_stopsImporting() throws Exception {
+        watcher.watch(trip, folder);
+        assertTrue(watcher.unwatch(trip));
+        Files.copy(Path.of("./data/photos/samurai.jpg"), folder.resolve("IMG_0001.jpg"));
+        Thread.sleep(QUIET_MILLIS * 5);
+
+        assertTrue(trip.album.getPhotos().isEmpty());
+        assertNull(trip.getWatchFolder());
+        assertNull(watcher.getFolder(trip));
+        assertFalse(watcher.unwatch(trip));
+    }
+
+    @Test
+    void watch_missingFolder_throwsIoException() {
+        assertThrows(IOException.class, () -> watcher.watch(trip, directory.resolve("missing")));
+        assertNull(trip.getWatchFolder());
+    }
+
+    @Test
+    void importBatch_takenNames_numbered() throws Exception {
+        trip.album.addPhoto(Files.copy(Path.of("./data/photos/clem.jpg"), folder.resolve("photo.jpg")).toString(),
+                "photo", "Existing", LocalDateTime.now());
+        Path first = Files.copy(Path.of("./data/photos/samurai.jpg"), Files.createDirectories(folder.resolve("a"))
+                .resolve("photo.jpg"));
+        Path second = Files.copy(Path.of("./data/photos/sample1.jpg"), Files.createDirectories(folder.resolve("b"))
+                .resolve("photo.jpg"));
+
+        assertEquals(2, watcher.importBatch(trip, List.of(first, second)));
+
+        List<Photo> photos = trip.album.getPhotos();
+        assertEquals("photo (2)", photos.get(1).getPhotoName());
+        assertEquals("photo (3)", photos.get(2).getPhotoName());
+        // Files already in the trip are not imported again
+        assertEquals(0, watcher.importBatch(trip, List.of(first)));
+    }
+
+    @Test
+    void importBatch_deletedTrip_stopsWatching() throws Exception {
+        watcher.watch(trip, folder);
+        tripManager.deleteTrip(0);
+        Path file = Files.copy(Path.of("./data/photos/samurai.jpg"), directory.resolve("IMG_0001.jpg"));
+
+        assertEquals(0, watcher.importBatch(trip, List.of(file)));
+        assertNull(watcher.getFolder(trip));
+    }
+
+    @Test
+    void importBatch_duringCommandGroup_survivesRollback() throws Exception {
+        Path file = Files.copy(Path.of("./data/photos/samurai.jpg"), folder.resolve("IMG_0001.jpg"));
+        Thread importer = new Thread(() -> watcher.importBatch(trip, List.of(file)));
+        tripManager.getGroupLock().lock();
+        try {
+            TripSnapshot snapshot = tripManager.takeSnapshot();
+            importer.start();
+            Thread.sleep(QUIET_MILLIS * 3);
+            assertTrue(trip.album.getPhotos().isEmpty());
+            tripManager.restoreSnapshot(snapshot);
+        } finally {
+            tripManager.getGroupLock().unlock();
+        }
+        importer.join(10000);
+
+        assertEquals(1, trip.album.getPhotos().size());
+    }
+
+    @Test
+    void deleteTrip_stopsWatchingUntilRolledBack() throws Exception {
+        watcher = tripManager.getFolderWatcher();
+        watcher.watch(trip, folder);
+        TripSnapshot snapshot = tripManager.takeSnapshot();
+
+        tripManager.deleteTrip(0);
+        assertNull(watcher.getFolder(trip));
+
+        tripManager.restoreSnapshot(snapshot);
+        assertEquals(folder, watcher.getFolder(trip));
+        assertEquals(folder.toString(), trip.getWatchFolder());
+    }
+
+    @Test
+    void importBatch_copiesWithinBatch_importedOnce() throws Exception {
+        Path first = Files.copy(Path.of("./data/photos/samurai.jpg"), folder.resolve("IMG_1.jpg"));
+        Path copy = Files.copy(Path.of("./data/photos/samurai.jpg"), folder.resolve("IMG_1 (1).jpg"));
+        Path other = Files.copy(Path.of("./data/photos/sample1.jpg"), folder.resolve("IMG_2.jpg"));
+
+        assertEquals(2, watcher.importBatch(trip, List.of(first, copy, other)));
+
+        List<Photo> photos = trip.album.getPhotos();
+        assertEquals(first.toString(), photos.get(0).getFilePath());
+        assertEquals(other.toString(), photos.get(1).getFilePath());
+    }
+}